@@ -48,6 +48,7 @@ apply(from = "gradle/readme.gradle.kts")
 apply(from = "gradle/jars.gradle")
 apply(from = "gradle/java9.gradle")
 apply(from = "gradle/tests.gradle")
+apply(from = "gradle/jmh.gradle")
 apply(from = "gradle/listener-manager-generation.gradle")
 apply(from = "gradle/event-dispatcher-generation.gradle")
 apply(from = "gradle/checkstyle.gradle.kts")
@@ -51,8 +51,11 @@ import org.javacord.api.util.ratelimit.Ratelimiter;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
@@ -328,9 +331,10 @@ public interface DiscordApi extends GloballyAttachableListenerManager {
     /**
      * Gets the current gateway identify ratelimiter.
      *
-     * <p>If you did not provide a ratelimiter yourself, this method will return a {@link LocalRatelimiter}
-     * which is set to allow one gateway identify request per 5500ms and is shared with every bot with the same token
-     * in the same Java program.
+     * <p>If you did not provide a ratelimiter yourself, this method will return a ratelimiter for this shard which
+     * is shared with every bot with the same token in the same Java program. It allows one gateway identify request
+     * per 5500ms for every {@code shard % max_concurrency} bucket and respects the daily session start limit, both
+     * as reported by Discord.
      *
      * @return The current gateway identify ratelimiter.
      */
@@ -597,6 +601,46 @@ public interface DiscordApi extends GloballyAttachableListenerManager {
      */
     CompletableFuture<Void> disconnect();
 
+    /**
+     * Disconnects the bot, but keeps the gateway session resumable.
+     *
+     * <p>The session can be resumed by a new instance, e.g. after a restart, with
+     * {@link DiscordApiBuilder#addResumableSession(SessionState, Path)}. The cache should be written with
+     * {@link #writeCacheSnapshot(Path)} after the returned future completed, so it matches the session state.
+     * The future is only completed once all packets of the session were applied to the cache.
+     * After disconnecting you should NOT use this instance again.
+     *
+     * @return A future with the state of the session. It fails if there is no session yet.
+     */
+    CompletableFuture<SessionState> disconnectResumable();
+
+    /**
+     * Gets the current state of the gateway session.
+     *
+     * @return The current state of the gateway session or an empty optional if there is no session.
+     */
+    Optional<SessionState> getSessionState();
+
+    /**
+     * Writes a snapshot of the cached servers, including their channels, roles and members, to the given file.
+     *
+     * <p>The snapshot is used by {@link DiscordApiBuilder#addResumableSession(SessionState, Path)} to restore the
+     * cache of a resumed session. Activities, stickers and scheduled events are not part of the snapshot.
+     *
+     * @param file The file to write the snapshot to. An existing file is overwritten.
+     * @throws IOException If the snapshot could not be written.
+     */
+    void writeCacheSnapshot(Path file) throws IOException;
+
+    /**
+     * Writes a snapshot of the cached servers to the given channel.
+     *
+     * @param channel The channel to write the snapshot to. It is closed afterwards.
+     * @throws IOException If the snapshot could not be written.
+     * @see #writeCacheSnapshot(Path)
+     */
+    void writeCacheSnapshot(WritableByteChannel channel) throws IOException;
+
     /**
      * Sets a function which is used to get the delay between reconnects.
      *
@@ -6,16 +6,20 @@ import org.javacord.api.internal.DiscordApiBuilderDelegate;
 import org.javacord.api.listener.ChainableGloballyAttachableListenerManager;
 import org.javacord.api.listener.GloballyAttachableListener;
 import org.javacord.api.util.auth.Authenticator;
+import org.javacord.api.util.concurrent.ThreadPool;
 import org.javacord.api.util.internal.DelegateFactory;
 import org.javacord.api.util.ratelimit.LocalRatelimiter;
 import org.javacord.api.util.ratelimit.Ratelimiter;
 
+import java.io.File;
 import java.net.Proxy;
 import java.net.ProxySelector;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.function.IntPredicate;
 import java.util.function.Predicate;
@@ -76,6 +80,32 @@ public class DiscordApiBuilder implements ChainableGloballyAttachableListenerMan
         return delegate.loginShards(shards);
     }
 
+    /**
+     * Login all shards to the account with the given token and manage them with a {@link ShardManager}.
+     * The shards share their threads, their http client and the ratelimits of the REST API.
+     * It is invalid to call {@link #setCurrentShard(int)} with
+     * anything but {@code 0} before calling this method.
+     *
+     * @return A {@link CompletableFuture} which contains the shard manager after all shards logged in.
+     */
+    public CompletableFuture<ShardManager> loginShardManager() {
+        return loginShardManager(IntStream.range(0, delegate.getTotalShards()).toArray());
+    }
+
+    /**
+     * Login given shards to the account with the given token and manage them with a {@link ShardManager}.
+     * The shards share their threads, their http client and the ratelimits of the REST API.
+     * It is invalid to call {@link #setCurrentShard(int)} with
+     * anything but {@code 0} before calling this method.
+     *
+     * @param shards The shards to connect, starting with {@code 0}!
+     * @return A {@link CompletableFuture} which contains the shard manager after all shards logged in.
+     *         If a shard fails to log in, the other shards are disconnected.
+     */
+    public CompletableFuture<ShardManager> loginShardManager(int... shards) {
+        return delegate.loginShardManager(shards);
+    }
+
     /**
      * Sets a ratelimiter that can be used to control global ratelimits.
      *
@@ -99,9 +129,13 @@ public class DiscordApiBuilder implements ChainableGloballyAttachableListenerMan
     /**
      * Sets a ratelimiter that can be used to control the 5 seconds gateway identify ratelimit.
      *
-     * <p>By default, Javacord automatically provides a default {@link LocalRatelimiter}
-     * which is set to allow one gateway identify request per 5500ms and is shared with every bot with the same token
-     * in the same Java program.
+     * <p>By default, Javacord automatically provides a default ratelimiter which is shared with every bot with the
+     * same token in the same Java program. It requests the {@code max_concurrency} and the daily session start limit
+     * from Discord and lets the shards of different {@code shard % max_concurrency} buckets identify at the same
+     * time, while every bucket identifies once per 5500ms.
+     *
+     * <p>A custom ratelimiter is used for all shards, so it has to allow one gateway identify request per 5 seconds
+     * unless it implements the buckets itself.
      *
      * <p>**DO NOT** set a custom gateway identify ratelimiter unless you have to synchronize the ratelimit across
      * multiple Java programs (running on different JVMs, VMs, physical servers etc.) that run Javacord on the same
@@ -472,6 +506,256 @@ public class DiscordApiBuilder implements ChainableGloballyAttachableListenerMan
         return delegate.isUserCacheEnabled();
     }
 
+    /**
+     * Sets whether the gateway connection should use zlib-stream transport compression.
+     *
+     * <p>With transport compression enabled, the whole gateway connection is compressed using a single shared zlib
+     * context instead of compressing only large payloads one by one. This considerably reduces the received bandwidth,
+     * especially for bots on many large servers.
+     *
+     * <p>By default, transport compression is disabled.
+     *
+     * @param enabled Whether transport compression should be enabled.
+     * @return The current instance in order to chain call methods.
+     */
+    public DiscordApiBuilder setTransportCompressionEnabled(boolean enabled) {
+        delegate.setTransportCompressionEnabled(enabled);
+        return this;
+    }
+
+    /**
+     * Gets whether zlib-stream transport compression is enabled for the gateway connection.
+     *
+     * @return Whether transport compression is enabled.
+     */
+    public boolean isTransportCompressionEnabled() {
+        return delegate.isTransportCompressionEnabled();
+    }
+
+    /**
+     * Sets whether the mutable entity cache should be used.
+     *
+     * <p>By default, channels, members and presences are stored in immutable snapshots that are atomically swapped on
+     * every update. This makes updates comparatively expensive and lets concurrent updates contend with each other,
+     * which becomes noticeable for bots that receive a lot of member chunks and presence updates.
+     * The mutable entity cache updates its entries in place and only serializes updates within the same server.
+     *
+     * <p>By default, the mutable entity cache is disabled.
+     *
+     * @param enabled Whether the mutable entity cache should be enabled.
+     * @return The current instance in order to chain call methods.
+     */
+    public DiscordApiBuilder setMutableEntityCacheEnabled(boolean enabled) {
+        delegate.setMutableEntityCacheEnabled(enabled);
+        return this;
+    }
+
+    /**
+     * Gets whether the mutable entity cache is used.
+     *
+     * @return Whether the mutable entity cache is enabled.
+     */
+    public boolean isMutableEntityCacheEnabled() {
+        return delegate.isMutableEntityCacheEnabled();
+    }
+
+    /**
+     * Sets a custom executor service which is used as the central executor service, e.g. to execute listeners.
+     *
+     * <p>The executor service is not shut down when the bot disconnects. If it is set, the
+     * {@link #setExecutorServiceThreadLimit(int) thread limit} and
+     * {@link #setVirtualThreadsEnabled(boolean) virtual threads} settings are ignored.
+     *
+     * @param executorService The executor service or {@code null} to let Javacord create one.
+     * @return The current instance in order to chain call methods.
+     * @see ThreadPool#getExecutorService()
+     */
+    public DiscordApiBuilder setExecutorService(ExecutorService executorService) {
+        delegate.setExecutorService(executorService);
+        return this;
+    }
+
+    /**
+     * Gets the custom executor service which is used as the central executor service.
+     *
+     * @return The custom executor service.
+     */
+    public Optional<ExecutorService> getExecutorService() {
+        return delegate.getExecutorService();
+    }
+
+    /**
+     * Sets the maximum amount of threads of the central executor service.
+     *
+     * <p>By default, the central executor service starts a new thread whenever all of its threads are busy, which can
+     * lead to thousands of threads during bursts of events. With a limit, tasks wait in a queue instead. The amount of
+     * waiting tasks can be monitored with {@link ThreadPool#getQueuedTaskCount()}.
+     *
+     * <p>Listeners that wait for other tasks of the executor service, e.g. by calling {@code join()} on a future that
+     * is completed by another listener, can block forever if all threads are busy.
+     *
+     * @param threadLimit The maximum amount of threads. {@code 0} means no limit.
+     * @return The current instance in order to chain call methods.
+     */
+    public DiscordApiBuilder setExecutorServiceThreadLimit(int threadLimit) {
+        if (threadLimit < 0) {
+            throw new IllegalArgumentException("threadLimit cannot be negative");
+        }
+        delegate.setExecutorServiceThreadLimit(threadLimit);
+        return this;
+    }
+
+    /**
+     * Gets the maximum amount of threads of the central executor service.
+     *
+     * @return The maximum amount of threads. {@code 0} means no limit.
+     */
+    public int getExecutorServiceThreadLimit() {
+        return delegate.getExecutorServiceThreadLimit();
+    }
+
+    /**
+     * Sets whether the central executor service should execute every task in a new virtual thread.
+     *
+     * <p>Virtual threads require Java 21 or newer, logging in fails on older runtimes. If enabled, the
+     * {@link #setExecutorServiceThreadLimit(int) thread limit} is ignored.
+     *
+     * @param enabled Whether virtual threads should be used.
+     * @return The current instance in order to chain call methods.
+     */
+    public DiscordApiBuilder setVirtualThreadsEnabled(boolean enabled) {
+        delegate.setVirtualThreadsEnabled(enabled);
+        return this;
+    }
+
+    /**
+     * Gets whether the central executor service executes every task in a new virtual thread.
+     *
+     * @return Whether virtual threads are used.
+     */
+    public boolean isVirtualThreadsEnabled() {
+        return delegate.isVirtualThreadsEnabled();
+    }
+
+    /**
+     * Sets the amount of event loop threads which execute the listeners.
+     *
+     * <p>By default, every listener call is submitted on its own to the central executor service. With event loop
+     * threads, the queued listener calls of a server are instead executed in batches by a fixed amount of threads,
+     * which avoids a context switch per event if many small events arrive for the same server.
+     *
+     * <p>The ordering contract is the same in both modes: Events of the same server (or of the same object which is
+     * not a server, like DMs) are passed to the listeners one after another in the order they were received. Events
+     * of different servers are handled in parallel. Lifecycle events, like a lost connection or a resume, are only
+     * handled once all previously received events are handled and before any event received later.
+     *
+     * <p>Listeners must not block in this mode, as every blocked thread stalls all servers that are assigned to it.
+     * Long-running work should be submitted to another executor service. A reasonable amount of threads is the amount
+     * of available processors.
+     *
+     * @param threadCount The amount of event loop threads. {@code 0} disables the event loop mode.
+     * @return The current instance in order to chain call methods.
+     */
+    public DiscordApiBuilder setEventLoopThreadCount(int threadCount) {
+        if (threadCount < 0) {
+            throw new IllegalArgumentException("threadCount cannot be negative");
+        }
+        delegate.setEventLoopThreadCount(threadCount);
+        return this;
+    }
+
+    /**
+     * Gets the amount of event loop threads which execute the listeners.
+     *
+     * @return The amount of event loop threads. {@code 0} means that the event loop mode is disabled.
+     */
+    public int getEventLoopThreadCount() {
+        return delegate.getEventLoopThreadCount();
+    }
+
+    /**
+     * Sets the maximum amount of threads which handle the received gateway packets concurrently.
+     *
+     * <p>Packets of the same server (or of the same object which is not a server, like DMs) are handled one after
+     * another in the order they were received. Packets of different servers are handled in parallel by up to this
+     * amount of threads, which are shared by all shards that are logged in with this builder.
+     *
+     * @param threadCount The maximum amount of threads. {@code 0} means the amount of available processors, but at
+     *                    least 2.
+     * @return The current instance in order to chain call methods.
+     */
+    public DiscordApiBuilder setPacketHandlerThreadCount(int threadCount) {
+        if (threadCount < 0) {
+            throw new IllegalArgumentException("threadCount cannot be negative");
+        }
+        delegate.setPacketHandlerThreadCount(threadCount);
+        return this;
+    }
+
+    /**
+     * Gets the maximum amount of threads which handle the received gateway packets concurrently.
+     *
+     * @return The maximum amount of threads. {@code 0} means the amount of available processors, but at least 2.
+     */
+    public int getPacketHandlerThreadCount() {
+        return delegate.getPacketHandlerThreadCount();
+    }
+
+    /**
+     * Sets a directory in which downloaded media, like avatars, icons and attachments, is cached.
+     *
+     * <p>Media is always downloaded with the same http client as the REST requests, so it uses the same connection
+     * pool and proxy settings. With a cache, media that was downloaded before is served from the disk and only
+     * revalidated with Discord's CDN when it expired. The least recently used files are evicted once the cache
+     * exceeds the maximum size.
+     *
+     * <p>All shards which are logged in with this builder share the cache. The directory must not be used by another
+     * cache at the same time.
+     *
+     * @param directory The directory of the cache or {@code null} to not cache media.
+     * @param maxSize The maximum size of the cache in bytes.
+     * @return The current instance in order to chain call methods.
+     */
+    public DiscordApiBuilder setMediaCache(File directory, long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        delegate.setMediaCache(directory, maxSize);
+        return this;
+    }
+
+    /**
+     * Gets the directory in which downloaded media is cached.
+     *
+     * @return The directory of the media cache.
+     */
+    public Optional<File> getMediaCacheDirectory() {
+        return delegate.getMediaCacheDirectory();
+    }
+
+    /**
+     * Adds a session which should be resumed instead of starting a new one.
+     *
+     * <p>The shard of the session restores the cache from the snapshot and resumes the session, so it does not have
+     * to wait for all servers and members again. This allows to restart a bot without missing events, as long as the
+     * restart does not take longer than Discord keeps the session, which is usually about a minute or two. If the
+     * snapshot can not be read or Discord does not allow to resume the session anymore, the shard starts a new
+     * session as usual. A session is only resumed once, later logins with this builder start new sessions.
+     *
+     * <p>Sessions can be added for multiple shards, e.g. to resume all shards with {@link #loginAllShards()}.
+     *
+     * @param sessionState The state of the session, as returned by {@link DiscordApi#disconnectResumable()}.
+     * @param cacheSnapshot The file to which the cache was written with {@link DiscordApi#writeCacheSnapshot(Path)}.
+     * @return The current instance in order to chain call methods.
+     */
+    public DiscordApiBuilder addResumableSession(SessionState sessionState, Path cacheSnapshot) {
+        if (sessionState == null || cacheSnapshot == null) {
+            throw new IllegalArgumentException("sessionState and cacheSnapshot must not be null");
+        }
+        delegate.addResumableSession(sessionState, cacheSnapshot);
+        return this;
+    }
+
     /**
      * Retrieves the recommended shards count from the Discord API and sets it in this builder.
      * Sharding allows you to split your bot into several independent instances.
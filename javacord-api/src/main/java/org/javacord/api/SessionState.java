@@ -0,0 +1,112 @@
+package org.javacord.api;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The state of a gateway session which is needed to resume it.
+ *
+ * <p>A session can be resumed by another process, e.g. after a restart, as long as Discord did not invalidate it yet.
+ * Resuming only replays the events which were missed, so the new process also needs the cache of the old one.
+ *
+ * @see DiscordApi#disconnectResumable()
+ * @see DiscordApiBuilder#addResumableSession(SessionState, java.nio.file.Path)
+ */
+public final class SessionState {
+
+    private final int shard;
+    private final int totalShards;
+    private final String sessionId;
+    private final String resumeUrl;
+    private final int sequence;
+
+    /**
+     * Creates a new session state.
+     *
+     * @param shard The shard of the session.
+     * @param totalShards The total amount of shards of the bot.
+     * @param sessionId The id of the session.
+     * @param resumeUrl The gateway url which should be used to resume the session or {@code null} to use the default
+     *                  gateway.
+     * @param sequence The sequence number of the last received event.
+     */
+    public SessionState(int shard, int totalShards, String sessionId, String resumeUrl, int sequence) {
+        this.shard = shard;
+        this.totalShards = totalShards;
+        this.sessionId = Objects.requireNonNull(sessionId, "sessionId must not be null");
+        this.resumeUrl = resumeUrl;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Gets the shard of the session.
+     *
+     * @return The shard of the session.
+     */
+    public int getShard() {
+        return shard;
+    }
+
+    /**
+     * Gets the total amount of shards of the bot when the session was started.
+     *
+     * @return The total amount of shards.
+     */
+    public int getTotalShards() {
+        return totalShards;
+    }
+
+    /**
+     * Gets the id of the session.
+     *
+     * @return The id of the session.
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Gets the gateway url which should be used to resume the session.
+     *
+     * @return The gateway url which should be used to resume the session.
+     */
+    public Optional<String> getResumeUrl() {
+        return Optional.ofNullable(resumeUrl);
+    }
+
+    /**
+     * Gets the sequence number of the last received event.
+     *
+     * @return The sequence number of the last received event.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SessionState that = (SessionState) o;
+        return shard == that.shard
+                && totalShards == that.totalShards
+                && sequence == that.sequence
+                && sessionId.equals(that.sessionId)
+                && Objects.equals(resumeUrl, that.resumeUrl);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(shard, totalShards, sessionId, resumeUrl, sequence);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SessionState (shard: %d, total shards: %d, sequence: %d)", shard, totalShards, sequence);
+    }
+
+}
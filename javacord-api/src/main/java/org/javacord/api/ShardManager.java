@@ -0,0 +1,101 @@
+package org.javacord.api;
+
+import org.javacord.api.entity.server.Server;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A manager for shards which run in the same program.
+ *
+ * <p>The shards share their threads, their http client and the ratelimits of the REST API, instead of creating their
+ * own for every shard like {@link DiscordApiBuilder#loginShards(int...)} does.
+ *
+ * @see DiscordApiBuilder#loginShardManager()
+ */
+public interface ShardManager {
+
+    /**
+     * Gets the total amount of shards of the bot.
+     *
+     * @return The total amount of shards.
+     */
+    int getTotalShards();
+
+    /**
+     * Gets all shards of this manager.
+     *
+     * @return The shards, ordered by their shard id.
+     */
+    Collection<DiscordApi> getShards();
+
+    /**
+     * Gets a shard by its id.
+     *
+     * @param shard The id of the shard.
+     * @return The shard with the given id or an empty optional if it is not managed by this manager.
+     */
+    Optional<DiscordApi> getShard(int shard);
+
+    /**
+     * Gets the id of the shard which receives the events of the given server.
+     *
+     * @param serverId The id of the server.
+     * @return The id of the shard.
+     * @see <a href="https://discord.com/developers/docs/topics/gateway#sharding-sharding-formula">Discord Docs</a>
+     */
+    default int getShardIdForServer(long serverId) {
+        return (int) ((serverId >>> 22) % getTotalShards());
+    }
+
+    /**
+     * Gets the shard which receives the events of the given server.
+     *
+     * @param serverId The id of the server.
+     * @return The shard or an empty optional if it is not managed by this manager.
+     */
+    default Optional<DiscordApi> getShardForServer(long serverId) {
+        return getShard(getShardIdForServer(serverId));
+    }
+
+    /**
+     * Gets a server by its id from the shard which receives its events.
+     *
+     * @param id The id of the server.
+     * @return The server with the given id.
+     */
+    default Optional<Server> getServerById(long id) {
+        return getShardForServer(id).flatMap(shard -> shard.getServerById(id));
+    }
+
+    /**
+     * Gets a server by its id from the shard which receives its events.
+     *
+     * @param id The id of the server.
+     * @return The server with the given id.
+     */
+    default Optional<Server> getServerById(String id) {
+        try {
+            return getServerById(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the servers of all shards.
+     *
+     * @return The servers of all shards.
+     */
+    Set<Server> getServers();
+
+    /**
+     * Disconnects all shards and stops the shared threads afterwards.
+     *
+     * @return A future which completes when all shards are disconnected.
+     */
+    CompletableFuture<Void> disconnect();
+
+}
@@ -641,6 +641,31 @@ public interface Server extends DiscordEntity, Nameable, Deletable, UpdatableFro
      */
     void requestMembersChunks();
 
+    /**
+     * Requests Discord to send all members of this server.
+     *
+     * <p>While the members are received, your bot will receive {@link ServerMembersChunkEvent}s. If all members
+     * are already requested with the same presence setting, no additional request is sent.
+     *
+     * @param presences Whether the presences of the members should be sent, too. This requires the
+     *                  {@link org.javacord.api.entity.intent.Intent#GUILD_PRESENCES} intent and is ignored otherwise.
+     * @return A future that completes once all members have been received.
+     */
+    CompletableFuture<Void> requestMembersChunks(boolean presences);
+
+    /**
+     * Requests Discord to send the members of this server with the given user ids.
+     *
+     * <p>While the members are received, your bot will receive {@link ServerMembersChunkEvent}s. Users which are not
+     * members of the server are skipped.
+     *
+     * @param userIds   The ids of the users.
+     * @param presences Whether the presences of the members should be sent, too. This requires the
+     *                  {@link org.javacord.api.entity.intent.Intent#GUILD_PRESENCES} intent and is ignored otherwise.
+     * @return A future that completes once all requested members have been received.
+     */
+    CompletableFuture<Void> requestMembersChunks(Collection<Long> userIds, boolean presences);
+
     /**
      * Gets all members of the server.
      *
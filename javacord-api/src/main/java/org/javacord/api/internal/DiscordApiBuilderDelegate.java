@@ -2,16 +2,21 @@ package org.javacord.api.internal;
 
 import org.javacord.api.DiscordApi;
 import org.javacord.api.DiscordApiBuilder;
+import org.javacord.api.SessionState;
+import org.javacord.api.ShardManager;
 import org.javacord.api.entity.intent.Intent;
 import org.javacord.api.listener.GloballyAttachableListener;
 import org.javacord.api.util.auth.Authenticator;
 import org.javacord.api.util.ratelimit.Ratelimiter;
 
+import java.io.File;
 import java.net.Proxy;
 import java.net.ProxySelector;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -193,6 +198,131 @@ public interface DiscordApiBuilderDelegate {
      */
     boolean isUserCacheEnabled();
 
+    /**
+     * Sets whether the gateway connection should use zlib-stream transport compression.
+     *
+     * <p>By default, transport compression is disabled.
+     *
+     * @param enabled Whether transport compression should be enabled.
+     */
+    void setTransportCompressionEnabled(boolean enabled);
+
+    /**
+     * Gets whether zlib-stream transport compression is enabled for the gateway connection.
+     *
+     * @return Whether transport compression is enabled.
+     */
+    boolean isTransportCompressionEnabled();
+
+    /**
+     * Sets whether the mutable entity cache should be used.
+     *
+     * <p>By default, the mutable entity cache is disabled.
+     *
+     * @param enabled Whether the mutable entity cache should be enabled.
+     */
+    void setMutableEntityCacheEnabled(boolean enabled);
+
+    /**
+     * Gets whether the mutable entity cache is used.
+     *
+     * @return Whether the mutable entity cache is enabled.
+     */
+    boolean isMutableEntityCacheEnabled();
+
+    /**
+     * Sets a custom executor service which is used as the central executor service.
+     *
+     * @param executorService The executor service or {@code null} to let Javacord create one.
+     */
+    void setExecutorService(ExecutorService executorService);
+
+    /**
+     * Gets the custom executor service which is used as the central executor service.
+     *
+     * @return The custom executor service.
+     */
+    Optional<ExecutorService> getExecutorService();
+
+    /**
+     * Sets the maximum amount of threads of the central executor service.
+     *
+     * @param threadLimit The maximum amount of threads. {@code 0} means no limit.
+     */
+    void setExecutorServiceThreadLimit(int threadLimit);
+
+    /**
+     * Gets the maximum amount of threads of the central executor service.
+     *
+     * @return The maximum amount of threads. {@code 0} means no limit.
+     */
+    int getExecutorServiceThreadLimit();
+
+    /**
+     * Sets whether the central executor service should execute every task in a new virtual thread.
+     *
+     * @param enabled Whether virtual threads should be used.
+     */
+    void setVirtualThreadsEnabled(boolean enabled);
+
+    /**
+     * Gets whether the central executor service executes every task in a new virtual thread.
+     *
+     * @return Whether virtual threads are used.
+     */
+    boolean isVirtualThreadsEnabled();
+
+    /**
+     * Sets the amount of event loop threads which execute the listeners.
+     *
+     * @param threadCount The amount of event loop threads. {@code 0} disables the event loop mode.
+     */
+    void setEventLoopThreadCount(int threadCount);
+
+    /**
+     * Gets the amount of event loop threads which execute the listeners.
+     *
+     * @return The amount of event loop threads. {@code 0} means that the event loop mode is disabled.
+     */
+    int getEventLoopThreadCount();
+
+    /**
+     * Sets the maximum amount of threads which handle the received gateway packets concurrently.
+     *
+     * @param threadCount The maximum amount of threads. {@code 0} means the amount of available processors.
+     */
+    void setPacketHandlerThreadCount(int threadCount);
+
+    /**
+     * Gets the maximum amount of threads which handle the received gateway packets concurrently.
+     *
+     * @return The maximum amount of threads. {@code 0} means the amount of available processors.
+     */
+    int getPacketHandlerThreadCount();
+
+    /**
+     * Sets a directory in which downloaded media is cached.
+     *
+     * @param directory The directory of the cache or {@code null} to not cache media.
+     * @param maxSize The maximum size of the cache in bytes.
+     */
+    void setMediaCache(File directory, long maxSize);
+
+    /**
+     * Gets the directory in which downloaded media is cached.
+     *
+     * @return The directory of the media cache.
+     */
+    Optional<File> getMediaCacheDirectory();
+
+    /**
+     * Adds a session which should be resumed by the shard of the session.
+     *
+     * @param sessionState The state of the session.
+     * @param cacheSnapshot The file with the cache snapshot of the session.
+     */
+    void addResumableSession(SessionState sessionState, Path cacheSnapshot);
+
     /**
      * Logs the bot in.
      *
@@ -210,6 +340,16 @@ public interface DiscordApiBuilderDelegate {
      */
     List<CompletableFuture<DiscordApi>> loginShards(int... shards);
 
+    /**
+     * Login given shards to the account with the given token and manage them with a shard manager.
+     * It is invalid to call {@link #setCurrentShard(int)} with
+     * anything but {@code 0} before calling this method.
+     *
+     * @param shards The shards to connect, starting with {@code 0}!
+     * @return A {@link CompletableFuture} which contains the shard manager after all shards logged in.
+     */
+    CompletableFuture<ShardManager> loginShardManager(int... shards);
+
     /**
      * Sets the recommended total shards.
      *
@@ -19,6 +19,24 @@ public interface ThreadPool {
      */
     ExecutorService getExecutorService();
 
+    /**
+     * Gets the amount of tasks that wait for a thread of the {@link #getExecutorService() executor service}.
+     *
+     * <p>Tasks only have to wait if the executor service has a thread limit. A steadily growing amount means that
+     * the listeners cannot keep up with the events.
+     *
+     * @return The amount of waiting tasks or {@code -1} if the executor service does not provide this information.
+     * @see org.javacord.api.DiscordApiBuilder#setExecutorServiceThreadLimit(int)
+     */
+    int getQueuedTaskCount();
+
+    /**
+     * Gets the amount of threads of the {@link #getExecutorService() executor service} that are executing tasks.
+     *
+     * @return The amount of busy threads or {@code -1} if the executor service does not provide this information.
+     */
+    int getActiveThreadCount();
+
     /**
      * Gets the used scheduler.
      *
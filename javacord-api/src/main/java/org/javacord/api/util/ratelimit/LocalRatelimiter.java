@@ -99,7 +99,22 @@ public class LocalRatelimiter implements Ratelimiter {
                 Thread.sleep(sleepTime / 1_000_000, (int) (sleepTime % 1_000_000));
             }
         }
+        takeQuota();
+    }
+
+    @Override
+    public synchronized long tryRequestQuota() {
+        if (remainingQuota <= 0) {
+            long sleepTime = calculateSleepTime();
+            if (sleepTime > 0) {
+                return sleepTime;
+            }
+        }
+        takeQuota();
+        return 0;
+    }
 
+    private void takeQuota() {
         // Reset the limit when the last reset timestamp is past
         if (System.nanoTime() >= nextResetNanos) {
             remainingQuota = amount;
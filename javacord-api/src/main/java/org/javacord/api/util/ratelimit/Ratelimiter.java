@@ -14,4 +14,20 @@ public interface Ratelimiter {
      */
     void requestQuota() throws InterruptedException;
 
+    /**
+     * Takes a quota if one is available without waiting for it.
+     *
+     * <p>This is used to execute REST requests without blocking a thread while waiting for the ratelimit.
+     * The default implementation falls back to {@link #requestQuota()} and therefore blocks.
+     *
+     * @return {@code 0} if a quota was taken, otherwise the time in nanoseconds to wait before trying again.
+     * @throws InterruptedException if any thread has interrupted the current thread.
+     *                              The interrupted status of the current thread is cleared when this exception is
+     *                              thrown.
+     */
+    default long tryRequestQuota() throws InterruptedException {
+        requestQuota();
+        return 0;
+    }
+
 }
@@ -31,6 +31,8 @@ dependencies {
 
     // voice encryption
     implementation("com.codahale:xsalsa20poly1305:0.11.0")
+    // the cipher primitives used by xsalsa20poly1305, used directly to encrypt audio packets in place
+    implementation("org.bouncycastle:bcprov-jdk15on:1.60")
 
     // logging
     implementation("org.apache.logging.log4j:log4j-api:2.17.2")
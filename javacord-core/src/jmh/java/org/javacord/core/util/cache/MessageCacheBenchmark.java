@@ -0,0 +1,165 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.api.entity.message.Message;
+import org.javacord.core.DiscordApiImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the message caches when many threads add, remove and look up messages of different
+ * channels at the same time, like the dispatch lanes of a bot on many servers do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MessageCacheBenchmark {
+
+    /**
+     * The amount of messages that are cached per channel before the benchmark starts.
+     */
+    private static final int MESSAGES_PER_CHANNEL = 1024;
+
+    private DiscordApiImpl api;
+    private MessageCacheImpl[] channelCaches;
+
+    /**
+     * Creates the api and fills one message cache for every benchmark thread.
+     *
+     * @param params The benchmark parameters.
+     */
+    @Setup(Level.Trial)
+    public void setup(BenchmarkParams params) {
+        api = new DiscordApiImpl(null, null, null, null, null, null, false);
+        channelCaches = new MessageCacheImpl[params.getThreads()];
+        for (int channel = 0; channel < channelCaches.length; channel++) {
+            channelCaches[channel] = new MessageCacheImpl(api, Integer.MAX_VALUE, Integer.MAX_VALUE, false);
+            for (int i = 0; i < MESSAGES_PER_CHANNEL; i++) {
+                channelCaches[channel].addMessage(createMessage(messageId(channel, i)));
+            }
+        }
+    }
+
+    /**
+     * Shuts the thread pool of the api down.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        api.disconnect().join();
+    }
+
+    /**
+     * Looks up a cached message by its id.
+     *
+     * @param state The state of the benchmark thread.
+     * @return The message.
+     */
+    @Benchmark
+    public Optional<Message> getCachedMessageById(ChannelState state) {
+        return api.getCachedMessageById(messageId(state.channel, state.nextIndex()));
+    }
+
+    /**
+     * Adds a new message to the cache of the thread's channel and removes it again, like a message create event
+     * that is followed by a message delete event.
+     *
+     * @param state The state of the benchmark thread.
+     */
+    @Benchmark
+    public void addAndRemoveMessage(ChannelState state) {
+        Message message = state.nextNewMessage();
+        channelCaches[state.channel].addMessage(message);
+        channelCaches[state.channel].removeMessage(message);
+        api.removeMessageFromCache(message.getId());
+    }
+
+    /**
+     * Gets a message id that is unique per channel and index and increases with the index, like a snowflake.
+     *
+     * @param channel The channel.
+     * @param index The index of the message in the channel.
+     * @return The message id.
+     */
+    private static long messageId(int channel, int index) {
+        return ((long) index << 22) | channel;
+    }
+
+    /**
+     * Creates a message which only knows its id.
+     *
+     * @param id The id of the message.
+     * @return The message.
+     */
+    private static Message createMessage(long id) {
+        return (Message) Proxy.newProxyInstance(Message.class.getClassLoader(), new Class<?>[]{Message.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return id;
+                        case "hashCode":
+                            return Long.hashCode(id);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "Message (id: " + id + ")";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * The state of a benchmark thread, which works on its own channel.
+     */
+    @State(Scope.Thread)
+    public static class ChannelState {
+
+        private int channel;
+        private int index;
+        private Message[] newMessages;
+
+        /**
+         * Assigns a channel to the thread and prepares the messages it adds, to not measure their creation.
+         *
+         * @param threadParams The thread parameters.
+         */
+        @Setup(Level.Trial)
+        public void setup(ThreadParams threadParams) {
+            channel = threadParams.getThreadIndex();
+            newMessages = new Message[MESSAGES_PER_CHANNEL];
+            for (int i = 0; i < newMessages.length; i++) {
+                newMessages[i] = createMessage(messageId(channel, MESSAGES_PER_CHANNEL + i));
+            }
+        }
+
+        private int nextIndex() {
+            index = (index + 1) % MESSAGES_PER_CHANNEL;
+            return index;
+        }
+
+        private Message nextNewMessage() {
+            return newMessages[nextIndex()];
+        }
+    }
+
+}
@@ -1,14 +1,18 @@
 package org.javacord.core;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import okhttp3.Cache;
 import org.apache.logging.log4j.CloseableThreadContext;
 import org.apache.logging.log4j.Logger;
 import org.javacord.api.DiscordApi;
+import org.javacord.api.SessionState;
+import org.javacord.api.ShardManager;
 import org.javacord.api.entity.intent.Intent;
 import org.javacord.api.internal.DiscordApiBuilderDelegate;
 import org.javacord.api.listener.GloballyAttachableListener;
 import org.javacord.api.util.auth.Authenticator;
 import org.javacord.api.util.ratelimit.Ratelimiter;
+import org.javacord.core.util.concurrent.ThreadPoolImpl;
 import org.javacord.core.util.gateway.DiscordWebSocketAdapter;
 import org.javacord.core.util.logging.LoggerUtil;
 import org.javacord.core.util.logging.PrivacyProtectionLogger;
@@ -17,8 +21,11 @@ import org.javacord.core.util.rest.RestMethod;
 import org.javacord.core.util.rest.RestRequest;
 import org.javacord.core.util.rest.RestRequestResult;
 
+import java.io.File;
 import java.net.Proxy;
 import java.net.ProxySelector;
+import java.nio.file.Path;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -29,8 +36,10 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
@@ -132,6 +141,53 @@ public class DiscordApiBuilderDelegateImpl implements DiscordApiBuilderDelegate
      */
     private boolean userCacheEnabled = true;
 
+    /**
+     * Whether zlib-stream transport compression should be used for the gateway connection.
+     */
+    private volatile boolean transportCompressionEnabled = false;
+
+    /**
+     * Whether the mutable entity cache should be used instead of the immutable one.
+     */
+    private volatile boolean mutableEntityCacheEnabled = false;
+
+    /**
+     * A custom executor service which is used as the central executor service.
+     */
+    private volatile ExecutorService executorService = null;
+
+    /**
+     * The maximum amount of threads of the central executor service, {@code 0} means no limit.
+     */
+    private volatile int executorServiceThreadLimit = 0;
+
+    /**
+     * Whether the central executor service should execute every task in a new virtual thread.
+     */
+    private volatile boolean virtualThreadsEnabled = false;
+
+    /**
+     * The amount of event loop threads which execute the listeners, {@code 0} means that the event loop mode is
+     * disabled.
+     */
+    private volatile int eventLoopThreadCount = 0;
+
+    /**
+     * The maximum amount of threads which handle the received packets concurrently, {@code 0} means the amount of
+     * available processors.
+     */
+    private volatile int packetHandlerThreadCount = 0;
+
+    /**
+     * The cache for downloaded media, shared by all shards which are logged in with this builder.
+     */
+    private volatile Cache mediaCache = null;
+
+    /**
+     * The sessions which should be resumed with their cache snapshot by the shard of the session.
+     */
+    private final Map<Integer, Map.Entry<SessionState, Path>> resumableSessions = new ConcurrentHashMap<>();
+
     /**
      * The globally attachable listeners to register for every created DiscordApi instance.
      */
@@ -192,12 +248,26 @@ public class DiscordApiBuilderDelegateImpl implements DiscordApiBuilderDelegate
             future.completeExceptionally(new IllegalArgumentException("You cannot login without a token!"));
             return future;
         }
+        ThreadPoolImpl threadPool;
+        try {
+            threadPool = new ThreadPoolImpl(
+                    executorService, executorServiceThreadLimit, virtualThreadsEnabled, eventLoopThreadCount,
+                    packetHandlerThreadCount);
+        } catch (IllegalStateException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        // a session can only be resumed once
+        Map.Entry<SessionState, Path> resumableSession = resumableSessions.remove(currentShard.get());
         try (CloseableThreadContext.Instance closeableThreadContextInstance =
                      CloseableThreadContext.put("shard", Integer.toString(currentShard.get()))) {
             new DiscordApiImpl(token, currentShard.get(), totalShards.get(), intents,
                     waitForServersOnStartup, waitForUsersOnStartup, registerShutdownHook, globalRatelimiter,
                     gatewayIdentifyRatelimiter, proxySelector, proxy, proxyAuthenticator, trustAllCertificates,
-                    future, null, preparedListeners, preparedUnspecifiedListeners, userCacheEnabled, dispatchEvents);
+                    future, null, preparedListeners, preparedUnspecifiedListeners, userCacheEnabled, dispatchEvents,
+                    transportCompressionEnabled, mutableEntityCacheEnabled, threadPool, mediaCache, null,
+                    resumableSession == null ? null : resumableSession.getKey(),
+                    resumableSession == null ? null : resumableSession.getValue());
         }
         return future;
     }
@@ -242,15 +312,7 @@ public class DiscordApiBuilderDelegateImpl implements DiscordApiBuilderDelegate
         if (shards.length == 0) {
             return Collections.emptyList();
         }
-        if (Arrays.stream(shards).distinct().count() != shards.length) {
-            throw new IllegalArgumentException("shards cannot be started multiple times!");
-        }
-        if (Arrays.stream(shards).max().orElseThrow(AssertionError::new) >= getTotalShards()) {
-            throw new IllegalArgumentException("shard cannot be greater or equal than totalShards!");
-        }
-        if (Arrays.stream(shards).min().orElseThrow(AssertionError::new) < 0) {
-            throw new IllegalArgumentException("shard cannot be less than 0!");
-        }
+        checkShards(shards);
 
         if (shards.length == getTotalShards()) {
             logger.info("Creating {} {}", getTotalShards(), (getTotalShards() == 1) ? "shard" : "shards");
@@ -275,6 +337,90 @@ public class DiscordApiBuilderDelegateImpl implements DiscordApiBuilderDelegate
         return result;
     }
 
+    @Override
+    public CompletableFuture<ShardManager> loginShardManager(int... shards) {
+        Objects.requireNonNull(shards);
+        if (shards.length == 0) {
+            throw new IllegalArgumentException("A shard manager needs at least one shard!");
+        }
+        checkShards(shards);
+        prepareListeners();
+        CompletableFuture<ShardManager> future = new CompletableFuture<>();
+        if (token == null) {
+            future.completeExceptionally(new IllegalArgumentException("You cannot login without a token!"));
+            return future;
+        }
+        if (getCurrentShard() != 0) {
+            future.completeExceptionally(new IllegalArgumentException(
+                    "You cannot use loginShardManager after setting the current shard!"));
+            return future;
+        }
+        ThreadPoolImpl threadPool;
+        try {
+            threadPool = new ThreadPoolImpl(
+                    executorService, executorServiceThreadLimit, virtualThreadsEnabled, eventLoopThreadCount,
+                    packetHandlerThreadCount);
+        } catch (IllegalStateException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        ShardManagerImpl shardManager = new ShardManagerImpl(
+                getTotalShards(), threadPool, proxySelector, proxy, proxyAuthenticator, trustAllCertificates);
+
+        logger.info("Creating {} out of {} shards with a shard manager", shards.length, getTotalShards());
+        List<CompletableFuture<DiscordApi>> shardFutures = new ArrayList<>(shards.length);
+        for (int shard : shards) {
+            logger.debug("Creating shard {} of {}", shard + 1, getTotalShards());
+            CompletableFuture<DiscordApi> shardFuture = new CompletableFuture<>();
+            Map.Entry<SessionState, Path> resumableSession = resumableSessions.remove(shard);
+            try (CloseableThreadContext.Instance closeableThreadContextInstance =
+                         CloseableThreadContext.put("shard", Integer.toString(shard))) {
+                new DiscordApiImpl(token, shard, getTotalShards(), intents,
+                        waitForServersOnStartup, waitForUsersOnStartup, registerShutdownHook, globalRatelimiter,
+                        gatewayIdentifyRatelimiter, proxySelector, proxy, proxyAuthenticator, trustAllCertificates,
+                        shardFuture, null, preparedListeners, preparedUnspecifiedListeners, userCacheEnabled,
+                        dispatchEvents, transportCompressionEnabled, mutableEntityCacheEnabled,
+                        new ThreadPoolImpl(threadPool), mediaCache, shardManager,
+                        resumableSession == null ? null : resumableSession.getKey(),
+                        resumableSession == null ? null : resumableSession.getValue());
+            }
+            shardFutures.add(shardFuture.thenApply(api -> {
+                shardManager.addShard(api);
+                return api;
+            }));
+        }
+        CompletableFuture<?>[] shardFuturesArray = shardFutures.toArray(new CompletableFuture<?>[0]);
+        CompletableFuture.allOf(shardFuturesArray).whenComplete((nothing, throwable) -> {
+            if (throwable == null) {
+                future.complete(shardManager);
+            } else {
+                // disconnect the shards which logged in successfully
+                shardManager.disconnect();
+                future.completeExceptionally(
+                        throwable instanceof CompletionException ? throwable.getCause() : throwable);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Checks if the given shards can be logged in.
+     *
+     * @param shards The shards to check.
+     * @throws IllegalArgumentException If a shard is invalid or given multiple times.
+     */
+    private void checkShards(int... shards) {
+        if (Arrays.stream(shards).distinct().count() != shards.length) {
+            throw new IllegalArgumentException("shards cannot be started multiple times!");
+        }
+        if (Arrays.stream(shards).max().orElseThrow(AssertionError::new) >= getTotalShards()) {
+            throw new IllegalArgumentException("shard cannot be greater or equal than totalShards!");
+        }
+        if (Arrays.stream(shards).min().orElseThrow(AssertionError::new) < 0) {
+            throw new IllegalArgumentException("shard cannot be less than 0!");
+        }
+    }
+
     @Override
     public void setGlobalRatelimiter(Ratelimiter ratelimiter) {
         globalRatelimiter = ratelimiter;
@@ -408,6 +554,92 @@ public class DiscordApiBuilderDelegateImpl implements DiscordApiBuilderDelegate
         return userCacheEnabled;
     }
 
+    @Override
+    public void setTransportCompressionEnabled(boolean enabled) {
+        transportCompressionEnabled = enabled;
+    }
+
+    @Override
+    public boolean isTransportCompressionEnabled() {
+        return transportCompressionEnabled;
+    }
+
+    @Override
+    public void setMutableEntityCacheEnabled(boolean enabled) {
+        mutableEntityCacheEnabled = enabled;
+    }
+
+    @Override
+    public boolean isMutableEntityCacheEnabled() {
+        return mutableEntityCacheEnabled;
+    }
+
+    @Override
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    @Override
+    public Optional<ExecutorService> getExecutorService() {
+        return Optional.ofNullable(executorService);
+    }
+
+    @Override
+    public void setExecutorServiceThreadLimit(int threadLimit) {
+        executorServiceThreadLimit = threadLimit;
+    }
+
+    @Override
+    public int getExecutorServiceThreadLimit() {
+        return executorServiceThreadLimit;
+    }
+
+    @Override
+    public void setVirtualThreadsEnabled(boolean enabled) {
+        virtualThreadsEnabled = enabled;
+    }
+
+    @Override
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    @Override
+    public void setEventLoopThreadCount(int threadCount) {
+        eventLoopThreadCount = threadCount;
+    }
+
+    @Override
+    public int getEventLoopThreadCount() {
+        return eventLoopThreadCount;
+    }
+
+    @Override
+    public void setPacketHandlerThreadCount(int threadCount) {
+        packetHandlerThreadCount = threadCount;
+    }
+
+    @Override
+    public int getPacketHandlerThreadCount() {
+        return packetHandlerThreadCount;
+    }
+
+    @Override
+    public void setMediaCache(File directory, long maxSize) {
+        mediaCache = directory == null ? null : new Cache(directory, maxSize);
+    }
+
+    @Override
+    public Optional<File> getMediaCacheDirectory() {
+        return Optional.ofNullable(mediaCache).map(Cache::directory);
+    }
+
+    @Override
+    public void addResumableSession(SessionState sessionState, Path cacheSnapshot) {
+        resumableSessions.put(sessionState.getShard(),
+                new AbstractMap.SimpleImmutableEntry<>(sessionState, cacheSnapshot));
+    }
+
     @Override
     public CompletableFuture<Void> setRecommendedTotalShards() {
         CompletableFuture<Void> future = new CompletableFuture<>();
@@ -431,6 +663,9 @@ public class DiscordApiBuilderDelegateImpl implements DiscordApiBuilderDelegate
                 .thenAccept(resultJson -> {
                     DiscordWebSocketAdapter.setGateway(resultJson.get("url").asText());
                     setTotalShards(resultJson.get("shards").asInt());
+                    if (resultJson.hasNonNull("session_start_limit")) {
+                        api.getIdentifyScheduler().updateSessionStartLimit(resultJson.get("session_start_limit"));
+                    }
                     retryAttempt.set(0);
                     future.complete(null);
                 })
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import okhttp3.Cache;
+import okhttp3.Dispatcher;
 import okhttp3.Dns;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -11,6 +13,7 @@ import okhttp3.logging.HttpLoggingInterceptor.Level;
 import org.apache.logging.log4j.Logger;
 import org.javacord.api.DiscordApi;
 import org.javacord.api.Javacord;
+import org.javacord.api.SessionState;
 import org.javacord.api.entity.ApplicationInfo;
 import org.javacord.api.entity.DiscordEntity;
 import org.javacord.api.entity.activity.Activity;
@@ -83,12 +86,19 @@ import org.javacord.core.interaction.SlashCommandImpl;
 import org.javacord.core.interaction.UserContextMenuImpl;
 import org.javacord.core.util.ClassHelper;
 import org.javacord.core.util.Cleanupable;
-import org.javacord.core.util.cache.JavacordEntityCache;
+import org.javacord.core.util.cache.CacheSnapshot;
+import org.javacord.core.util.cache.ConcurrentLongObjectMap;
+import org.javacord.core.util.cache.EntityCache;
+import org.javacord.core.util.cache.ImmutableEntityCache;
+import org.javacord.core.util.cache.MutableEntityCache;
+import org.javacord.core.util.concurrent.StripedLock;
 import org.javacord.core.util.concurrent.ThreadPoolImpl;
 import org.javacord.core.util.event.DispatchQueueSelector;
 import org.javacord.core.util.event.EventDispatcher;
 import org.javacord.core.util.event.ListenerManagerImpl;
+import org.javacord.core.util.event.ListenerRegistry;
 import org.javacord.core.util.gateway.DiscordWebSocketAdapter;
+import org.javacord.core.util.gateway.IdentifyScheduler;
 import org.javacord.core.util.http.ProxyAuthenticator;
 import org.javacord.core.util.http.TrustAllTrustManager;
 import org.javacord.core.util.logging.LoggerUtil;
@@ -96,26 +106,23 @@ import org.javacord.core.util.ratelimit.RatelimitManager;
 import org.javacord.core.util.rest.RestEndpoint;
 import org.javacord.core.util.rest.RestMethod;
 import org.javacord.core.util.rest.RestRequest;
+import java.io.IOException;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.net.Proxy;
 import java.net.ProxySelector;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -152,23 +159,34 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     private static final String BOT_TOKEN_PREFIX = "Bot ";
 
     /**
-     * A map with the default gateway identify ratelimiter.
+     * A map with the identify schedulers which are used if no gateway identify ratelimiter was set.
      *
-     * <p>The key is the bot's token (because ratelimits are per account) and the value is the ratelimiter for this
-     * token.
+     * <p>The key is the bot's token (because ratelimits are per account) and the value is the identify scheduler for
+     * this token.
      */
-    private static final Map<String, Ratelimiter> defaultGatewayIdentifyRatelimiter = new ConcurrentHashMap<>();
+    private static final Map<String, IdentifyScheduler> identifySchedulers = new ConcurrentHashMap<>();
+
+    /**
+     * The maximum amount of REST requests that are executed at the same time.
+     * Every executing request occupies a thread of the REST executor service until its response arrived.
+     */
+    private static final int MAX_CONCURRENT_REST_REQUESTS = 64;
 
     /**
      * The thread pool which is used internally.
      */
-    private final ThreadPoolImpl threadPool = new ThreadPoolImpl();
+    private final ThreadPoolImpl threadPool;
 
     /**
      * The http client for this instance.
      */
     private final OkHttpClient httpClient;
 
+    /**
+     * The http client which downloads media, like avatars and attachments.
+     */
+    private final OkHttpClient mediaHttpClient;
+
     /**
      * The event dispatcher.
      */
@@ -177,12 +195,17 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     /**
      * The object mapper for this instance.
      */
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper;
 
     /**
      * The ratelimit manager for this bot.
      */
-    private final RatelimitManager ratelimitManager = new RatelimitManager(this);
+    private final RatelimitManager ratelimitManager;
+
+    /**
+     * The shard manager which manages this shard or {@code null} if it is not managed by one.
+     */
+    private final ShardManagerImpl shardManager;
 
     /**
      * The utility class to interact with uncached messages.
@@ -322,15 +345,20 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     private volatile Long timeOffset = null;
 
     /**
-     * An immutable cache with all Javacord entities.
+     * A cache with all Javacord entities.
      */
-    private final AtomicReference<JavacordEntityCache> entityCache = new AtomicReference<>(JavacordEntityCache.empty());
+    private final EntityCache entityCache;
 
     /**
      * Whether the user cache is enabled or not.
      */
     private final boolean userCacheEnabled;
 
+    /**
+     * Whether zlib-stream transport compression is used for the gateway connection.
+     */
+    private final boolean transportCompressionEnabled;
+
     /**
      * A map which contains all servers that are ready.
      */
@@ -372,20 +400,12 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     /**
      * A map with all cached messages.
      */
-    private final Map<Long, WeakReference<Message>> messages = new ConcurrentHashMap<>();
+    private final ConcurrentLongObjectMap<MessageReference> messages = new ConcurrentLongObjectMap<>();
 
     /**
-     * A lock for accessing the message cache.
+     * Locks to serialize the creation of message objects per channel.
      */
-    private final ReentrantLock messageCacheLock = new ReentrantLock();
-
-    /**
-     * A map to retrieve message IDs by the weak ref that point to the respective
-     * message or used to point to it for usage in the messages cleanup,
-     * as at cleanup time the weak ref is already emptied.
-     */
-    private final Map<Reference<? extends Message>, Long> messageIdByRef
-            = Collections.synchronizedMap(new WeakHashMap<>());
+    private final StripedLock messageCreationLocks = new StripedLock();
 
     /**
      * The queue that is notified if a message became weakly-reachable.
@@ -393,24 +413,9 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     private final ReferenceQueue<Message> messagesCleanupQueue = new ReferenceQueue<>();
 
     /**
-     * A map which contains all globally attachable listeners.
-     * The key is the class of the listener.
-     */
-    private final Map<Class<? extends GloballyAttachableListener>,
-            Map<GloballyAttachableListener, ListenerManagerImpl<? extends GloballyAttachableListener>>>
-            listeners = Collections.synchronizedMap(new ConcurrentHashMap<>());
-
-    /**
-     * A map which contains all listeners which are assigned to a specific object instead of being global.
-     * The key of the outer map is the class which the listener was registered to (e.g. Message.class).
-     * The key of the first inner map is the id of the object.
-     * The key of the second inner map is the class of the listener.
-     * The key of the third inner map is the listener itself.
-     * The final value is the listener manager.
+     * The registry which contains all globally attachable and object attachable listeners.
      */
-    private final Map<Class<?>, Map<Long, Map<Class<? extends ObjectAttachableListener>,
-            Map<ObjectAttachableListener, ListenerManagerImpl<? extends ObjectAttachableListener>>>>>
-            objectListeners = Collections.synchronizedMap(new ConcurrentHashMap<>());
+    private final ListenerRegistry listenerRegistry = new ListenerRegistry();
 
     /**
      * Creates a new discord api instance that can be used for auto-ratelimited REST calls,
@@ -475,7 +480,8 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     ) {
         this(token, currentShard, totalShards, intents, waitForServersOnStartup, waitForUsersOnStartup,
                 true, globalRatelimiter, gatewayIdentifyRatelimiter, proxySelector, proxy, proxyAuthenticator,
-                trustAllCertificates, ready, null, Collections.emptyMap(), Collections.emptyList(), false, true);
+                trustAllCertificates, ready, null, Collections.emptyMap(), Collections.emptyList(), false, true,
+                false, false, null, null, null, null, null);
     }
 
     /**
@@ -520,7 +526,8 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
             Dns dns) {
         this(token, currentShard, totalShards, intents, waitForServersOnStartup, waitForUsersOnStartup,
                 true, globalRatelimiter, gatewayIdentifyRatelimiter, proxySelector, proxy, proxyAuthenticator,
-                trustAllCertificates, ready, dns, Collections.emptyMap(), Collections.emptyList(), false, true);
+                trustAllCertificates, ready, dns, Collections.emptyMap(), Collections.emptyList(), false, true,
+                false, false, null, null, null, null, null);
     }
 
     /**
@@ -552,6 +559,15 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param unspecifiedListeners       The listeners of unspecified types to pre-register.
      * @param userCacheEnabled           Whether the user cache should be enabled.
      * @param dispatchEvents             Whether events can be dispatched.
+     * @param transportCompressionEnabled Whether zlib-stream transport compression should be used for the gateway.
+     * @param mutableEntityCacheEnabled  Whether the mutable entity cache should be used instead of the immutable one.
+     * @param threadPool                 The thread pool to use or {@code null} to use one with the default settings.
+     * @param mediaCache                 The cache for downloaded media or {@code null} to not cache media.
+     * @param shardManager               The shard manager which provides the shared http client, object mapper and
+     *                                   ratelimit manager or {@code null} if the shard is not managed by one.
+     * @param sessionState               The state of the session which should be resumed or {@code null} to start a
+     *                                   new session.
+     * @param cacheSnapshot              The file with the cache snapshot of the session which should be resumed.
      */
     @SuppressWarnings("unchecked")
     public DiscordApiImpl(
@@ -575,8 +591,21 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
                     > listenerSourceMap,
             List<Function<DiscordApi, GloballyAttachableListener>> unspecifiedListeners,
             boolean userCacheEnabled,
-            boolean dispatchEvents
+            boolean dispatchEvents,
+            boolean transportCompressionEnabled,
+            boolean mutableEntityCacheEnabled,
+            ThreadPoolImpl threadPool,
+            Cache mediaCache,
+            ShardManagerImpl shardManager,
+            SessionState sessionState,
+            Path cacheSnapshot
     ) {
+        this.threadPool = threadPool == null ? new ThreadPoolImpl() : threadPool;
+        this.shardManager = shardManager;
+        this.objectMapper = shardManager == null ? new ObjectMapper() : shardManager.getObjectMapper();
+        this.ratelimitManager = shardManager == null
+                ? new RatelimitManager(this)
+                : shardManager.getRatelimitManager(this);
         this.token = token;
         this.currentShard = currentShard;
         this.totalShards = totalShards;
@@ -590,6 +619,8 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
         this.trustAllCertificates = trustAllCertificates;
         this.userCacheEnabled = userCacheEnabled;
         this.dispatchEvents = dispatchEvents;
+        this.transportCompressionEnabled = transportCompressionEnabled;
+        this.entityCache = mutableEntityCacheEnabled ? new MutableEntityCache() : new ImmutableEntityCache();
         this.reconnectDelayProvider = x ->
                 (int) Math.round(Math.pow(x, 1.5) - (1 / (1 / (0.1 * x) + 1)) * Math.pow(x, 1.5));
         //Always add the GUILDS intent unless it is not required anymore for Javacord to be functional.
@@ -603,35 +634,27 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
             throw new IllegalArgumentException("Cannot wait for users when GUILD_MEMBERS intent is not set!");
         }
 
-        OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder()
-                .addInterceptor(chain -> chain.proceed(chain.request()
-                        .newBuilder()
-                        .addHeader("User-Agent", Javacord.USER_AGENT)
-                        .build()))
-                .addInterceptor(
-                        new HttpLoggingInterceptor(LoggerUtil.getLogger(OkHttpClient.class)::trace).setLevel(Level.BODY)
-                )
-                .proxyAuthenticator(new ProxyAuthenticator(proxyAuthenticator))
-                .proxy(proxy);
-        if (proxySelector != null) {
-            httpClientBuilder.proxySelector(proxySelector);
-        }
-        if (dns != null) {
-            httpClientBuilder.dns(dns);
-        }
-        if (trustAllCertificates) {
-            logger.warn("All SSL certificates are trusted when connecting to the Discord API and websocket. "
-                    + "This increases the risk of man-in-the-middle attacks!");
-            TrustAllTrustManager trustManager = new TrustAllTrustManager();
-            httpClientBuilder.sslSocketFactory(trustManager.createSslSocketFactory(), trustManager);
-        }
-        this.httpClient = httpClientBuilder.build();
+        this.httpClient = shardManager == null
+                ? createHttpClient(this.threadPool, proxySelector, proxy, proxyAuthenticator, trustAllCertificates, dns)
+                : shardManager.getHttpClient();
+        // shares the connection pool and settings, but does not log bodies, as this would buffer the whole media
+        OkHttpClient.Builder mediaHttpClientBuilder = httpClient.newBuilder().cache(mediaCache);
+        mediaHttpClientBuilder.interceptors().removeIf(HttpLoggingInterceptor.class::isInstance);
+        this.mediaHttpClient = mediaHttpClientBuilder.build();
         this.eventDispatcher = new EventDispatcher(this);
 
         if (ready != null) {
             getThreadPool().getExecutorService().submit(() -> {
                 try {
-                    this.websocketAdapter = new DiscordWebSocketAdapter(this);
+                    SessionState resumableSession = restoreCacheSnapshot(sessionState, cacheSnapshot);
+                    this.websocketAdapter = new DiscordWebSocketAdapter(this, resumableSession);
+                    if (resumableSession != null) {
+                        // the restored servers could not request their missing members without a connection
+                        getAllServers().stream()
+                                .map(ServerImpl.class::cast)
+                                .filter(server -> !server.isReady())
+                                .forEach(websocketAdapter::queueRequestGuildMembers);
+                    }
                     this.websocketAdapter.isReady().whenComplete((readyReceived, throwable) -> {
                         if (readyReceived) {
                             // Register listeners
@@ -649,7 +672,7 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
                             requestApplicationInfo().whenComplete((applicationInfo, exception) -> {
                                 if (exception != null) {
                                     logger.error("Could not access self application info on startup!", exception);
-                                    threadPool.shutdown();
+                                    this.threadPool.shutdown();
                                     ready.completeExceptionally(exception);
                                 } else {
                                     this.applicationInfo = applicationInfo;
@@ -657,7 +680,7 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
                                 }
                             });
                         } else {
-                            threadPool.shutdown();
+                            this.threadPool.shutdown();
                             ready.completeExceptionally(
                                     new IllegalStateException("Websocket closed before READY packet was received!"));
                         }
@@ -672,20 +695,15 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
 
             // After minimum JDK 9 is required this can be switched to use a Cleaner
             getThreadPool().getScheduler().scheduleWithFixedDelay(() -> {
-                messageCacheLock.lock();
                 try {
                     for (Reference<? extends Message> messageRef = messagesCleanupQueue.poll();
                             messageRef != null;
                             messageRef = messagesCleanupQueue.poll()) {
-                        Long messageId = messageIdByRef.remove(messageRef);
-                        if (messageId != null) {
-                            messages.remove(messageId, messageRef);
-                        }
+                        MessageReference reference = (MessageReference) messageRef;
+                        messages.remove(reference.messageId, reference);
                     }
                 } catch (Throwable t) {
                     logger.error("Failed to process messages cleanup queue!", t);
-                } finally {
-                    messageCacheLock.unlock();
                 }
             }, 30, 30, TimeUnit.SECONDS);
 
@@ -708,12 +726,88 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
         }
     }
 
+    /**
+     * Restores the cache from the snapshot of a session which should be resumed.
+     *
+     * @param sessionState The state of the session or {@code null} if no session should be resumed.
+     * @param cacheSnapshot The file with the cache snapshot of the session.
+     * @return The state of the session if it can be resumed or {@code null} if a new session should be started.
+     */
+    private SessionState restoreCacheSnapshot(SessionState sessionState, Path cacheSnapshot) {
+        if (sessionState == null) {
+            return null;
+        }
+        if (sessionState.getShard() != currentShard || sessionState.getTotalShards() != totalShards) {
+            logger.warn("Cannot resume {}, as it belongs to shard {} of {}. Starting a new session instead",
+                    sessionState, sessionState.getShard(), sessionState.getTotalShards());
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            CacheSnapshot.read(this, cacheSnapshot);
+            logger.debug("Restored {} servers from cache snapshot {} in {} ms", servers.size(), cacheSnapshot,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return sessionState;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to restore the cache snapshot {}. Starting a new session instead", cacheSnapshot, e);
+            purgeCache();
+            you = null;
+            return null;
+        }
+    }
+
+    /**
+     * Creates the http client which is used to connect to the Discord REST API.
+     *
+     * @param threadPool           The thread pool which executes the REST requests.
+     * @param proxySelector        The proxy selector which should be used to determine the proxies that should be
+     *                             used to connect to the Discord REST API.
+     * @param proxy                The proxy which should be used to connect to the Discord REST API.
+     * @param proxyAuthenticator   The authenticator that should be used to authenticate against proxies that
+     *                             require it.
+     * @param trustAllCertificates Whether to trust all SSL certificates.
+     * @param dns                  The DNS instance to use or {@code null} to use the system DNS.
+     * @return The http client.
+     */
+    public static OkHttpClient createHttpClient(ThreadPoolImpl threadPool, ProxySelector proxySelector, Proxy proxy,
+                                                Authenticator proxyAuthenticator, boolean trustAllCertificates,
+                                                Dns dns) {
+        OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder()
+                .addInterceptor(chain -> chain.proceed(chain.request()
+                        .newBuilder()
+                        .addHeader("User-Agent", Javacord.USER_AGENT)
+                        .build()))
+                .addInterceptor(
+                        new HttpLoggingInterceptor(LoggerUtil.getLogger(OkHttpClient.class)::trace).setLevel(Level.BODY)
+                )
+                .proxyAuthenticator(new ProxyAuthenticator(proxyAuthenticator))
+                .proxy(proxy);
+        // REST requests are executed asynchronously, more requests are queued by the dispatcher
+        Dispatcher dispatcher = new Dispatcher(threadPool.getRestExecutorService());
+        dispatcher.setMaxRequests(MAX_CONCURRENT_REST_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_CONCURRENT_REST_REQUESTS);
+        httpClientBuilder.dispatcher(dispatcher);
+        if (proxySelector != null) {
+            httpClientBuilder.proxySelector(proxySelector);
+        }
+        if (dns != null) {
+            httpClientBuilder.dns(dns);
+        }
+        if (trustAllCertificates) {
+            logger.warn("All SSL certificates are trusted when connecting to the Discord API and websocket. "
+                    + "This increases the risk of man-in-the-middle attacks!");
+            TrustAllTrustManager trustManager = new TrustAllTrustManager();
+            httpClientBuilder.sslSocketFactory(trustManager.createSslSocketFactory(), trustManager);
+        }
+        return httpClientBuilder.build();
+    }
+
     /**
      * Gets the entity cache.
      *
      * @return The entity cache.
      */
-    public AtomicReference<JavacordEntityCache> getEntityCache() {
+    public EntityCache getEntityCache() {
         return entityCache;
     }
 
@@ -726,6 +820,15 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
         return userCacheEnabled;
     }
 
+    /**
+     * Checks if zlib-stream transport compression is used for the gateway connection.
+     *
+     * @return Whether transport compression is enabled.
+     */
+    public boolean isTransportCompressionEnabled() {
+        return transportCompressionEnabled;
+    }
+
     @Override
     public void setEventsDispatchable(boolean dispatchEvents) {
         this.dispatchEvents = dispatchEvents;
@@ -748,6 +851,25 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
         return httpClient;
     }
 
+    /**
+     * Gets the {@link OkHttpClient http client} which downloads media, like avatars and attachments.
+     *
+     * <p>It shares the connection pool and settings of the {@link #getHttpClient() http client}, but uses the media
+     * cache if one is configured.
+     *
+     * <p>Like the {@link #getHttpClient() http client}, it must not be used anymore after {@link #disconnect()} was
+     * called, so downloading media fails from then on.
+     *
+     * @return The http client for media.
+     * @throws IllegalStateException If {@link #disconnect()} was called already.
+     */
+    public OkHttpClient getMediaHttpClient() {
+        if (disconnectFuture.get() != null) {
+            throw new IllegalStateException("disconnect was called already");
+        }
+        return mediaHttpClient;
+    }
+
     /**
      * Gets the event dispatcher which is used to dispatch events.
      *
@@ -784,20 +906,14 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
                 .map(Cleanupable.class::cast)
                 .forEach(Cleanupable::cleanup);
         servers.clear();
-        entityCache.get().getChannelCache().getChannels().stream()
+        entityCache.getChannelCache().getChannels().stream()
                 .filter(Cleanupable.class::isInstance)
                 .map(Cleanupable.class::cast)
                 .forEach(Cleanupable::cleanup);
-        entityCache.set(JavacordEntityCache.empty());
+        entityCache.clear();
         unavailableServers.clear();
         customEmojis.clear();
-        messageCacheLock.lock();
-        try {
-            messages.clear();
-            messageIdByRef.clear();
-        } finally {
-            messageCacheLock.unlock();
-        }
+        messages.clear();
         timeOffset = null;
     }
 
@@ -922,13 +1038,10 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param channel The channel to add.
      */
     public void addChannelToCache(Channel channel) {
-        entityCache.getAndUpdate(cache -> {
-            Channel oldChannel = cache.getChannelCache().getChannelById(channel.getId()).orElse(null);
-            if (oldChannel != channel && oldChannel instanceof Cleanupable) {
-                ((Cleanupable) oldChannel).cleanup();
-            }
-            return cache.updateChannelCache(channelCache -> channelCache.addChannel(channel));
-        });
+        Channel oldChannel = entityCache.addChannel(channel);
+        if (oldChannel != channel && oldChannel instanceof Cleanupable) {
+            ((Cleanupable) oldChannel).cleanup();
+        }
     }
 
     /**
@@ -938,12 +1051,9 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param mapper A function that takes the old user presence (or null) and returns the new user presence.
      */
     public void updateUserPresence(long userId, UnaryOperator<UserPresence> mapper) {
-        entityCache.getAndUpdate(cache -> {
-            UserPresence presence = cache.getUserPresenceCache().getPresenceByUserId(userId)
-                    .orElseGet(() -> new UserPresence(userId, null, null, io.vavr.collection.HashMap.empty()));
-            return cache.updateUserPresenceCache(userPresenceCache ->
-                    userPresenceCache.removeUserPresence(presence).addUserPresence(mapper.apply(presence)));
-        });
+        entityCache.updateUserPresence(userId, presence -> mapper.apply(presence != null
+                ? presence
+                : new UserPresence(userId, null, null, io.vavr.collection.HashMap.empty())));
     }
 
     /**
@@ -952,29 +1062,29 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param channelId The id of the channel to remove.
      */
     public void removeChannelFromCache(long channelId) {
-        entityCache.getAndUpdate(cache -> {
-            Channel channel = cache.getChannelCache().getChannelById(channelId).orElse(null);
-            if (channel == null) {
-                return cache;
-            }
-
-            //Remove all ServerThreadChannels when the parent channel is removed
-            channel.asServerChannel().ifPresent(serverChannel -> {
-                if (serverChannel.asServerThreadChannel().isPresent()) {
-                    return;
-                }
-
-                serverChannel.getServer().getThreadChannels().stream()
-                        .filter(c -> c.getParent().getId() == serverChannel.getId())
-                        .mapToLong(DiscordEntity::getId)
-                        .forEach(this::removeChannelFromCache);
-            });
+        Channel channel = entityCache.getChannelCache().getChannelById(channelId).orElse(null);
+        if (channel == null) {
+            return;
+        }
 
-            if (channel instanceof Cleanupable) {
-                ((Cleanupable) channel).cleanup();
+        //Remove all ServerThreadChannels when the parent channel is removed
+        channel.asServerChannel().ifPresent(serverChannel -> {
+            if (serverChannel.asServerThreadChannel().isPresent()) {
+                return;
             }
-            return cache.updateChannelCache(channelCache -> channelCache.removeChannel(channel));
+
+            serverChannel.getServer().getThreadChannels().stream()
+                    .filter(c -> c.getParent().getId() == serverChannel.getId())
+                    .mapToLong(DiscordEntity::getId)
+                    .forEach(this::removeChannelFromCache);
         });
+
+        Channel removedChannel = entityCache.removeChannel(channelId);
+        if (removedChannel instanceof Cleanupable) {
+            ((Cleanupable) removedChannel).cleanup();
+        }
+        channel.asRegularServerChannel().ifPresent(regularServerChannel ->
+                ((ServerImpl) regularServerChannel.getServer()).getPermissionsCache().removeChannel(channelId));
     }
 
     /**
@@ -986,12 +1096,7 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
         if (!isUserCacheEnabled()) {
             return;
         }
-        entityCache.getAndUpdate(cache -> {
-            Member oldMember = cache.getMemberCache()
-                    .getMemberByIdAndServer(member.getId(), member.getServer().getId())
-                    .orElse(null);
-            return cache.updateMemberCache(memberCache -> memberCache.removeMember(oldMember).addMember(member));
-        });
+        entityCache.addMember(member);
     }
 
     /**
@@ -1000,16 +1105,7 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param user The new user object.
      */
     public void updateUserOfAllMembers(User user) {
-        entityCache.getAndUpdate(cache -> {
-            JavacordEntityCache newCache = cache;
-            for (Member member : cache.getMemberCache().getMembersById(user.getId())) {
-                newCache = newCache.updateMemberCache(memberCache -> memberCache
-                        .removeMember(member)
-                        .addMember(((MemberImpl) member).setUser((UserImpl) user))
-                );
-            }
-            return newCache;
-        });
+        entityCache.updateMembersById(user.getId(), member -> ((MemberImpl) member).setUser((UserImpl) user));
     }
 
     /**
@@ -1019,13 +1115,7 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param serverId The id of the member's server.
      */
     public void removeMemberFromCache(long memberId, long serverId) {
-        entityCache.getAndUpdate(cache -> {
-            Member member = cache.getMemberCache().getMemberByIdAndServer(memberId, serverId).orElse(null);
-            if (member == null) {
-                return cache;
-            }
-            return cache.updateMemberCache(memberCache -> memberCache.removeMember(member));
-        });
+        entityCache.removeMember(memberId, serverId);
     }
 
     /**
@@ -1180,11 +1270,13 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      */
     public Message getOrCreateMessage(TextChannel channel, JsonNode data) {
         long id = Long.parseLong(data.get("id").asText());
-        messageCacheLock.lock();
-        try {
+        Optional<Message> cachedMessage = getCachedMessageById(id);
+        if (cachedMessage.isPresent()) {
+            return cachedMessage.get();
+        }
+        // only the creation of the same message has to be serialized, and a message never changes its channel
+        synchronized (messageCreationLocks.get(channel.getId())) {
             return getCachedMessageById(id).orElseGet(() -> new MessageImpl(this, channel, data));
-        } finally {
-            messageCacheLock.unlock();
         }
     }
 
@@ -1194,19 +1286,16 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param message The message to add.
      */
     public void addMessageToCache(Message message) {
-        messageCacheLock.lock();
-        try {
-            messages.compute(message.getId(), (key, value) -> {
-                if ((value == null) || (value.get() == null)) {
-                    WeakReference<Message> result = new WeakReference<>(message, messagesCleanupQueue);
-                    messageIdByRef.put(result, key);
-                    return result;
-                }
-                return value;
-            });
-        } finally {
-            messageCacheLock.unlock();
+        MessageReference messageRef = messages.get(message.getId());
+        if (messageRef != null && messageRef.get() != null) {
+            return;
         }
+        messages.compute(message.getId(), value -> {
+            if ((value == null) || (value.get() == null)) {
+                return new MessageReference(message, messagesCleanupQueue);
+            }
+            return value;
+        });
     }
 
     /**
@@ -1215,15 +1304,7 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param messageId The id of the message to remove.
      */
     public void removeMessageFromCache(long messageId) {
-        messageCacheLock.lock();
-        try {
-            WeakReference<Message> messageRef = messages.remove(messageId);
-            if (messageRef != null) {
-                messageIdByRef.remove(messageRef, messageId);
-            }
-        } finally {
-            messageCacheLock.unlock();
-        }
+        messages.remove(messageId);
     }
 
     /**
@@ -1242,13 +1323,8 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     @SuppressWarnings("unchecked")
     public <T extends ObjectAttachableListener> ListenerManager<T> addObjectListener(
             Class<?> objectClass, long objectId, Class<T> listenerClass, T listener) {
-        Map<ObjectAttachableListener, ListenerManagerImpl<? extends ObjectAttachableListener>> listeners =
-                objectListeners
-                        .computeIfAbsent(objectClass, key -> new ConcurrentHashMap<>())
-                        .computeIfAbsent(objectId, key -> new ConcurrentHashMap<>())
-                        .computeIfAbsent(listenerClass, c -> Collections.synchronizedMap(new LinkedHashMap<>()));
-        return (ListenerManager<T>) listeners.computeIfAbsent(
-                listener, key -> new ListenerManagerImpl<>(this, listener, listenerClass, objectClass, objectId));
+        return (ListenerManager<T>) listenerRegistry.addObjectListener(objectClass, objectId, listenerClass, listener,
+                () -> new ListenerManagerImpl<>(this, listener, listenerClass, objectClass, objectId));
     }
 
     /**
@@ -1262,42 +1338,13 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      */
     public <T extends ObjectAttachableListener> void removeObjectListener(
             Class<?> objectClass, long objectId, Class<T> listenerClass, T listener) {
-        synchronized (objectListeners) {
-            if (objectClass == null) {
-                return;
-            }
-            Map<Long, Map<Class<? extends ObjectAttachableListener>, Map<ObjectAttachableListener,
-                    ListenerManagerImpl<? extends ObjectAttachableListener>>>> objectListener =
-                    objectListeners.get(objectClass);
-            if (objectListener == null) {
-                return;
-            }
-            Map<Class<? extends ObjectAttachableListener>, Map<ObjectAttachableListener,
-                    ListenerManagerImpl<? extends ObjectAttachableListener>>> listeners = objectListener.get(objectId);
-            if (listeners == null) {
-                return;
-            }
-            Map<ObjectAttachableListener, ListenerManagerImpl<? extends ObjectAttachableListener>> classListeners =
-                    listeners.get(listenerClass);
-            if (classListeners == null) {
-                return;
-            }
-            ListenerManagerImpl<? extends ObjectAttachableListener> listenerManager = classListeners.get(listener);
-            if (listenerManager == null) {
-                return;
-            }
-            classListeners.remove(listener);
+        if (objectClass == null) {
+            return;
+        }
+        ListenerManagerImpl<?> listenerManager =
+                listenerRegistry.removeObjectListener(objectClass, objectId, listenerClass, listener);
+        if (listenerManager != null) {
             listenerManager.removed();
-            // Clean it up
-            if (classListeners.isEmpty()) {
-                listeners.remove(listenerClass);
-                if (listeners.isEmpty()) {
-                    objectListener.remove(objectId);
-                    if (objectListener.isEmpty()) {
-                        objectListeners.remove(objectClass);
-                    }
-                }
-            }
         }
     }
 
@@ -1311,26 +1358,7 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
         if (objectClass == null) {
             return;
         }
-        synchronized (objectListeners) {
-            Map<Long, Map<Class<? extends ObjectAttachableListener>,
-                    Map<ObjectAttachableListener, ListenerManagerImpl<? extends ObjectAttachableListener>>>>
-                    objects = objectListeners.get(objectClass);
-            if (objects == null) {
-                return;
-            }
-            // Remove all listeners
-            objects.computeIfPresent(objectId, (id, listeners) -> {
-                listeners.values().stream()
-                        .flatMap(map -> map.values().stream())
-                        .forEach(ListenerManagerImpl::removed);
-                listeners.clear();
-                return null;
-            });
-            // Cleanup
-            if (objects.isEmpty()) {
-                objectListeners.remove(objectClass);
-            }
-        }
+        listenerRegistry.removeObjectListeners(objectClass, objectId).forEach(ListenerManagerImpl::removed);
     }
 
     /**
@@ -1343,68 +1371,45 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @return A map with all registered listeners that implement one or more {@code ObjectAttachableListener}s and
      *         their assigned listener classes they listen to.
      */
-    @SuppressWarnings("unchecked")
     public <T extends ObjectAttachableListener> Map<T, List<Class<T>>> getObjectListeners(
             Class<?> objectClass, long objectId) {
-        return Collections.unmodifiableMap(Optional.ofNullable(objectClass)
-                .map(objectListeners::get)
-                .map(objectListener -> objectListener.get(objectId))
-                .map(Map::entrySet)
-                .map(Set::stream)
-                .map(entryStream -> entryStream
-                        .flatMap(entry -> entry
-                                .getValue()
-                                .keySet()
-                                .stream()
-                                .map(listener -> new SimpleEntry<>((T) listener, (Class<T>) entry.getKey()))))
-                .map(entryStream -> entryStream
-                        .collect(Collectors.groupingBy(Entry::getKey,
-                                Collectors.mapping(Entry::getValue, Collectors.toList()))))
-                .orElseGet(HashMap::new));
+        return Collections.unmodifiableMap(listenerRegistry.getObjectListeners(objectClass, objectId));
     }
 
     /**
      * Gets all object listeners of the given class.
      *
+     * <p>The returned list is a snapshot which is shared between callers. Getting it does not allocate.
+     *
      * @param objectClass   The class of the object.
      * @param objectId      The id of the object.
      * @param listenerClass The listener class.
      * @param <T>           The type of the listener.
      * @return All object listeners of the given type.
      */
-    @SuppressWarnings("unchecked")
     public <T extends ObjectAttachableListener> List<T> getObjectListeners(
             Class<?> objectClass, long objectId, Class<T> listenerClass) {
-        return Collections.unmodifiableList((List<T>) Optional.ofNullable(objectClass)
-                .map(objectListeners::get)
-                .map(objectListener -> objectListener.get(objectId))
-                .map(listeners -> listeners.get(listenerClass))
-                .map(Map::keySet)
-                .map(ArrayList::new)
-                .orElseGet(ArrayList::new));
+        return listenerRegistry.getObjectListeners(objectClass, objectId, listenerClass);
+    }
+
+    /**
+     * Checks if there is any listener of the given class, either globally or attached to any object.
+     *
+     * @param listenerClass The listener class.
+     * @return Whether there is any listener of the given class.
+     */
+    public boolean hasListeners(Class<?> listenerClass) {
+        return listenerRegistry.hasListeners(listenerClass);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T extends GloballyAttachableListener> Map<T, List<Class<T>>> getListeners() {
-        return Collections.unmodifiableMap(listeners.entrySet().stream()
-                .flatMap(entry -> entry
-                        .getValue()
-                        .keySet()
-                        .stream()
-                        .map(listener -> new SimpleEntry<>((T) listener, (Class<T>) entry.getKey())))
-                .collect(Collectors.groupingBy(Entry::getKey,
-                        Collectors.mapping(Entry::getValue, Collectors.toList()))));
+        return Collections.unmodifiableMap(listenerRegistry.getListeners());
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T extends GloballyAttachableListener> List<T> getListeners(Class<T> listenerClass) {
-        return Collections.unmodifiableList((List<T>) Optional.ofNullable(listenerClass)
-                .map(listeners::get)
-                .map(Map::keySet)
-                .map(ArrayList::new)
-                .orElseGet(ArrayList::new));
+        return listenerRegistry.getListeners(listenerClass);
     }
 
     @Override
@@ -1680,14 +1685,21 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     @Override
     public Ratelimiter getGatewayIdentifyRatelimiter() {
         if (gatewayIdentifyRatelimiter == null) {
-            return defaultGatewayIdentifyRatelimiter.computeIfAbsent(
-                    getToken(),
-                    (token) -> new LocalRatelimiter(1, Duration.ofMillis(5500))
-            );
+            return getIdentifyScheduler().getRatelimiter(this);
         }
         return gatewayIdentifyRatelimiter;
     }
 
+    /**
+     * Gets the identify scheduler which is shared with every bot with the same token in the same Java program.
+     * It is used to identify if no gateway identify ratelimiter was set.
+     *
+     * @return The identify scheduler.
+     */
+    public IdentifyScheduler getIdentifyScheduler() {
+        return identifySchedulers.computeIfAbsent(getToken(), token -> new IdentifyScheduler());
+    }
+
     @Override
     public Duration getLatestGatewayLatency() {
         return Duration.ofNanos(latestGatewayLatencyNanos);
@@ -1869,6 +1881,16 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
 
     @Override
     public CompletableFuture<Void> disconnect() {
+        return disconnect(false);
+    }
+
+    /**
+     * Disconnects the bot.
+     *
+     * @param resumable Whether the session should be kept resumable.
+     * @return A future that completes once the disconnect is finished.
+     */
+    private CompletableFuture<Void> disconnect(boolean resumable) {
         boolean doDisconnect = false;
         synchronized (disconnectFuture) {
             if (disconnectFuture.get() == null) {
@@ -1889,7 +1911,11 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
                     disconnectFuture.get().complete(null);
                 });
                 // disconnect web socket
-                websocketAdapter.disconnect();
+                if (resumable) {
+                    websocketAdapter.disconnectResumable();
+                } else {
+                    websocketAdapter.disconnect();
+                }
                 // shutdown thread pool if within one minute no disconnect event was dispatched
                 threadPool.getDaemonScheduler().schedule(() -> {
                     threadPool.shutdown();
@@ -1900,6 +1926,42 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
         return disconnectFuture.get();
     }
 
+    @Override
+    public CompletableFuture<SessionState> disconnectResumable() {
+        Optional<SessionState> sessionState = getSessionState();
+        if (!sessionState.isPresent()) {
+            CompletableFuture<SessionState> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("There is no session which could be resumed"));
+            return future;
+        }
+        // the events which are received until the connection is closed are included in the final session state,
+        // so the future is only completed once they are applied to the cache
+        return disconnect(true)
+                .thenCompose(nothing -> websocketAdapter.awaitHandledPackets())
+                .thenApply(nothing -> getSessionState().orElseGet(sessionState::get));
+    }
+
+    @Override
+    public Optional<SessionState> getSessionState() {
+        return websocketAdapter == null ? Optional.empty() : websocketAdapter.getSessionState();
+    }
+
+    @Override
+    public void writeCacheSnapshot(Path file) throws IOException {
+        if (you == null) {
+            throw new IllegalStateException("The cache can only be written after the bot logged in");
+        }
+        CacheSnapshot.write(this, file);
+    }
+
+    @Override
+    public void writeCacheSnapshot(WritableByteChannel channel) throws IOException {
+        if (you == null) {
+            throw new IllegalStateException("The cache can only be written after the bot logged in");
+        }
+        CacheSnapshot.write(this, channel);
+    }
+
     @Override
     public void setReconnectDelay(Function<Integer, Integer> reconnectDelayProvider) {
         this.reconnectDelayProvider = reconnectDelayProvider;
@@ -1970,12 +2032,12 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
 
     @Override
     public Set<User> getCachedUsers() {
-        return getEntityCache().get().getMemberCache().getUserCache().getUsers();
+        return getEntityCache().getMemberCache().getUserCache().getUsers();
     }
 
     @Override
     public Optional<User> getCachedUserById(long id) {
-        return getEntityCache().get().getMemberCache().getUserCache().getUserById(id);
+        return getEntityCache().getMemberCache().getUserCache().getUserById(id);
     }
 
     @Override
@@ -1989,15 +2051,7 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
 
     @Override
     public MessageSet getCachedMessages() {
-        messageCacheLock.lock();
-        try {
-            return new MessageSetImpl(messages.values().stream()
-                    .map(Reference::get)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList()));
-        } finally {
-            messageCacheLock.unlock();
-        }
+        return getCachedMessagesWhere(message -> true);
     }
 
     /**
@@ -2007,16 +2061,14 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @return The cached messages satisfying the condition.
      */
     public MessageSet getCachedMessagesWhere(Predicate<Message> filter) {
-        messageCacheLock.lock();
-        try {
-            return new MessageSetImpl(messages.values().stream()
-                    .map(Reference::get)
-                    .filter(Objects::nonNull)
-                    .filter(filter)
-                    .collect(Collectors.toList()));
-        } finally {
-            messageCacheLock.unlock();
-        }
+        List<Message> cachedMessages = new ArrayList<>();
+        messages.forEachValue(messageRef -> {
+            Message message = messageRef.get();
+            if (message != null && filter.test(message)) {
+                cachedMessages.add(message);
+            }
+        });
+        return new MessageSetImpl(cachedMessages);
     }
 
     /**
@@ -2026,26 +2078,14 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
      * @param action The action to be applied to the messages.
      */
     public void forEachCachedMessageWhere(Predicate<Message> filter, Consumer<Message> action) {
-        messageCacheLock.lock();
-        try {
-            messages.values().stream()
-                    .map(Reference::get)
-                    .filter(Objects::nonNull)
-                    .filter(filter)
-                    .forEach(action);
-        } finally {
-            messageCacheLock.unlock();
-        }
+        // the action usually modifies the cache, so it is applied to a snapshot
+        getCachedMessagesWhere(filter).forEach(action);
     }
 
     @Override
     public Optional<Message> getCachedMessageById(long id) {
-        messageCacheLock.lock();
-        try {
-            return Optional.ofNullable(messages.get(id)).map(Reference::get);
-        } finally {
-            messageCacheLock.unlock();
-        }
+        MessageReference messageRef = messages.get(id);
+        return messageRef == null ? Optional.empty() : Optional.ofNullable(messageRef.get());
     }
 
     @Override
@@ -2083,48 +2123,48 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
 
     @Override
     public Set<Channel> getChannels() {
-        return entityCache.get().getChannelCache().getChannels();
+        return entityCache.getChannelCache().getChannels();
     }
 
     @Override
     public Set<PrivateChannel> getPrivateChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.PRIVATE_CHANNEL);
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.PRIVATE_CHANNEL);
     }
 
     @Override
     public Set<ServerChannel> getServerChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.getServerChannelTypes());
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.getServerChannelTypes());
     }
 
     @Override
     public Set<RegularServerChannel> getRegularServerChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.getRegularServerChannelTypes());
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.getRegularServerChannelTypes());
     }
 
     @Override
     public Set<TextableRegularServerChannel> getTextableRegularServerChannels() {
-        return entityCache.get().getChannelCache()
+        return entityCache.getChannelCache()
                 .getChannelsWithTypes(ChannelType.getTextableRegularServerChannelTypes());
     }
 
     @Override
     public Set<ChannelCategory> getChannelCategories() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.CHANNEL_CATEGORY);
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.CHANNEL_CATEGORY);
     }
 
     @Override
     public Set<ServerTextChannel> getServerTextChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.SERVER_TEXT_CHANNEL);
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.SERVER_TEXT_CHANNEL);
     }
 
     @Override
     public Set<ServerForumChannel> getServerForumChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.SERVER_FORUM_CHANNEL);
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.SERVER_FORUM_CHANNEL);
     }
 
     @Override
     public Set<ServerThreadChannel> getServerThreadChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(
+        return entityCache.getChannelCache().getChannelsWithTypes(
                 ChannelType.SERVER_PRIVATE_THREAD,
                 ChannelType.SERVER_PUBLIC_THREAD,
                 ChannelType.SERVER_NEWS_THREAD);
@@ -2132,46 +2172,37 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
 
     @Override
     public Set<ServerThreadChannel> getPrivateServerThreadChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.SERVER_PRIVATE_THREAD);
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.SERVER_PRIVATE_THREAD);
     }
 
     @Override
     public Set<ServerThreadChannel> getPublicServerThreadChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.SERVER_PUBLIC_THREAD);
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.SERVER_PUBLIC_THREAD);
     }
 
     @Override
     public Set<ServerVoiceChannel> getServerVoiceChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.SERVER_VOICE_CHANNEL);
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.SERVER_VOICE_CHANNEL);
     }
 
     @Override
     public Set<ServerStageVoiceChannel> getServerStageVoiceChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.SERVER_STAGE_VOICE_CHANNEL);
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.SERVER_STAGE_VOICE_CHANNEL);
     }
 
     @Override
     public Set<TextChannel> getTextChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.getTextChannelTypes());
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.getTextChannelTypes());
     }
 
     @Override
     public Set<VoiceChannel> getVoiceChannels() {
-        return entityCache.get().getChannelCache().getChannelsWithTypes(ChannelType.getVoiceChannelTypes());
+        return entityCache.getChannelCache().getChannelsWithTypes(ChannelType.getVoiceChannelTypes());
     }
 
     @Override
     public Optional<Channel> getChannelById(long id) {
-        return entityCache.get().getChannelCache().getChannelById(id);
-    }
-
-    /**
-     * Get the message cache lock.
-     *
-     * @return the message cache lock
-     */
-    public ReentrantLock getMessageCacheLock() {
-        return messageCacheLock;
+        return entityCache.getChannelCache().getChannelById(id);
     }
 
     @Override
@@ -2189,29 +2220,15 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
     @Override
     @SuppressWarnings("unchecked")
     public <T extends GloballyAttachableListener> ListenerManager<T> addListener(Class<T> listenerClass, T listener) {
-        return (ListenerManager<T>) listeners
-                .computeIfAbsent(listenerClass, key -> Collections.synchronizedMap(new LinkedHashMap<>()))
-                .computeIfAbsent(listener, key -> new ListenerManagerImpl<>(this, listener, listenerClass));
+        return (ListenerManager<T>) listenerRegistry.addListener(
+                listenerClass, listener, () -> new ListenerManagerImpl<>(this, listener, listenerClass));
     }
 
     @Override
     public <T extends GloballyAttachableListener> void removeListener(Class<T> listenerClass, T listener) {
-        synchronized (listeners) {
-            Map<GloballyAttachableListener, ListenerManagerImpl<? extends GloballyAttachableListener>> classListeners =
-                    listeners.get(listenerClass);
-            if (classListeners == null) {
-                return;
-            }
-            ListenerManagerImpl<? extends GloballyAttachableListener> listenerManager = classListeners.get(listener);
-            if (listenerManager == null) {
-                return;
-            }
-            classListeners.remove(listener);
+        ListenerManagerImpl<?> listenerManager = listenerRegistry.removeListener(listenerClass, listener);
+        if (listenerManager != null) {
             listenerManager.removed();
-            // Clean it up
-            if (classListeners.isEmpty()) {
-                listeners.remove(listenerClass);
-            }
         }
     }
 
@@ -2231,4 +2248,17 @@ public class DiscordApiImpl implements DiscordApi, DispatchQueueSelector {
         disconnect();
         super.finalize();
     }
+
+    /**
+     * A weak reference to a cached message that remembers the message's id.
+     */
+    private static class MessageReference extends WeakReference<Message> {
+
+        private final long messageId;
+
+        private MessageReference(Message message, ReferenceQueue<? super Message> queue) {
+            super(message, queue);
+            messageId = message.getId();
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package org.javacord.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import org.apache.logging.log4j.Logger;
+import org.javacord.api.DiscordApi;
+import org.javacord.api.ShardManager;
+import org.javacord.api.entity.server.Server;
+import org.javacord.api.util.auth.Authenticator;
+import org.javacord.core.util.concurrent.ThreadPoolImpl;
+import org.javacord.core.util.logging.LoggerUtil;
+import org.javacord.core.util.ratelimit.RatelimitManager;
+
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The implementation of {@link ShardManager}.
+ *
+ * <p>The shards get their own {@link ThreadPoolImpl} which shares the threads of the manager's thread pool, so a
+ * shard can still be disconnected on its own. The http client, the object mapper and the ratelimit manager are used by
+ * all shards directly.
+ */
+public class ShardManagerImpl implements ShardManager {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(ShardManagerImpl.class);
+
+    private final int totalShards;
+    private final ThreadPoolImpl threadPool;
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The ratelimit manager, which is created with the first shard.
+     */
+    private RatelimitManager ratelimitManager;
+
+    /**
+     * The logged in shards by their id.
+     */
+    private final AtomicReferenceArray<DiscordApi> shards;
+
+    /**
+     * Creates a new shard manager.
+     *
+     * @param totalShards          The total amount of shards.
+     * @param threadPool           The thread pool whose threads are shared by the shards.
+     * @param proxySelector        The proxy selector which should be used to determine the proxies that should be
+     *                             used to connect to the Discord REST API.
+     * @param proxy                The proxy which should be used to connect to the Discord REST API.
+     * @param proxyAuthenticator   The authenticator that should be used to authenticate against proxies that
+     *                             require it.
+     * @param trustAllCertificates Whether to trust all SSL certificates.
+     */
+    public ShardManagerImpl(int totalShards, ThreadPoolImpl threadPool, ProxySelector proxySelector, Proxy proxy,
+                            Authenticator proxyAuthenticator, boolean trustAllCertificates) {
+        this.totalShards = totalShards;
+        this.threadPool = threadPool;
+        shards = new AtomicReferenceArray<>(totalShards);
+        httpClient = DiscordApiImpl.createHttpClient(
+                threadPool, proxySelector, proxy, proxyAuthenticator, trustAllCertificates, null);
+    }
+
+    /**
+     * Gets the thread pool whose threads are shared by the shards.
+     *
+     * @return The shared thread pool.
+     */
+    public ThreadPoolImpl getThreadPool() {
+        return threadPool;
+    }
+
+    /**
+     * Gets the http client which is shared by the shards.
+     *
+     * @return The shared http client.
+     */
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Gets the object mapper which is shared by the shards.
+     *
+     * @return The shared object mapper.
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Gets the ratelimit manager which is shared by the shards.
+     * It is created with the first shard, as all shards have the same token and global ratelimiter.
+     *
+     * @param api The shard which requests the ratelimit manager.
+     * @return The shared ratelimit manager.
+     */
+    public synchronized RatelimitManager getRatelimitManager(DiscordApiImpl api) {
+        if (ratelimitManager == null) {
+            ratelimitManager = new RatelimitManager(api, threadPool);
+        }
+        return ratelimitManager;
+    }
+
+    /**
+     * Adds a shard which logged in.
+     *
+     * @param api The shard.
+     */
+    public void addShard(DiscordApi api) {
+        shards.set(api.getCurrentShard(), api);
+    }
+
+    @Override
+    public int getTotalShards() {
+        return totalShards;
+    }
+
+    @Override
+    public Collection<DiscordApi> getShards() {
+        List<DiscordApi> shards = new ArrayList<>();
+        for (int i = 0; i < totalShards; i++) {
+            DiscordApi api = this.shards.get(i);
+            if (api != null) {
+                shards.add(api);
+            }
+        }
+        return Collections.unmodifiableList(shards);
+    }
+
+    @Override
+    public Optional<DiscordApi> getShard(int shard) {
+        if (shard < 0 || shard >= totalShards) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(shards.get(shard));
+    }
+
+    @Override
+    public Set<Server> getServers() {
+        Set<Server> servers = new HashSet<>();
+        for (DiscordApi api : getShards()) {
+            servers.addAll(api.getServers());
+        }
+        return Collections.unmodifiableSet(servers);
+    }
+
+    @Override
+    public CompletableFuture<Void> disconnect() {
+        CompletableFuture<?>[] disconnectFutures = getShards().stream()
+                .map(DiscordApi::disconnect)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(disconnectFutures).whenComplete((nothing, throwable) -> {
+            if (throwable != null) {
+                logger.warn("Failed to disconnect all shards", throwable);
+            }
+            threadPool.shutdown();
+        });
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ShardManager (total shards: %d, logged in shards: %d)",
+                totalShards, getShards().size());
+    }
+
+}
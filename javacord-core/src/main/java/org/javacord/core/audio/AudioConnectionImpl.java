@@ -11,6 +11,7 @@ import org.javacord.core.DiscordApiImpl;
 import org.javacord.core.entity.server.ServerImpl;
 import org.javacord.core.listener.audio.InternalAudioConnectionAttachableListenerManager;
 import org.javacord.core.util.concurrent.BlockingReference;
+import org.javacord.core.util.gateway.AudioUdpSocket;
 import org.javacord.core.util.gateway.AudioWebSocketAdapter;
 import org.javacord.core.util.logging.LoggerUtil;
 import java.util.Collections;
@@ -300,6 +301,25 @@ public class AudioConnectionImpl implements AudioConnection, InternalAudioConnec
                 .sendVoiceStateUpdate(getChannel().getServer(), getChannel(), isSelfMuted(), isSelfDeafened());
     }
 
+    /**
+     * Gets the current audio source without blocking the thread.
+     *
+     * @return The current audio source or {@code null} if there is none.
+     */
+    public AudioSource getCurrentAudioSource() {
+        return currentSource.getNow();
+    }
+
+    /**
+     * Gets the udp socket which sends the audio of this connection, e.g. to get its send statistics.
+     *
+     * @return The udp socket or an empty optional if the connection has not been established yet.
+     */
+    public Optional<AudioUdpSocket> getUdpSocket() {
+        AudioWebSocketAdapter websocketAdapter = this.websocketAdapter;
+        return websocketAdapter == null ? Optional.empty() : websocketAdapter.getSocket();
+    }
+
     /**
      * Gets the current audio source, blocking the thread until it is available.
      *
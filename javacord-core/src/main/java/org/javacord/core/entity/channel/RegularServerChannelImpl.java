@@ -4,25 +4,21 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.javacord.api.entity.DiscordEntity;
 import org.javacord.api.entity.Permissionable;
 import org.javacord.api.entity.channel.RegularServerChannel;
-import org.javacord.api.entity.permission.PermissionState;
 import org.javacord.api.entity.permission.PermissionType;
 import org.javacord.api.entity.permission.Permissions;
-import org.javacord.api.entity.permission.PermissionsBuilder;
 import org.javacord.api.entity.permission.Role;
-import org.javacord.api.entity.server.Server;
 import org.javacord.api.entity.user.User;
 import org.javacord.core.DiscordApiImpl;
+import org.javacord.core.entity.permission.MemberPermissionsCache;
 import org.javacord.core.entity.permission.PermissionsImpl;
 import org.javacord.core.entity.server.ServerImpl;
 import org.javacord.core.util.logging.LoggerUtil;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RegularServerChannelImpl extends ServerChannelImpl implements RegularServerChannel {
 
@@ -43,6 +39,11 @@ public class RegularServerChannelImpl extends ServerChannelImpl implements Regul
      */
     private final ConcurrentHashMap<Long, Permissions> overwrittenRolePermissions = new ConcurrentHashMap<>();
 
+    /**
+     * The version of the permission overwrites, used to invalidate memoized permissions.
+     */
+    private final AtomicLong permissionsVersion = new AtomicLong();
+
     /**
      * The rawPosition of the channel.
      */
@@ -121,48 +122,94 @@ public class RegularServerChannelImpl extends ServerChannelImpl implements Regul
 
     @Override
     public Permissions getEffectiveOverwrittenPermissions(User user) {
-        PermissionsBuilder builder = new PermissionsBuilder(PermissionsImpl.EMPTY_PERMISSIONS);
-        Server server = getServer();
-        Role everyoneRole = server.getEveryoneRole();
-        Permissions everyoneRolePermissionOverwrites = getOverwrittenPermissions(everyoneRole);
-        for (PermissionType type : PermissionType.values()) {
-            if (everyoneRolePermissionOverwrites.getState(type) == PermissionState.DENIED) {
-                builder.setState(type, PermissionState.DENIED);
+        long everyoneRoleId = getServer().getId();
+        long allow = 0;
+        long deny = 0;
+        Permissions everyoneOverwrite = overwrittenRolePermissions.get(everyoneRoleId);
+        if (everyoneOverwrite != null) {
+            allow = everyoneOverwrite.getAllowedBitmask();
+            deny = everyoneOverwrite.getDeniedBitmask();
+        }
+        long roleAllow = 0;
+        long roleDeny = 0;
+        for (Role role : getServer().getRoles(user)) {
+            if (role.getId() == everyoneRoleId) {
+                continue;
             }
-            if (everyoneRolePermissionOverwrites.getState(type) == PermissionState.ALLOWED) {
-                builder.setState(type, PermissionState.ALLOWED);
+            Permissions roleOverwrite = overwrittenRolePermissions.get(role.getId());
+            if (roleOverwrite != null) {
+                roleAllow |= roleOverwrite.getAllowedBitmask();
+                roleDeny |= roleOverwrite.getDeniedBitmask();
             }
         }
-        List<Role> rolesOfUser = new ArrayList<>(server.getRoles(user));
-        rolesOfUser.remove(everyoneRole);
-        List<Permissions> permissionOverwrites = rolesOfUser.stream()
-                .map(this::getOverwrittenPermissions)
-                .collect(Collectors.toList());
-        for (Permissions permissions : permissionOverwrites) {
-            for (PermissionType type : PermissionType.values()) {
-                if (permissions.getState(type) == PermissionState.DENIED) {
-                    builder.setState(type, PermissionState.DENIED);
-                }
-            }
+        allow = (allow & ~roleDeny) | roleAllow;
+        deny = (deny | roleDeny) & ~roleAllow;
+        Permissions userOverwrite = overwrittenUserPermissions.get(user.getId());
+        if (userOverwrite != null) {
+            allow = (allow & ~userOverwrite.getDeniedBitmask()) | userOverwrite.getAllowedBitmask();
+            deny = (deny & ~userOverwrite.getAllowedBitmask()) | userOverwrite.getDeniedBitmask();
         }
-        for (Permissions permissions : permissionOverwrites) {
-            for (PermissionType type : PermissionType.values()) {
-                if (permissions.getState(type) == PermissionState.ALLOWED) {
-                    builder.setState(type, PermissionState.ALLOWED);
-                }
+        return new PermissionsImpl(allow, deny);
+    }
+
+    @Override
+    public Permissions getEffectivePermissions(User user) {
+        long allowed = getPermissionsBitmask(user);
+        return new PermissionsImpl(allowed, MemberPermissionsCache.ALL_PERMISSIONS & ~allowed);
+    }
+
+    @Override
+    public boolean hasPermission(User user, PermissionType permission) {
+        return (getPermissionsBitmask(user) & permission.getValue()) != 0;
+    }
+
+    @Override
+    public boolean hasPermissions(User user, PermissionType... type) {
+        long permissions = getPermissionsBitmask(user);
+        for (PermissionType permission : type) {
+            if ((permissions & permission.getValue()) == 0) {
+                return false;
             }
         }
-        for (PermissionType type : PermissionType.values()) {
-            Permissions permissions = overwrittenUserPermissions
-                    .getOrDefault(user.getId(), PermissionsImpl.EMPTY_PERMISSIONS);
-            if (permissions.getState(type) == PermissionState.DENIED) {
-                builder.setState(type, PermissionState.DENIED);
-            }
-            if (permissions.getState(type) == PermissionState.ALLOWED) {
-                builder.setState(type, PermissionState.ALLOWED);
+        return true;
+    }
+
+    @Override
+    public boolean hasAnyPermission(User user, PermissionType... type) {
+        long permissions = getPermissionsBitmask(user);
+        for (PermissionType permission : type) {
+            if ((permissions & permission.getValue()) != 0) {
+                return true;
             }
         }
-        return builder.build();
+        return false;
+    }
+
+    /**
+     * Gets the effective permissions of a user in this channel as a bitmask.
+     *
+     * @param user The user.
+     * @return A bitmask with the allowed permissions of the user.
+     */
+    private long getPermissionsBitmask(User user) {
+        return ((ServerImpl) getServer()).getPermissionsCache().getPermissions(user, this);
+    }
+
+    /**
+     * Gets the version of the permission overwrites of this channel.
+     *
+     * @return The version of the permission overwrites.
+     */
+    public long getPermissionsVersion() {
+        return permissionsVersion.get();
+    }
+
+    /**
+     * Invalidates the memoized permissions of this channel.
+     * Must be called after the permission overwrites changed.
+     */
+    public void invalidatePermissions() {
+        permissionsVersion.incrementAndGet();
     }
 
     @Override
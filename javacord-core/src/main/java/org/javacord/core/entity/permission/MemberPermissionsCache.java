@@ -0,0 +1,245 @@
+package org.javacord.core.entity.permission;
+
+import org.javacord.api.entity.permission.PermissionType;
+import org.javacord.api.entity.permission.Permissions;
+import org.javacord.api.entity.permission.Role;
+import org.javacord.api.entity.user.User;
+import org.javacord.core.entity.channel.RegularServerChannelImpl;
+import org.javacord.core.entity.server.ServerImpl;
+import org.javacord.core.entity.user.Member;
+import org.javacord.core.entity.user.UserImpl;
+import org.javacord.core.util.cache.ConcurrentLongPairObjectMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes the permissions of the members of a server as bitmasks and memoizes them per member and channel.
+ *
+ * <p>The computation follows Discord's algorithm: The base permissions are the permissions of all roles of the
+ * member, then the overwrites of the everyone role, the overwrites of the member's roles and finally the overwrite of
+ * the member itself are applied.
+ *
+ * <p>A memoized result is only used if it was computed from the same {@link Member} instance, the same version of the
+ * server's roles and the same version of the channel's overwrites. Member objects are replaced on every member
+ * update, so only role and overwrite changes have to be reported with {@link #invalidate()} and
+ * {@link RegularServerChannelImpl#invalidatePermissions()}. The versions are bumped after the data changed, so a
+ * result that raced with a change is never used.
+ */
+public class MemberPermissionsCache {
+
+    /**
+     * A bitmask with all known permission types.
+     */
+    public static final long ALL_PERMISSIONS;
+
+    static {
+        long allPermissions = 0;
+        for (PermissionType type : PermissionType.values()) {
+            allPermissions |= type.getValue();
+        }
+        ALL_PERMISSIONS = allPermissions;
+    }
+
+    private static final long ADMINISTRATOR = PermissionType.ADMINISTRATOR.getValue();
+
+    /**
+     * The channel id which is used for the server-wide permissions.
+     */
+    private static final long SERVER_PERMISSIONS = 0;
+
+    private final ServerImpl server;
+
+    /**
+     * The memoized permissions, keyed by the user id and the channel id.
+     */
+    private final ConcurrentLongPairObjectMap<MemoizedPermissions> memoizedPermissions =
+            new ConcurrentLongPairObjectMap<>();
+
+    /**
+     * The version of the server's roles and owner.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Creates a new member permissions cache.
+     *
+     * @param server The server of the cache.
+     */
+    public MemberPermissionsCache(ServerImpl server) {
+        this.server = server;
+    }
+
+    /**
+     * Invalidates all memoized permissions, e.g. because a role or the owner of the server changed.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        memoizedPermissions.clear();
+    }
+
+    /**
+     * Removes the memoized permissions of the given user, e.g. because they left the server.
+     *
+     * @param userId The id of the user.
+     */
+    public void invalidate(long userId) {
+        memoizedPermissions.removeFirstKey(userId);
+    }
+
+    /**
+     * Removes the memoized permissions of the given channel, e.g. because it was deleted.
+     *
+     * @param channelId The id of the channel.
+     */
+    public void removeChannel(long channelId) {
+        memoizedPermissions.removeSecondKey(channelId);
+    }
+
+    /**
+     * Gets the server-wide permissions of the given user.
+     *
+     * @param user The user.
+     * @return A bitmask with the allowed permissions of the user.
+     */
+    public long getPermissions(User user) {
+        if (user.getId() == server.getOwnerId()) {
+            return ALL_PERMISSIONS;
+        }
+        Member member = getMember(user);
+        if (member == null) {
+            return 0;
+        }
+        long version = this.version.get();
+        MemoizedPermissions memoized = memoizedPermissions.get(user.getId(), SERVER_PERMISSIONS);
+        if (memoized != null && memoized.isValid(member, version, 0)) {
+            return memoized.bitmask;
+        }
+        long bitmask = computeBasePermissions(member);
+        memoizedPermissions.put(user.getId(), SERVER_PERMISSIONS, new MemoizedPermissions(member, version, 0, bitmask));
+        return bitmask;
+    }
+
+    /**
+     * Gets the permissions of the given user in the given channel.
+     *
+     * @param user The user.
+     * @param channel The channel.
+     * @return A bitmask with the allowed permissions of the user.
+     */
+    public long getPermissions(User user, RegularServerChannelImpl channel) {
+        if (user.getId() == server.getOwnerId()) {
+            return ALL_PERMISSIONS;
+        }
+        Member member = getMember(user);
+        if (member == null) {
+            return computeOverwrites(user.getId(), null, 0, channel);
+        }
+        long version = this.version.get();
+        long channelVersion = channel.getPermissionsVersion();
+        MemoizedPermissions memoized = memoizedPermissions.get(user.getId(), channel.getId());
+        if (memoized != null && memoized.isValid(member, version, channelVersion)) {
+            return memoized.bitmask;
+        }
+        long bitmask = computeOverwrites(user.getId(), member, computeBasePermissions(member), channel);
+        memoizedPermissions.put(
+                user.getId(), channel.getId(), new MemoizedPermissions(member, version, channelVersion, bitmask));
+        return bitmask;
+    }
+
+    /**
+     * Gets the member object of the user in this server.
+     *
+     * @param user The user.
+     * @return The member or {@code null} if the user is not a member of the server.
+     */
+    private Member getMember(User user) {
+        return ((UserImpl) user).getMember()
+                .filter(member -> member.getServer().equals(server))
+                .map(Member.class::cast)
+                .orElseGet(() -> server.getRealMemberById(user.getId()).orElse(null));
+    }
+
+    /**
+     * Computes the server-wide permissions of a member, which are the permissions of all of its roles.
+     *
+     * @param member The member.
+     * @return A bitmask with the allowed permissions.
+     */
+    private long computeBasePermissions(Member member) {
+        long permissions = 0;
+        for (Role role : member.getRoles()) {
+            permissions |= role.getPermissions().getAllowedBitmask();
+        }
+        return (permissions & ADMINISTRATOR) != 0 ? ALL_PERMISSIONS : permissions;
+    }
+
+    /**
+     * Applies the permission overwrites of a channel to the base permissions.
+     *
+     * @param userId The id of the user.
+     * @param member The member or {@code null} if the user is not a member of the server.
+     * @param basePermissions The server-wide permissions of the user.
+     * @param channel The channel.
+     * @return A bitmask with the allowed permissions.
+     */
+    private long computeOverwrites(long userId, Member member, long basePermissions,
+                                   RegularServerChannelImpl channel) {
+        if ((basePermissions & ADMINISTRATOR) != 0) {
+            return ALL_PERMISSIONS;
+        }
+        Map<Long, Permissions> roleOverwrites = channel.getInternalOverwrittenRolePermissions();
+        long permissions = basePermissions;
+        long everyoneRoleId = server.getId();
+        Permissions everyoneOverwrite = roleOverwrites.get(everyoneRoleId);
+        if (everyoneOverwrite != null) {
+            permissions &= ~everyoneOverwrite.getDeniedBitmask();
+            permissions |= everyoneOverwrite.getAllowedBitmask();
+        }
+        if (member != null && !roleOverwrites.isEmpty()) {
+            long allow = 0;
+            long deny = 0;
+            for (Role role : member.getRoles()) {
+                if (role.getId() == everyoneRoleId) {
+                    continue;
+                }
+                Permissions roleOverwrite = roleOverwrites.get(role.getId());
+                if (roleOverwrite != null) {
+                    allow |= roleOverwrite.getAllowedBitmask();
+                    deny |= roleOverwrite.getDeniedBitmask();
+                }
+            }
+            permissions &= ~deny;
+            permissions |= allow;
+        }
+        Permissions userOverwrite = channel.getInternalOverwrittenUserPermissions().get(userId);
+        if (userOverwrite != null) {
+            permissions &= ~userOverwrite.getDeniedBitmask();
+            permissions |= userOverwrite.getAllowedBitmask();
+        }
+        return permissions;
+    }
+
+    /**
+     * Permissions of a member together with the state they were computed from.
+     */
+    private static final class MemoizedPermissions {
+
+        private final Member member;
+        private final long version;
+        private final long channelVersion;
+        private final long bitmask;
+
+        private MemoizedPermissions(Member member, long version, long channelVersion, long bitmask) {
+            this.member = member;
+            this.version = version;
+            this.channelVersion = channelVersion;
+            this.bitmask = bitmask;
+        }
+
+        private boolean isValid(Member member, long version, long channelVersion) {
+            return this.member == member && this.version == version && this.channelVersion == channelVersion;
+        }
+    }
+
+}
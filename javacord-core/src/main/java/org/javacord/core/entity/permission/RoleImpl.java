@@ -129,6 +129,41 @@ public class RoleImpl implements Role, InternalRoleAttachableListenerManager {
         this.roleTags = data.has("tags") ? new RoleTagsImpl(data.get("tags")) : null;
     }
 
+    /**
+     * Creates a new role object from the given values.
+     *
+     * @param api          The discord api instance.
+     * @param server       The server of the role.
+     * @param id           The id of the role.
+     * @param name         The name of the role.
+     * @param rawPosition  The raw position of the role.
+     * @param color        The color of the role as {@code int}.
+     * @param hoist        Whether the role is pinned in the user listing.
+     * @param iconHash     The hash of the role's icon or {@code null}.
+     * @param unicodeEmoji The unicode emoji role icon or {@code null}.
+     * @param mentionable  Whether the role can be mentioned.
+     * @param permissions  The bitmask of the role's permissions.
+     * @param managed      Whether the role is managed by an integration.
+     * @param roleTags     The role tags of the role or {@code null}.
+     */
+    public RoleImpl(DiscordApiImpl api, ServerImpl server, long id, String name, int rawPosition, int color,
+                    boolean hoist, String iconHash, String unicodeEmoji, boolean mentionable, long permissions,
+                    boolean managed, RoleTagsImpl roleTags) {
+        this.api = api;
+        this.server = server;
+        this.id = id;
+        this.name = name;
+        this.rawPosition = rawPosition;
+        this.color = color;
+        this.hoist = hoist;
+        this.iconHash = iconHash;
+        this.unicodeEmoji = unicodeEmoji;
+        this.mentionable = mentionable;
+        this.permissions = new PermissionsImpl(permissions, 0);
+        this.managed = managed;
+        this.roleTags = roleTags;
+    }
+
     /**
      * Gets the color of the role as {@code int}.
      *
@@ -181,6 +216,7 @@ public class RoleImpl implements Role, InternalRoleAttachableListenerManager {
      */
     public void setPermissions(PermissionsImpl permissions) {
         this.permissions = permissions;
+        server.getPermissionsCache().invalidate();
     }
 
     /**
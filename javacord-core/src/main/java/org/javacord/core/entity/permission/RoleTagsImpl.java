@@ -33,6 +33,19 @@ public class RoleTagsImpl implements RoleTags {
         this.isPremiumSubscriptionRole = data.has("premium_subscriber");
     }
 
+    /**
+     * Creates a new role tags object from the given values.
+     *
+     * @param botId The id of the bot this role belongs to or {@code null}.
+     * @param integrationId The id of the integration this role belongs to or {@code null}.
+     * @param isPremiumSubscriptionRole Whether the role is the premium subscription role.
+     */
+    public RoleTagsImpl(Long botId, Long integrationId, boolean isPremiumSubscriptionRole) {
+        this.botId = botId;
+        this.integrationId = integrationId;
+        this.isPremiumSubscriptionRole = isPremiumSubscriptionRole;
+    }
+
     @Override
     public Optional<Long> getBotId() {
         return Optional.ofNullable(botId);
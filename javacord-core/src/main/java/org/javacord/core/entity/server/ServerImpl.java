@@ -31,6 +31,8 @@ import org.javacord.api.entity.channel.UnknownRegularServerChannel;
 import org.javacord.api.entity.channel.UnknownServerChannel;
 import org.javacord.api.entity.emoji.KnownCustomEmoji;
 import org.javacord.api.entity.intent.Intent;
+import org.javacord.api.entity.permission.PermissionType;
+import org.javacord.api.entity.permission.Permissions;
 import org.javacord.api.entity.permission.Role;
 import org.javacord.api.entity.server.ActiveThreads;
 import org.javacord.api.entity.server.Ban;
@@ -67,6 +69,8 @@ import org.javacord.core.entity.channel.ServerThreadChannelImpl;
 import org.javacord.core.entity.channel.ServerVoiceChannelImpl;
 import org.javacord.core.entity.channel.UnknownRegularServerChannelImpl;
 import org.javacord.core.entity.channel.UnknownServerChannelImpl;
+import org.javacord.core.entity.permission.MemberPermissionsCache;
+import org.javacord.core.entity.permission.PermissionsImpl;
 import org.javacord.core.entity.permission.RoleImpl;
 import org.javacord.core.entity.server.invite.InviteImpl;
 import org.javacord.core.entity.server.invite.WelcomeScreenImpl;
@@ -225,6 +229,11 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
      */
     private final ConcurrentHashMap<Long, Role> roles = new ConcurrentHashMap<>();
 
+    /**
+     * The memoized permissions of the members.
+     */
+    private final MemberPermissionsCache permissionsCache = new MemberPermissionsCache(this);
+
     /**
      * All custom emojis from this server.
      */
@@ -503,6 +512,8 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
                 (isLarge() || !api.getIntents().contains(Intent.GUILD_PRESENCES))
                         && getMembers().size() < getMemberCount()
                         && api.hasUserCacheEnabled()
+                        // servers restored from a cache snapshot request their members once the shard is connected
+                        && api.getWebSocketAdapter() != null
         ) {
             api.getWebSocketAdapter().queueRequestGuildMembers(this);
         }
@@ -522,46 +533,7 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
         }
 
         if (data.has("presences")) {
-            for (JsonNode presenceJson : data.get("presences")) {
-                long userId = Long.parseLong(presenceJson.get("user").get("id").asText());
-                UserImpl user = api.getCachedUserById(userId)
-                        .map(UserImpl.class::cast)
-                        .orElse(null);
-
-                if (user == null) {
-                    // Ignore rogue presences.
-                    // It might be a similar issue than https://github.com/discordapp/discord-api-docs/issues/855
-                    continue;
-                }
-
-                if (presenceJson.hasNonNull("activities")) {
-                    Set<Activity> activities = new HashSet<>();
-                    for (JsonNode activityJson : presenceJson.get("activities")) {
-                        if (!activityJson.isNull()) {
-                            activities.add(new ActivityImpl(api, activityJson));
-                        }
-                    }
-                    api.updateUserPresence(userId, presence -> presence.setActivities(activities));
-                }
-                if (presenceJson.has("status")) {
-                    UserStatus status = UserStatus.fromString(presenceJson.get("status").asText());
-                    api.updateUserPresence(userId, presence -> presence.setStatus(status));
-                }
-
-                if (presenceJson.has("client_status")) {
-                    JsonNode clientStatus = presenceJson.get("client_status");
-                    for (DiscordClient client : DiscordClient.values()) {
-                        if (clientStatus.hasNonNull(client.getName())) {
-                            UserStatus status = UserStatus.fromString(clientStatus.get(client.getName()).asText());
-                            api.updateUserPresence(userId, presence -> presence
-                                    .setClientStatus(presence.getClientStatus().put(client, status)));
-                        } else {
-                            api.updateUserPresence(userId, presence -> presence
-                                    .setClientStatus(presence.getClientStatus().put(client, UserStatus.OFFLINE)));
-                        }
-                    }
-                }
-            }
+            updatePresences(data.get("presences"));
         }
 
         if (data.has("welcome_screen")) {
@@ -584,6 +556,54 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
         api.addServerToCache(this);
     }
 
+    /**
+     * Updates the presences of the members of the server.
+     *
+     * @param presencesJson An array of presence update objects.
+     */
+    private void updatePresences(JsonNode presencesJson) {
+        for (JsonNode presenceJson : presencesJson) {
+            long userId = Long.parseLong(presenceJson.get("user").get("id").asText());
+            UserImpl user = api.getCachedUserById(userId)
+                    .map(UserImpl.class::cast)
+                    .orElse(null);
+
+            if (user == null) {
+                // Ignore rogue presences.
+                // It might be a similar issue than https://github.com/discordapp/discord-api-docs/issues/855
+                continue;
+            }
+
+            if (presenceJson.hasNonNull("activities")) {
+                Set<Activity> activities = new HashSet<>();
+                for (JsonNode activityJson : presenceJson.get("activities")) {
+                    if (!activityJson.isNull()) {
+                        activities.add(new ActivityImpl(api, activityJson));
+                    }
+                }
+                api.updateUserPresence(userId, presence -> presence.setActivities(activities));
+            }
+            if (presenceJson.has("status")) {
+                UserStatus status = UserStatus.fromString(presenceJson.get("status").asText());
+                api.updateUserPresence(userId, presence -> presence.setStatus(status));
+            }
+
+            if (presenceJson.has("client_status")) {
+                JsonNode clientStatus = presenceJson.get("client_status");
+                for (DiscordClient client : DiscordClient.values()) {
+                    if (clientStatus.hasNonNull(client.getName())) {
+                        UserStatus status = UserStatus.fromString(clientStatus.get(client.getName()).asText());
+                        api.updateUserPresence(userId, presence -> presence
+                                .setClientStatus(presence.getClientStatus().put(client, status)));
+                    } else {
+                        api.updateUserPresence(userId, presence -> presence
+                                .setClientStatus(presence.getClientStatus().put(client, UserStatus.OFFLINE)));
+                    }
+                }
+            }
+        }
+    }
+
     private void showFallbackWarningMessage(int channelType, String fallbackName) {
         logger.warn("Encountered not handled channel type: {}. "
                         + "Trying to use the {} fallback implementation",
@@ -741,6 +761,7 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
      */
     public void setOwnerId(long ownerId) {
         this.ownerId = ownerId;
+        permissionsCache.invalidate();
     }
 
     /**
@@ -777,6 +798,16 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
      */
     public void removeRole(long roleId) {
         roles.remove(roleId);
+        permissionsCache.invalidate();
+    }
+
+    /**
+     * Gets the memoized permissions of the members.
+     *
+     * @return The memoized permissions of the members.
+     */
+    public MemberPermissionsCache getPermissionsCache() {
+        return permissionsCache;
     }
 
     /**
@@ -809,11 +840,24 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
             return getRoleById(id).orElseGet(() -> {
                 Role role = new RoleImpl(api, this, data);
                 this.roles.put(role.getId(), role);
+                permissionsCache.invalidate();
                 return role;
             });
         }
     }
 
+    /**
+     * Adds a role to the server.
+     *
+     * @param role The role to add.
+     */
+    public void addRole(Role role) {
+        synchronized (this) {
+            this.roles.put(role.getId(), role);
+            permissionsCache.invalidate();
+        }
+    }
+
     /**
      * Gets or creates a channel category.
      *
@@ -967,6 +1011,7 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
      */
     public void removeMember(long userId) {
         api.removeMemberFromCache(userId, getId());
+        permissionsCache.invalidate(userId);
     }
 
     /**
@@ -1011,15 +1056,20 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
      * Adds members to the server and returns the added members.
      *
      * @param membersJson An array of guild member objects.
+     * @param presencesJson An array of presence update objects of the members or {@code null} if there are none.
      * @param ready Whether the server should now be considered ready, as all members have been added.
      * @return The added members.
      */
-    public List<Member> addAndGetMembers(JsonNode membersJson, boolean ready) {
+    public List<Member> addAndGetMembers(JsonNode membersJson, JsonNode presencesJson, boolean ready) {
         List<Member> members = new ArrayList<>();
         for (JsonNode memberJson : membersJson) {
             Member member = addMember(memberJson);
             members.add(member);
         }
+        if (presencesJson != null) {
+            // the users of the presences are cached now
+            updatePresences(presencesJson);
+        }
 
         synchronized (readyConsumers) {
             if (!this.ready && ready) {
@@ -1143,7 +1193,7 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
 
     @Override
     public Set<ServerChannel> getUnorderedChannels() {
-        return api.getEntityCache().get().getChannelCache().getChannelsOfServer(getId());
+        return api.getEntityCache().getChannelCache().getChannelsOfServer(getId());
     }
 
     /**
@@ -1544,9 +1594,19 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
         api.getWebSocketAdapter().queueRequestGuildMembers(this);
     }
 
+    @Override
+    public CompletableFuture<Void> requestMembersChunks(boolean presences) {
+        return api.getWebSocketAdapter().getGuildMembersRequester().requestAllMembers(getId(), presences);
+    }
+
+    @Override
+    public CompletableFuture<Void> requestMembersChunks(Collection<Long> userIds, boolean presences) {
+        return api.getWebSocketAdapter().getGuildMembersRequester().requestMembers(getId(), userIds, presences);
+    }
+
     @Override
     public Set<User> getMembers() {
-        return api.getEntityCache().get().getMemberCache()
+        return api.getEntityCache().getMemberCache()
                 .getMembersByServer(getId())
                 .stream()
                 .map(Member::getUser)
@@ -1559,13 +1619,13 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
      * @return The real members.
      */
     public Set<Member> getRealMembers() {
-        return api.getEntityCache().get().getMemberCache()
+        return api.getEntityCache().getMemberCache()
                 .getMembersByServer(getId());
     }
 
     @Override
     public Optional<User> getMemberById(long id) {
-        return api.getEntityCache().get().getMemberCache()
+        return api.getEntityCache().getMemberCache()
                 .getMemberByIdAndServer(id, getId())
                 .map(Member::getUser);
     }
@@ -1577,13 +1637,13 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
      * @return The real member.
      */
     public Optional<Member> getRealMemberById(long userId) {
-        return api.getEntityCache().get().getMemberCache()
+        return api.getEntityCache().getMemberCache()
                 .getMemberByIdAndServer(userId, getId());
     }
 
     @Override
     public boolean isMember(User user) {
-        return api.getEntityCache().get().getMemberCache()
+        return api.getEntityCache().getMemberCache()
                 .getMemberByIdAndServer(user.getId(), getId())
                 .isPresent();
     }
@@ -1605,6 +1665,48 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
                                 .map(Member::getRoles).orElseGet(Collections::emptyList));
     }
 
+    @Override
+    public Permissions getPermissions(User user) {
+        return new PermissionsImpl(permissionsCache.getPermissions(user), 0);
+    }
+
+    @Override
+    public Set<PermissionType> getAllowedPermissions(User user) {
+        return getPermissions(user).getAllowedPermission();
+    }
+
+    @Override
+    public Set<PermissionType> getUnsetPermissions(User user) {
+        return getPermissions(user).getUnsetPermissions();
+    }
+
+    @Override
+    public boolean hasPermission(User user, PermissionType permission) {
+        return (permissionsCache.getPermissions(user) & permission.getValue()) != 0;
+    }
+
+    @Override
+    public boolean hasPermissions(User user, PermissionType... type) {
+        long permissions = permissionsCache.getPermissions(user);
+        for (PermissionType permission : type) {
+            if ((permissions & permission.getValue()) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasAnyPermission(User user, PermissionType... type) {
+        long permissions = permissionsCache.getPermissions(user);
+        for (PermissionType permission : type) {
+            if ((permissions & permission.getValue()) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isWidgetEnabled() {
         return widgetEnabled;
@@ -2051,21 +2153,21 @@ public class ServerImpl implements Server, Cleanupable, InternalServerAttachable
 
     @Override
     public Optional<ServerChannel> getChannelById(long id) {
-        return api.getEntityCache().get().getChannelCache().getChannelById(id)
+        return api.getEntityCache().getChannelCache().getChannelById(id)
                 .filter(ServerChannel.class::isInstance)
                 .map(ServerChannel.class::cast);
     }
 
     @Override
     public Optional<RegularServerChannel> getRegularChannelById(long id) {
-        return api.getEntityCache().get().getChannelCache().getChannelById(id)
+        return api.getEntityCache().getChannelCache().getChannelById(id)
                 .filter(RegularServerChannel.class::isInstance)
                 .map(RegularServerChannel.class::cast);
     }
 
     @Override
     public Optional<TextableRegularServerChannel> getTextableRegularChannelById(long id) {
-        return api.getEntityCache().get().getChannelCache().getChannelById(id)
+        return api.getEntityCache().getChannelCache().getChannelById(id)
                 .filter(TextableRegularServerChannel.class::isInstance)
                 .map(TextableRegularServerChannel.class::cast);
     }
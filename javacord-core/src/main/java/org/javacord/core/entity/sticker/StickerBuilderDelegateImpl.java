@@ -2,7 +2,6 @@ package org.javacord.core.entity.sticker;
 
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
-import okhttp3.RequestBody;
 import org.apache.logging.log4j.Logger;
 import org.javacord.api.Javacord;
 import org.javacord.api.entity.sticker.Sticker;
@@ -120,7 +119,7 @@ public class StickerBuilderDelegateImpl implements StickerBuilderDelegate {
                 .addFormDataPart("description", description)
                 .addFormDataPart("tags", tags)
                 .addFormDataPart("file", file.getName(),
-                        RequestBody.create(MediaType.parse(mediaType), container.asByteArray(api).join()))
+                        container.asRequestBody(api, MediaType.parse(mediaType)))
                 .build();
 
         return new RestRequest<Sticker>(api, RestMethod.POST, RestEndpoint.SERVER_STICKER)
@@ -109,6 +109,43 @@ public final class MemberImpl implements Member {
                 : null;
     }
 
+    /**
+     * Creates a new immutable member instance from the given values.
+     *
+     * @param api                        The api instance.
+     * @param server                     The server of the member.
+     * @param user                       The user of the member. The member gets a copy of the user which belongs to
+     *                                   it.
+     * @param nickname                   The nickname of the member or {@code null}.
+     * @param roleIds                    The ids of the member's roles without the everyone role.
+     * @param avatarHash                 The hash of the member's server avatar or {@code null}.
+     * @param joinedAt                   When the member joined the server.
+     * @param serverBoostingSince        Since when the member boosts the server or {@code null}.
+     * @param deafened                   Whether the member is deafened.
+     * @param muted                      Whether the member is muted.
+     * @param pending                    Whether the member did not yet pass the membership screening.
+     * @param communicationDisabledUntil Until when the member is timed out or {@code null}.
+     */
+    public MemberImpl(DiscordApiImpl api, ServerImpl server, UserImpl user, String nickname, List<Long> roleIds,
+                      String avatarHash, Instant joinedAt, Instant serverBoostingSince, boolean deafened,
+                      boolean muted, boolean pending, Instant communicationDisabledUntil) {
+        this.api = api;
+        this.server = server;
+        this.user = user.setMember(this);
+        this.nickname = nickname;
+        this.roleIds = roleIds;
+        this.roleIds.add(server.getEveryoneRole().getId());
+        this.avatarHash = avatarHash;
+        this.joinedAt = joinedAt.toString();
+        this.serverBoostingSince = serverBoostingSince == null ? null : serverBoostingSince.toString();
+        this.deafened = deafened;
+        this.muted = muted;
+        this.selfDeafened = false;
+        this.selfMuted = false;
+        this.pending = pending;
+        this.communicationDisabledUntil = communicationDisabledUntil;
+    }
+
     private MemberImpl(DiscordApiImpl api, ServerImpl server, UserImpl user, String nickname, List<Long> roleIds,
                        String avatarHash, String joinedAt, String serverBoostingSince, boolean deafened, boolean muted,
                        boolean selfDeafened, boolean selfMuted, boolean pending, Instant communicationDisabledUntil) {
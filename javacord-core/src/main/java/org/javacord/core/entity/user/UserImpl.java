@@ -73,12 +73,7 @@ public class UserImpl implements User, InternalUserAttachableListenerManager {
             avatarHash = null;
         }
         if (data.has("public_flags")) {
-            int flags = data.get("public_flags").asInt();
-            for (UserFlag flag : UserFlag.values()) {
-                if ((flag.asInt() & flags) == flag.asInt()) {
-                    userFlags.add(flag);
-                }
-            }
+            addUserFlags(data.get("public_flags").asInt());
         }
 
         bot = data.hasNonNull("bot") && data.get("bot").asBoolean();
@@ -108,18 +103,30 @@ public class UserImpl implements User, InternalUserAttachableListenerManager {
             avatarHash = null;
         }
         if (data.has("public_flags")) {
-            int flags = data.get("public_flags").asInt();
-            for (UserFlag flag : UserFlag.values()) {
-                if ((flag.asInt() & flags) == flag.asInt()) {
-                    userFlags.add(flag);
-                }
-            }
+            addUserFlags(data.get("public_flags").asInt());
         }
 
         bot = data.hasNonNull("bot") && data.get("bot").asBoolean();
         member = new MemberImpl(api, server, memberJson, this);
     }
 
+    /**
+     * Creates a new user instance which is not from a server.
+     *
+     * @param api A discord api instance.
+     * @param id The id of the user.
+     * @param name The name of the user.
+     * @param discriminator The discriminator of the user.
+     * @param avatarHash The hash of the user's avatar or {@code null} if the user has the default avatar.
+     * @param publicFlags The public flags of the user as bitmask.
+     * @param bot Whether the user is a bot account.
+     */
+    public UserImpl(DiscordApiImpl api, long id, String name, String discriminator, String avatarHash,
+                    int publicFlags, boolean bot) {
+        this(api, id, name, discriminator, avatarHash, bot, null);
+        addUserFlags(publicFlags);
+    }
+
     private UserImpl(DiscordApiImpl api, Long id, String name, String discriminator, String avatarHash, boolean bot,
                      MemberImpl member) {
         this.api = api;
@@ -131,6 +138,31 @@ public class UserImpl implements User, InternalUserAttachableListenerManager {
         this.member = member;
     }
 
+    /**
+     * Adds the user flags of the given bitmask.
+     *
+     * @param flags The bitmask of the user flags.
+     */
+    private void addUserFlags(int flags) {
+        for (UserFlag flag : UserFlag.values()) {
+            if ((flag.asInt() & flags) == flag.asInt()) {
+                userFlags.add(flag);
+            }
+        }
+    }
+
+    /**
+     * Creates a new user instance which belongs to the given member.
+     *
+     * @param member The member.
+     * @return The new user.
+     */
+    public UserImpl setMember(MemberImpl member) {
+        UserImpl user = new UserImpl(api, id, name, discriminator, avatarHash, bot, member);
+        user.userFlags = EnumSet.copyOf(userFlags);
+        return user;
+    }
+
     /**
      * Creates a new user instance with the updates data from the given partial json data.
      *
@@ -283,7 +315,7 @@ public class UserImpl implements User, InternalUserAttachableListenerManager {
     @Override
     public Set<Server> getMutualServers() {
         if (api.isUserCacheEnabled()) {
-            return api.getEntityCache().get().getMemberCache().getServers(getId());
+            return api.getEntityCache().getMemberCache().getServers(getId());
         }
         return member == null ? Collections.emptySet() : Collections.singleton(member.getServer());
     }
@@ -394,20 +426,20 @@ public class UserImpl implements User, InternalUserAttachableListenerManager {
 
     @Override
     public Set<Activity> getActivities() {
-        return api.getEntityCache().get().getUserPresenceCache().getPresenceByUserId(getId())
+        return api.getEntityCache().getUserPresenceCache().getPresenceByUserId(getId())
                 .map(UserPresence::getActivities).orElse(Collections.emptySet());
     }
 
     @Override
     public UserStatus getStatus() {
-        return api.getEntityCache().get().getUserPresenceCache().getPresenceByUserId(getId())
+        return api.getEntityCache().getUserPresenceCache().getPresenceByUserId(getId())
                 .map(UserPresence::getStatus)
                 .orElse(UserStatus.OFFLINE);
     }
 
     @Override
     public UserStatus getStatusOnClient(DiscordClient client) {
-        return api.getEntityCache().get().getUserPresenceCache().getPresenceByUserId(getId())
+        return api.getEntityCache().getUserPresenceCache().getPresenceByUserId(getId())
                 .map(UserPresence::getClientStatus)
                 .map(clientStatusMap -> clientStatusMap.getOrElse(client, UserStatus.OFFLINE))
                 .orElse(UserStatus.OFFLINE);
@@ -415,7 +447,7 @@ public class UserImpl implements User, InternalUserAttachableListenerManager {
 
     @Override
     public Optional<PrivateChannel> getPrivateChannel() {
-        return api.getEntityCache().get().getChannelCache().getPrivateChannelByUserId(getId());
+        return api.getEntityCache().getChannelCache().getPrivateChannelByUserId(getId());
     }
 
     @Override
@@ -1,9 +1,17 @@
 package org.javacord.core.util;
 
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
 import org.apache.logging.log4j.Logger;
 import org.javacord.api.DiscordApi;
-import org.javacord.api.Javacord;
 import org.javacord.api.entity.Icon;
+import org.javacord.core.DiscordApiImpl;
 import org.javacord.core.util.io.FileUtils;
 import org.javacord.core.util.logging.LoggerUtil;
 
@@ -18,8 +26,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
-import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 
@@ -33,6 +41,12 @@ public class FileContainer {
      */
     private static final Logger logger = LoggerUtil.getLogger(FileContainer.class);
 
+    /**
+     * The maximum size of a file given as an input stream which is buffered in memory to replay it.
+     * Larger files are buffered in a temporary file instead.
+     */
+    private static final long MAX_BUFFERED_INPUT_STREAM_SIZE = 8 * 1024 * 1024;
+
     /**
      * The file as buffered image.
      */
@@ -63,6 +77,24 @@ public class FileContainer {
      */
     private final InputStream fileAsInputStream;
 
+    /**
+     * The content of the input stream if it was buffered in memory.
+     * Guarded by {@code this}.
+     */
+    private byte[] bufferedInputStream;
+
+    /**
+     * The temporary file which contains the content of the input stream if it was too large to buffer it in memory.
+     * Guarded by {@code this}.
+     */
+    private File bufferedInputStreamFile;
+
+    /**
+     * Whether the input stream was read.
+     * Guarded by {@code this}.
+     */
+    private boolean inputStreamConsumed;
+
     /**
      * The type ("png", "txt", ...) or name ("image.png", "readme.txt", ...) of the file.
      */
@@ -363,11 +395,29 @@ public class FileContainer {
                     || fileAsUrl != null
                     || fileAsInputStream != null) {
                 api.getThreadPool().getExecutorService().submit(() -> {
+                    if (fileAsFile != null) {
+                        try {
+                            future.complete(Files.readAllBytes(fileAsFile.toPath()));
+                        } catch (Throwable t) {
+                            future.completeExceptionally(t);
+                        }
+                        return;
+                    }
+                    if (fileAsBufferedImage != null) {
+                        // encode it directly instead of piping it through another thread
+                        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                            ImageIO.write(fileAsBufferedImage, getFileType(), out);
+                            future.complete(out.toByteArray());
+                        } catch (Throwable t) {
+                            future.completeExceptionally(t);
+                        }
+                        return;
+                    }
                     try (
                             InputStream in = new BufferedInputStream(asInputStream(api));
                             ByteArrayOutputStream out = new ByteArrayOutputStream()
                     ) {
-                        byte[] buf = new byte[1024];
+                        byte[] buf = new byte[8192];
                         int n;
                         while (-1 != (n = in.read(buf))) {
                             out.write(buf, 0, n);
@@ -386,6 +436,112 @@ public class FileContainer {
         return future;
     }
 
+    /**
+     * Gets a request body which streams the file while the request is written.
+     *
+     * <p>Unlike {@link #asByteArray(DiscordApi)}, the file is never completely held in memory: Files are read from
+     * the disk, buffered images are encoded and urls are downloaded straight into the request. The request body can
+     * be written multiple times, e.g. if the request is retried because of a ratelimit. Files given as an input stream
+     * can only be read once, so they are buffered the first time the request body is written and replayed from the
+     * buffer afterwards.
+     *
+     * @param api The discord api instance.
+     * @param mediaType The media type of the file.
+     * @return The request body.
+     */
+    public RequestBody asRequestBody(DiscordApi api, MediaType mediaType) {
+        if (fileAsByteArray != null) {
+            return RequestBody.create(fileAsByteArray, mediaType);
+        }
+        if (fileAsFile != null) {
+            return RequestBody.create(fileAsFile, mediaType);
+        }
+        if (fileAsBufferedImage != null) {
+            return new StreamingRequestBody(mediaType, -1) {
+                @Override
+                public void writeTo(BufferedSink sink) throws IOException {
+                    if (!ImageIO.write(fileAsBufferedImage, getFileType(), sink.outputStream())) {
+                        throw new IOException(
+                                String.format("No image writer found for format \"%s\"", getFileType()));
+                    }
+                }
+            };
+        }
+        if (fileAsIcon != null || fileAsUrl != null) {
+            return new StreamingRequestBody(mediaType, -1) {
+                @Override
+                public void writeTo(BufferedSink sink) throws IOException {
+                    try (Source source = Okio.source(asInputStream(api))) {
+                        sink.writeAll(source);
+                    }
+                }
+            };
+        }
+        if (fileAsInputStream != null) {
+            return new StreamingRequestBody(mediaType, -1) {
+                @Override
+                public void writeTo(BufferedSink sink) throws IOException {
+                    writeBufferedInputStreamTo(sink);
+                }
+            };
+        }
+        throw new IllegalStateException("No file variant is set");
+    }
+
+    /**
+     * Writes the content of the input stream to the given sink.
+     *
+     * <p>The input stream is buffered the first time, in memory or in a temporary file if it is larger than
+     * {@link #MAX_BUFFERED_INPUT_STREAM_SIZE}, so it can be written again if a request has to be retried.
+     *
+     * @param sink The sink to write to.
+     * @throws IOException If the input stream could not be read or buffered.
+     */
+    private synchronized void writeBufferedInputStreamTo(BufferedSink sink) throws IOException {
+        if (bufferedInputStream == null && bufferedInputStreamFile == null) {
+            if (inputStreamConsumed) {
+                throw new IOException("The input stream of the file was already consumed without buffering it");
+            }
+            inputStreamConsumed = true;
+            bufferInputStream();
+        }
+        if (bufferedInputStream != null) {
+            sink.write(bufferedInputStream);
+            return;
+        }
+        try (Source source = Okio.source(bufferedInputStreamFile)) {
+            sink.writeAll(source);
+        }
+    }
+
+    /**
+     * Reads the input stream into memory or into a temporary file if it is larger than
+     * {@link #MAX_BUFFERED_INPUT_STREAM_SIZE}.
+     *
+     * @throws IOException If the input stream could not be read or buffered.
+     */
+    private void bufferInputStream() throws IOException {
+        Buffer buffer = new Buffer();
+        try (Source source = Okio.source(fileAsInputStream)) {
+            while (buffer.size() <= MAX_BUFFERED_INPUT_STREAM_SIZE) {
+                if (source.read(buffer, 8192) == -1) {
+                    bufferedInputStream = buffer.readByteArray();
+                    return;
+                }
+            }
+            File file = Files.createTempFile("javacord-", ".tmp").toFile();
+            file.deleteOnExit();
+            try (BufferedSink fileSink = Okio.buffer(Okio.sink(file))) {
+                fileSink.writeAll(buffer);
+                fileSink.writeAll(source);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file.toPath());
+                throw e;
+            }
+            bufferedInputStreamFile = file;
+        }
+    }
+
     /**
      * Gets the input stream for the file.
      *
@@ -412,11 +568,14 @@ public class FileContainer {
         }
         if (fileAsIcon != null || fileAsUrl != null) {
             URL url = fileAsUrl == null ? fileAsIcon.getUrl() : fileAsUrl;
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setRequestProperty("Content-Type", "application/json; charset=utf-8");
-            conn.setRequestProperty("User-Agent", Javacord.USER_AGENT);
-            return conn.getInputStream();
+            Request request = new Request.Builder().url(url).build();
+            Response response = ((DiscordApiImpl) api).getMediaHttpClient().newCall(request).execute();
+            if (!response.isSuccessful()) {
+                response.close();
+                throw new IOException(
+                        String.format("Received status code %d when downloading %s", response.code(), url));
+            }
+            return response.body().byteStream();
         }
         if (fileAsByteArray != null) {
             return new ByteArrayInputStream(fileAsByteArray);
@@ -444,4 +603,34 @@ public class FileContainer {
                     }
                 });
     }
+
+    /**
+     * A request body which writes the file while the request is written.
+     */
+    private abstract static class StreamingRequestBody extends RequestBody {
+
+        private final MediaType mediaType;
+        private final long contentLength;
+
+        /**
+         * Creates a new streaming request body.
+         *
+         * @param mediaType The media type of the file.
+         * @param contentLength The length of the file or {@code -1} if it is unknown and the body has to be chunked.
+         */
+        private StreamingRequestBody(MediaType mediaType, long contentLength) {
+            this.mediaType = mediaType;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mediaType;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+    }
 }
@@ -0,0 +1,900 @@
+package org.javacord.core.util.cache;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.javacord.api.entity.DiscordClient;
+import org.javacord.api.entity.VanityUrlCode;
+import org.javacord.api.entity.channel.Categorizable;
+import org.javacord.api.entity.channel.ChannelCategory;
+import org.javacord.api.entity.channel.RegularServerChannel;
+import org.javacord.api.entity.channel.ServerChannel;
+import org.javacord.api.entity.channel.ServerThreadChannel;
+import org.javacord.api.entity.channel.thread.ThreadMetadata;
+import org.javacord.api.entity.emoji.KnownCustomEmoji;
+import org.javacord.api.entity.permission.Permissions;
+import org.javacord.api.entity.permission.Role;
+import org.javacord.api.entity.permission.RoleTags;
+import org.javacord.api.entity.server.Server;
+import org.javacord.api.entity.server.ServerFeature;
+import org.javacord.api.entity.server.SystemChannelFlag;
+import org.javacord.api.entity.user.User;
+import org.javacord.api.entity.user.UserFlag;
+import org.javacord.api.entity.user.UserStatus;
+import org.javacord.core.DiscordApiImpl;
+import org.javacord.core.entity.channel.ChannelCategoryImpl;
+import org.javacord.core.entity.channel.ServerStageVoiceChannelImpl;
+import org.javacord.core.entity.channel.ServerTextChannelImpl;
+import org.javacord.core.entity.channel.ServerVoiceChannelImpl;
+import org.javacord.core.entity.channel.TextableRegularServerChannelImpl;
+import org.javacord.core.entity.permission.RoleImpl;
+import org.javacord.core.entity.permission.RoleTagsImpl;
+import org.javacord.core.entity.server.ServerImpl;
+import org.javacord.core.entity.user.Member;
+import org.javacord.core.entity.user.MemberImpl;
+import org.javacord.core.entity.user.UserImpl;
+import org.javacord.core.entity.user.UserPresence;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes and reads compact binary snapshots of the cached servers of a shard.
+ *
+ * <p>A snapshot starts with the magic bytes {@code JCCS}, the version of the format and the shard. It is followed by
+ * the connected account, the ids of the unavailable servers and the servers, one at a time, so the whole snapshot
+ * never has to be kept in memory. Numbers like snowflakes and permission bitmasks are written as varints, repeating
+ * strings are interned and the roles of members and emoji whitelists refer to the roles of the server by their index.
+ *
+ * <p>Users, members, roles and presences, which make up most of a snapshot, are restored directly into the caches.
+ * The server itself, its channels and its emojis are still restored by their gateway constructors, but from small json
+ * objects which are built from the snapshot.
+ *
+ * <p>Activities, stickers and scheduled events are not part of a snapshot.
+ */
+public class CacheSnapshot {
+
+    /**
+     * The magic bytes every snapshot starts with.
+     */
+    private static final byte[] MAGIC = {'J', 'C', 'C', 'S'};
+
+    /**
+     * The version of the snapshot format. Snapshots with another version are not restored.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Marks that another server follows.
+     */
+    private static final int SERVER = 1;
+
+    /**
+     * Marks the end of the servers.
+     */
+    private static final int END = 0;
+
+    private static final int LARGE = 1;
+    private static final int WIDGET_ENABLED = 1 << 1;
+    private static final int PREMIUM_PROGRESS_BAR_ENABLED = 1 << 2;
+
+    private static final int REGULAR_CHANNEL = 1;
+    private static final int CATEGORIZED_CHANNEL = 1 << 1;
+    private static final int TEXTABLE_CHANNEL = 1 << 2;
+    private static final int TEXT_CHANNEL = 1 << 3;
+    private static final int VOICE_CHANNEL = 1 << 4;
+    private static final int STAGE_CHANNEL = 1 << 5;
+    private static final int CATEGORY = 1 << 6;
+
+    private static final int THREAD_ARCHIVED = 1;
+    private static final int THREAD_LOCKED = 1 << 1;
+    private static final int THREAD_INVITABLE = 1 << 2;
+    private static final int THREAD_NOT_INVITABLE = 1 << 3;
+    private static final int THREAD_CREATION_TIMESTAMP = 1 << 4;
+    private static final int THREAD_LAST_MESSAGE = 1 << 5;
+
+    private static final int ROLE_HOIST = 1;
+    private static final int ROLE_MENTIONABLE = 1 << 1;
+    private static final int ROLE_MANAGED = 1 << 2;
+    private static final int ROLE_TAGS = 1 << 3;
+    private static final int ROLE_PREMIUM_SUBSCRIBER = 1 << 4;
+
+    private static final int EMOJI_ANIMATED = 1;
+    private static final int EMOJI_REQUIRES_COLONS = 1 << 1;
+    private static final int EMOJI_MANAGED = 1 << 2;
+    private static final int EMOJI_WHITELIST = 1 << 3;
+
+    private static final int MEMBER_PENDING = 1;
+    private static final int MEMBER_DEAFENED = 1 << 1;
+    private static final int MEMBER_MUTED = 1 << 2;
+    private static final int MEMBER_BOOSTING = 1 << 3;
+    private static final int MEMBER_TIMEOUT = 1 << 4;
+    private static final int MEMBER_PRESENCE = 1 << 5;
+
+    private CacheSnapshot() {
+        throw new UnsupportedOperationException("You cannot create an instance of this class");
+    }
+
+    /**
+     * Writes a snapshot of the cache of the given shard to the given file.
+     *
+     * @param api The shard.
+     * @param file The file to write the snapshot to.
+     * @throws IOException If the snapshot could not be written.
+     */
+    public static void write(DiscordApiImpl api, Path file) throws IOException {
+        write(api, FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Writes a snapshot of the cache of the given shard to the given channel.
+     *
+     * @param api The shard.
+     * @param channel The channel to write the snapshot to. It is closed afterwards.
+     * @throws IOException If the snapshot could not be written.
+     */
+    public static void write(DiscordApiImpl api, WritableByteChannel channel) throws IOException {
+        try (CacheSnapshotWriter out = new CacheSnapshotWriter(channel)) {
+            out.writeBytes(MAGIC);
+            out.writeVarLong(VERSION);
+            out.writeVarLong(api.getCurrentShard());
+            writeUser(out, api.getYourself());
+            Set<Long> unavailableServers = new HashSet<>(api.getUnavailableServers());
+            out.writeVarLong(unavailableServers.size());
+            for (long serverId : unavailableServers) {
+                out.writeVarLong(serverId);
+            }
+            for (Server server : api.getAllServers()) {
+                out.writeByte(SERVER);
+                writeServer(out, (ServerImpl) server);
+            }
+            out.writeByte(END);
+        }
+    }
+
+    /**
+     * Restores the cache of the given shard from the snapshot in the given file.
+     * The file is memory-mapped if it is small enough. The cache of the shard must be empty.
+     *
+     * @param api The shard.
+     * @param file The file to read the snapshot from.
+     * @throws IOException If the snapshot could not be read or was written by another shard or version.
+     */
+    public static void read(DiscordApiImpl api, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() <= Integer.MAX_VALUE) {
+                read(api, new CacheSnapshotReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+            } else {
+                read(api, new CacheSnapshotReader(channel));
+            }
+        }
+    }
+
+    /**
+     * Restores the cache of the given shard from the snapshot in the given channel.
+     * The cache of the shard must be empty.
+     *
+     * @param api The shard.
+     * @param channel The channel to read the snapshot from. It is closed afterwards.
+     * @throws IOException If the snapshot could not be read or was written by another shard or version.
+     */
+    public static void read(DiscordApiImpl api, ReadableByteChannel channel) throws IOException {
+        try (CacheSnapshotReader in = new CacheSnapshotReader(channel)) {
+            read(api, in);
+        }
+    }
+
+    /**
+     * Restores the cache of the given shard from the given reader.
+     *
+     * @param api The shard.
+     * @param in The reader.
+     * @throws IOException If the snapshot could not be read or was written by another shard or version.
+     */
+    private static void read(DiscordApiImpl api, CacheSnapshotReader in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readBytes(magic);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException("The file is not a cache snapshot");
+            }
+        }
+        long version = in.readVarLong();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        long shard = in.readVarLong();
+        if (shard != api.getCurrentShard()) {
+            throw new IOException("The snapshot was written by shard " + shard);
+        }
+        // thread members of the servers refer to yourself
+        api.setYourself(readUser(api, in));
+        for (int i = in.readVarInt(); i > 0; i--) {
+            api.addUnavailableServerToCache(in.readVarLong());
+        }
+        int tag;
+        while ((tag = in.readByte()) == SERVER) {
+            readServer(api, in);
+        }
+        if (tag != END) {
+            throw new IOException("Malformed snapshot, unknown tag " + tag);
+        }
+    }
+
+    /**
+     * Writes a server.
+     *
+     * @param out The writer.
+     * @param server The server.
+     * @throws IOException If the server could not be written.
+     */
+    private static void writeServer(CacheSnapshotWriter out, ServerImpl server) throws IOException {
+        out.writeVarLong(server.getId());
+        out.writeString(server.getName());
+        out.writeInternedString(server.getRegion().getKey());
+        out.writeByte((server.isLarge() ? LARGE : 0)
+                | (server.isWidgetEnabled() ? WIDGET_ENABLED : 0)
+                | (server.isPremiumProgressBarEnabled() ? PREMIUM_PROGRESS_BAR_ENABLED : 0));
+        out.writeVarLong(server.getMemberCount());
+        out.writeVarLong(server.getOwnerId());
+        out.writeSignedVarLong(server.getVerificationLevel().getId());
+        out.writeSignedVarLong(server.getExplicitContentFilterLevel().getId());
+        out.writeSignedVarLong(server.getDefaultMessageNotificationLevel().getId());
+        out.writeSignedVarLong(server.getMultiFactorAuthenticationLevel().getId());
+        out.writeSignedVarLong(server.getBoostLevel().getId());
+        out.writeSignedVarLong(server.getNsfwLevel().getId());
+        out.writeInternedString(server.getPreferredLocale().toLanguageTag());
+        out.writeString(server.getIconHash());
+        out.writeString(server.getSplashHash());
+        out.writeString(server.getDiscoverySplashHash());
+        out.writeVarLong(server.getAfkTimeoutInSeconds());
+        out.writeVarLong(server.getBoostCount());
+        out.writeString(server.getDescription().orElse(null));
+        out.writeString(server.getVanityUrlCode().map(VanityUrlCode::getCode).orElse(null));
+        // absent ids are written as 0, which is never a snowflake
+        out.writeVarLong(server.getAfkChannel().map(ServerChannel::getId).orElse(0L));
+        out.writeVarLong(server.getSystemChannel().map(ServerChannel::getId).orElse(0L));
+        out.writeVarLong(server.getRulesChannel().map(ServerChannel::getId).orElse(0L));
+        out.writeVarLong(server.getModeratorsOnlyChannel().map(ServerChannel::getId).orElse(0L));
+        out.writeVarLong(server.getApplicationId().orElse(0L));
+        out.writeVarLong(server.getWidgetChannelId().orElse(0L));
+        writeOptionalInt(out, server.getMaxPresences());
+        writeOptionalInt(out, server.getMaxMembers());
+        writeOptionalInt(out, server.getMaxVideoChannelUsers());
+        int systemChannelFlags = 0;
+        for (SystemChannelFlag flag : server.getSystemChannelFlags()) {
+            systemChannelFlags |= flag.asInt();
+        }
+        out.writeVarLong(systemChannelFlags);
+        Collection<ServerFeature> features = server.getFeatures();
+        out.writeVarLong(features.size());
+        for (ServerFeature feature : features) {
+            out.writeInternedString(feature.name());
+        }
+
+        List<ServerChannel> channels = new ArrayList<>();
+        List<ServerThreadChannel> threads = new ArrayList<>();
+        for (ServerChannel channel : server.getUnorderedChannels()) {
+            if (channel instanceof ServerThreadChannel) {
+                threads.add((ServerThreadChannel) channel);
+            } else {
+                channels.add(channel);
+            }
+        }
+        out.writeVarLong(channels.size());
+        for (ServerChannel channel : channels) {
+            writeChannel(out, channel);
+        }
+        out.writeVarLong(threads.size());
+        for (ServerThreadChannel thread : threads) {
+            writeThread(out, thread);
+        }
+
+        List<Role> roles = server.getRoles();
+        Map<Long, Integer> roleIndexes = new HashMap<>();
+        out.writeVarLong(roles.size());
+        for (Role role : roles) {
+            roleIndexes.put(role.getId(), roleIndexes.size());
+            writeRole(out, (RoleImpl) role);
+        }
+
+        Collection<KnownCustomEmoji> emojis = server.getCustomEmojis();
+        out.writeVarLong(emojis.size());
+        for (KnownCustomEmoji emoji : emojis) {
+            Optional<Set<Role>> whitelist = emoji.getWhitelistedRoles();
+            out.writeVarLong(emoji.getId());
+            out.writeString(emoji.getName());
+            out.writeByte((emoji.isAnimated() ? EMOJI_ANIMATED : 0)
+                    | (emoji.requiresColons() ? EMOJI_REQUIRES_COLONS : 0)
+                    | (emoji.isManaged() ? EMOJI_MANAGED : 0)
+                    | (whitelist.isPresent() ? EMOJI_WHITELIST : 0));
+            if (whitelist.isPresent()) {
+                writeRoleIndexes(out, roleIndexes, whitelist.get().stream().map(Role::getId)
+                        .collect(Collectors.toList()));
+            }
+        }
+
+        Set<Member> members = server.getRealMembers();
+        out.writeVarLong(members.size());
+        for (Member member : members) {
+            writeMember(out, roleIndexes, server, (MemberImpl) member);
+        }
+    }
+
+    /**
+     * Reads a server and adds it to the cache.
+     *
+     * @param api The shard.
+     * @param in The reader.
+     * @throws IOException If the server could not be read.
+     */
+    private static void readServer(DiscordApiImpl api, CacheSnapshotReader in) throws IOException {
+        ObjectNode json = JsonNodeFactory.instance.objectNode()
+                .put("id", in.readVarLong())
+                .put("name", in.readString())
+                .put("region", in.readInternedString());
+        int flags = in.readByte();
+        json.put("large", (flags & LARGE) != 0)
+                .put("widget_enabled", (flags & WIDGET_ENABLED) != 0)
+                .put("premium_progress_bar_enabled", (flags & PREMIUM_PROGRESS_BAR_ENABLED) != 0)
+                .put("member_count", in.readVarInt())
+                .put("owner_id", Long.toUnsignedString(in.readVarLong()))
+                .put("verification_level", in.readSignedVarLong())
+                .put("explicit_content_filter", in.readSignedVarLong())
+                .put("default_message_notifications", in.readSignedVarLong())
+                .put("mfa_level", in.readSignedVarLong())
+                .put("premium_tier", in.readSignedVarLong())
+                .put("nsfw_level", in.readSignedVarLong())
+                .put("preferred_locale", in.readInternedString())
+                .put("icon", in.readString())
+                .put("splash", in.readString())
+                .put("discovery_splash", in.readString())
+                .put("afk_timeout", in.readVarInt())
+                .put("premium_subscription_count", in.readVarInt())
+                .put("description", in.readString())
+                .put("vanity_url_code", in.readString());
+        putOptionalId(json, "afk_channel_id", in.readVarLong());
+        putOptionalId(json, "system_channel_id", in.readVarLong());
+        putOptionalId(json, "rules_channel_id", in.readVarLong());
+        putOptionalId(json, "public_updates_channel_id", in.readVarLong());
+        putOptionalId(json, "application_id", in.readVarLong());
+        putOptionalId(json, "widget_channel_id", in.readVarLong());
+        putOptionalInt(json, "max_presences", in.readVarInt());
+        putOptionalInt(json, "max_members", in.readVarInt());
+        putOptionalInt(json, "max_video_channel_users", in.readVarInt());
+        json.put("system_channel_flags", in.readVarInt());
+        ArrayNode features = json.putArray("features");
+        for (int i = in.readVarInt(); i > 0; i--) {
+            features.add(in.readInternedString());
+        }
+        ArrayNode channels = json.putArray("channels");
+        ArrayNode voiceStates = json.putArray("voice_states");
+        for (int i = in.readVarInt(); i > 0; i--) {
+            channels.add(readChannel(in, voiceStates));
+        }
+        ArrayNode threads = json.putArray("threads");
+        for (int i = in.readVarInt(); i > 0; i--) {
+            threads.add(readThread(in));
+        }
+        ServerImpl server = new ServerImpl(api, json);
+
+        long[] roleIds = new long[in.readVarInt()];
+        for (int i = 0; i < roleIds.length; i++) {
+            Role role = readRole(api, server, in);
+            roleIds[i] = role.getId();
+            server.addRole(role);
+        }
+
+        // emojis are restored after the roles, as they resolve their whitelist on creation
+        for (int i = in.readVarInt(); i > 0; i--) {
+            ObjectNode emojiJson = JsonNodeFactory.instance.objectNode()
+                    .put("id", in.readVarLong())
+                    .put("name", in.readString());
+            int emojiFlags = in.readByte();
+            emojiJson.put("animated", (emojiFlags & EMOJI_ANIMATED) != 0)
+                    .put("require_colons", (emojiFlags & EMOJI_REQUIRES_COLONS) != 0)
+                    .put("managed", (emojiFlags & EMOJI_MANAGED) != 0);
+            if ((emojiFlags & EMOJI_WHITELIST) != 0) {
+                ArrayNode whitelist = emojiJson.putArray("roles");
+                for (long roleId : readRoleIds(in, roleIds)) {
+                    whitelist.add(roleId);
+                }
+            }
+            server.addCustomEmoji(api.getOrCreateKnownCustomEmoji(server, emojiJson));
+        }
+
+        for (int i = in.readVarInt(); i > 0; i--) {
+            readMember(api, server, roleIds, in);
+        }
+    }
+
+    /**
+     * Writes a channel which is not a thread.
+     *
+     * @param out The writer.
+     * @param channel The channel.
+     * @throws IOException If the channel could not be written.
+     */
+    private static void writeChannel(CacheSnapshotWriter out, ServerChannel channel) throws IOException {
+        Optional<ChannelCategory> category = channel instanceof Categorizable
+                ? ((Categorizable) channel).getCategory()
+                : Optional.empty();
+        out.writeVarLong(channel.getType().getId());
+        out.writeVarLong(channel.getId());
+        out.writeString(channel.getName());
+        out.writeByte((channel instanceof RegularServerChannel ? REGULAR_CHANNEL : 0)
+                | (category.isPresent() ? CATEGORIZED_CHANNEL : 0)
+                | (channel instanceof TextableRegularServerChannelImpl ? TEXTABLE_CHANNEL : 0)
+                | (channel instanceof ServerTextChannelImpl ? TEXT_CHANNEL : 0)
+                | (channel instanceof ServerVoiceChannelImpl ? VOICE_CHANNEL : 0)
+                | (channel instanceof ServerStageVoiceChannelImpl ? STAGE_CHANNEL : 0)
+                | (channel instanceof ChannelCategoryImpl ? CATEGORY : 0));
+        if (channel instanceof RegularServerChannel) {
+            RegularServerChannel regularChannel = (RegularServerChannel) channel;
+            Map<Long, Permissions> rolePermissions = regularChannel.getOverwrittenRolePermissions();
+            Map<Long, Permissions> userPermissions = regularChannel.getOverwrittenUserPermissions();
+            out.writeVarLong(regularChannel.getRawPosition());
+            out.writeVarLong(rolePermissions.size() + userPermissions.size());
+            writePermissionOverwrites(out, rolePermissions, 0);
+            writePermissionOverwrites(out, userPermissions, 1);
+        }
+        if (category.isPresent()) {
+            out.writeVarLong(category.get().getId());
+        }
+        if (channel instanceof TextableRegularServerChannelImpl) {
+            TextableRegularServerChannelImpl textableChannel = (TextableRegularServerChannelImpl) channel;
+            out.writeBoolean(textableChannel.isNsfw());
+            out.writeVarLong(textableChannel.getSlowmodeDelayInSeconds());
+        }
+        if (channel instanceof ServerTextChannelImpl) {
+            ServerTextChannelImpl textChannel = (ServerTextChannelImpl) channel;
+            out.writeString(textChannel.getTopic());
+            out.writeVarLong(textChannel.getDefaultAutoArchiveDuration());
+        } else if (channel instanceof ServerVoiceChannelImpl) {
+            ServerVoiceChannelImpl voiceChannel = (ServerVoiceChannelImpl) channel;
+            out.writeVarLong(voiceChannel.getBitrate());
+            out.writeVarLong(voiceChannel.getUserLimit().orElse(0));
+            if (channel instanceof ServerStageVoiceChannelImpl) {
+                out.writeString(((ServerStageVoiceChannelImpl) channel).getTopic().orElse(null));
+            }
+            Set<Long> connectedUserIds = voiceChannel.getConnectedUserIds();
+            out.writeVarLong(connectedUserIds.size());
+            for (long userId : connectedUserIds) {
+                out.writeVarLong(userId);
+            }
+        } else if (channel instanceof ChannelCategoryImpl) {
+            out.writeBoolean(((ChannelCategoryImpl) channel).isNsfw());
+        }
+    }
+
+    /**
+     * Reads a channel which is not a thread.
+     *
+     * @param in The reader.
+     * @param voiceStates The array to add the voice states of the channel to.
+     * @return The json of the channel.
+     * @throws IOException If the channel could not be read.
+     */
+    private static ObjectNode readChannel(CacheSnapshotReader in, ArrayNode voiceStates) throws IOException {
+        ObjectNode json = JsonNodeFactory.instance.objectNode()
+                .put("type", in.readVarInt())
+                .put("id", Long.toUnsignedString(in.readVarLong()))
+                .put("name", in.readString());
+        int flags = in.readByte();
+        if ((flags & REGULAR_CHANNEL) != 0) {
+            json.put("position", in.readVarInt());
+            ArrayNode overwrites = json.putArray("permission_overwrites");
+            for (int i = in.readVarInt(); i > 0; i--) {
+                overwrites.addObject()
+                        .put("type", in.readByte())
+                        .put("id", Long.toUnsignedString(in.readVarLong()))
+                        .put("allow", in.readVarLong())
+                        .put("deny", in.readVarLong());
+            }
+        }
+        if ((flags & CATEGORIZED_CHANNEL) != 0) {
+            json.put("parent_id", in.readVarLong());
+        }
+        if ((flags & TEXTABLE_CHANNEL) != 0) {
+            json.put("nsfw", in.readBoolean());
+            json.put("rate_limit_per_user", in.readVarInt());
+        }
+        if ((flags & TEXT_CHANNEL) != 0) {
+            json.put("topic", in.readString());
+            json.put("default_auto_archive_duration", in.readVarInt());
+        } else if ((flags & VOICE_CHANNEL) != 0) {
+            json.put("bitrate", in.readVarInt());
+            json.put("user_limit", in.readVarInt());
+            if ((flags & STAGE_CHANNEL) != 0) {
+                json.put("topic", in.readString());
+            }
+            for (int i = in.readVarInt(); i > 0; i--) {
+                voiceStates.addObject()
+                        .put("channel_id", json.get("id").asLong())
+                        .put("user_id", in.readVarLong());
+            }
+        } else if ((flags & CATEGORY) != 0) {
+            json.put("nsfw", in.readBoolean());
+        }
+        return json;
+    }
+
+    /**
+     * Writes the given permission overwrites.
+     *
+     * @param out The writer.
+     * @param permissions The overwritten permissions by the id of the role or user.
+     * @param type The type of the overwrites, {@code 0} for roles and {@code 1} for users.
+     * @throws IOException If the permission overwrites could not be written.
+     */
+    private static void writePermissionOverwrites(CacheSnapshotWriter out, Map<Long, Permissions> permissions,
+                                                  int type) throws IOException {
+        for (Map.Entry<Long, Permissions> entry : permissions.entrySet()) {
+            out.writeByte(type);
+            out.writeVarLong(entry.getKey());
+            out.writeVarLong(entry.getValue().getAllowedBitmask());
+            out.writeVarLong(entry.getValue().getDeniedBitmask());
+        }
+    }
+
+    /**
+     * Writes a thread.
+     *
+     * @param out The writer.
+     * @param thread The thread.
+     * @throws IOException If the thread could not be written.
+     */
+    private static void writeThread(CacheSnapshotWriter out, ServerThreadChannel thread) throws IOException {
+        ThreadMetadata metadata = thread.getMetadata();
+        Optional<Boolean> invitable = metadata.isInvitable();
+        Optional<Instant> creationTimestamp = metadata.getCreationTimestamp();
+        out.writeVarLong(thread.getType().getId());
+        out.writeVarLong(thread.getId());
+        out.writeString(thread.getName());
+        out.writeVarLong(thread.getParent().getId());
+        out.writeVarLong(thread.getOwnerId());
+        out.writeVarLong(thread.getMessageCount());
+        out.writeVarLong(thread.getMemberCount());
+        out.writeVarLong(thread.getRateLimitPerUser());
+        out.writeVarLong(thread.getTotalNumberOfMessagesSent());
+        out.writeByte((metadata.isArchived() ? THREAD_ARCHIVED : 0)
+                | (metadata.isLocked() ? THREAD_LOCKED : 0)
+                | (invitable.map(value -> value ? THREAD_INVITABLE : THREAD_NOT_INVITABLE).orElse(0))
+                | (creationTimestamp.isPresent() ? THREAD_CREATION_TIMESTAMP : 0)
+                | (thread.getLastMessageId() != 0 ? THREAD_LAST_MESSAGE : 0));
+        out.writeVarLong(metadata.getAutoArchiveDuration());
+        out.writeTimestamp(metadata.getArchiveTimestamp());
+        if (creationTimestamp.isPresent()) {
+            out.writeTimestamp(creationTimestamp.get());
+        }
+        if (thread.getLastMessageId() != 0) {
+            out.writeVarLong(thread.getLastMessageId());
+        }
+    }
+
+    /**
+     * Reads a thread.
+     *
+     * @param in The reader.
+     * @return The json of the thread.
+     * @throws IOException If the thread could not be read.
+     */
+    private static ObjectNode readThread(CacheSnapshotReader in) throws IOException {
+        ObjectNode json = JsonNodeFactory.instance.objectNode()
+                .put("type", in.readVarInt())
+                .put("id", Long.toUnsignedString(in.readVarLong()))
+                .put("name", in.readString())
+                .put("parent_id", in.readVarLong())
+                .put("owner_id", in.readVarLong())
+                .put("message_count", in.readVarInt())
+                .put("member_count", in.readVarInt())
+                .put("rate_limit_per_user", in.readVarInt())
+                .put("total_message_sent", in.readVarInt());
+        int flags = in.readByte();
+        ObjectNode metadata = json.putObject("thread_metadata")
+                .put("archived", (flags & THREAD_ARCHIVED) != 0)
+                .put("locked", (flags & THREAD_LOCKED) != 0)
+                .put("auto_archive_duration", in.readVarInt())
+                .put("archive_timestamp", in.readTimestamp().toString());
+        if ((flags & (THREAD_INVITABLE | THREAD_NOT_INVITABLE)) != 0) {
+            metadata.put("invitable", (flags & THREAD_INVITABLE) != 0);
+        }
+        if ((flags & THREAD_CREATION_TIMESTAMP) != 0) {
+            metadata.put("creation_timestamp", in.readTimestamp().toString());
+        }
+        if ((flags & THREAD_LAST_MESSAGE) != 0) {
+            json.put("last_message_id", in.readVarLong());
+        }
+        return json;
+    }
+
+    /**
+     * Writes a role.
+     *
+     * @param out The writer.
+     * @param role The role.
+     * @throws IOException If the role could not be written.
+     */
+    private static void writeRole(CacheSnapshotWriter out, RoleImpl role) throws IOException {
+        Optional<RoleTags> roleTags = role.getRoleTags();
+        out.writeVarLong(role.getId());
+        out.writeString(role.getName());
+        out.writeSignedVarLong(role.getRawPosition());
+        out.writeVarLong(role.getColorAsInt());
+        out.writeString(role.getIconHash().orElse(null));
+        out.writeString(role.getUnicodeEmojiIcon().orElse(null));
+        out.writeVarLong(role.getPermissions().getAllowedBitmask());
+        out.writeByte((role.isDisplayedSeparately() ? ROLE_HOIST : 0)
+                | (role.isMentionable() ? ROLE_MENTIONABLE : 0)
+                | (role.isManaged() ? ROLE_MANAGED : 0)
+                | (roleTags.isPresent() ? ROLE_TAGS : 0)
+                | (roleTags.map(RoleTags::isPremiumSubscriptionRole).orElse(false) ? ROLE_PREMIUM_SUBSCRIBER : 0));
+        if (roleTags.isPresent()) {
+            out.writeVarLong(roleTags.get().getBotId().orElse(0L));
+            out.writeVarLong(roleTags.get().getIntegrationId().orElse(0L));
+        }
+    }
+
+    /**
+     * Reads a role.
+     *
+     * @param api The shard.
+     * @param server The server of the role.
+     * @param in The reader.
+     * @return The role.
+     * @throws IOException If the role could not be read.
+     */
+    private static RoleImpl readRole(DiscordApiImpl api, ServerImpl server, CacheSnapshotReader in)
+            throws IOException {
+        long id = in.readVarLong();
+        String name = in.readString();
+        int rawPosition = (int) in.readSignedVarLong();
+        int color = in.readVarInt();
+        String iconHash = in.readString();
+        String unicodeEmoji = in.readString();
+        long permissions = in.readVarLong();
+        int flags = in.readByte();
+        RoleTagsImpl roleTags = null;
+        if ((flags & ROLE_TAGS) != 0) {
+            long botId = in.readVarLong();
+            long integrationId = in.readVarLong();
+            roleTags = new RoleTagsImpl(botId == 0 ? null : botId, integrationId == 0 ? null : integrationId,
+                    (flags & ROLE_PREMIUM_SUBSCRIBER) != 0);
+        }
+        return new RoleImpl(api, server, id, name, rawPosition, color, (flags & ROLE_HOIST) != 0, iconHash,
+                unicodeEmoji, (flags & ROLE_MENTIONABLE) != 0, permissions, (flags & ROLE_MANAGED) != 0, roleTags);
+    }
+
+    /**
+     * Writes roles as their index in the roles of the server.
+     *
+     * @param out The writer.
+     * @param roleIndexes The indexes of the roles of the server by their id.
+     * @param roleIds The ids of the roles to write. Unknown roles are skipped.
+     * @throws IOException If the roles could not be written.
+     */
+    private static void writeRoleIndexes(CacheSnapshotWriter out, Map<Long, Integer> roleIndexes,
+                                         List<Long> roleIds) throws IOException {
+        List<Integer> indexes = new ArrayList<>(roleIds.size());
+        for (long roleId : roleIds) {
+            Integer index = roleIndexes.get(roleId);
+            if (index != null) {
+                indexes.add(index);
+            }
+        }
+        out.writeVarLong(indexes.size());
+        for (int index : indexes) {
+            out.writeVarLong(index);
+        }
+    }
+
+    /**
+     * Reads roles which were written as their index in the roles of the server.
+     *
+     * @param in The reader.
+     * @param roleIds The ids of the roles of the server.
+     * @return The ids of the read roles.
+     * @throws IOException If the roles could not be read.
+     */
+    private static List<Long> readRoleIds(CacheSnapshotReader in, long[] roleIds) throws IOException {
+        int count = in.readVarInt();
+        // one more for the everyone role which is added by members
+        List<Long> ids = new ArrayList<>(count + 1);
+        for (int i = 0; i < count; i++) {
+            int index = in.readVarInt();
+            if (index >= roleIds.length) {
+                throw new IOException("Malformed snapshot, unknown role index " + index);
+            }
+            ids.add(roleIds[index]);
+        }
+        return ids;
+    }
+
+    /**
+     * Writes a member with its user and presence.
+     *
+     * @param out The writer.
+     * @param roleIndexes The indexes of the roles of the server by their id.
+     * @param server The server of the member.
+     * @param member The member.
+     * @throws IOException If the member could not be written.
+     */
+    private static void writeMember(CacheSnapshotWriter out, Map<Long, Integer> roleIndexes,
+                                    ServerImpl server, MemberImpl member) throws IOException {
+        User user = member.getUser();
+        Optional<Instant> boostingSince = member.getServerBoostingSinceTimestamp();
+        Optional<Instant> timeout = member.getTimeout();
+        boolean presence = user.getStatus() != UserStatus.OFFLINE;
+        writeUser(out, user);
+        out.writeByte((member.isPending() ? MEMBER_PENDING : 0)
+                | (member.isDeafened() ? MEMBER_DEAFENED : 0)
+                | (member.isMuted() ? MEMBER_MUTED : 0)
+                | (boostingSince.isPresent() ? MEMBER_BOOSTING : 0)
+                | (timeout.isPresent() ? MEMBER_TIMEOUT : 0)
+                | (presence ? MEMBER_PRESENCE : 0));
+        out.writeString(member.getNickname().orElse(null));
+        out.writeString(member.getServerAvatarHash().orElse(null));
+        out.writeTimestamp(member.getJoinedAtTimestamp());
+        if (boostingSince.isPresent()) {
+            out.writeTimestamp(boostingSince.get());
+        }
+        if (timeout.isPresent()) {
+            out.writeTimestamp(timeout.get());
+        }
+        List<Long> roleIds = new ArrayList<>(member.getRoleIds());
+        // the everyone role is added by the member itself
+        roleIds.remove(server.getId());
+        writeRoleIndexes(out, roleIndexes, roleIds);
+        if (presence) {
+            out.writeInternedString(user.getStatus().getStatusString());
+            List<DiscordClient> clients = new ArrayList<>();
+            for (DiscordClient client : DiscordClient.values()) {
+                if (user.getStatusOnClient(client) != UserStatus.OFFLINE) {
+                    clients.add(client);
+                }
+            }
+            out.writeVarLong(clients.size());
+            for (DiscordClient client : clients) {
+                out.writeInternedString(client.getName());
+                out.writeInternedString(user.getStatusOnClient(client).getStatusString());
+            }
+        }
+    }
+
+    /**
+     * Reads a member with its user and presence and adds them to the cache.
+     *
+     * @param api The shard.
+     * @param server The server of the member.
+     * @param roleIds The ids of the roles of the server.
+     * @param in The reader.
+     * @throws IOException If the member could not be read.
+     */
+    private static void readMember(DiscordApiImpl api, ServerImpl server, long[] roleIds, CacheSnapshotReader in)
+            throws IOException {
+        UserImpl user = readUser(api, in);
+        int flags = in.readByte();
+        String nickname = in.readString();
+        String avatarHash = in.readString();
+        Instant joinedAt = in.readTimestamp();
+        Instant boostingSince = (flags & MEMBER_BOOSTING) != 0 ? in.readTimestamp() : null;
+        Instant timeout = (flags & MEMBER_TIMEOUT) != 0 ? in.readTimestamp() : null;
+        List<Long> memberRoleIds = readRoleIds(in, roleIds);
+        api.addMemberToCacheOrReplaceExisting(new MemberImpl(api, server, user, nickname, memberRoleIds, avatarHash,
+                joinedAt, boostingSince, (flags & MEMBER_DEAFENED) != 0, (flags & MEMBER_MUTED) != 0,
+                (flags & MEMBER_PENDING) != 0, timeout));
+
+        if ((flags & MEMBER_PRESENCE) != 0) {
+            UserStatus status = UserStatus.fromString(in.readInternedString());
+            Map<DiscordClient, UserStatus> clientStatus = new EnumMap<>(DiscordClient.class);
+            for (int i = in.readVarInt(); i > 0; i--) {
+                String clientName = in.readInternedString();
+                UserStatus statusOnClient = UserStatus.fromString(in.readInternedString());
+                for (DiscordClient client : DiscordClient.values()) {
+                    if (client.getName().equals(clientName)) {
+                        clientStatus.put(client, statusOnClient);
+                    }
+                }
+            }
+            api.updateUserPresence(user.getId(), presence -> {
+                UserPresence newPresence = presence.setActivities(new HashSet<>()).setStatus(status);
+                for (DiscordClient client : DiscordClient.values()) {
+                    newPresence = newPresence.setClientStatus(newPresence.getClientStatus()
+                            .put(client, clientStatus.getOrDefault(client, UserStatus.OFFLINE)));
+                }
+                return newPresence;
+            });
+        }
+    }
+
+    /**
+     * Writes a user without its member.
+     *
+     * @param out The writer.
+     * @param user The user.
+     * @throws IOException If the user could not be written.
+     */
+    private static void writeUser(CacheSnapshotWriter out, User user) throws IOException {
+        int publicFlags = 0;
+        for (UserFlag flag : user.getUserFlags()) {
+            publicFlags |= flag.asInt();
+        }
+        out.writeVarLong(user.getId());
+        out.writeString(user.getName());
+        out.writeInternedString(user.getDiscriminator());
+        out.writeString(((UserImpl) user).getAvatarHash().orElse(null));
+        out.writeVarLong(publicFlags);
+        out.writeBoolean(user.isBot());
+    }
+
+    /**
+     * Reads a user.
+     *
+     * @param api The shard.
+     * @param in The reader.
+     * @return The user.
+     * @throws IOException If the user could not be read.
+     */
+    private static UserImpl readUser(DiscordApiImpl api, CacheSnapshotReader in) throws IOException {
+        long id = in.readVarLong();
+        String name = in.readString();
+        String discriminator = in.readInternedString();
+        String avatarHash = in.readString();
+        int publicFlags = (int) in.readVarLong();
+        return new UserImpl(api, id, name, discriminator, avatarHash, publicFlags, in.readBoolean());
+    }
+
+    /**
+     * Writes an optional number which is not negative.
+     *
+     * @param out The writer.
+     * @param value The number.
+     * @throws IOException If the number could not be written.
+     */
+    private static void writeOptionalInt(CacheSnapshotWriter out, Optional<Integer> value) throws IOException {
+        out.writeVarLong(value.map(number -> number + 1L).orElse(0L));
+    }
+
+    /**
+     * Puts an optional id into the given json.
+     *
+     * @param json The json.
+     * @param field The name of the field.
+     * @param id The id or {@code 0} if it is absent.
+     */
+    private static void putOptionalId(ObjectNode json, String field, long id) {
+        if (id != 0) {
+            json.put(field, Long.toUnsignedString(id));
+        }
+    }
+
+    /**
+     * Puts an optional number into the given json.
+     *
+     * @param json The json.
+     * @param field The name of the field.
+     * @param value The number plus one or {@code 0} if it is absent.
+     */
+    private static void putOptionalInt(ObjectNode json, String field, int value) {
+        if (value != 0) {
+            json.put(field, value - 1);
+        }
+    }
+
+}
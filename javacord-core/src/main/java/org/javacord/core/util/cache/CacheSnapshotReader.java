@@ -0,0 +1,222 @@
+package org.javacord.core.util.cache;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the primitive values of a cache snapshot which were written by a {@link CacheSnapshotWriter}.
+ *
+ * <p>The reader either reads from a buffer which already holds the whole snapshot, usually a memory-mapped file, or
+ * streams the snapshot from a channel through a small buffer.
+ */
+public class CacheSnapshotReader implements Closeable {
+
+    /**
+     * The size of the read buffer if the snapshot is streamed from a channel.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The channel to refill the buffer from or {@code null} if the buffer holds the whole snapshot.
+     */
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * The interned strings in the order of their first occurrence.
+     */
+    private final List<String> internedStrings = new ArrayList<>();
+
+    /**
+     * Creates a new reader which streams the snapshot from the given channel.
+     *
+     * @param channel The channel to read from. It is closed with the reader.
+     */
+    public CacheSnapshotReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+    }
+
+    /**
+     * Creates a new reader for a buffer which holds the whole snapshot.
+     *
+     * @param buffer The buffer, e.g. a memory-mapped file.
+     */
+    public CacheSnapshotReader(ByteBuffer buffer) {
+        this.channel = null;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads a single unsigned byte.
+     *
+     * @return The byte.
+     * @throws IOException If the end of the snapshot was reached.
+     */
+    public int readByte() throws IOException {
+        if (!buffer.hasRemaining()) {
+            fill();
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads bytes until the given array is full.
+     *
+     * @param bytes The array to read into.
+     * @throws IOException If the end of the snapshot was reached.
+     */
+    public void readBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Reads a boolean.
+     *
+     * @return The boolean.
+     * @throws IOException If the end of the snapshot was reached.
+     */
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @return The number.
+     * @throws IOException If the end of the snapshot was reached or the varint is too long.
+     */
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed snapshot, varint is too long");
+    }
+
+    /**
+     * Reads an unsigned varint which must fit into an {@code int}.
+     *
+     * @return The number.
+     * @throws IOException If the end of the snapshot was reached or the number is too large.
+     */
+    public int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Malformed snapshot, " + Long.toUnsignedString(value) + " is not an int");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a signed varint in zig-zag encoding.
+     *
+     * @return The number.
+     * @throws IOException If the end of the snapshot was reached or the varint is too long.
+     */
+    public long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a timestamp.
+     *
+     * @return The timestamp.
+     * @throws IOException If the end of the snapshot was reached or the varint is too long.
+     */
+    public Instant readTimestamp() throws IOException {
+        long micros = readSignedVarLong();
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                TimeUnit.MICROSECONDS.toNanos(Math.floorMod(micros, 1_000_000L)));
+    }
+
+    /**
+     * Reads a string with its length.
+     *
+     * @return The string, may be {@code null}.
+     * @throws IOException If the end of the snapshot was reached.
+     */
+    public String readString() throws IOException {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        readBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads an interned string.
+     *
+     * @return The string, may be {@code null}.
+     * @throws IOException If the end of the snapshot was reached or the string references an unknown string.
+     * @see CacheSnapshotWriter#writeInternedString(String)
+     */
+    public String readInternedString() throws IOException {
+        int reference = readVarInt();
+        switch (reference) {
+            case 0:
+                return null;
+            case 1:
+                String value = readString();
+                internedStrings.add(value);
+                return value;
+            default:
+                if (reference - 2 >= internedStrings.size()) {
+                    throw new IOException("Malformed snapshot, unknown string reference " + reference);
+                }
+                return internedStrings.get(reference - 2);
+        }
+    }
+
+    /**
+     * Refills the buffer from the channel.
+     *
+     * @throws IOException If the end of the snapshot was reached.
+     */
+    private void fill() throws IOException {
+        if (channel == null) {
+            throw new EOFException("Unexpected end of the snapshot");
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            throw new EOFException("Unexpected end of the snapshot");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+package org.javacord.core.util.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the primitive values of a cache snapshot to a channel.
+ *
+ * <p>Numbers are written as unsigned LEB128 varints, so small numbers and snowflakes only take as many bytes as they
+ * need. Strings which repeat a lot, like statuses or discriminators, can be interned: the first occurrence is written
+ * with its content and all further occurrences only as a reference to it.
+ *
+ * @see CacheSnapshotReader
+ */
+public class CacheSnapshotWriter implements Closeable {
+
+    /**
+     * The size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * The references of the interned strings which were already written.
+     */
+    private final Map<String, Integer> internedStrings = new HashMap<>();
+
+    /**
+     * Creates a new writer.
+     *
+     * @param channel The channel to write to. It is closed with the writer.
+     */
+    public CacheSnapshotWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value The byte.
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeByte(int value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes the given bytes.
+     *
+     * @param bytes The bytes.
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Writes a boolean as a single byte.
+     *
+     * @param value The boolean.
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeBoolean(boolean value) throws IOException {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes an unsigned varint. Negative numbers take 10 bytes.
+     *
+     * @param value The number, e.g. a snowflake or a permission bitmask.
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /**
+     * Writes a signed varint in zig-zag encoding, so small negative numbers stay small.
+     *
+     * @param value The number.
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeSignedVarLong(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a timestamp as microseconds since the epoch.
+     *
+     * @param timestamp The timestamp.
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeTimestamp(Instant timestamp) throws IOException {
+        writeSignedVarLong(TimeUnit.SECONDS.toMicros(timestamp.getEpochSecond())
+                + TimeUnit.NANOSECONDS.toMicros(timestamp.getNano()));
+    }
+
+    /**
+     * Writes a string with its length.
+     *
+     * @param value The string, may be {@code null}.
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    /**
+     * Writes an interned string.
+     *
+     * <p>It is written as {@code 0} for {@code null}, as {@code 1} followed by the string for its first occurrence
+     * and as the index of its first occurrence plus {@code 2} otherwise.
+     *
+     * @param value The string, may be {@code null}.
+     * @throws IOException If the buffer could not be flushed.
+     */
+    public void writeInternedString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        Integer reference = internedStrings.get(value);
+        if (reference != null) {
+            writeVarLong(reference + 2L);
+            return;
+        }
+        internedStrings.put(value, internedStrings.size());
+        writeVarLong(1);
+        writeString(value);
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws IOException If the bytes could not be written.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,458 @@
+package org.javacord.core.util.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * A thread-safe hash map with primitive {@code long} keys, usually snowflakes.
+ *
+ * <p>The map is split into segments. Every segment is an open-addressing hash table with linear probing that is
+ * guarded by a {@link StampedLock}. Lookups are optimistic, so they neither block nor allocate unless they race with
+ * a write to the same segment. Writes lock a single segment.
+ *
+ * <p>{@code null} values are not supported.
+ *
+ * @param <V> The type of the values.
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    /**
+     * The default amount of segments.
+     */
+    public static final int DEFAULT_SEGMENT_COUNT = 16;
+
+    /**
+     * The default initial capacity of a segment.
+     */
+    public static final int DEFAULT_SEGMENT_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+
+    /**
+     * Creates a new map with the default amount of segments.
+     */
+    public ConcurrentLongObjectMap() {
+        this(DEFAULT_SEGMENT_COUNT, DEFAULT_SEGMENT_CAPACITY);
+    }
+
+    /**
+     * Creates a new map.
+     *
+     * <p>Small maps that are only written by a single thread at a time should use a single segment.
+     *
+     * @param segmentCount The amount of segments. Must be a power of two.
+     * @param segmentCapacity The initial capacity of every segment.
+     */
+    public ConcurrentLongObjectMap(int segmentCount, int segmentCapacity) {
+        if (segmentCount < 1 || Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("The segment count must be a power of two");
+        }
+        @SuppressWarnings("unchecked")
+        Segment<V>[] segments = (Segment<V>[]) new Segment<?>[segmentCount];
+        this.segments = segments;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+        segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    /**
+     * Spreads the bits of the key, as the low bits of snowflakes are a per-process counter.
+     *
+     * @param key The key.
+     * @return The hash of the key.
+     */
+    private static int hash(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    private Segment<V> segmentFor(int hash) {
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /**
+     * Gets the value for the given key.
+     *
+     * @param key The key.
+     * @return The value or {@code null} if there is no value for the given key.
+     */
+    public V get(long key) {
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Checks if there is a value for the given key.
+     *
+     * @param key The key.
+     * @return Whether there is a value for the given key.
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates the given value with the given key.
+     *
+     * @param key The key.
+     * @param value The value.
+     * @return The previous value or {@code null} if there was none.
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        int hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.put(key, hash, value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the value for the given key.
+     *
+     * @param key The key.
+     * @return The removed value or {@code null} if there was none.
+     */
+    public V remove(long key) {
+        int hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.remove(key, hash, null);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the value for the given key if it is the given value.
+     *
+     * @param key The key.
+     * @param value The expected value. It is compared by identity.
+     * @return Whether the value was removed.
+     */
+    public boolean remove(long key, V value) {
+        int hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.remove(key, hash, value) != null;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the value for the given key or atomically computes and adds it if there is none.
+     *
+     * <p>The mapping function is called while the key's segment is locked. It must be short and must not access
+     * this map.
+     *
+     * @param key The key.
+     * @param mappingFunction A function that computes the value for the key.
+     * @return The existing or computed value.
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return compute(key, oldValue -> oldValue != null ? oldValue : mappingFunction.apply(key));
+    }
+
+    /**
+     * Atomically computes the value for the given key.
+     *
+     * <p>The remapping function is called while the key's segment is locked. It must be short and must not access
+     * this map.
+     *
+     * @param key The key.
+     * @param remappingFunction A function that takes the old value (or {@code null}) and returns the new value
+     *                          (or {@code null} to remove it).
+     * @return The new value or {@code null} if there is none.
+     */
+    public V compute(long key, UnaryOperator<V> remappingFunction) {
+        int hash = hash(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            V oldValue = segment.find(key, hash);
+            V newValue = remappingFunction.apply(oldValue);
+            if (newValue != null) {
+                segment.put(key, hash, newValue);
+            } else if (oldValue != null) {
+                segment.remove(key, hash, null);
+            }
+            return newValue;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Performs the given action for every value in the map.
+     *
+     * <p>The values of every segment are visited while it is read-locked. The action must not modify this map.
+     *
+     * @param action The action to perform.
+     */
+    public void forEachValue(Consumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                segment.forEachValue(action);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Gets a snapshot of all values in the map.
+     *
+     * @return A list with all values.
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        forEachValue(values::add);
+        return values;
+    }
+
+    /**
+     * Gets the amount of entries in the map.
+     *
+     * @return The amount of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.size;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Checks if the map is empty.
+     *
+     * @return Whether the map is empty.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all entries from the map.
+     */
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * An open-addressing hash table with linear probing.
+     *
+     * <p>An empty slot has a {@code null} value. Removed entries are not replaced by tombstones, but the following
+     * entries of the probe sequence are shifted back instead.
+     *
+     * @param <V> The type of the values.
+     */
+    private static final class Segment<V> {
+
+        private final StampedLock lock = new StampedLock();
+
+        private final int initialCapacity;
+
+        /**
+         * The keys. Guarded by {@link #lock}.
+         */
+        private long[] keys;
+
+        /**
+         * The values. Guarded by {@link #lock}.
+         */
+        private Object[] values;
+
+        /**
+         * The amount of entries. Guarded by {@link #lock}.
+         */
+        private int size;
+
+        private Segment(int capacity) {
+            initialCapacity = Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+            keys = new long[initialCapacity];
+            values = new Object[initialCapacity];
+        }
+
+        private V get(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                V value = find(key, hash);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Finds the value for the given key.
+         *
+         * <p>This method is also called by optimistic readers, so it must tolerate inconsistent state and terminate.
+         * Its result is discarded if the read was not valid.
+         *
+         * @param key The key.
+         * @param hash The hash of the key.
+         * @return The value or {@code null}.
+         */
+        @SuppressWarnings("unchecked")
+        private V find(long key, int hash) {
+            long[] keys = this.keys;
+            Object[] values = this.values;
+            if (keys.length != values.length) {
+                // read in the middle of a resize
+                return null;
+            }
+            int mask = values.length - 1;
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                Object value = values[index];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[index] == key) {
+                    return (V) value;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V put(long key, int hash, V value) {
+            int mask = values.length - 1;
+            int index = hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    V oldValue = (V) values[index];
+                    values[index] = value;
+                    return oldValue;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            // keep the load factor at or below 0.75
+            if (++size > (values.length >>> 1) + (values.length >>> 2)) {
+                resize(values.length << 1);
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V remove(long key, int hash, V expectedValue) {
+            int mask = values.length - 1;
+            int index = hash & mask;
+            while (values[index] != null) {
+                if (keys[index] == key) {
+                    V oldValue = (V) values[index];
+                    if (expectedValue != null && oldValue != expectedValue) {
+                        return null;
+                    }
+                    shiftBack(index);
+                    size--;
+                    return oldValue;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Empties the given slot and moves following entries of the probe sequence into the gap.
+         *
+         * @param gap The index of the slot to empty.
+         */
+        private void shiftBack(int gap) {
+            int mask = values.length - 1;
+            int index = gap;
+            while (true) {
+                index = (index + 1) & mask;
+                if (values[index] == null) {
+                    break;
+                }
+                int home = hash(keys[index]) & mask;
+                // move the entry if its home slot is not cyclically between the gap and its current slot
+                boolean movable = (gap <= index) ? (home <= gap || home > index) : (home <= gap && home > index);
+                if (movable) {
+                    keys[gap] = keys[index];
+                    values[gap] = values[index];
+                    gap = index;
+                }
+            }
+            keys[gap] = 0;
+            values[gap] = null;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[capacity];
+            Object[] newValues = new Object[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int index = hash(oldKeys[i]) & mask;
+                    while (newValues[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    newKeys[index] = oldKeys[i];
+                    newValues[index] = oldValues[i];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void forEachValue(Consumer<? super V> action) {
+            for (Object value : values) {
+                if (value != null) {
+                    action.accept((V) value);
+                }
+            }
+        }
+
+        private void clear() {
+            keys = new long[initialCapacity];
+            values = new Object[initialCapacity];
+            size = 0;
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package org.javacord.core.util.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * A thread-safe map with a pair of primitive {@code long} keys, e.g. a server id and a user id.
+ *
+ * <p>The entries are grouped by the first key into small {@link ConcurrentLongObjectMap}s, so a lookup consists of
+ * two probes without boxing the keys or allocating a tuple, and all values of the same first key can be visited
+ * without scanning the whole map.
+ *
+ * @param <V> The type of the values.
+ */
+public class ConcurrentLongPairObjectMap<V> {
+
+    private final ConcurrentLongObjectMap<ConcurrentLongObjectMap<V>> groups = new ConcurrentLongObjectMap<>();
+
+    /**
+     * Gets the value for the given keys.
+     *
+     * @param first The first key.
+     * @param second The second key.
+     * @return The value or {@code null} if there is no value for the given keys.
+     */
+    public V get(long first, long second) {
+        ConcurrentLongObjectMap<V> group = groups.get(first);
+        return group == null ? null : group.get(second);
+    }
+
+    /**
+     * Associates the given value with the given keys.
+     *
+     * @param first The first key.
+     * @param second The second key.
+     * @param value The value.
+     */
+    public void put(long first, long second, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        groups.compute(first, group -> {
+            if (group == null) {
+                group = new ConcurrentLongObjectMap<>(1, 2);
+            }
+            group.put(second, value);
+            return group;
+        });
+    }
+
+    /**
+     * Removes the value for the given keys.
+     *
+     * @param first The first key.
+     * @param second The second key.
+     * @return Whether a value was removed.
+     */
+    public boolean remove(long first, long second) {
+        boolean[] removed = new boolean[1];
+        groups.compute(first, group -> {
+            if (group == null) {
+                return null;
+            }
+            removed[0] = group.remove(second) != null;
+            return group.isEmpty() ? null : group;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Removes the value for the given keys if it is the given value.
+     *
+     * @param first The first key.
+     * @param second The second key.
+     * @param value The expected value. It is compared by identity.
+     * @return Whether the value was removed.
+     */
+    public boolean remove(long first, long second, V value) {
+        boolean[] removed = new boolean[1];
+        groups.compute(first, group -> {
+            if (group == null) {
+                return null;
+            }
+            removed[0] = group.remove(second, value);
+            return group.isEmpty() ? null : group;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Removes all values with the given first key.
+     *
+     * @param first The first key.
+     */
+    public void removeFirstKey(long first) {
+        groups.remove(first);
+    }
+
+    /**
+     * Removes all values with the given second key.
+     *
+     * <p>This visits every group, so it should only be used for rare removals. Emptied groups are kept until their
+     * first key is removed.
+     *
+     * @param second The second key.
+     */
+    public void removeSecondKey(long second) {
+        groups.forEachValue(group -> group.remove(second));
+    }
+
+    /**
+     * Performs the given action for every value with the given first key.
+     *
+     * <p>The action must not modify this map.
+     *
+     * @param first The first key.
+     * @param action The action to perform.
+     */
+    public void forEachValue(long first, Consumer<? super V> action) {
+        ConcurrentLongObjectMap<V> group = groups.get(first);
+        if (group != null) {
+            group.forEachValue(action);
+        }
+    }
+
+    /**
+     * Performs the given action for every value in the map.
+     *
+     * <p>The action must not modify this map.
+     *
+     * @param action The action to perform.
+     */
+    public void forEachValue(Consumer<? super V> action) {
+        groups.forEachValue(group -> group.forEachValue(action));
+    }
+
+    /**
+     * Checks if there is any value with the given first key.
+     *
+     * @param first The first key.
+     * @return Whether there is any value with the given first key.
+     */
+    public boolean containsFirstKey(long first) {
+        return groups.containsKey(first);
+    }
+
+    /**
+     * Removes all entries from the map.
+     */
+    public void clear() {
+        groups.clear();
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.api.entity.channel.Channel;
+import org.javacord.core.entity.user.Member;
+import org.javacord.core.entity.user.UserPresence;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A thread-safe cache with all Javacord entities.
+ *
+ * <p>There are two implementations: The {@link ImmutableEntityCache} swaps immutable snapshots, the
+ * {@link MutableEntityCache} updates concurrent maps in place.
+ */
+public interface EntityCache {
+
+    /**
+     * Gets the channel cache.
+     *
+     * @return The channel cache.
+     */
+    ChannelCache getChannelCache();
+
+    /**
+     * Gets the member cache.
+     *
+     * @return The member cache.
+     */
+    MemberCache getMemberCache();
+
+    /**
+     * Gets the user presence cache.
+     *
+     * @return The user presence cache.
+     */
+    UserPresenceCache getUserPresenceCache();
+
+    /**
+     * Adds a channel to the cache.
+     *
+     * @param channel The channel to add.
+     * @return The channel with the same id that was in the cache before or {@code null} if there was none.
+     */
+    Channel addChannel(Channel channel);
+
+    /**
+     * Removes the channel with the given id from the cache.
+     *
+     * @param channelId The id of the channel to remove.
+     * @return The removed channel or {@code null} if there was no channel with the given id.
+     */
+    Channel removeChannel(long channelId);
+
+    /**
+     * Updates the presence of the user with the given id.
+     *
+     * @param userId The id of the user.
+     * @param mapper A function that takes the old user presence (or null) and returns the new user presence.
+     */
+    void updateUserPresence(long userId, UnaryOperator<UserPresence> mapper);
+
+    /**
+     * Adds a member to the cache, replacing the member with the same id in the same server.
+     *
+     * @param member The member to add.
+     */
+    void addMember(Member member);
+
+    /**
+     * Replaces all members with the given id by the result of the given mapper.
+     *
+     * @param memberId The id of the members.
+     * @param mapper A function that takes the old member and returns the new one.
+     */
+    void updateMembersById(long memberId, UnaryOperator<Member> mapper);
+
+    /**
+     * Removes the member with the given id in the server with the given id from the cache.
+     *
+     * @param memberId The id of the member.
+     * @param serverId The id of the server.
+     */
+    void removeMember(long memberId, long serverId);
+
+    /**
+     * Removes all entities from the cache.
+     */
+    void clear();
+
+}
@@ -0,0 +1,113 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.api.entity.channel.Channel;
+import org.javacord.core.entity.user.Member;
+import org.javacord.core.entity.user.UserPresence;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * An entity cache that atomically swaps immutable {@link JavacordEntityCache} snapshots.
+ *
+ * <p>All queries on a snapshot are consistent with each other, but every update copies the changed parts of the
+ * indexes and retries if another update happened concurrently.
+ */
+public class ImmutableEntityCache implements EntityCache {
+
+    private final AtomicReference<JavacordEntityCache> cache = new AtomicReference<>(JavacordEntityCache.empty());
+
+    /**
+     * Gets the current snapshot of the cache.
+     *
+     * @return The current snapshot.
+     */
+    public JavacordEntityCache getSnapshot() {
+        return cache.get();
+    }
+
+    @Override
+    public ImmutableChannelCache getChannelCache() {
+        return cache.get().getChannelCache();
+    }
+
+    @Override
+    public ImmutableMemberCache getMemberCache() {
+        return cache.get().getMemberCache();
+    }
+
+    @Override
+    public ImmutableUserPresenceCache getUserPresenceCache() {
+        return cache.get().getUserPresenceCache();
+    }
+
+    @Override
+    public Channel addChannel(Channel channel) {
+        return cache.getAndUpdate(snapshot -> snapshot
+                        .updateChannelCache(channelCache -> channelCache.addChannel(channel)))
+                .getChannelCache()
+                .getChannelById(channel.getId())
+                .orElse(null);
+    }
+
+    @Override
+    public Channel removeChannel(long channelId) {
+        return cache.getAndUpdate(snapshot -> snapshot.getChannelCache().getChannelById(channelId)
+                        .map(channel -> snapshot
+                                .updateChannelCache(channelCache -> channelCache.removeChannel(channel)))
+                        .orElse(snapshot))
+                .getChannelCache()
+                .getChannelById(channelId)
+                .orElse(null);
+    }
+
+    @Override
+    public void updateUserPresence(long userId, UnaryOperator<UserPresence> mapper) {
+        cache.getAndUpdate(snapshot -> {
+            UserPresence presence = snapshot.getUserPresenceCache().getPresenceByUserId(userId).orElse(null);
+            return snapshot.updateUserPresenceCache(userPresenceCache ->
+                    userPresenceCache.removeUserPresence(presence).addUserPresence(mapper.apply(presence)));
+        });
+    }
+
+    @Override
+    public void addMember(Member member) {
+        cache.getAndUpdate(snapshot -> {
+            Member oldMember = snapshot.getMemberCache()
+                    .getMemberByIdAndServer(member.getId(), member.getServer().getId())
+                    .orElse(null);
+            return snapshot.updateMemberCache(memberCache -> memberCache.removeMember(oldMember).addMember(member));
+        });
+    }
+
+    @Override
+    public void updateMembersById(long memberId, UnaryOperator<Member> mapper) {
+        cache.getAndUpdate(snapshot -> {
+            JavacordEntityCache newCache = snapshot;
+            for (Member member : snapshot.getMemberCache().getMembersById(memberId)) {
+                newCache = newCache.updateMemberCache(memberCache -> memberCache
+                        .removeMember(member)
+                        .addMember(mapper.apply(member))
+                );
+            }
+            return newCache;
+        });
+    }
+
+    @Override
+    public void removeMember(long memberId, long serverId) {
+        cache.getAndUpdate(snapshot -> {
+            Member member = snapshot.getMemberCache().getMemberByIdAndServer(memberId, serverId).orElse(null);
+            if (member == null) {
+                return snapshot;
+            }
+            return snapshot.updateMemberCache(memberCache -> memberCache.removeMember(member));
+        });
+    }
+
+    @Override
+    public void clear() {
+        cache.set(JavacordEntityCache.empty());
+    }
+
+}
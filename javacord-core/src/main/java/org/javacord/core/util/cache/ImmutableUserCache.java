@@ -0,0 +1,65 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.api.entity.user.User;
+import org.javacord.core.util.ImmutableToJavaMapper;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An immutable cache for all user entities.
+ */
+public class ImmutableUserCache implements UserCache {
+
+    private static final String ID_INDEX_NAME = "id";
+
+    private static final ImmutableUserCache EMPTY_CACHE = new ImmutableUserCache(Cache.<User>empty()
+            .addIndex(ID_INDEX_NAME, User::getId)
+    );
+
+    private final Cache<User> cache;
+
+    private ImmutableUserCache(Cache<User> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gets an empty channel cache.
+     *
+     * @return An empty channel cache.
+     */
+    public static ImmutableUserCache empty() {
+        return EMPTY_CACHE;
+    }
+
+    /**
+     * Adds a user to the cache.
+     *
+     * @param user The user to add.
+     * @return The new user cache.
+     */
+    public ImmutableUserCache addUser(User user) {
+        return new ImmutableUserCache(cache.addElement(user));
+    }
+
+    /**
+     * Removes a user from the cache.
+     *
+     * @param user The user to remove.
+     * @return The new user cache.
+     */
+    public ImmutableUserCache removeUser(User user) {
+        return new ImmutableUserCache(cache.removeElement(user));
+    }
+
+    @Override
+    public Set<User> getUsers() {
+        return ImmutableToJavaMapper.mapToJava(cache.getAll());
+    }
+
+    @Override
+    public Optional<User> getUserById(long id) {
+        return cache.findAnyByIndex(ID_INDEX_NAME, id);
+    }
+
+}
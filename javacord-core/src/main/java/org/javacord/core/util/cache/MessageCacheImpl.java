@@ -14,14 +14,13 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 /**
  * The implementation of {@link MessageCache}.
@@ -34,9 +33,22 @@ public class MessageCacheImpl implements MessageCache, Cleanupable {
     private static final Logger logger = LoggerUtil.getLogger(MessageCacheImpl.class);
 
     /**
-     * All messages.
+     * The first millisecond of 2015, the epoch of Discord's snowflakes.
      */
-    private final List<Reference<? extends Message>> messages = new ArrayList<>();
+    private static final long DISCORD_EPOCH_MILLIS = 1420070400000L;
+
+    /**
+     * All messages by their id.
+     *
+     * <p>As snowflakes are ordered by their creation time, the oldest messages are always at the head of the map.
+     */
+    private final ConcurrentSkipListMap<Long, MessageReference> messages = new ConcurrentSkipListMap<>();
+
+    /**
+     * The amount of entries in {@link #messages}, as {@link ConcurrentSkipListMap#size()} is not a constant-time
+     * operation.
+     */
+    private final AtomicInteger size = new AtomicInteger();
 
     /**
      * The queue that is notified if a message became softly-reachable.
@@ -91,14 +103,15 @@ public class MessageCacheImpl implements MessageCache, Cleanupable {
 
         // After minimum JDK 9 is required this can be switched to use a Cleaner
         messagesCleanupFuture = api.getThreadPool().getScheduler().scheduleWithFixedDelay(() -> {
-            api.getMessageCacheLock().lock();
             try {
                 int removedMessages = 0;
                 for (Reference<? extends Message> messageRef = messagesCleanupQueue.poll();
                         messageRef != null;
                         messageRef = messagesCleanupQueue.poll()) {
-                    messages.remove(messageRef);
-                    removedMessages++;
+                    MessageReference reference = (MessageReference) messageRef;
+                    if (removeEntry(reference.messageId, reference)) {
+                        removedMessages++;
+                    }
                 }
                 if (removedMessages > 0) {
                     logger.warn("Heap memory was too low to hold all configured messages in the cache. "
@@ -108,8 +121,6 @@ public class MessageCacheImpl implements MessageCache, Cleanupable {
                 }
             } catch (Throwable t) {
                 logger.error("Failed to clean softly referenced messages!", t);
-            } finally {
-                api.getMessageCacheLock().unlock();
             }
         }, 30, 30, TimeUnit.SECONDS);
     }
@@ -120,22 +131,18 @@ public class MessageCacheImpl implements MessageCache, Cleanupable {
      * @param message The message to add.
      */
     public void addMessage(Message message) {
-        api.getMessageCacheLock().lock();
-        try {
-            api.addMessageToCache(message);
-            if (messages.stream().map(Reference::get).anyMatch(message::equals)) {
+        api.addMessageToCache(message);
+        MessageReference messageRef = new MessageReference(message, messagesCleanupQueue);
+        while (true) {
+            MessageReference existingRef = messages.putIfAbsent(message.getId(), messageRef);
+            if (existingRef == null) {
+                size.incrementAndGet();
                 return;
             }
-            // Add the message in the correct order
-            messages.removeIf(messageRef -> messageRef.get() == null);
-            Reference<Message> messageRef = new SoftReference<>(message, messagesCleanupQueue);
-            int pos = Collections.binarySearch(messages, messageRef, Comparator.comparing(Reference::get));
-            if (pos < 0) {
-                pos = -pos - 1;
+            if (existingRef.get() != null || messages.replace(message.getId(), existingRef, messageRef)) {
+                // the message is already cached or the garbage collected entry was replaced
+                return;
             }
-            messages.add(pos, messageRef);
-        } finally {
-            api.getMessageCacheLock().unlock();
         }
     }
 
@@ -163,37 +170,59 @@ public class MessageCacheImpl implements MessageCache, Cleanupable {
      * @param message The message to remove.
      */
     public void removeMessage(Message message) {
-        api.getMessageCacheLock().lock();
-        try {
-            messages.removeIf(messageRef -> Objects.equals(messageRef.get(), message));
-        } finally {
-            api.getMessageCacheLock().unlock();
+        MessageReference messageRef = messages.get(message.getId());
+        if (messageRef != null) {
+            removeEntry(message.getId(), messageRef);
+        }
+    }
+
+    /**
+     * Removes the entry with the given id if it still holds the given reference.
+     *
+     * @param messageId The id of the message.
+     * @param messageRef The expected reference.
+     * @return Whether the entry was removed.
+     */
+    private boolean removeEntry(long messageId, MessageReference messageRef) {
+        if (messages.remove(messageId, messageRef)) {
+            size.decrementAndGet();
+            return true;
         }
+        return false;
+    }
+
+    /**
+     * Gets the amount of messages in the cache, including messages which are cached forever.
+     *
+     * @return The amount of messages in the cache.
+     */
+    public int getSize() {
+        return size.get();
     }
 
     /**
      * Cleans the cache.
+     *
+     * <p>Only the oldest messages are visited: all messages that are older than the storage time and the oldest
+     * messages that exceed the capacity. Messages which are cached forever are skipped.
      */
     public void clean() {
-        Instant minAge = Instant.now().minus(storageTimeInSeconds, ChronoUnit.SECONDS);
-        api.getMessageCacheLock().lock();
-        try {
-            messages.removeIf(messageRef -> Optional.ofNullable(messageRef.get())
-                    .map(message -> !message.isCachedForever() && message.getCreationTimestamp().isBefore(minAge))
-                    .orElse(true));
-            long foreverCachedAmount = messages.stream()
-                    .map(Reference::get)
-                    .filter(Objects::nonNull)
-                    .filter(Message::isCachedForever)
-                    .count();
-            messages.removeAll(messages.stream()
-                    .filter(messageRef -> Optional.ofNullable(messageRef.get())
-                            .map(message -> !message.isCachedForever())
-                            .orElse(true))
-                    .limit(Math.max(0, messages.size() - capacity - foreverCachedAmount))
-                    .collect(Collectors.toList()));
-        } finally {
-            api.getMessageCacheLock().unlock();
+        long minAgeMillis = Instant.now().minus(storageTimeInSeconds, ChronoUnit.SECONDS).toEpochMilli();
+        // all snowflakes below this id were created before the minimum age
+        long minId = Math.max(0, minAgeMillis - DISCORD_EPOCH_MILLIS) << 22;
+        int excess = size.get() - capacity - cacheForeverMessages.size();
+        for (Map.Entry<Long, MessageReference> entry : messages.entrySet()) {
+            boolean expired = entry.getKey() < minId;
+            if (!expired && excess <= 0) {
+                break;
+            }
+            Message message = entry.getValue().get();
+            if (message != null && message.isCachedForever()) {
+                continue;
+            }
+            if (removeEntry(entry.getKey(), entry.getValue())) {
+                excess--;
+            }
         }
     }
 
@@ -250,4 +279,17 @@ public class MessageCacheImpl implements MessageCache, Cleanupable {
         messagesCleanupFuture.cancel(false);
     }
 
+    /**
+     * A soft reference to a cached message that remembers the message's id.
+     */
+    private static class MessageReference extends SoftReference<Message> {
+
+        private final long messageId;
+
+        private MessageReference(Message message, ReferenceQueue<? super Message> queue) {
+            super(message, queue);
+            messageId = message.getId();
+        }
+    }
+
 }
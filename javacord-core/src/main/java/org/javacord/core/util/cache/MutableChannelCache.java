@@ -0,0 +1,161 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.api.entity.channel.Channel;
+import org.javacord.api.entity.channel.ChannelType;
+import org.javacord.api.entity.channel.PrivateChannel;
+import org.javacord.api.entity.channel.ServerChannel;
+import org.javacord.api.entity.server.Server;
+import org.javacord.core.util.concurrent.StripedLock;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A mutable, thread-safe cache for all channel entities.
+ *
+ * <p>Writes are serialized per server (or per channel for channels without a server) with a {@link StripedLock}.
+ * Lookups by id are optimistic and do not box the id. The returned sets are unmodifiable snapshots.
+ */
+public class MutableChannelCache implements ChannelCache {
+
+    private final StripedLock locks = new StripedLock();
+
+    private final ConcurrentLongObjectMap<Channel> channels = new ConcurrentLongObjectMap<>();
+    private final Map<ChannelType, Set<Channel>> channelsByType = new EnumMap<>(ChannelType.class);
+    private final ConcurrentLongPairObjectMap<ServerChannel> channelsByServerIdAndId =
+            new ConcurrentLongPairObjectMap<>();
+    private final ConcurrentLongObjectMap<PrivateChannel> privateChannelsByUserId = new ConcurrentLongObjectMap<>();
+
+    /**
+     * Creates a new empty channel cache.
+     */
+    public MutableChannelCache() {
+        for (ChannelType type : ChannelType.values()) {
+            channelsByType.put(type, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Adds a channel to the cache, replacing the channel with the same id.
+     *
+     * @param channel The channel to add.
+     * @return The replaced channel or {@code null} if there was no channel with the same id.
+     */
+    public Channel addChannel(Channel channel) {
+        synchronized (locks.get(getStripeKey(channel))) {
+            Channel oldChannel = channels.put(channel.getId(), channel);
+            if (oldChannel != null) {
+                removeFromIndexes(oldChannel);
+            }
+            addToIndexes(channel);
+            return oldChannel;
+        }
+    }
+
+    /**
+     * Removes the channel with the given id from the cache.
+     *
+     * @param channelId The id of the channel to remove.
+     * @return The removed channel or {@code null} if there was no channel with the given id.
+     */
+    public Channel removeChannel(long channelId) {
+        while (true) {
+            Channel channel = channels.get(channelId);
+            if (channel == null) {
+                return null;
+            }
+            synchronized (locks.get(getStripeKey(channel))) {
+                if (channels.remove(channelId, channel)) {
+                    removeFromIndexes(channel);
+                    return channel;
+                }
+            }
+            // the channel was replaced concurrently, try again with the new one
+        }
+    }
+
+    /**
+     * Removes all channels from the cache.
+     */
+    public void clear() {
+        channels.clear();
+        channelsByType.values().forEach(Set::clear);
+        channelsByServerIdAndId.clear();
+        privateChannelsByUserId.clear();
+    }
+
+    private void addToIndexes(Channel channel) {
+        channelsByType.get(channel.getType()).add(channel);
+        channel.asServerChannel().ifPresent(serverChannel -> channelsByServerIdAndId
+                .put(serverChannel.getServer().getId(), serverChannel.getId(), serverChannel));
+        channel.asPrivateChannel().ifPresent(privateChannel -> privateChannel.getRecipient()
+                .ifPresent(user -> privateChannelsByUserId.put(user.getId(), privateChannel)));
+    }
+
+    private void removeFromIndexes(Channel channel) {
+        channelsByType.get(channel.getType()).remove(channel);
+        channel.asServerChannel().ifPresent(serverChannel -> channelsByServerIdAndId
+                .remove(serverChannel.getServer().getId(), serverChannel.getId(), serverChannel));
+        channel.asPrivateChannel().ifPresent(privateChannel -> privateChannel.getRecipient()
+                .ifPresent(user -> privateChannelsByUserId.remove(user.getId(), privateChannel)));
+    }
+
+    private static long getStripeKey(Channel channel) {
+        return channel.asServerChannel()
+                .map(ServerChannel::getServer)
+                .map(Server::getId)
+                .orElse(channel.getId());
+    }
+
+    @Override
+    public Set<Channel> getChannels() {
+        Set<Channel> result = new HashSet<>();
+        channels.forEachValue(result::add);
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Channel> Set<T> getChannelsWithTypes(ChannelType... types) {
+        Set<T> result = new HashSet<>();
+        for (ChannelType type : types) {
+            result.addAll((Set<T>) channelsByType.get(type));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Set<ServerChannel> getChannelsOfServer(long serverId) {
+        Set<ServerChannel> result = new HashSet<>();
+        channelsByServerIdAndId.forEachValue(serverId, result::add);
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Channel> Set<T> getChannelsOfServerAndType(long serverId, ChannelType type) {
+        Set<T> result = new HashSet<>();
+        channelsByServerIdAndId.forEachValue(serverId, channel -> {
+            if (channel.getType() == type) {
+                result.add((T) channel);
+            }
+        });
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Optional<Channel> getChannelById(long id) {
+        return Optional.ofNullable(channels.get(id));
+    }
+
+    @Override
+    public Optional<PrivateChannel> getPrivateChannelByUserId(long userId) {
+        return Optional.ofNullable(privateChannelsByUserId.get(userId));
+    }
+
+}
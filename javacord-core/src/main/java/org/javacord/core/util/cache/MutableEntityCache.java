@@ -0,0 +1,74 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.api.entity.channel.Channel;
+import org.javacord.core.entity.user.Member;
+import org.javacord.core.entity.user.UserPresence;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * An entity cache that is updated in place.
+ *
+ * <p>Updates are {@code O(1)} and do not allocate persistent data structures. They are serialized per server using
+ * lock striping, so there is no global contention point. Queries that span multiple caches are not guaranteed to
+ * see a consistent snapshot while updates happen concurrently.
+ */
+public class MutableEntityCache implements EntityCache {
+
+    private final MutableChannelCache channelCache = new MutableChannelCache();
+    private final MutableMemberCache memberCache = new MutableMemberCache();
+    private final MutableUserPresenceCache userPresenceCache = new MutableUserPresenceCache();
+
+    @Override
+    public MutableChannelCache getChannelCache() {
+        return channelCache;
+    }
+
+    @Override
+    public MutableMemberCache getMemberCache() {
+        return memberCache;
+    }
+
+    @Override
+    public MutableUserPresenceCache getUserPresenceCache() {
+        return userPresenceCache;
+    }
+
+    @Override
+    public Channel addChannel(Channel channel) {
+        return channelCache.addChannel(channel);
+    }
+
+    @Override
+    public Channel removeChannel(long channelId) {
+        return channelCache.removeChannel(channelId);
+    }
+
+    @Override
+    public void updateUserPresence(long userId, UnaryOperator<UserPresence> mapper) {
+        userPresenceCache.updateUserPresence(userId, mapper);
+    }
+
+    @Override
+    public void addMember(Member member) {
+        memberCache.addMember(member);
+    }
+
+    @Override
+    public void updateMembersById(long memberId, UnaryOperator<Member> mapper) {
+        memberCache.updateMembersById(memberId, mapper);
+    }
+
+    @Override
+    public void removeMember(long memberId, long serverId) {
+        memberCache.removeMember(memberId, serverId);
+    }
+
+    @Override
+    public void clear() {
+        channelCache.clear();
+        memberCache.clear();
+        userPresenceCache.clear();
+    }
+
+}
@@ -0,0 +1,133 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.api.entity.server.Server;
+import org.javacord.core.entity.user.Member;
+import org.javacord.core.util.concurrent.StripedLock;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * A mutable, thread-safe cache for all member entities.
+ *
+ * <p>Writes are serialized per server and, for the user index and the user cache, per user with two
+ * {@link StripedLock}s. Server locks are always acquired before user locks. Lookups by id are optimistic and do not
+ * box the ids. The returned sets are unmodifiable snapshots.
+ */
+public class MutableMemberCache implements MemberCache {
+
+    private final StripedLock serverLocks = new StripedLock();
+    private final StripedLock userLocks = new StripedLock();
+
+    private final ConcurrentLongPairObjectMap<Member> membersByServerIdAndId = new ConcurrentLongPairObjectMap<>();
+    private final ConcurrentLongPairObjectMap<Member> membersByIdAndServerId = new ConcurrentLongPairObjectMap<>();
+
+    private final MutableUserCache userCache = new MutableUserCache();
+
+    /**
+     * Adds a member to the cache, replacing the member with the same id in the same server.
+     *
+     * <p>Automatically updates the underlying user cache, too.
+     *
+     * @param member The member to add.
+     */
+    public void addMember(Member member) {
+        long memberId = member.getId();
+        long serverId = member.getServer().getId();
+        synchronized (serverLocks.get(serverId)) {
+            membersByServerIdAndId.put(serverId, memberId, member);
+            synchronized (userLocks.get(memberId)) {
+                membersByIdAndServerId.put(memberId, serverId, member);
+                userCache.addUser(member.getUser());
+            }
+        }
+    }
+
+    /**
+     * Removes the member with the given id in the server with the given id from the cache.
+     *
+     * <p>Automatically updates the underlying user cache, too.
+     *
+     * @param memberId The id of the member.
+     * @param serverId The id of the server.
+     */
+    public void removeMember(long memberId, long serverId) {
+        synchronized (serverLocks.get(serverId)) {
+            if (!membersByServerIdAndId.remove(serverId, memberId)) {
+                return;
+            }
+            synchronized (userLocks.get(memberId)) {
+                membersByIdAndServerId.remove(memberId, serverId);
+                if (!membersByIdAndServerId.containsFirstKey(memberId)) {
+                    userCache.removeUser(memberId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces all members with the given id by the result of the given mapper.
+     *
+     * @param memberId The id of the members.
+     * @param mapper A function that takes the old member and returns the new one.
+     */
+    public void updateMembersById(long memberId, UnaryOperator<Member> mapper) {
+        for (Member member : getMembersById(memberId)) {
+            long serverId = member.getServer().getId();
+            synchronized (serverLocks.get(serverId)) {
+                getMemberByIdAndServer(memberId, serverId).map(mapper).ifPresent(this::addMember);
+            }
+        }
+    }
+
+    /**
+     * Removes all members from the cache.
+     */
+    public void clear() {
+        membersByServerIdAndId.clear();
+        membersByIdAndServerId.clear();
+        userCache.clear();
+    }
+
+    @Override
+    public Set<Server> getServers(long userId) {
+        Set<Server> servers = new HashSet<>();
+        membersByIdAndServerId.forEachValue(userId, member -> servers.add(member.getServer()));
+        return Collections.unmodifiableSet(servers);
+    }
+
+    @Override
+    public MutableUserCache getUserCache() {
+        return userCache;
+    }
+
+    @Override
+    public Set<Member> getMembers() {
+        Set<Member> members = new HashSet<>();
+        membersByServerIdAndId.forEachValue(members::add);
+        return Collections.unmodifiableSet(members);
+    }
+
+    @Override
+    public Set<Member> getMembersById(long id) {
+        Set<Member> members = new HashSet<>();
+        membersByIdAndServerId.forEachValue(id, members::add);
+        return Collections.unmodifiableSet(members);
+    }
+
+    @Override
+    public Set<Member> getMembersByServer(long serverId) {
+        Set<Member> members = new HashSet<>();
+        membersByServerIdAndId.forEachValue(serverId, members::add);
+        return Collections.unmodifiableSet(members);
+    }
+
+    @Override
+    public Optional<Member> getMemberByIdAndServer(long id, long serverId) {
+        return Optional.ofNullable(membersByServerIdAndId.get(serverId, id));
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.api.entity.user.User;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A mutable, thread-safe cache for all user entities.
+ *
+ * <p>The cache is maintained by the {@link MutableMemberCache}.
+ */
+public class MutableUserCache implements UserCache {
+
+    private final ConcurrentLongObjectMap<User> users = new ConcurrentLongObjectMap<>();
+
+    /**
+     * Adds a user to the cache, replacing the user with the same id.
+     *
+     * @param user The user to add.
+     */
+    void addUser(User user) {
+        users.put(user.getId(), user);
+    }
+
+    /**
+     * Removes the user with the given id from the cache.
+     *
+     * @param userId The id of the user to remove.
+     */
+    void removeUser(long userId) {
+        users.remove(userId);
+    }
+
+    /**
+     * Removes all users from the cache.
+     */
+    void clear() {
+        users.clear();
+    }
+
+    @Override
+    public Set<User> getUsers() {
+        Set<User> result = new HashSet<>();
+        users.forEachValue(result::add);
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public Optional<User> getUserById(long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.javacord.core.util.cache;
+
+import org.javacord.core.entity.user.UserPresence;
+
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * A mutable, thread-safe cache for all user presences.
+ */
+public class MutableUserPresenceCache implements UserPresenceCache {
+
+    private final ConcurrentLongObjectMap<UserPresence> presences = new ConcurrentLongObjectMap<>();
+
+    /**
+     * Atomically updates the presence of the user with the given id.
+     *
+     * @param userId The id of the user.
+     * @param mapper A function that takes the old user presence (or null) and returns the new user presence.
+     */
+    public void updateUserPresence(long userId, UnaryOperator<UserPresence> mapper) {
+        presences.compute(userId, mapper);
+    }
+
+    /**
+     * Removes all presences from the cache.
+     */
+    public void clear() {
+        presences.clear();
+    }
+
+    @Override
+    public Optional<UserPresence> getPresenceByUserId(long userId) {
+        return Optional.ofNullable(presences.get(userId));
+    }
+
+}
@@ -0,0 +1,248 @@
+package org.javacord.core.util.concurrent;
+
+import org.apache.logging.log4j.Logger;
+import org.javacord.core.util.logging.LoggerUtil;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs periodic tasks, like sending the audio frames of all audio connections, on a small fixed set of timer threads.
+ *
+ * <p>Every timer thread owns some of the tasks and runs all of them once per frame. The deadlines are absolute, so
+ * the time it takes to run the tasks does not add up. If a timer thread fell behind by more than
+ * {@value #MAX_CATCH_UP_FRAMES} frames, it continues from the current time instead of running the missed frames in a
+ * burst. Tasks must not block, as they delay all other tasks of their timer thread.
+ *
+ * <p>The timer threads are started when the first task is scheduled and park while they have no tasks.
+ */
+public class FrameScheduler {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(FrameScheduler.class);
+
+    /**
+     * The amount of frames a timer thread catches up at most after it fell behind.
+     */
+    private static final int MAX_CATCH_UP_FRAMES = 5;
+
+    private final ThreadFactory threadFactory;
+    private final long frameNanos;
+    private final TimerThread[] timerThreads;
+
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates a new frame scheduler.
+     *
+     * @param namePattern The name pattern of the timer threads, may contain a {@code %d} wildcard.
+     * @param threadCount The amount of timer threads.
+     * @param frameDuration The duration of a frame.
+     * @param unit The unit of the frame duration.
+     */
+    public FrameScheduler(String namePattern, int threadCount, long frameDuration, TimeUnit unit) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("The amount of timer threads must be at least 1");
+        }
+        threadFactory = new ThreadFactory(namePattern, false);
+        frameNanos = unit.toNanos(frameDuration);
+        timerThreads = new TimerThread[threadCount];
+    }
+
+    /**
+     * Schedules a task which is run once per frame until it is cancelled.
+     * The task is assigned to the timer thread with the fewest tasks.
+     *
+     * @param task The task.
+     * @return The scheduled task, which can be used to cancel it and to get its timing statistics.
+     */
+    public synchronized ScheduledFrameTask schedule(Runnable task) {
+        if (shutdown) {
+            throw new IllegalStateException("The frame scheduler has been shut down");
+        }
+        TimerThread timerThread = null;
+        for (int i = 0; i < timerThreads.length; i++) {
+            if (timerThreads[i] == null) {
+                timerThreads[i] = new TimerThread();
+                threadFactory.newThread(timerThreads[i]).start();
+            }
+            if (timerThread == null || timerThreads[i].tasks.size() < timerThread.tasks.size()) {
+                timerThread = timerThreads[i];
+            }
+            if (timerThread.tasks.isEmpty()) {
+                break;
+            }
+        }
+        ScheduledFrameTask scheduledTask = new ScheduledFrameTask(task, timerThread);
+        timerThread.tasks.add(scheduledTask);
+        timerThread.wakeUp();
+        return scheduledTask;
+    }
+
+    /**
+     * Stops all timer threads. Scheduled tasks are not run anymore.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        for (TimerThread timerThread : timerThreads) {
+            if (timerThread != null) {
+                timerThread.tasks.clear();
+                timerThread.wakeUp();
+            }
+        }
+    }
+
+    /**
+     * A timer thread which runs its tasks once per frame.
+     */
+    private class TimerThread implements Runnable {
+
+        private final List<ScheduledFrameTask> tasks = new CopyOnWriteArrayList<>();
+        private volatile Thread thread;
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            long deadline = System.nanoTime();
+            while (!shutdown) {
+                if (tasks.isEmpty()) {
+                    LockSupport.park(this);
+                    // Start with a fresh deadline, the tasks have not been run while the thread was parked
+                    deadline = System.nanoTime();
+                    continue;
+                }
+                long now = System.nanoTime();
+                while (deadline - now > 0) {
+                    LockSupport.parkNanos(this, deadline - now);
+                    now = System.nanoTime();
+                }
+                if (now - deadline > MAX_CATCH_UP_FRAMES * frameNanos) {
+                    logger.debug("Frame timer thread fell behind by {} ms, skipping the missed frames",
+                            TimeUnit.NANOSECONDS.toMillis(now - deadline));
+                    deadline = now;
+                }
+                for (ScheduledFrameTask task : tasks) {
+                    task.run(deadline);
+                }
+                deadline += frameNanos;
+            }
+        }
+
+        /**
+         * Wakes up the thread if it is parked because it had no tasks.
+         */
+        private void wakeUp() {
+            Thread thread = this.thread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * A task which is run once per frame, together with the statistics how punctually it was run.
+     *
+     * <p>The statistics are only written by the timer thread of the task.
+     */
+    public static final class ScheduledFrameTask {
+
+        private final Runnable task;
+        private final TimerThread timerThread;
+
+        private volatile boolean cancelled = false;
+        private volatile long frameCount = 0;
+        private volatile long totalLatenessNanos = 0;
+        private volatile long maxLatenessNanos = 0;
+        private volatile long jitterNanos = 0;
+        private long lastLatenessNanos = 0;
+
+        private ScheduledFrameTask(Runnable task, TimerThread timerThread) {
+            this.task = task;
+            this.timerThread = timerThread;
+        }
+
+        /**
+         * Runs the task and records how late it was run.
+         *
+         * @param deadline The point in time the task should have been run at, as in {@link System#nanoTime()}.
+         */
+        private void run(long deadline) {
+            if (cancelled) {
+                return;
+            }
+            long lateness = System.nanoTime() - deadline;
+            // The interarrival jitter as calculated by RTP, see RFC 3550, section 6.4.1
+            if (frameCount > 0) {
+                jitterNanos += (Math.abs(lateness - lastLatenessNanos) - jitterNanos) / 16;
+            }
+            lastLatenessNanos = lateness;
+            totalLatenessNanos += lateness;
+            maxLatenessNanos = Math.max(maxLatenessNanos, lateness);
+            frameCount++;
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.error("Frame task threw an exception!", t);
+            }
+        }
+
+        /**
+         * Cancels the task. It is not run anymore after this method returned, unless it is currently running.
+         */
+        public void cancel() {
+            cancelled = true;
+            timerThread.tasks.remove(this);
+        }
+
+        /**
+         * Checks if the task has been cancelled.
+         *
+         * @return Whether the task has been cancelled.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Gets the amount of frames the task has been run for.
+         *
+         * @return The amount of frames.
+         */
+        public long getFrameCount() {
+            return frameCount;
+        }
+
+        /**
+         * Gets the average time between the deadline of a frame and the start of the task.
+         *
+         * @return The average lateness in nanoseconds.
+         */
+        public long getAverageLatenessNanos() {
+            long frameCount = this.frameCount;
+            return frameCount == 0 ? 0 : totalLatenessNanos / frameCount;
+        }
+
+        /**
+         * Gets the maximum time between the deadline of a frame and the start of the task.
+         *
+         * @return The maximum lateness in nanoseconds.
+         */
+        public long getMaxLatenessNanos() {
+            return maxLatenessNanos;
+        }
+
+        /**
+         * Gets the smoothed variation of the lateness from frame to frame.
+         *
+         * @return The jitter in nanoseconds.
+         */
+        public long getJitterNanos() {
+            return jitterNanos;
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package org.javacord.core.util.concurrent;
+
+import org.apache.logging.log4j.Logger;
+import org.javacord.core.util.logging.LoggerUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor that executes tasks in lanes on a bounded thread pool.
+ *
+ * <p>Tasks with the same key are executed sequentially in the order they were submitted. Tasks with different keys
+ * are executed concurrently, but never on more threads than the configured parallelism.
+ */
+public class PartitionedExecutor {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(PartitionedExecutor.class);
+
+    /**
+     * The amount of tasks a lane executes before giving other lanes a chance to run.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    private static final int KEEP_ALIVE_TIME = 60;
+    private static final TimeUnit TIME_UNIT = TimeUnit.SECONDS;
+
+    /**
+     * The executor service which executes the lanes.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * All lanes that currently have queued or running tasks.
+     * Guarded by itself.
+     */
+    private final Map<Long, Lane> lanes = new HashMap<>();
+
+    /**
+     * Creates a new partitioned executor.
+     *
+     * @param threadName The name of the threads, may contain a {@code %d} wildcard where the counter gets filled in.
+     * @param parallelism The maximum amount of lanes that are executed at the same time.
+     */
+    public PartitionedExecutor(String threadName, int parallelism) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                parallelism, parallelism, KEEP_ALIVE_TIME, TIME_UNIT, new LinkedBlockingQueue<>(),
+                new ThreadFactory(threadName, false));
+        executor.allowCoreThreadTimeOut(true);
+        executorService = executor;
+    }
+
+    /**
+     * Executes the given task in the lane with the given key.
+     *
+     * @param key The key of the lane.
+     * @param task The task to execute.
+     */
+    public void execute(long key, Runnable task) {
+        Lane lane;
+        synchronized (lanes) {
+            lane = lanes.computeIfAbsent(key, Lane::new);
+            lane.tasks.add(task);
+            if (lane.scheduled) {
+                // the lane is already queued or running and will pick the task up
+                return;
+            }
+            lane.scheduled = true;
+        }
+        executorService.execute(lane);
+    }
+
+    /**
+     * Waits until all tasks which were submitted before are executed.
+     * Tasks which are submitted afterwards are not waited for.
+     *
+     * @return A future which is completed once all previously submitted tasks are executed.
+     */
+    public CompletableFuture<Void> flush() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        synchronized (lanes) {
+            for (Lane lane : lanes.values()) {
+                // lanes stay in the map while they are scheduled, so the marker task is picked up
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                lane.tasks.add(() -> future.complete(null));
+                futures.add(future);
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Gets the amount of lanes that currently have queued or running tasks.
+     *
+     * @return The amount of active lanes.
+     */
+    public int getActiveLaneCount() {
+        synchronized (lanes) {
+            return lanes.size();
+        }
+    }
+
+    /**
+     * Shuts the executor down.
+     * Already submitted tasks are still executed.
+     */
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    /**
+     * Gets the executor service which executes the lanes.
+     *
+     * @return The executor service which executes the lanes.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * A lane of tasks that are executed sequentially.
+     */
+    private class Lane implements Runnable {
+
+        private final long key;
+
+        /**
+         * The queued tasks of this lane.
+         * Guarded by {@link #lanes}.
+         */
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        /**
+         * Whether this lane is currently queued in or running on the executor service.
+         * Guarded by {@link #lanes}.
+         */
+        private boolean scheduled = false;
+
+        private Lane(long key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            int executedTasks = 0;
+            while (true) {
+                Runnable task;
+                synchronized (lanes) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        scheduled = false;
+                        lanes.remove(key);
+                        return;
+                    }
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    logger.error("Failed to execute task in lane {}!", key, t);
+                }
+                if (++executedTasks >= BATCH_SIZE) {
+                    try {
+                        // re-queue the lane to not starve other lanes during bursts
+                        executorService.execute(this);
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        // shutting down, just finish the remaining tasks of this lane
+                        executedTasks = 0;
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.javacord.core.util.concurrent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A view of a shared scheduled executor service which can be shut down without shutting down the shared one.
+ *
+ * <p>Shutting down the view behaves like shutting down a {@link java.util.concurrent.ScheduledThreadPoolExecutor}
+ * with the default policies: New tasks are rejected, periodic tasks are cancelled and delayed tasks are still
+ * executed. The shared executor service keeps running for its other users.
+ */
+public class ScopedScheduledExecutorService extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService delegate;
+
+    /**
+     * The periodic tasks which are cancelled on shutdown.
+     */
+    private final Set<ScheduledFuture<?>> periodicTasks = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates a new scoped scheduled executor service.
+     *
+     * @param delegate The shared scheduled executor service which executes the tasks.
+     */
+    public ScopedScheduledExecutorService(ScheduledExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        checkNotShutdown();
+        delegate.execute(command);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        checkNotShutdown();
+        return delegate.schedule(command, delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        checkNotShutdown();
+        return delegate.schedule(callable, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        checkNotShutdown();
+        return trackPeriodicTask(delegate.scheduleAtFixedRate(command, initialDelay, period, unit));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+                                                     TimeUnit unit) {
+        checkNotShutdown();
+        return trackPeriodicTask(delegate.scheduleWithFixedDelay(command, initialDelay, delay, unit));
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        periodicTasks.forEach(task -> task.cancel(false));
+        periodicTasks.clear();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return shutdown;
+    }
+
+    /**
+     * Remembers a periodic task, so it can be cancelled on shutdown.
+     *
+     * @param task The periodic task.
+     * @return The given task.
+     */
+    private ScheduledFuture<?> trackPeriodicTask(ScheduledFuture<?> task) {
+        // periodic tasks are only done if they were cancelled by their owner, e.g. the heartbeat after a reconnect
+        periodicTasks.removeIf(Future::isDone);
+        periodicTasks.add(task);
+        if (shutdown) {
+            task.cancel(false);
+        }
+        return task;
+    }
+
+    /**
+     * Throws an exception if the view has been shut down.
+     *
+     * @throws RejectedExecutionException If the view has been shut down.
+     */
+    private void checkNotShutdown() {
+        if (shutdown) {
+            throw new RejectedExecutionException("The executor service has been shut down");
+        }
+    }
+
+}
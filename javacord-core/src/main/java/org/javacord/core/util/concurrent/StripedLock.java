@@ -0,0 +1,56 @@
+package org.javacord.core.util.concurrent;
+
+/**
+ * A fixed set of monitors that are selected by a {@code long} key, usually a snowflake.
+ *
+ * <p>Keys that map to the same stripe share a monitor, so the stripe count is a trade-off between memory and the
+ * probability that unrelated keys contend with each other.
+ */
+public class StripedLock {
+
+    /**
+     * The default amount of stripes.
+     */
+    public static final int DEFAULT_STRIPE_COUNT = 64;
+
+    private final Object[] stripes;
+    private final int shift;
+
+    /**
+     * Creates a new striped lock with the {@link #DEFAULT_STRIPE_COUNT default stripe count}.
+     */
+    public StripedLock() {
+        this(DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * Creates a new striped lock.
+     *
+     * @param stripeCount The amount of stripes. Must be a power of two.
+     */
+    public StripedLock(int stripeCount) {
+        if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("The stripe count must be a power of two");
+        }
+        stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+        shift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    /**
+     * Gets the monitor for the given key.
+     *
+     * @param key The key, e.g. the id of a server.
+     * @return The monitor to synchronize on.
+     */
+    public Object get(long key) {
+        if (stripes.length == 1) {
+            return stripes[0];
+        }
+        // the low bits of a snowflake are a per-process counter, so spread all bits before picking a stripe
+        return stripes[(int) ((key * 0x9E3779B97F4A7C15L) >>> shift)];
+    }
+
+}
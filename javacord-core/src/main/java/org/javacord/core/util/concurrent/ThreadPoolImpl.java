@@ -23,25 +23,194 @@ public class ThreadPoolImpl implements ThreadPool {
     private static final int MAXIMUM_POOL_SIZE = Integer.MAX_VALUE;
     private static final int KEEP_ALIVE_TIME = 60;
     private static final TimeUnit TIME_UNIT = TimeUnit.SECONDS;
+    private static final int AUDIO_SEND_THREADS =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 4));
+    private static final int AUDIO_FRAME_DURATION = 20;
+    private static final int REST_CALLBACK_THREADS = 64;
+    private static final int DEFAULT_PACKET_HANDLER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
 
-    private final ExecutorService executorService = new ThreadPoolExecutor(
-            CORE_POOL_SIZE, MAXIMUM_POOL_SIZE, KEEP_ALIVE_TIME, TIME_UNIT, new SynchronousQueue<>(),
-            new ThreadFactory("Javacord - Central ExecutorService - %d", false));
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
-            CORE_POOL_SIZE, new ThreadFactory("Javacord - Central Scheduler - %d", false));
-    private final ScheduledExecutorService daemonScheduler = Executors.newScheduledThreadPool(
-            CORE_POOL_SIZE, new ThreadFactory("Javacord - Central Daemon Scheduler - %d", true));
+    private final ExecutorService executorService;
+    private final boolean ownsExecutorService;
+    private final ExecutorService eventLoopExecutorService;
+    private final ExecutorService restExecutorService;
+    private final ExecutorService restCallbackExecutorService;
+    private final ExecutorService interactionExecutorService;
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledExecutorService daemonScheduler;
+    private final int packetHandlerThreadCount;
     private final ConcurrentHashMap<String, ExecutorService> executorServiceSingleThreads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PartitionedExecutor> partitionedExecutors = new ConcurrentHashMap<>();
+    private FrameScheduler audioSendScheduler;
+    private boolean shutdown = false;
+
+    /**
+     * The thread pool whose threads are shared by this thread pool or {@code null} if it has its own threads.
+     */
+    private final ThreadPoolImpl sharedThreadPool;
+
+    /**
+     * Creates a new thread pool with an unbounded central executor service.
+     */
+    public ThreadPoolImpl() {
+        this(null, 0, false);
+    }
+
+    /**
+     * Creates a new thread pool without event loop threads.
+     *
+     * @param executorService A custom central executor service or {@code null} to create one.
+     *                        A custom executor service is not shut down by the thread pool.
+     * @param threadLimit The maximum amount of threads of the created central executor service.
+     *                    Tasks are queued while all threads are busy. {@code 0} means no limit.
+     * @param virtualThreadsEnabled Whether the created central executor service should start a virtual thread for
+     *                              every task. Takes precedence over the thread limit.
+     * @throws IllegalStateException If virtual threads are enabled but not supported by the runtime.
+     */
+    public ThreadPoolImpl(ExecutorService executorService, int threadLimit, boolean virtualThreadsEnabled) {
+        this(executorService, threadLimit, virtualThreadsEnabled, 0);
+    }
+
+    /**
+     * Creates a new thread pool.
+     *
+     * @param executorService A custom central executor service or {@code null} to create one.
+     *                        A custom executor service is not shut down by the thread pool.
+     * @param threadLimit The maximum amount of threads of the created central executor service.
+     *                    Tasks are queued while all threads are busy. {@code 0} means no limit.
+     * @param virtualThreadsEnabled Whether the created central executor service should start a virtual thread for
+     *                              every task. Takes precedence over the thread limit.
+     * @param eventLoopThreadCount The amount of event loop threads which execute the listeners. {@code 0} means
+     *                             that the listeners are executed by the central executor service.
+     * @throws IllegalStateException If virtual threads are enabled but not supported by the runtime.
+     */
+    public ThreadPoolImpl(ExecutorService executorService, int threadLimit, boolean virtualThreadsEnabled,
+                          int eventLoopThreadCount) {
+        this(executorService, threadLimit, virtualThreadsEnabled, eventLoopThreadCount, 0);
+    }
+
+    /**
+     * Creates a new thread pool.
+     *
+     * @param executorService A custom central executor service or {@code null} to create one.
+     *                        A custom executor service is not shut down by the thread pool.
+     * @param threadLimit The maximum amount of threads of the created central executor service.
+     *                    Tasks are queued while all threads are busy. {@code 0} means no limit.
+     * @param virtualThreadsEnabled Whether the created central executor service should start a virtual thread for
+     *                              every task. Takes precedence over the thread limit.
+     * @param eventLoopThreadCount The amount of event loop threads which execute the listeners. {@code 0} means
+     *                             that the listeners are executed by the central executor service.
+     * @param packetHandlerThreadCount The maximum amount of threads which handle the received packets concurrently.
+     *                                 {@code 0} means the amount of available processors, but at least 2.
+     * @throws IllegalStateException If virtual threads are enabled but not supported by the runtime.
+     */
+    public ThreadPoolImpl(ExecutorService executorService, int threadLimit, boolean virtualThreadsEnabled,
+                          int eventLoopThreadCount, int packetHandlerThreadCount) {
+        if (threadLimit < 0) {
+            throw new IllegalArgumentException("The thread limit must not be negative");
+        }
+        if (eventLoopThreadCount < 0) {
+            throw new IllegalArgumentException("The amount of event loop threads must not be negative");
+        }
+        if (packetHandlerThreadCount < 0) {
+            throw new IllegalArgumentException("The amount of packet handler threads must not be negative");
+        }
+        sharedThreadPool = null;
+        this.packetHandlerThreadCount = packetHandlerThreadCount == 0
+                ? DEFAULT_PACKET_HANDLER_THREADS
+                : packetHandlerThreadCount;
+        restExecutorService = new ThreadPoolExecutor(
+                0, MAXIMUM_POOL_SIZE, KEEP_ALIVE_TIME, TIME_UNIT, new SynchronousQueue<>(),
+                new ThreadFactory("Javacord - REST - %d", false));
+        ThreadPoolExecutor restCallbackExecutorService = new ThreadPoolExecutor(
+                REST_CALLBACK_THREADS, REST_CALLBACK_THREADS, KEEP_ALIVE_TIME, TIME_UNIT, new LinkedBlockingQueue<>(),
+                new ThreadFactory("Javacord - REST Callbacks - %d", false));
+        restCallbackExecutorService.allowCoreThreadTimeOut(true);
+        this.restCallbackExecutorService = restCallbackExecutorService;
+        // grows like the unbounded central executor service, so blocking listeners do not delay other interactions
+        interactionExecutorService = new ThreadPoolExecutor(
+                0, MAXIMUM_POOL_SIZE, KEEP_ALIVE_TIME, TIME_UNIT, new SynchronousQueue<>(),
+                new ThreadFactory("Javacord - Interactions - %d", false));
+        scheduler = Executors.newScheduledThreadPool(
+                CORE_POOL_SIZE, new ThreadFactory("Javacord - Central Scheduler - %d", false));
+        daemonScheduler = Executors.newScheduledThreadPool(
+                CORE_POOL_SIZE, new ThreadFactory("Javacord - Central Daemon Scheduler - %d", true));
+        eventLoopExecutorService = eventLoopThreadCount == 0
+                ? null
+                : Executors.newFixedThreadPool(
+                        eventLoopThreadCount, new ThreadFactory("Javacord - Event Loop - %d", false));
+        if (executorService != null) {
+            this.executorService = executorService;
+            ownsExecutorService = false;
+        } else if (virtualThreadsEnabled) {
+            this.executorService = VirtualThreads.newVirtualThreadPerTaskExecutor()
+                    .orElseThrow(() -> new IllegalStateException("Virtual threads require Java 21 or newer"));
+            ownsExecutorService = true;
+        } else if (threadLimit > 0) {
+            ThreadPoolExecutor boundedExecutorService = new ThreadPoolExecutor(
+                    threadLimit, threadLimit, KEEP_ALIVE_TIME, TIME_UNIT, new LinkedBlockingQueue<>(),
+                    new ThreadFactory("Javacord - Central ExecutorService - %d", false));
+            boundedExecutorService.allowCoreThreadTimeOut(true);
+            this.executorService = boundedExecutorService;
+            ownsExecutorService = true;
+        } else {
+            this.executorService = new ThreadPoolExecutor(
+                    CORE_POOL_SIZE, MAXIMUM_POOL_SIZE, KEEP_ALIVE_TIME, TIME_UNIT, new SynchronousQueue<>(),
+                    new ThreadFactory("Javacord - Central ExecutorService - %d", false));
+            ownsExecutorService = true;
+        }
+    }
+
+    /**
+     * Creates a new thread pool for a shard which shares the threads of the given thread pool.
+     *
+     * <p>Only the single thread executor services are owned by the shard. Shutting down the thread pool shuts them
+     * down and cancels the periodic tasks which were scheduled through it, but the shared threads keep running.
+     *
+     * @param sharedThreadPool The thread pool whose threads are shared.
+     */
+    public ThreadPoolImpl(ThreadPoolImpl sharedThreadPool) {
+        this.sharedThreadPool = sharedThreadPool;
+        executorService = sharedThreadPool.executorService;
+        ownsExecutorService = false;
+        eventLoopExecutorService = sharedThreadPool.eventLoopExecutorService;
+        restExecutorService = sharedThreadPool.restExecutorService;
+        restCallbackExecutorService = sharedThreadPool.restCallbackExecutorService;
+        interactionExecutorService = sharedThreadPool.interactionExecutorService;
+        packetHandlerThreadCount = sharedThreadPool.packetHandlerThreadCount;
+        scheduler = new ScopedScheduledExecutorService(sharedThreadPool.scheduler);
+        daemonScheduler = new ScopedScheduledExecutorService(sharedThreadPool.daemonScheduler);
+    }
 
     /**
      * Shutdowns the thread pool.
      * This method is called automatically after disconnecting.
      */
     public void shutdown() {
-        executorService.shutdown();
+        if (sharedThreadPool != null) {
+            scheduler.shutdown();
+            daemonScheduler.shutdown();
+            executorServiceSingleThreads.values().forEach(ExecutorService::shutdown);
+            return;
+        }
+        synchronized (this) {
+            shutdown = true;
+            if (audioSendScheduler != null) {
+                audioSendScheduler.shutdown();
+            }
+        }
+        if (ownsExecutorService) {
+            executorService.shutdown();
+        }
+        if (eventLoopExecutorService != null) {
+            eventLoopExecutorService.shutdown();
+        }
+        restExecutorService.shutdown();
+        restCallbackExecutorService.shutdown();
+        interactionExecutorService.shutdown();
         scheduler.shutdown();
         daemonScheduler.shutdown();
         executorServiceSingleThreads.values().forEach(ExecutorService::shutdown);
+        partitionedExecutors.values().forEach(PartitionedExecutor::shutdown);
     }
 
     @Override
@@ -49,6 +218,98 @@ public class ThreadPoolImpl implements ThreadPool {
         return executorService;
     }
 
+    /**
+     * Gets the executor service of the event loop threads which execute the listeners in batches.
+     *
+     * @return The executor service of the event loop threads or {@code null} if the listeners are executed by the
+     *         central executor service.
+     */
+    public ExecutorService getEventLoopExecutorService() {
+        return eventLoopExecutorService;
+    }
+
+    /**
+     * Gets the executor service which executes the REST requests.
+     *
+     * <p>It is separate from the central executor service, so REST requests still complete if all threads of a
+     * bounded central executor service wait for them. It only executes short tasks and the amount of concurrently
+     * executed requests is limited by the dispatcher of the http client.
+     *
+     * @return The executor service which executes the REST requests.
+     */
+    public ExecutorService getRestExecutorService() {
+        return restExecutorService;
+    }
+
+    /**
+     * Gets the executor service which processes the results of REST requests and completes their futures.
+     *
+     * <p>It is separate from the central executor service for the same reason as the
+     * {@link #getRestExecutorService() REST executor service}. As the dependent stages of the futures run on it,
+     * it has at most {@value #REST_CALLBACK_THREADS} threads and queues the results while all of them are busy.
+     *
+     * @return The executor service which processes the results of REST requests.
+     */
+    public ExecutorService getRestCallbackExecutorService() {
+        return restCallbackExecutorService;
+    }
+
+    /**
+     * Gets the executor service which executes the listeners of interactions.
+     *
+     * <p>It is separate from the central executor service, so interactions can be acknowledged in time even if all
+     * threads of a bounded central executor service are busy. It starts a new thread whenever all of its threads are
+     * busy, so listeners which block do not delay the listeners of other interactions.
+     *
+     * @return The executor service for interactions.
+     */
+    public ExecutorService getInteractionExecutorService() {
+        return interactionExecutorService;
+    }
+
+    /**
+     * Gets the maximum amount of threads which handle the received packets concurrently.
+     *
+     * @return The maximum amount of packet handler threads.
+     */
+    public int getPacketHandlerThreadCount() {
+        return packetHandlerThreadCount;
+    }
+
+    /**
+     * Gets the scheduler which sends the audio frames of all audio connections.
+     * It is created when it is requested for the first time.
+     *
+     * @return The scheduler which sends the audio frames.
+     */
+    public synchronized FrameScheduler getAudioSendScheduler() {
+        if (sharedThreadPool != null) {
+            return sharedThreadPool.getAudioSendScheduler();
+        }
+        if (audioSendScheduler == null) {
+            audioSendScheduler = new FrameScheduler(
+                    "Javacord - Audio Send - %d", AUDIO_SEND_THREADS, AUDIO_FRAME_DURATION, TimeUnit.MILLISECONDS);
+            if (shutdown) {
+                audioSendScheduler.shutdown();
+            }
+        }
+        return audioSendScheduler;
+    }
+
+    @Override
+    public int getQueuedTaskCount() {
+        return executorService instanceof ThreadPoolExecutor
+                ? ((ThreadPoolExecutor) executorService).getQueue().size()
+                : -1;
+    }
+
+    @Override
+    public int getActiveThreadCount() {
+        return executorService instanceof ThreadPoolExecutor
+                ? ((ThreadPoolExecutor) executorService).getActiveCount()
+                : -1;
+    }
+
     @Override
     public ScheduledExecutorService getScheduler() {
         return scheduler;
@@ -73,6 +334,22 @@ public class ThreadPoolImpl implements ThreadPool {
                                        new ThreadFactory("Javacord - " + threadName, true)));
     }
 
+    /**
+     * Gets a partitioned executor with the given name.
+     * If there is no partitioned executor with the given name yet, a new one is created.
+     *
+     * @param threadName The name of the threads, may contain a {@code %d} wildcard where the counter gets filled in.
+     * @param parallelism The maximum amount of threads if a new executor is created.
+     * @return The partitioned executor with the given name.
+     */
+    public PartitionedExecutor getPartitionedExecutor(String threadName, int parallelism) {
+        if (sharedThreadPool != null) {
+            return sharedThreadPool.getPartitionedExecutor(threadName, parallelism);
+        }
+        return partitionedExecutors.computeIfAbsent(threadName, key ->
+                new PartitionedExecutor("Javacord - " + threadName, parallelism));
+    }
+
     @Override
     public Optional<ExecutorService> removeAndShutdownSingleThreadExecutorService(String threadName) {
         ExecutorService executorService = executorServiceSingleThreads.remove(threadName);
@@ -0,0 +1,63 @@
+package org.javacord.core.util.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gives access to virtual threads if they are supported by the runtime.
+ *
+ * <p>Virtual threads require Java 21 or newer, so the factory method is looked up reflectively.
+ */
+public class VirtualThreads {
+
+    /**
+     * The {@code Executors#newVirtualThreadPerTaskExecutor()} method or {@code null} if it is not supported.
+     */
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+    private VirtualThreads() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks if the runtime supports virtual threads.
+     *
+     * @return Whether virtual threads are supported.
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor service that starts a new virtual thread for every task.
+     *
+     * @return The executor service or an empty optional if virtual threads are not supported.
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null));
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create a virtual thread per task executor", e);
+        }
+    }
+
+    /**
+     * Finds the {@code Executors#newVirtualThreadPerTaskExecutor()} method.
+     *
+     * @return The method or {@code null} if it does not exist.
+     */
+    private static Method findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
@@ -5,20 +5,22 @@ import org.javacord.api.DiscordApi;
 import org.javacord.api.entity.server.Server;
 import org.javacord.core.DiscordApiImpl;
 import org.javacord.core.entity.server.ServerImpl;
+import org.javacord.core.util.concurrent.ThreadPoolImpl;
 import org.javacord.core.util.logging.LoggerUtil;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -65,23 +67,80 @@ public abstract class EventDispatcherBase {
     private final DiscordApiImpl api;
 
     /**
-     * This map which holds a queue for every object (usually a server) with tasks to call the waiting listeners.
+     * The maximum amount of tasks an event loop thread executes from a mailbox before it continues with the next one.
      */
-    private final Map<DispatchQueueSelector, Queue<Runnable>> queuedListenerTasks =
-            Collections.synchronizedMap(new HashMap<>());
+    private static final int EVENT_LOOP_BATCH_SIZE = 64;
 
     /**
-     * All objects which currently have a running listener.
+     * The time Discord gives to acknowledge an interaction.
      */
-    private final Set<DispatchQueueSelector> runningListeners = Collections.synchronizedSet(new HashSet<>());
+    private static final long INTERACTION_DEADLINE = TimeUnit.SECONDS.toNanos(3);
+
+    /**
+     * The time after which a warning is logged if the listeners of an interaction were not started yet.
+     */
+    private static final long INTERACTION_LATENCY_WARNING = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * The amount to add to {@link #state} for one queued or running lifecycle task.
+     */
+    private static final long LIFECYCLE_TASK = 1L << 32;
+
+    /**
+     * The mask for the amount of queued or running object-dependent tasks in {@link #state}.
+     */
+    private static final long OBJECT_DEPENDENT_TASKS_MASK = LIFECYCLE_TASK - 1;
+
+    /**
+     * The executor service which executes the mailboxes.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * The executor service which executes the mailboxes of interactions.
+     */
+    private final ExecutorService interactionExecutorService;
+
+    /**
+     * The maximum amount of tasks which are executed per execution of a mailbox.
+     */
+    private final int batchSize;
+
+    /**
+     * The mailboxes with the tasks to call the waiting listeners for every object (usually a server).
+     */
+    private final Map<DispatchQueueSelector, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * The mailbox for lifecycle tasks, i.e. tasks with a {@code null} queue selector.
+     */
+    private final Mailbox lifecycleMailbox = new Mailbox(null);
+
+    /**
+     * The barrier between object-dependent and lifecycle tasks.
+     * The upper 32 bits are the amount of queued or running lifecycle tasks, the lower 32 bits the amount of queued
+     * or running object-dependent tasks. Object-dependent tasks are only accepted while there are no lifecycle tasks
+     * and lifecycle tasks are only started once there are no object-dependent tasks.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Object-dependent dispatches that arrived while lifecycle tasks were queued or running.
+     * They are accepted in order once all lifecycle tasks are finished.
+     */
+    private final Queue<HeldBackDispatch> heldBackDispatches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a thread currently accepts the held back dispatches.
+     */
+    private final AtomicBoolean acceptingHeldBackDispatches = new AtomicBoolean();
 
     /**
      * A map with all running listeners as its key. The value contains an array where the first element is a long
      * with the start time of the listener (using {@link System#nanoTime()}) and the second element is the object
      * of the listener (usually a server).
      */
-    private final Map<AtomicReference<Future<?>>, Object[]> activeListeners =
-            Collections.synchronizedMap(new HashMap<>());
+    private final Map<AtomicReference<Future<?>>, Object[]> activeListeners = new ConcurrentHashMap<>();
 
     /**
      * A map with all running listeners that already were canceled as its key. The value is the nano time when there
@@ -97,97 +156,95 @@ public abstract class EventDispatcherBase {
     protected EventDispatcherBase(DiscordApiImpl api) {
         this.api = api;
 
+        ThreadPoolImpl threadPool = (ThreadPoolImpl) api.getThreadPool();
+        interactionExecutorService = threadPool.getInteractionExecutorService();
+        ExecutorService eventLoopExecutorService = threadPool.getEventLoopExecutorService();
+        if (eventLoopExecutorService == null) {
+            executorService = api.getThreadPool().getExecutorService();
+            batchSize = 1;
+        } else {
+            executorService = eventLoopExecutorService;
+            batchSize = EVENT_LOOP_BATCH_SIZE;
+        }
+
         api.getThreadPool().getScheduler().scheduleWithFixedDelay(() -> {
             try {
-                synchronized (queuedListenerTasks) {
-                    Set<Long> currentServerIds = Stream.concat(
-                            api.getServers().stream().map(Server::getId),
-                            api.getUnavailableServers().stream()
-                    ).collect(Collectors.toSet());
-
-                    Iterator<DispatchQueueSelector> iterator = queuedListenerTasks.keySet().iterator();
-                    while (iterator.hasNext()) {
-                        DispatchQueueSelector queueSelector = iterator.next();
-                        // never clean up the object-independent queue
-                        if (queueSelector == null) {
-                            continue;
-                        }
-                        Queue<Runnable> queue = queuedListenerTasks.get(queueSelector);
-                        // queue cannot be null here or there is another bug somewhere
-                        // never clean up queues that still have entries
-                        if (!queue.isEmpty()) {
-                            continue;
-                        }
-                        if (queueSelector instanceof ServerImpl) {
-                            // clean up queues for servers the bot left
-                            Server serverSelector = (Server) queueSelector;
-                            if (!currentServerIds.contains(serverSelector.getId())) {
-                                iterator.remove();
-                            }
-                        } else if (!(queueSelector instanceof DiscordApiImpl)) {
-                            // make sure there are not new queue selector types introduced that are not cleaned up
-                            throw new AssertionError("Unexpected queue selector type");
+                Set<Long> currentServerIds = Stream.concat(
+                        api.getServers().stream().map(Server::getId),
+                        api.getUnavailableServers().stream()
+                ).collect(Collectors.toSet());
+
+                mailboxes.forEach((queueSelector, mailbox) -> {
+                    // never clean up mailboxes that still have tasks
+                    if (!mailbox.isIdle()) {
+                        return;
+                    }
+                    if (queueSelector instanceof ServerImpl) {
+                        // clean up mailboxes for servers the bot left
+                        Server serverSelector = (Server) queueSelector;
+                        if (!currentServerIds.contains(serverSelector.getId())) {
+                            mailboxes.remove(queueSelector, mailbox);
                         }
+                    } else if (!(queueSelector instanceof DiscordApiImpl)) {
+                        // make sure there are not new queue selector types introduced that are not cleaned up
+                        throw new AssertionError("Unexpected queue selector type");
                     }
-                }
+                });
             } catch (Throwable t) {
                 logger.error("Failed to clean up listener queues!", t);
             }
         }, 10, 10, TimeUnit.SECONDS);
 
-        queuedListenerTasks.put(null, new ConcurrentLinkedQueue<>());
         api.getThreadPool().getScheduler().scheduleAtFixedRate(() -> {
             try {
                 if (!executionTimeCheckingEnabled) {
                     return;
                 }
-                synchronized (activeListeners) {
-                    long currentNanoTime = System.nanoTime();
-                    for (Map.Entry<AtomicReference<Future<?>>, Object[]> entry : activeListeners.entrySet()) {
-                        long difference = currentNanoTime - ((long) entry.getValue()[0]);
-                        DispatchQueueSelector queueSelector = (DispatchQueueSelector) entry.getValue()[1];
-                        if ((difference > DEBUG_WARNING_DELAY)
-                                && (difference <= (DEBUG_WARNING_DELAY + EXECUTION_TIME_CHECKING_INTERVAL))) {
-                            logger.debug("Detected {} which is now running for over {} ms ({} ms). This is"
-                                            + " an unusually long execution time for a listener task. Make"
-                                            + " sure to not do any heavy computations in listener threads!",
-                                    () -> getThreadType(queueSelector),
-                                    () -> TimeUnit.NANOSECONDS.toMillis(DEBUG_WARNING_DELAY),
-                                    () -> TimeUnit.NANOSECONDS.toMillis(difference));
-                        }
-                        if ((difference > INFO_WARNING_DELAY)
-                                && (difference <= (INFO_WARNING_DELAY + EXECUTION_TIME_CHECKING_INTERVAL))) {
-                            logger.warn("Detected {} which is now running for over {} seconds ({} ms)."
-                                            + " This is a very unusually long execution time for a listener task. Make"
-                                            + " sure to not do any heavy computations in listener threads!",
-                                    () -> getThreadType(queueSelector),
-                                    () -> TimeUnit.NANOSECONDS.toSeconds(INFO_WARNING_DELAY),
-                                    () -> TimeUnit.NANOSECONDS.toMillis(difference));
-                        }
-                        if (difference > MAX_EXECUTION_TIME) {
-                            AtomicReference<Future<?>> listener = entry.getKey();
-                            alreadyCanceledListeners.compute(listener, (l, lastWarning) -> {
-                                if (lastWarning == null) {
-                                    listener.get().cancel(true);
-                                    logger.error("Interrupted {}, because it was running over {} seconds! "
-                                                    + "This was most likely caused by a deadlock or very heavy "
-                                                    + "computation/blocking operations in the listener thread. "
-                                                    + "Make sure to not block listener threads!",
-                                            () -> getThreadType(queueSelector),
-                                            () -> TimeUnit.NANOSECONDS.toSeconds(MAX_EXECUTION_TIME));
-                                    return currentNanoTime;
-                                } else if (currentNanoTime - lastWarning > INFO_WARNING_DELAY) {
-                                    logger.error("Interrupted {} previously but the listener did not react "
-                                                    + "to being interrupted! This is most likely caused by a deadlock "
-                                                    + "or very heavy computation in the listener thread. "
-                                                    + "Make sure to not block listener threads!",
-                                            () -> getThreadType(queueSelector));
-                                    return currentNanoTime;
-                                } else {
-                                    return lastWarning;
-                                }
-                            });
-                        }
+                long currentNanoTime = System.nanoTime();
+                for (Map.Entry<AtomicReference<Future<?>>, Object[]> entry : activeListeners.entrySet()) {
+                    long difference = currentNanoTime - ((long) entry.getValue()[0]);
+                    DispatchQueueSelector queueSelector = (DispatchQueueSelector) entry.getValue()[1];
+                    if ((difference > DEBUG_WARNING_DELAY)
+                            && (difference <= (DEBUG_WARNING_DELAY + EXECUTION_TIME_CHECKING_INTERVAL))) {
+                        logger.debug("Detected {} which is now running for over {} ms ({} ms). This is"
+                                        + " an unusually long execution time for a listener task. Make"
+                                        + " sure to not do any heavy computations in listener threads!",
+                                () -> getThreadType(queueSelector),
+                                () -> TimeUnit.NANOSECONDS.toMillis(DEBUG_WARNING_DELAY),
+                                () -> TimeUnit.NANOSECONDS.toMillis(difference));
+                    }
+                    if ((difference > INFO_WARNING_DELAY)
+                            && (difference <= (INFO_WARNING_DELAY + EXECUTION_TIME_CHECKING_INTERVAL))) {
+                        logger.warn("Detected {} which is now running for over {} seconds ({} ms)."
+                                        + " This is a very unusually long execution time for a listener task. Make"
+                                        + " sure to not do any heavy computations in listener threads!",
+                                () -> getThreadType(queueSelector),
+                                () -> TimeUnit.NANOSECONDS.toSeconds(INFO_WARNING_DELAY),
+                                () -> TimeUnit.NANOSECONDS.toMillis(difference));
+                    }
+                    if (difference > MAX_EXECUTION_TIME) {
+                        AtomicReference<Future<?>> listener = entry.getKey();
+                        alreadyCanceledListeners.compute(listener, (l, lastWarning) -> {
+                            if (lastWarning == null) {
+                                listener.get().cancel(true);
+                                logger.error("Interrupted {}, because it was running over {} seconds! "
+                                                + "This was most likely caused by a deadlock or very heavy "
+                                                + "computation/blocking operations in the listener thread. "
+                                                + "Make sure to not block listener threads!",
+                                        () -> getThreadType(queueSelector),
+                                        () -> TimeUnit.NANOSECONDS.toSeconds(MAX_EXECUTION_TIME));
+                                return currentNanoTime;
+                            } else if (currentNanoTime - lastWarning > INFO_WARNING_DELAY) {
+                                logger.error("Interrupted {} previously but the listener did not react "
+                                                + "to being interrupted! This is most likely caused by a deadlock "
+                                                + "or very heavy computation in the listener thread. "
+                                                + "Make sure to not block listener threads!",
+                                        () -> getThreadType(queueSelector));
+                                return currentNanoTime;
+                            } else {
+                                return lastWarning;
+                            }
+                        });
                     }
                 }
             } catch (Throwable t) {
@@ -205,6 +262,45 @@ public abstract class EventDispatcherBase {
         return api;
     }
 
+    /**
+     * Merges the listeners of an object into the listeners which were collected so far.
+     *
+     * <p>The listener lists of the listener registry are shared snapshots, so they are returned as they are as long as
+     * only one of the lists has listeners. A new list is only created if listeners from multiple lists are merged.
+     *
+     * @param listeners The listeners which were collected so far. Must not be modified.
+     * @param moreListeners The listeners to add. Must not be modified.
+     * @param <T> The type of the listeners.
+     * @return The merged listeners.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T> List<T> mergeListeners(List<T> listeners, List<? extends T> moreListeners) {
+        if (moreListeners.isEmpty()) {
+            return listeners;
+        }
+        if (listeners.isEmpty()) {
+            // safe, as the list is never modified
+            return (List<T>) moreListeners;
+        }
+        List<T> mergedListeners = new ArrayList<>(listeners.size() + moreListeners.size());
+        mergedListeners.addAll(listeners);
+        mergedListeners.addAll(moreListeners);
+        return mergedListeners;
+    }
+
+    /**
+     * Checks if an event for the given listener class would be dispatched to any listener.
+     *
+     * <p>Packet handlers use this to skip the creation of events nobody listens to and only update the cache. The
+     * check is cheap, as it neither locks nor allocates.
+     *
+     * @param listenerClass The listener class.
+     * @return Whether there is any listener of the given class and events can be dispatched.
+     */
+    public boolean hasListeners(Class<?> listenerClass) {
+        return api.canDispatchEvents() && api.hasListeners(listenerClass);
+    }
+
     /**
      * Sets whether execution time checking should be enabled or not.
      *
@@ -242,118 +338,169 @@ public abstract class EventDispatcherBase {
             return;
         }
 
-        api.getThreadPool().getSingleThreadExecutorService("Event Dispatch Queues Manager").submit(() -> {
-            if (queueSelector != null) { // Object dependent listeners
-                // Don't allow adding of more events while there are unfinished object independent tasks
-                Queue<Runnable> objectIndependentQueue = queuedListenerTasks.get(null);
-                while (!objectIndependentQueue.isEmpty()) {
-                    try {
-                        synchronized (queuedListenerTasks) {
-                            // Just to be on the safe side, we use a timeout of 5 seconds
-                            queuedListenerTasks.wait(5000);
-                        }
-                    } catch (InterruptedException ignored) { }
-                }
-            }
-            synchronized (queuedListenerTasks) {
-                Queue<Runnable> queue = queuedListenerTasks.computeIfAbsent(
-                        queueSelector, o -> new ConcurrentLinkedQueue<>());
-                listeners.forEach(listener -> queue.add(() -> consumer.accept(listener)));
-            }
-            checkRunningListenersAndStartIfPossible(queueSelector);
-        });
+        if (queueSelector instanceof InteractionQueue) {
+            // interactions neither wait for other events of their server nor for lifecycle events
+            Mailbox mailbox = ((InteractionQueue) queueSelector).mailbox;
+            listeners.forEach(listener -> mailbox.add(() -> consumer.accept(listener)));
+            mailbox.schedule();
+            return;
+        }
+
+        if (queueSelector == null) {
+            // add the tasks to the barrier before queueing them, so no new object-dependent tasks are accepted
+            state.addAndGet(LIFECYCLE_TASK * listeners.size());
+            listeners.forEach(listener -> lifecycleMailbox.add(() -> consumer.accept(listener)));
+            startLifecycleTasksIfPossible();
+            return;
+        }
+
+        if (heldBackDispatches.isEmpty() && tryAcceptObjectDependentTasks(listeners.size())) {
+            Mailbox mailbox = getMailbox(queueSelector);
+            listeners.forEach(listener -> mailbox.add(() -> consumer.accept(listener)));
+            mailbox.schedule();
+        } else {
+            List<Runnable> tasks = new ArrayList<>(listeners.size());
+            listeners.forEach(listener -> tasks.add(() -> consumer.accept(listener)));
+            heldBackDispatches.add(new HeldBackDispatch(queueSelector, tasks));
+            acceptHeldBackDispatches();
+        }
     }
 
     /**
-     * Checks if there are listeners running for the given object and if
-     * not it takes one from the queue for the object and executes it.
+     * Creates a queue selector for the events of an interaction.
      *
-     * <p>If all object-dependent tasks are finished,
-     * object-independent ones will be executed instead
-     * and after all object-independent are finished,
-     * new object-dependent tasks can get queued.
+     * <p>Discord only gives 3 seconds to acknowledge an interaction, so its events do not wait in the queue of their
+     * server behind other events. The events dispatched with the returned queue selector are dispatched sequentially
+     * in their own queue on the {@link ThreadPoolImpl#getInteractionExecutorService() interaction executor service},
+     * independent of all other events and lifecycle events.
+     * The time between receiving the interaction and starting its first listener is logged.
      *
-     * @param queueSelector The object which is used to determine in which thread the consumer should be executed.
-     */
-    private void checkRunningListenersAndStartIfPossible(DispatchQueueSelector queueSelector) {
-        synchronized (queuedListenerTasks) {
-            // if either
-            // - running for object-independent tasks or
-            // - running for object-dependent tasks, but queue is empty or not present
-            Queue<Runnable> queue = queueSelector == null ? null : queuedListenerTasks.get(queueSelector);
-            if (queue == null || queue.isEmpty()) {
-                // if no object-independent tasks to be processed everything is fine, return
-                if (queuedListenerTasks.get(null).isEmpty()) {
-                    return;
-                }
-                // if object-independent tasks to be processed
-                // check whether there are still queued object-dependent tasks
-                boolean moreObjectDependentTasks = queuedListenerTasks.entrySet()
-                        .stream()
-                        .filter(entry -> !entry.getValue().isEmpty())
-                        .anyMatch(entry -> entry.getKey() != null);
-                // if there are object-dependent tasks scheduled or there are still tasks running => retry later
-                if (moreObjectDependentTasks || !runningListeners.isEmpty()) {
-                    return;
-                }
-                // force object-independent task being handled
-                // after all queued object-dependent tasks are finished
-                // and before new object-dependent tasks will get queued
-                queueSelector = null;
-                queue = queuedListenerTasks.get(null);
+     * <p>As a consequence, the listeners of an interaction neither wait until their server is ready nor until
+     * running lifecycle events, like a resume, are finished. They also run concurrently with the packets and events
+     * of their server, so they may see the cached state of the server (e.g. its channels, roles or members) before
+     * the changes of packets which were received earlier are applied.
+     *
+     * @param origin The queue selector the events would use otherwise, i.e. the server or the api.
+     * @param receivedNanoTime The time the interaction was received, using {@link System#nanoTime()}.
+     * @return The queue selector for the events of the interaction.
+     */
+    public DispatchQueueSelector createInteractionQueueSelector(DispatchQueueSelector origin, long receivedNanoTime) {
+        return new InteractionQueue(origin, receivedNanoTime);
+    }
+
+    /**
+     * Gets the mailbox for the given queue selector.
+     *
+     * @param queueSelector The queue selector. Must not be {@code null}.
+     * @return The mailbox.
+     */
+    private Mailbox getMailbox(DispatchQueueSelector queueSelector) {
+        Mailbox mailbox = mailboxes.get(queueSelector);
+        if (mailbox != null) {
+            return mailbox;
+        }
+        return mailboxes.computeIfAbsent(queueSelector, Mailbox::new);
+    }
+
+    /**
+     * Tries to count the given amount of object-dependent tasks as queued.
+     * This fails if there are queued or running lifecycle tasks.
+     *
+     * @param taskCount The amount of tasks.
+     * @return Whether the tasks were counted and can be queued.
+     */
+    private boolean tryAcceptObjectDependentTasks(int taskCount) {
+        while (true) {
+            long currentState = state.get();
+            if (currentState >= LIFECYCLE_TASK) {
+                return false;
             }
-            DispatchQueueSelector finalQueueSelector = queueSelector;
-            Queue<Runnable> taskQueue = queue;
-            // if there is no task running already for the queue
-            if (runningListeners.add(finalQueueSelector)) {
-                // check whether there is something to do for the queue
-                // if not, free the runningListeners synchronizer
-                // otherwise schedule the task to do
-                if (queue.isEmpty()) {
-                    runningListeners.remove(finalQueueSelector);
-                } else {
-                    AtomicReference<Future<?>> activeListener = new AtomicReference<>();
-                    activeListener.set(api.getThreadPool().getExecutorService().submit(() -> {
-                        if (finalQueueSelector instanceof ServerImpl) {
-                            Object serverReadyNotifier = new Object();
-                            ((ServerImpl) finalQueueSelector)
-                                    .addServerReadyConsumer(s -> {
-                                        synchronized (serverReadyNotifier) {
-                                            serverReadyNotifier.notifyAll();
-                                        }
-                                    });
-                            while (!((ServerImpl) finalQueueSelector).isReady()) {
-                                try {
-                                    synchronized (serverReadyNotifier) {
-                                        serverReadyNotifier.wait(5000);
-                                    }
-                                } catch (InterruptedException ignored) { }
-                            }
-                        }
-                        // Add the future to the list of active listeners
-                        activeListeners.put(activeListener, new Object[]{System.nanoTime(), finalQueueSelector});
-                        try {
-                            taskQueue.poll().run();
-                        } catch (Throwable t) {
-                            logger.error(
-                                    "Unhandled exception in {}!",
-                                    () -> getThreadType(finalQueueSelector),
-                                    () -> t);
-                        }
-                        activeListeners.remove(activeListener);
-                        alreadyCanceledListeners.remove(activeListener);
-                        runningListeners.remove(finalQueueSelector);
-                        // Inform the dispatchEvent method that it maybe can queue new listeners now
-                        synchronized (queuedListenerTasks) {
-                            queuedListenerTasks.notifyAll();
-                        }
-                        checkRunningListenersAndStartIfPossible(finalQueueSelector);
-                    }));
+            if (state.compareAndSet(currentState, currentState + taskCount)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Queues the held back dispatches in the order they arrived until all are queued or lifecycle tasks are queued
+     * again.
+     */
+    private void acceptHeldBackDispatches() {
+        while (!heldBackDispatches.isEmpty() && state.get() < LIFECYCLE_TASK
+                && acceptingHeldBackDispatches.compareAndSet(false, true)) {
+            try {
+                HeldBackDispatch dispatch;
+                while ((dispatch = heldBackDispatches.peek()) != null) {
+                    if (!tryAcceptObjectDependentTasks(dispatch.tasks.size())) {
+                        // the dispatches are accepted again after the lifecycle tasks finished
+                        return;
+                    }
+                    Mailbox mailbox = getMailbox(dispatch.queueSelector);
+                    dispatch.tasks.forEach(mailbox::add);
+                    mailbox.schedule();
+                    // only remove it now, so new dispatches do not overtake it while it is being queued
+                    heldBackDispatches.poll();
                 }
+            } finally {
+                acceptingHeldBackDispatches.set(false);
             }
         }
     }
 
+    /**
+     * Starts the queued lifecycle tasks if there are no queued or running object-dependent tasks anymore.
+     */
+    private void startLifecycleTasksIfPossible() {
+        if ((state.get() & OBJECT_DEPENDENT_TASKS_MASK) == 0) {
+            lifecycleMailbox.schedule();
+        }
+    }
+
+    /**
+     * Called after a task of a mailbox finished.
+     *
+     * @param queueSelector The queue selector of the mailbox.
+     */
+    private void taskFinished(DispatchQueueSelector queueSelector) {
+        if (queueSelector instanceof InteractionQueue) {
+            return;
+        }
+        if (queueSelector == null) {
+            if (state.addAndGet(-LIFECYCLE_TASK) < LIFECYCLE_TASK) {
+                acceptHeldBackDispatches();
+            }
+        } else {
+            long currentState = state.decrementAndGet();
+            if (currentState >= LIFECYCLE_TASK && (currentState & OBJECT_DEPENDENT_TASKS_MASK) == 0) {
+                lifecycleMailbox.schedule();
+            }
+        }
+    }
+
+    /**
+     * Runs the given task of a mailbox and tracks its execution time.
+     *
+     * @param queueSelector The queue selector of the mailbox.
+     * @param task The task to run.
+     * @param activeListener The future of the task.
+     */
+    private void runTask(DispatchQueueSelector queueSelector, Runnable task,
+                         AtomicReference<Future<?>> activeListener) {
+        // Add the future to the list of active listeners
+        activeListeners.put(activeListener, new Object[]{System.nanoTime(), queueSelector});
+        try {
+            task.run();
+        } catch (Throwable t) {
+            logger.error(
+                    "Unhandled exception in {}!",
+                    () -> getThreadType(queueSelector),
+                    () -> t);
+        } finally {
+            activeListeners.remove(activeListener);
+            alreadyCanceledListeners.remove(activeListener);
+        }
+    }
+
     /**
      * Gets the thread type used in log message for the given queue selector.
      *
@@ -372,4 +519,158 @@ public abstract class EventDispatcherBase {
         return threadType;
     }
 
+    /**
+     * The mailbox of a queue selector.
+     *
+     * <p>Tasks can be added by any thread without locking. The mailbox is scheduled on the executor service at most
+     * once at a time, so the tasks of a queue selector are executed sequentially in the order they were added. By
+     * default, it runs a single task per execution. On event loop threads, it runs up to {@link #batchSize} tasks
+     * per execution and then gives the thread to the next mailbox.
+     */
+    private final class Mailbox {
+
+        private final DispatchQueueSelector queueSelector;
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Whether the mailbox is currently scheduled on or running in the executor service.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Mailbox(DispatchQueueSelector queueSelector) {
+            this.queueSelector = queueSelector;
+        }
+
+        private void add(Runnable task) {
+            tasks.add(task);
+        }
+
+        /**
+         * Schedules the mailbox if it has tasks and is not already scheduled.
+         */
+        private void schedule() {
+            if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+                AtomicReference<Future<?>> activeListener = new AtomicReference<>();
+                FutureTask<?> task = new FutureTask<>(() -> run(activeListener), null);
+                activeListener.set(task);
+                if (queueSelector instanceof InteractionQueue) {
+                    interactionExecutorService.execute(task);
+                } else {
+                    executorService.execute(task);
+                }
+            }
+        }
+
+        private boolean isIdle() {
+            return !scheduled.get() && tasks.isEmpty();
+        }
+
+        /**
+         * Schedules the mailbox again after it was kept scheduled while waiting for the server to become ready.
+         */
+        private void reschedule() {
+            scheduled.set(false);
+            schedule();
+        }
+
+        private void run(AtomicReference<Future<?>> activeListener) {
+            if (queueSelector == null && (state.get() & OBJECT_DEPENDENT_TASKS_MASK) != 0) {
+                // the last object-dependent task starts the lifecycle tasks once it finished
+                scheduled.set(false);
+                startLifecycleTasksIfPossible();
+                return;
+            }
+            if (queueSelector instanceof ServerImpl && !((ServerImpl) queueSelector).isReady()) {
+                // the mailbox stays scheduled in the meantime, so it is not scheduled by anyone else
+                ((ServerImpl) queueSelector).addServerReadyConsumer(server -> reschedule());
+                return;
+            }
+            if (queueSelector instanceof InteractionQueue) {
+                ((InteractionQueue) queueSelector).listenersStarted();
+            }
+            for (int i = 0; i < batchSize; i++) {
+                if (queueSelector == null && i > 0 && (state.get() & OBJECT_DEPENDENT_TASKS_MASK) != 0) {
+                    break;
+                }
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                runTask(queueSelector, task, activeListener);
+                taskFinished(queueSelector);
+                if (activeListener.get().isCancelled()) {
+                    // the task was interrupted, end the batch so the interrupt does not leak into the next task
+                    break;
+                }
+            }
+            scheduled.set(false);
+            schedule();
+        }
+    }
+
+    /**
+     * The queue selector and mailbox for the events of a single interaction.
+     */
+    private final class InteractionQueue implements DispatchQueueSelector {
+
+        private final DispatchQueueSelector origin;
+        private final long receivedNanoTime;
+        private final Mailbox mailbox = new Mailbox(this);
+
+        /**
+         * Whether the listeners were already started.
+         */
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private InteractionQueue(DispatchQueueSelector origin, long receivedNanoTime) {
+            this.origin = origin;
+            this.receivedNanoTime = receivedNanoTime;
+        }
+
+        /**
+         * Logs the latency between receiving the interaction and starting its first listener.
+         */
+        private void listenersStarted() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            long latency = System.nanoTime() - receivedNanoTime;
+            if (latency > INTERACTION_DEADLINE) {
+                logger.warn("The listeners of an interaction for {} were started {} ms after it was received. "
+                                + "It can no longer be acknowledged in time!",
+                        () -> origin,
+                        () -> TimeUnit.NANOSECONDS.toMillis(latency));
+            } else if (latency > INTERACTION_LATENCY_WARNING) {
+                logger.warn("The listeners of an interaction for {} were started {} ms after it was received. "
+                                + "It might not be acknowledged in time!",
+                        () -> origin,
+                        () -> TimeUnit.NANOSECONDS.toMillis(latency));
+            } else {
+                logger.debug("The listeners of an interaction for {} were started {} ms after it was received",
+                        () -> origin,
+                        () -> TimeUnit.NANOSECONDS.toMillis(latency));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("an interaction for %s", origin);
+        }
+    }
+
+    /**
+     * An object-dependent dispatch that arrived while lifecycle tasks were queued or running.
+     */
+    private static final class HeldBackDispatch {
+
+        private final DispatchQueueSelector queueSelector;
+        private final List<Runnable> tasks;
+
+        private HeldBackDispatch(DispatchQueueSelector queueSelector, List<Runnable> tasks) {
+            this.queueSelector = queueSelector;
+            this.tasks = tasks;
+        }
+    }
+
 }
@@ -0,0 +1,390 @@
+package org.javacord.core.util.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A registry for globally attachable and object attachable listeners.
+ *
+ * <p>The registered listeners are kept in mutable maps that are only accessed while holding the lock of the registry.
+ * After every change, the affected part of an immutable snapshot is rebuilt and published. The snapshot contains
+ * pre-built unmodifiable lists, indexed by listener class and object id, so looking listeners up while dispatching
+ * events neither locks nor allocates. Events are dispatched orders of magnitude more often than listeners are added
+ * or removed.
+ */
+public class ListenerRegistry {
+
+    /**
+     * The globally attachable listeners.
+     * The key is the class of the listener, the key of the inner map is the listener itself.
+     * Guarded by {@code this}.
+     */
+    private final Map<Class<?>, Map<Object, ListenerManagerImpl<?>>> listeners = new HashMap<>();
+
+    /**
+     * The object attachable listeners.
+     * The key of the outer map is the class which the listener was registered to (e.g. Message.class).
+     * The key of the first inner map is the id of the object.
+     * The key of the second inner map is the class of the listener.
+     * The key of the third inner map is the listener itself.
+     * Guarded by {@code this}.
+     */
+    private final Map<Class<?>, Map<Long, Map<Class<?>, Map<Object, ListenerManagerImpl<?>>>>> objectListeners =
+            new HashMap<>();
+
+    /**
+     * The snapshot of the globally attachable listeners, keyed by the listener class.
+     */
+    private volatile Map<Class<?>, List<?>> listenersSnapshot = Collections.emptyMap();
+
+    /**
+     * The snapshot of the object attachable listeners, keyed by the listener class and the object class.
+     */
+    private volatile Map<Class<?>, Map<Class<?>, ObjectListeners>> objectListenersSnapshot = Collections.emptyMap();
+
+    /**
+     * Adds a globally attachable listener.
+     * Adding a listener multiple times has no effect and returns the same listener manager.
+     *
+     * @param listenerClass The class of the listener.
+     * @param listener The listener to add.
+     * @param listenerManagerFactory A factory for the manager of the listener.
+     * @return The manager of the listener.
+     */
+    public synchronized ListenerManagerImpl<?> addListener(
+            Class<?> listenerClass, Object listener, Supplier<ListenerManagerImpl<?>> listenerManagerFactory) {
+        Map<Object, ListenerManagerImpl<?>> classListeners =
+                listeners.computeIfAbsent(listenerClass, key -> new LinkedHashMap<>());
+        ListenerManagerImpl<?> listenerManager = classListeners.get(listener);
+        if (listenerManager == null) {
+            listenerManager = listenerManagerFactory.get();
+            classListeners.put(listener, listenerManager);
+            publishListeners(listenerClass, classListeners);
+        }
+        return listenerManager;
+    }
+
+    /**
+     * Removes a globally attachable listener.
+     *
+     * @param listenerClass The class of the listener.
+     * @param listener The listener to remove.
+     * @return The manager of the removed listener or {@code null} if it was not registered.
+     */
+    public synchronized ListenerManagerImpl<?> removeListener(Class<?> listenerClass, Object listener) {
+        Map<Object, ListenerManagerImpl<?>> classListeners = listeners.get(listenerClass);
+        if (classListeners == null) {
+            return null;
+        }
+        ListenerManagerImpl<?> listenerManager = classListeners.remove(listener);
+        if (listenerManager == null) {
+            return null;
+        }
+        if (classListeners.isEmpty()) {
+            listeners.remove(listenerClass);
+        }
+        publishListeners(listenerClass, classListeners);
+        return listenerManager;
+    }
+
+    /**
+     * Adds an object attachable listener.
+     * Adding a listener multiple times has no effect and returns the same listener manager.
+     *
+     * @param objectClass The class of the object.
+     * @param objectId The id of the object.
+     * @param listenerClass The class of the listener.
+     * @param listener The listener to add.
+     * @param listenerManagerFactory A factory for the manager of the listener.
+     * @return The manager of the listener.
+     */
+    public synchronized ListenerManagerImpl<?> addObjectListener(
+            Class<?> objectClass, long objectId, Class<?> listenerClass, Object listener,
+            Supplier<ListenerManagerImpl<?>> listenerManagerFactory) {
+        Map<Object, ListenerManagerImpl<?>> classListeners = objectListeners
+                .computeIfAbsent(objectClass, key -> new HashMap<>())
+                .computeIfAbsent(objectId, key -> new HashMap<>())
+                .computeIfAbsent(listenerClass, key -> new LinkedHashMap<>());
+        ListenerManagerImpl<?> listenerManager = classListeners.get(listener);
+        if (listenerManager == null) {
+            listenerManager = listenerManagerFactory.get();
+            classListeners.put(listener, listenerManager);
+            publishObjectListeners(objectClass, objectId, listenerClass, classListeners);
+        }
+        return listenerManager;
+    }
+
+    /**
+     * Removes an object attachable listener.
+     *
+     * @param objectClass The class of the object.
+     * @param objectId The id of the object.
+     * @param listenerClass The class of the listener.
+     * @param listener The listener to remove.
+     * @return The manager of the removed listener or {@code null} if it was not registered.
+     */
+    public synchronized ListenerManagerImpl<?> removeObjectListener(
+            Class<?> objectClass, long objectId, Class<?> listenerClass, Object listener) {
+        Map<Long, Map<Class<?>, Map<Object, ListenerManagerImpl<?>>>> objects = objectListeners.get(objectClass);
+        if (objects == null) {
+            return null;
+        }
+        Map<Class<?>, Map<Object, ListenerManagerImpl<?>>> objectClassListeners = objects.get(objectId);
+        if (objectClassListeners == null) {
+            return null;
+        }
+        Map<Object, ListenerManagerImpl<?>> classListeners = objectClassListeners.get(listenerClass);
+        if (classListeners == null) {
+            return null;
+        }
+        ListenerManagerImpl<?> listenerManager = classListeners.remove(listener);
+        if (listenerManager == null) {
+            return null;
+        }
+        // Clean it up
+        if (classListeners.isEmpty()) {
+            objectClassListeners.remove(listenerClass);
+            if (objectClassListeners.isEmpty()) {
+                objects.remove(objectId);
+                if (objects.isEmpty()) {
+                    objectListeners.remove(objectClass);
+                }
+            }
+        }
+        publishObjectListeners(objectClass, objectId, listenerClass, classListeners);
+        return listenerManager;
+    }
+
+    /**
+     * Removes all listeners that are attached to an object.
+     *
+     * @param objectClass The class of the object.
+     * @param objectId The id of the object.
+     * @return The managers of the removed listeners.
+     */
+    public synchronized List<ListenerManagerImpl<?>> removeObjectListeners(Class<?> objectClass, long objectId) {
+        Map<Long, Map<Class<?>, Map<Object, ListenerManagerImpl<?>>>> objects = objectListeners.get(objectClass);
+        if (objects == null) {
+            return Collections.emptyList();
+        }
+        Map<Class<?>, Map<Object, ListenerManagerImpl<?>>> objectClassListeners = objects.remove(objectId);
+        if (objects.isEmpty()) {
+            objectListeners.remove(objectClass);
+        }
+        if (objectClassListeners == null) {
+            return Collections.emptyList();
+        }
+        List<ListenerManagerImpl<?>> removedListenerManagers = new ArrayList<>();
+        objectClassListeners.forEach((listenerClass, classListeners) -> {
+            removedListenerManagers.addAll(classListeners.values());
+            publishObjectListeners(objectClass, objectId, listenerClass, Collections.emptyMap());
+        });
+        return removedListenerManagers;
+    }
+
+    /**
+     * Checks if there is any listener of the given class, either globally or attached to any object.
+     *
+     * <p>This check neither locks nor allocates, so it can be used to skip the creation of events nobody listens to.
+     *
+     * @param listenerClass The class of the listeners.
+     * @return Whether there is any listener of the given class.
+     */
+    public boolean hasListeners(Class<?> listenerClass) {
+        return listenersSnapshot.containsKey(listenerClass) || objectListenersSnapshot.containsKey(listenerClass);
+    }
+
+    /**
+     * Gets all globally attachable listeners of the given class.
+     *
+     * @param listenerClass The class of the listeners.
+     * @param <T> The type of the listeners.
+     * @return An unmodifiable list with the listeners.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getListeners(Class<T> listenerClass) {
+        List<?> classListeners = listenersSnapshot.get(listenerClass);
+        return classListeners == null ? Collections.emptyList() : (List<T>) classListeners;
+    }
+
+    /**
+     * Gets all globally attachable listeners and the listener classes they are registered for.
+     *
+     * @param <T> The type of the listeners.
+     * @return A map with the listeners and their listener classes.
+     */
+    public synchronized <T> Map<T, List<Class<T>>> getListeners() {
+        return groupByListener(listeners);
+    }
+
+    /**
+     * Gets all object attachable listeners of the given class which are attached to the given object.
+     *
+     * @param objectClass The class of the object.
+     * @param objectId The id of the object.
+     * @param listenerClass The class of the listeners.
+     * @param <T> The type of the listeners.
+     * @return An unmodifiable list with the listeners.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getObjectListeners(Class<?> objectClass, long objectId, Class<T> listenerClass) {
+        Map<Class<?>, ObjectListeners> listenersByObjectClass = objectListenersSnapshot.get(listenerClass);
+        if (listenersByObjectClass == null) {
+            return Collections.emptyList();
+        }
+        ObjectListeners listenersById = listenersByObjectClass.get(objectClass);
+        if (listenersById == null) {
+            return Collections.emptyList();
+        }
+        return (List<T>) listenersById.get(objectId);
+    }
+
+    /**
+     * Gets all object attachable listeners which are attached to the given object and the listener classes they are
+     * registered for.
+     *
+     * @param objectClass The class of the object.
+     * @param objectId The id of the object.
+     * @param <T> The type of the listeners.
+     * @return A map with the listeners and their listener classes.
+     */
+    public synchronized <T> Map<T, List<Class<T>>> getObjectListeners(Class<?> objectClass, long objectId) {
+        Map<Long, Map<Class<?>, Map<Object, ListenerManagerImpl<?>>>> objects = objectListeners.get(objectClass);
+        if (objects == null) {
+            return new HashMap<>();
+        }
+        return groupByListener(objects.getOrDefault(objectId, Collections.emptyMap()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Map<T, List<Class<T>>> groupByListener(
+            Map<Class<?>, Map<Object, ListenerManagerImpl<?>>> listenersByClass) {
+        Map<T, List<Class<T>>> result = new HashMap<>();
+        listenersByClass.forEach((listenerClass, classListeners) -> classListeners.keySet().forEach(listener ->
+                result.computeIfAbsent((T) listener, key -> new ArrayList<>()).add((Class<T>) listenerClass)));
+        return result;
+    }
+
+    /**
+     * Publishes a new snapshot of the globally attachable listeners of the given class.
+     * Must be called while holding the lock of the registry.
+     *
+     * @param listenerClass The class of the listeners.
+     * @param classListeners The current listeners of the class.
+     */
+    private void publishListeners(Class<?> listenerClass, Map<Object, ListenerManagerImpl<?>> classListeners) {
+        Map<Class<?>, List<?>> snapshot = new HashMap<>(listenersSnapshot);
+        if (classListeners.isEmpty()) {
+            snapshot.remove(listenerClass);
+        } else {
+            snapshot.put(listenerClass, toUnmodifiableList(classListeners.keySet()));
+        }
+        listenersSnapshot = snapshot;
+    }
+
+    /**
+     * Publishes a new snapshot of the object attachable listeners of the given class and object.
+     * Must be called while holding the lock of the registry.
+     *
+     * @param objectClass The class of the object.
+     * @param objectId The id of the object.
+     * @param listenerClass The class of the listeners.
+     * @param classListeners The current listeners of the class and object.
+     */
+    private void publishObjectListeners(Class<?> objectClass, long objectId, Class<?> listenerClass,
+                                        Map<Object, ListenerManagerImpl<?>> classListeners) {
+        Map<Class<?>, Map<Class<?>, ObjectListeners>> snapshot = new HashMap<>(objectListenersSnapshot);
+        Map<Class<?>, ObjectListeners> listenersByObjectClass =
+                new HashMap<>(snapshot.getOrDefault(listenerClass, Collections.emptyMap()));
+        ObjectListeners listenersById = listenersByObjectClass.getOrDefault(objectClass, ObjectListeners.EMPTY)
+                .with(objectId, classListeners.isEmpty() ? null : toUnmodifiableList(classListeners.keySet()));
+        if (listenersById.isEmpty()) {
+            listenersByObjectClass.remove(objectClass);
+        } else {
+            listenersByObjectClass.put(objectClass, listenersById);
+        }
+        if (listenersByObjectClass.isEmpty()) {
+            snapshot.remove(listenerClass);
+        } else {
+            snapshot.put(listenerClass, listenersByObjectClass);
+        }
+        objectListenersSnapshot = snapshot;
+    }
+
+    private static List<?> toUnmodifiableList(Collection<?> listeners) {
+        return Collections.unmodifiableList(Arrays.asList(listeners.toArray()));
+    }
+
+    /**
+     * An immutable mapping from object ids to the listeners of the objects, stored as a sorted array of ids that is
+     * searched with a binary search.
+     */
+    private static final class ObjectListeners {
+
+        private static final ObjectListeners EMPTY = new ObjectListeners(new long[0], new List<?>[0]);
+
+        private final long[] ids;
+        private final List<?>[] listeners;
+
+        private ObjectListeners(long[] ids, List<?>[] listeners) {
+            this.ids = ids;
+            this.listeners = listeners;
+        }
+
+        private List<?> get(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            return index < 0 ? Collections.emptyList() : listeners[index];
+        }
+
+        private boolean isEmpty() {
+            return ids.length == 0;
+        }
+
+        /**
+         * Creates a copy with the listeners of the given object replaced.
+         *
+         * @param id The id of the object.
+         * @param objectListeners The new listeners of the object or {@code null} to remove them.
+         * @return The copy.
+         */
+        private ObjectListeners with(long id, List<?> objectListeners) {
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) {
+                if (objectListeners != null) {
+                    List<?>[] newListeners = listeners.clone();
+                    newListeners[index] = objectListeners;
+                    return new ObjectListeners(ids, newListeners);
+                }
+                long[] newIds = new long[ids.length - 1];
+                List<?>[] newListeners = new List<?>[ids.length - 1];
+                System.arraycopy(ids, 0, newIds, 0, index);
+                System.arraycopy(ids, index + 1, newIds, index, newIds.length - index);
+                System.arraycopy(listeners, 0, newListeners, 0, index);
+                System.arraycopy(listeners, index + 1, newListeners, index, newListeners.length - index);
+                return new ObjectListeners(newIds, newListeners);
+            }
+            if (objectListeners == null) {
+                return this;
+            }
+            int insertionPoint = -(index + 1);
+            long[] newIds = new long[ids.length + 1];
+            List<?>[] newListeners = new List<?>[ids.length + 1];
+            System.arraycopy(ids, 0, newIds, 0, insertionPoint);
+            System.arraycopy(ids, insertionPoint, newIds, insertionPoint + 1, ids.length - insertionPoint);
+            System.arraycopy(listeners, 0, newListeners, 0, insertionPoint);
+            System.arraycopy(listeners, insertionPoint, newListeners, insertionPoint + 1,
+                    listeners.length - insertionPoint);
+            newIds[insertionPoint] = id;
+            newListeners[insertionPoint] = objectListeners;
+            return new ObjectListeners(newIds, newListeners);
+        }
+    }
+
+}
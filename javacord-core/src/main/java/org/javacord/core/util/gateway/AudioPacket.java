@@ -1,89 +1,135 @@
 package org.javacord.core.util.gateway;
 
-import com.codahale.xsalsa20poly1305.SecretBox;
+import org.bouncycastle.crypto.engines.XSalsa20Engine;
+import org.bouncycastle.crypto.macs.Poly1305;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.javacord.api.audio.SilentAudioSource;
 
-import java.net.DatagramPacket;
-import java.net.InetSocketAddress;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 
+/**
+ * A reusable buffer for the audio packets of a voice connection.
+ *
+ * <p>The packet is written, encrypted and sent from the same byte array for every frame: The RTP header is written
+ * in front of the frame, the frame is encrypted in place with xsalsa20-poly1305 (like {@code SecretBox#seal}) and
+ * the authenticator is written between header and frame. The cipher, the key parameters and the byte buffer are reused
+ * as well, so no memory is allocated per packet except for the cipher's internal state.
+ *
+ * <p>Instances are not thread-safe and must only be used by the thread which sends the frames of the connection.
+ */
 public class AudioPacket {
 
     private static final byte RTP_TYPE = (byte) 0x80;
     private static final byte RTP_VERSION = (byte) 0x78;
     private static final int RTP_HEADER_LENGTH = 12;
     private static final int NONCE_LENGTH = 24;
+    private static final int KEY_LENGTH = 32;
+    private static final int MAC_LENGTH = 16;
+    private static final int FRAME_OFFSET = RTP_HEADER_LENGTH + MAC_LENGTH;
 
-    private boolean encrypted;
-    private byte[] header;
-    private byte[] audioFrame;
+    /**
+     * The initial capacity for frames, which is the maximum size of an opus packet.
+     */
+    private static final int INITIAL_FRAME_CAPACITY = 1275;
+
+    /**
+     * A block of zeros which is encrypted to derive the poly1305 key.
+     */
+    private static final byte[] ZEROS = new byte[KEY_LENGTH];
+
+    private final int ssrc;
+    private final XSalsa20Engine cipher = new XSalsa20Engine();
+    private final Poly1305 mac = new Poly1305();
+
+    /**
+     * The nonce, which is the RTP header padded with zeros.
+     * {@link ParametersWithIV#getIV()} returns the internal array, so the nonce is written into it directly.
+     */
+    private volatile ParametersWithIV cipherParameters;
+
+    /**
+     * The poly1305 key, which is derived from the nonce for every packet.
+     * {@link KeyParameter#getKey()} returns the internal array, so the key is written into it directly.
+     */
+    private final KeyParameter macKey = new KeyParameter(new byte[KEY_LENGTH]);
+
+    private byte[] buffer;
+    private ByteBuffer header;
+    private ByteBuffer packet;
 
     /**
-     * Creates a new silent audio packet.
+     * Creates a new audio packet buffer.
      *
      * @param ssrc The ssrc.
-     * @param sequence The sequence.
-     * @param timestamp The timestamp.
      */
-    public AudioPacket(int ssrc, char sequence, int timestamp) {
-        this(null, ssrc, sequence, timestamp);
+    public AudioPacket(int ssrc) {
+        this.ssrc = ssrc;
+        allocateBuffer(INITIAL_FRAME_CAPACITY);
     }
 
     /**
-     * Creates a new audio packet.
+     * Sets the key used to encrypt the packets.
      *
-     * @param audioFrame A byte array containing 20ms of audio
-     * @param ssrc The ssrc.
+     * @param key The secret key.
+     */
+    public void setSecretKey(byte[] key) {
+        cipherParameters = new ParametersWithIV(new KeyParameter(key), new byte[NONCE_LENGTH]);
+    }
+
+    /**
+     * Writes and encrypts a packet for the given frame.
+     *
+     * @param audioFrame A byte array containing 20ms of audio or {@code null} for silence.
      * @param sequence The sequence.
      * @param timestamp The timestamp.
+     * @return A buffer with the packet between its position and limit, ready to be sent.
+     *         It is reused for the next packet.
      */
-    public AudioPacket(byte[] audioFrame, int ssrc, char sequence, int timestamp) {
+    public ByteBuffer prepare(byte[] audioFrame, char sequence, int timestamp) {
         if (audioFrame == null) {
             audioFrame = SilentAudioSource.SILENCE_FRAME;
         }
-        this.audioFrame = audioFrame;
+        ParametersWithIV cipherParameters = this.cipherParameters;
+        if (cipherParameters == null) {
+            throw new IllegalStateException("The secret key has not been set yet");
+        }
+        if (buffer.length < FRAME_OFFSET + audioFrame.length) {
+            allocateBuffer(audioFrame.length);
+        }
+
         // See https://discord.com/developers/docs/topics/voice-connections#encrypting-and-sending-voice
-        ByteBuffer buffer = ByteBuffer.allocate(RTP_HEADER_LENGTH)
-                .put(0, RTP_TYPE)
+        header.put(0, RTP_TYPE)
                 .put(1, RTP_VERSION)
                 .putChar(2, sequence)
                 .putInt(4, timestamp)
                 .putInt(8, ssrc);
-        header = buffer.array();
-    }
+        System.arraycopy(buffer, 0, cipherParameters.getIV(), 0, RTP_HEADER_LENGTH);
+        System.arraycopy(audioFrame, 0, buffer, FRAME_OFFSET, audioFrame.length);
 
-    /**
-     * Encrypts the audio packet with the given key.
-     *
-     * @param key The key used to encrypt the packet.
-     */
-    public void encrypt(byte[] key) {
-        byte[] nonce = new byte[NONCE_LENGTH];
-        System.arraycopy(header, 0, nonce, 0, RTP_HEADER_LENGTH);
-        audioFrame = new SecretBox(key).seal(nonce, audioFrame);
-        encrypted = true;
-    }
+        cipher.init(true, cipherParameters);
+        cipher.processBytes(ZEROS, 0, KEY_LENGTH, macKey.getKey(), 0);
+        cipher.processBytes(buffer, FRAME_OFFSET, audioFrame.length, buffer, FRAME_OFFSET);
+        mac.init(macKey);
+        mac.update(buffer, FRAME_OFFSET, audioFrame.length);
+        mac.doFinal(buffer, RTP_HEADER_LENGTH);
 
-    /**
-     * Creates a {@code DatagramPacket}, ready to be sent.
-     *
-     * @param address The destination address.
-     * @return The created datagram packet.
-     */
-    public DatagramPacket asUdpPacket(InetSocketAddress address) {
-        byte[] packet = new byte[header.length + audioFrame.length];
-        System.arraycopy(header, 0, packet, 0, header.length);
-        System.arraycopy(audioFrame, 0, packet, header.length, audioFrame.length);
-        return new DatagramPacket(packet, packet.length, address);
+        // Cast to Buffer, as ByteBuffer only overrides these methods since Java 9
+        ((Buffer) packet).clear();
+        ((Buffer) packet).limit(FRAME_OFFSET + audioFrame.length);
+        return packet;
     }
 
     /**
-     * Checks if the audio packet has been encrypted using the {@link #encrypt(byte[])} method.
+     * Allocates a new buffer for frames of the given size.
      *
-     * @return Whether the audio packet is encrypted or not.
+     * @param frameCapacity The maximum size of a frame.
      */
-    public boolean isEncrypted() {
-        return encrypted;
+    private void allocateBuffer(int frameCapacity) {
+        buffer = new byte[FRAME_OFFSET + frameCapacity];
+        header = ByteBuffer.wrap(buffer, 0, RTP_HEADER_LENGTH);
+        packet = ByteBuffer.wrap(buffer);
     }
 
 }
@@ -7,14 +7,22 @@ import org.javacord.core.DiscordApiImpl;
 import org.javacord.core.audio.AudioConnectionImpl;
 import org.javacord.core.entity.server.ServerImpl;
 import org.javacord.core.event.audio.AudioSourceFinishedEventImpl;
+import org.javacord.core.util.concurrent.FrameScheduler.ScheduledFrameTask;
+import org.javacord.core.util.concurrent.ThreadPoolImpl;
 import org.javacord.core.util.logging.LoggerUtil;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
-import java.net.SocketException;
 import java.nio.ByteBuffer;
-
+import java.nio.channels.DatagramChannel;
+import java.util.Optional;
+
+/**
+ * The udp socket which sends the audio frames of an audio connection.
+ *
+ * <p>The frames are not sent by a dedicated thread, but by the audio send scheduler of the thread pool, which sends
+ * the frames of all audio connections from a small fixed set of timer threads. The frames are sent without blocking,
+ * a packet which does not fit into the socket's send buffer is dropped.
+ */
 public class AudioUdpSocket {
 
     /**
@@ -22,41 +30,46 @@ public class AudioUdpSocket {
      */
     private static final Logger logger = LoggerUtil.getLogger(AudioUdpSocket.class);
 
-    private final DatagramSocket socket;
-    private final String threadName;
+    private final DatagramChannel channel;
 
     private final AudioConnectionImpl connection;
     private final InetSocketAddress address;
     private final int ssrc;
 
-    private volatile boolean shouldSend = false;
+    /**
+     * The task which sends the frames or {@code null} if the socket is not sending.
+     */
+    private volatile ScheduledFrameTask sendTask;
 
     /**
-     * The secret key used to encrypt audio packets.
+     * The reusable buffer for the sent audio packets.
      */
-    private byte[] secretKey;
+    private final AudioPacket packet;
 
     /**
      * Gets incremented for every packet sent.
      */
     private char sequence = (char) 0;
 
+    private boolean speaking = false;
+    private long framesOfSilenceToPlay = 5;
+    private volatile long droppedPacketCount = 0;
+
     /**
      * Creates a new audio udp socket.
      *
      * @param connection The audio connection that uses the socket.
      * @param address    The address to connect to.
      * @param ssrc       The ssrc.
-     * @throws SocketException If the socket could not be opened,
-     *                         or the socket could not bind to the specified local port.
+     * @throws IOException If the socket could not be opened.
      */
-    public AudioUdpSocket(AudioConnectionImpl connection, InetSocketAddress address, int ssrc) throws SocketException {
+    public AudioUdpSocket(AudioConnectionImpl connection, InetSocketAddress address, int ssrc) throws IOException {
         this.connection = connection;
         this.address = address;
         this.ssrc = ssrc;
 
-        socket = new DatagramSocket();
-        threadName = String.format("Javacord Audio Send Thread (%#s)", connection.getServer());
+        channel = DatagramChannel.open();
+        packet = new AudioPacket(ssrc);
     }
 
     /**
@@ -65,7 +78,7 @@ public class AudioUdpSocket {
      * @param secretKey The secret key.
      */
     public void setSecretKey(byte[] secretKey) {
-        this.secretKey = secretKey;
+        packet.setSecretKey(secretKey);
     }
 
     /**
@@ -74,6 +87,7 @@ public class AudioUdpSocket {
      *
      * @return You real external address.
      * @throws IOException If an I/O error occurs.
+     * @throws java.nio.channels.IllegalBlockingModeException If the socket already started sending.
      * @see <a href="https://discord.com/developers/docs/topics/voice-connections#ip-discovery">Discord Docs</a>
      */
     public InetSocketAddress discoverIp() throws IOException {
@@ -84,10 +98,10 @@ public class AudioUdpSocket {
                 .putInt(ssrc);
 
         // send the byte array which contains the ssrc
-        socket.send(new DatagramPacket(buffer, buffer.length, address));
+        channel.send(ByteBuffer.wrap(buffer), address);
         // create a new buffer which is used to receive data from discord
         buffer = new byte[74];
-        socket.receive(new DatagramPacket(buffer, buffer.length));
+        channel.receive(ByteBuffer.wrap(buffer));
         // gets the ip of the packet
         final String ip = new String(buffer, 8, buffer.length - 10).trim();
         // gets the port (last two bytes) which is a little endian unsigned short
@@ -100,105 +114,110 @@ public class AudioUdpSocket {
     /**
      * Starts polling frames from the audio connection and sending them through the socket.
      */
-    public void startSending() {
-        if (shouldSend) {
+    public synchronized void startSending() {
+        if (sendTask != null) {
+            return;
+        }
+        try {
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            logger.error("Failed to switch the audio socket to non-blocking mode for {}", connection, e);
             return;
         }
-        shouldSend = true;
-
         DiscordApiImpl api = (DiscordApiImpl) connection.getChannel().getApi();
-        api.getThreadPool().getSingleThreadExecutorService(threadName).submit(() -> {
-            try {
-                long nextFrameTimestamp = System.nanoTime();
-                boolean dontSleep = true;
-                boolean speaking = false;
-                long framesOfSilenceToPlay = 5;
-                while (shouldSend) {
-                    // Get the current audio source. If none is available, it will block the thread
-                    AudioSource source = connection.getCurrentAudioSourceBlocking();
-                    if (source == null) {
-                        logger.error("Got null audio source without being interrupted ({})", connection);
-                        return;
-                    }
-
-                    if (source.hasFinished()) {
-                        connection.removeAudioSource();
-                        dontSleep = true;
-
-                        // Dispatch AudioSourceFinishedEvent AFTER removing the source.
-                        // Otherwise, AudioSourceFinishedEvent#getNextSource() won't work
-                        api.getEventDispatcher().dispatchAudioSourceFinishedEvent(
-                                (ServerImpl) connection.getServer(),
-                                connection,
-                                ((AudioSourceBase) source).getDelegate(),
-                                new AudioSourceFinishedEventImpl(source, connection));
-                        continue;
-                    }
-
-                    AudioPacket packet = null;
-                    byte[] frame = source.hasNextFrame() ? source.getNextFrame() : null;
-
-                    // If the source is muted, replace the frame with a muted frame
-                    if (source.isMuted()) {
-                        frame = null;
-                    }
-
-                    if (frame != null || framesOfSilenceToPlay > 0) {
-                        if (!speaking && frame != null) {
-                            speaking = true;
-                            connection.setSpeaking(true);
-                        }
-                        packet = new AudioPacket(frame, ssrc, sequence, ((int) sequence) * 960);
-                        // We can stop sending frames of silence after 5 frames
-                        if (frame == null) {
-                            framesOfSilenceToPlay--;
-                            if (framesOfSilenceToPlay == 0) {
-                                speaking = false;
-                                connection.setSpeaking(false);
-                            }
-                        } else {
-                            framesOfSilenceToPlay = 5;
-                        }
-                    }
-
-                    nextFrameTimestamp = nextFrameTimestamp + 20_000_000;
-
-                    sequence++;
-
-                    if (packet != null) {
-                        packet.encrypt(secretKey);
-                    }
-                    try {
-                        if (dontSleep) {
-                            nextFrameTimestamp = System.nanoTime() + 20_000_000;
-                            dontSleep = false;
-                        } else {
-                            Thread.sleep(Math.max(0, nextFrameTimestamp - System.nanoTime()) / 1_000_000);
-                        }
-                        if (packet != null) {
-                            socket.send(packet.asUdpPacket(address));
-                        }
-                    } catch (IOException e) {
-                        logger.error("Failed to send audio packet for {}", connection);
-                    }
-                }
-            } catch (InterruptedException e) {
-                if (shouldSend) {
-                    logger.debug("Got interrupted unexpectedly while waiting for next audio source packet");
-                }
-            }
-        });
+        sendTask = ((ThreadPoolImpl) api.getThreadPool()).getAudioSendScheduler().schedule(this::sendFrame);
     }
 
     /**
      * Stops polling frames from the audio connection.
      */
-    public void stopSending() {
-        shouldSend = false;
-        connection.getChannel()
-                .getApi()
-                .getThreadPool()
-                .removeAndShutdownSingleThreadExecutorService(threadName);
+    public synchronized void stopSending() {
+        if (sendTask != null) {
+            sendTask.cancel();
+            sendTask = null;
+        }
+    }
+
+    /**
+     * Gets the task which sends the frames, e.g. to get the statistics how punctually the frames are sent.
+     *
+     * @return The task which sends the frames or an empty optional if the socket is not sending.
+     */
+    public Optional<ScheduledFrameTask> getSendTask() {
+        return Optional.ofNullable(sendTask);
+    }
+
+    /**
+     * Gets the amount of packets which were dropped because the socket's send buffer was full.
+     *
+     * @return The amount of dropped packets.
+     */
+    public long getDroppedPacketCount() {
+        return droppedPacketCount;
+    }
+
+    /**
+     * Polls the next frame from the audio connection and sends it through the socket.
+     * This method is called by the audio send scheduler once every 20 ms and must not block.
+     */
+    private void sendFrame() {
+        AudioSource source = connection.getCurrentAudioSource();
+        if (source == null) {
+            return;
+        }
+
+        DiscordApiImpl api = (DiscordApiImpl) connection.getChannel().getApi();
+        if (source.hasFinished()) {
+            connection.removeAudioSource();
+
+            // Dispatch AudioSourceFinishedEvent AFTER removing the source.
+            // Otherwise, AudioSourceFinishedEvent#getNextSource() won't work
+            api.getEventDispatcher().dispatchAudioSourceFinishedEvent(
+                    (ServerImpl) connection.getServer(),
+                    connection,
+                    ((AudioSourceBase) source).getDelegate(),
+                    new AudioSourceFinishedEventImpl(source, connection));
+            return;
+        }
+
+        boolean sendPacket = false;
+        byte[] frame = source.hasNextFrame() ? source.getNextFrame() : null;
+
+        // If the source is muted, replace the frame with a muted frame
+        if (source.isMuted()) {
+            frame = null;
+        }
+
+        if (frame != null || framesOfSilenceToPlay > 0) {
+            if (!speaking && frame != null) {
+                speaking = true;
+                connection.setSpeaking(true);
+            }
+            sendPacket = true;
+            // We can stop sending frames of silence after 5 frames
+            if (frame == null) {
+                framesOfSilenceToPlay--;
+                if (framesOfSilenceToPlay == 0) {
+                    speaking = false;
+                    connection.setSpeaking(false);
+                }
+            } else {
+                framesOfSilenceToPlay = 5;
+            }
+        }
+
+        ByteBuffer buffer = sendPacket ? packet.prepare(frame, sequence, ((int) sequence) * 960) : null;
+        sequence++;
+
+        if (buffer != null) {
+            try {
+                if (channel.send(buffer, address) == 0) {
+                    droppedPacketCount++;
+                }
+            } catch (IOException e) {
+                logger.error("Failed to send audio packet for {}", connection);
+            }
+        }
     }
 
 }
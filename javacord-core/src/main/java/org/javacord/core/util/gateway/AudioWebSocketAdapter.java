@@ -19,6 +19,7 @@ import org.javacord.core.util.logging.WebSocketLogger;
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
@@ -145,7 +146,7 @@ public class AudioWebSocketAdapter extends WebSocketAdapter {
     public void onBinaryMessage(WebSocket websocket, byte[] binary) throws Exception {
         String message;
         try {
-            message = BinaryMessageDecompressor.decompress(binary);
+            message = new String(BinaryMessageDecompressor.decompress(binary), StandardCharsets.UTF_8);
         } catch (DataFormatException e) {
             logger.warn("An error occurred while decompressing data", e);
             return;
@@ -297,6 +298,15 @@ public class AudioWebSocketAdapter extends WebSocketAdapter {
                 .schedule(this::connect, api.getReconnectDelay(reconnectAttempt.get()), TimeUnit.SECONDS);
     }
 
+    /**
+     * Gets the udp socket which sends the audio.
+     *
+     * @return The udp socket or an empty optional if it has not been created yet.
+     */
+    public Optional<AudioUdpSocket> getSocket() {
+        return Optional.ofNullable(socket);
+    }
+
     /**
      * Disconnects from the websocket.
      */
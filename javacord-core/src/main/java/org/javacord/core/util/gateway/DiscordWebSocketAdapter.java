@@ -1,7 +1,7 @@
 package org.javacord.core.util.gateway;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.neovisionaries.ws.client.ProxySettings;
@@ -13,6 +13,7 @@ import com.neovisionaries.ws.client.WebSocketFrame;
 import com.neovisionaries.ws.client.WebSocketListener;
 import org.apache.logging.log4j.Logger;
 import org.javacord.api.Javacord;
+import org.javacord.api.SessionState;
 import org.javacord.api.entity.Nameable;
 import org.javacord.api.entity.activity.Activity;
 import org.javacord.api.entity.channel.ServerVoiceChannel;
@@ -25,12 +26,12 @@ import org.javacord.api.event.connection.ResumeEvent;
 import org.javacord.api.util.auth.Authenticator;
 import org.javacord.api.util.auth.Request;
 import org.javacord.core.DiscordApiImpl;
-import org.javacord.core.entity.server.ServerImpl;
 import org.javacord.core.event.connection.LostConnectionEventImpl;
 import org.javacord.core.event.connection.ReconnectEventImpl;
 import org.javacord.core.event.connection.ResumeEventImpl;
 import org.javacord.core.util.auth.NvWebSocketResponseImpl;
 import org.javacord.core.util.auth.NvWebSocketRouteImpl;
+import org.javacord.core.util.concurrent.PartitionedExecutor;
 import org.javacord.core.util.handler.ReadyHandler;
 import org.javacord.core.util.handler.ResumedHandler;
 import org.javacord.core.util.handler.channel.ChannelCreateHandler;
@@ -93,6 +94,9 @@ import java.net.ProxySelector;
 import java.net.SocketAddress;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -103,7 +107,6 @@ import java.util.WeakHashMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -136,12 +139,20 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
     private static final long ONE_SECOND = TimeUnit.NANOSECONDS.convert(1, TimeUnit.SECONDS);
     private static final int WEB_SOCKET_FRAME_SENDING_RATELIMIT = 120;
 
+    /**
+     * How long to wait for the members of the servers on startup if no member requests progress.
+     */
+    private static final Duration STARTUP_MEMBERS_STALL_TIMEOUT = Duration.ofSeconds(10);
+
     private final DiscordApiImpl api;
     private final HashMap<String, PacketHandler> handlers = new HashMap<>();
     private final CompletableFuture<Boolean> ready = new CompletableFuture<>();
 
     private final AtomicReference<WebSocket> websocket = new AtomicReference<>();
 
+    // The zlib context of the current connection if transport compression is enabled
+    private final AtomicReference<ZlibStreamDecompressor> zlibStreamDecompressor = new AtomicReference<>();
+
     private final Heart heart;
 
     private volatile int lastSeq = -1;
@@ -159,13 +170,17 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
     private final List<WebSocketListener> identifyFrameListeners = Collections.synchronizedList(new ArrayList<>());
     private volatile boolean triedToResume = false;
 
-    private volatile long lastGuildMembersChunkReceived = System.currentTimeMillis();
+    /**
+     * Whether the session was imported and has not been resumed yet.
+     * If it can not be resumed, a new session is started instead of failing the login.
+     */
+    private volatile boolean resumingImportedSession = false;
 
     // A reconnect attempt counter
     private final AtomicInteger reconnectAttempt = new AtomicInteger();
 
-    // A queue which contains server ids for the "request guild members" packet
-    private final BlockingQueue<Long> requestGuildMembersQueue = new LinkedBlockingQueue<>();
+    // Sends the "request guild members" packets and tracks their responses
+    private final GuildMembersRequester guildMembersRequester;
 
     // A queue which contains web socket frame sending requests
     private BlockingQueue<WebSocketFrameSendingQueueEntry> webSocketFrameSendingQueue = new PriorityBlockingQueue<>();
@@ -178,7 +193,17 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
      * @param api The discord api instance.
      */
     public DiscordWebSocketAdapter(DiscordApiImpl api) {
-        this(api, true);
+        this(api, true, null);
+    }
+
+    /**
+     * Creates a new discord websocket adapter which resumes the given session.
+     *
+     * @param api          The discord api instance.
+     * @param sessionState The state of the session to resume or {@code null} to start a new session.
+     */
+    public DiscordWebSocketAdapter(DiscordApiImpl api, SessionState sessionState) {
+        this(api, true, sessionState);
     }
 
     /**
@@ -188,8 +213,26 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
      * @param reconnect Whether to try to reconnect.
      */
     DiscordWebSocketAdapter(DiscordApiImpl api, boolean reconnect) {
+        this(api, reconnect, null);
+    }
+
+    /**
+     * Creates a new discord websocket adapter.
+     *
+     * @param api          The discord api instance.
+     * @param reconnect    Whether to try to reconnect.
+     * @param sessionState The state of the session to resume or {@code null} to start a new session.
+     */
+    private DiscordWebSocketAdapter(DiscordApiImpl api, boolean reconnect, SessionState sessionState) {
         this.api = api;
         this.reconnect = reconnect;
+        if (sessionState != null) {
+            sessionId = sessionState.getSessionId();
+            resumeUrl = sessionState.getResumeUrl().orElse(null);
+            lastSeq = sessionState.getSequence();
+            resumingImportedSession = true;
+        }
+        guildMembersRequester = new GuildMembersRequester(api, this::sendTextFrame);
         this.heart = new Heart(
                 api,
                 heartbeatFrame -> sendFrame(websocket.get(), heartbeatFrame, true, true),
@@ -199,40 +242,7 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
         registerHandlers();
         connect();
 
-        ExecutorService requestGuildMembersQueueConsumer =
-                api.getThreadPool().getSingleDaemonThreadExecutorService("Request Server Members Queue Consumer");
-        requestGuildMembersQueueConsumer.submit(() -> {
-            while (!requestGuildMembersQueueConsumer.isShutdown()) {
-                try {
-                    // wait 1 minute for a request being queued
-                    Long nextServerId = requestGuildMembersQueue.poll(1, TimeUnit.MINUTES);
-                    // timed out => check whether the abort condition triggers
-                    if (nextServerId == null) {
-                        continue;
-                    }
-                    // put the element back to the queue
-                    requestGuildMembersQueue.add(nextServerId);
-                    // send requests
-                    requestGuildMembersQueue.stream().distinct()
-                            .forEach(serverId -> {
-                                requestGuildMembersQueue.remove(serverId);
-                                ObjectNode requestGuildMembersPacket = JsonNodeFactory.instance.objectNode()
-                                        .put("op", GatewayOpcode.REQUEST_GUILD_MEMBERS.getCode());
-                                ObjectNode data = requestGuildMembersPacket.putObject("d")
-                                        .put("query", "")
-                                        .put("limit", 0);
-                                data.put("guild_id", Long.toUnsignedString(serverId));
-                                logger.debug("Sending request guild members packet {}",
-                                             requestGuildMembersPacket);
-                                sendTextFrame(requestGuildMembersPacket.toString());
-                            });
-                    Thread.sleep(1000);
-                } catch (InterruptedException ignored) {
-                } catch (Throwable t) {
-                    logger.error("Failed to process request guild members queue!", t);
-                }
-            }
-        });
+        guildMembersRequester.start();
 
         ExecutorService webSocketFrameSenderService =
                 api.getThreadPool().getSingleDaemonThreadExecutorService("Web Socket Frame Sender");
@@ -367,12 +377,61 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
      * Disconnects from the websocket.
      */
     public void disconnect() {
+        disconnect(WebSocketCloseReason.DISCONNECT);
+    }
+
+    /**
+     * Disconnects from the websocket with the given close reason.
+     *
+     * @param closeReason The close reason.
+     */
+    private void disconnect(WebSocketCloseReason closeReason) {
         reconnect = false;
-        sendCloseFrame(WebSocketCloseReason.DISCONNECT.getNumericCloseCode());
+        if (closeReason.getCloseReason() == null) {
+            sendCloseFrame(closeReason.getNumericCloseCode());
+        } else {
+            sendCloseFrame(closeReason.getNumericCloseCode(), closeReason.getCloseReason());
+        }
         // cancel heartbeat if within one minute no disconnect event was dispatched
         api.getThreadPool().getDaemonScheduler().schedule(heart::squash, 1, TimeUnit.MINUTES);
     }
 
+    /**
+     * Disconnects from the websocket, but keeps the session resumable.
+     */
+    public void disconnectResumable() {
+        disconnect(WebSocketCloseReason.RESUMABLE_DISCONNECT);
+    }
+
+    /**
+     * Waits until all packets which were received so far are handled.
+     *
+     * @return A future which is completed once all received packets are handled.
+     */
+    public CompletableFuture<Void> awaitHandledPackets() {
+        return CompletableFuture.allOf(handlers.values().stream()
+                .map(PacketHandler::getExecutor)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .distinct()
+                .map(PartitionedExecutor::flush)
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * Gets the current state of the session.
+     *
+     * @return The current state of the session or an empty optional if there is no session.
+     */
+    public Optional<SessionState> getSessionState() {
+        String sessionId = this.sessionId;
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(
+                new SessionState(api.getCurrentShard(), api.getTotalShards(), sessionId, resumeUrl, lastSeq));
+    }
+
     /**
      * Connects the websocket.
      */
@@ -381,7 +440,8 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
             WebSocketFactory factory = new WebSocketFactory();
 
             String webSocketUri = (resumeUrl != null ? resumeUrl : getGateway(api)) + "?encoding=json&v="
-                    + Javacord.DISCORD_GATEWAY_VERSION;
+                    + Javacord.DISCORD_GATEWAY_VERSION
+                    + (api.isTransportCompressionEnabled() ? "&compress=zlib-stream" : "");
 
             Proxy proxy = api.getProxy().orElseGet(() -> {
                 List<Proxy> proxies = api.getProxySelector().orElseGet(ProxySelector::getDefault).select(URI.create(
@@ -460,6 +520,12 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
             }
             WebSocket websocket = factory.createSocket(webSocketUri);
             this.websocket.set(websocket);
+            // every connection starts with a fresh zlib context
+            ZlibStreamDecompressor oldDecompressor = zlibStreamDecompressor.getAndSet(
+                    api.isTransportCompressionEnabled() ? new ZlibStreamDecompressor() : null);
+            if (oldDecompressor != null) {
+                oldDecompressor.close();
+            }
             websocket.addHeader("Accept-Encoding", "gzip");
             websocket.addListener(this);
             websocket.addListener(new WebSocketLogger());
@@ -523,13 +589,23 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
         // Squash it, until it stops beating
         heart.squash();
 
+        // Release the zlib context of the closed connection
+        Optional.ofNullable(zlibStreamDecompressor.getAndSet(null)).ifPresent(ZlibStreamDecompressor::close);
+
         // If reconnect is due to a received INVALID_SESSION, we ran into the identifying ratelimit
         // We simply reconnect to perform another fresh identify
-        if (!ready.isDone() && closeFrameOptional
+        // An imported session which can not be resumed is replaced by a fresh identify as well
+        if (resumingImportedSession && !ready.isDone() && reconnect) {
+            logger.info("Could not resume the imported session, starting a new session");
+            resumingImportedSession = false;
+            sessionId = null;
+            resumeUrl = null;
+        } else if (!ready.isDone() && closeFrameOptional
                 .map(closeFrame -> closeFrame.getCloseCode()
                         != WebSocketCloseReason.INVALID_SESSION_RECONNECT.getNumericCloseCode())
                 .orElse(true)) {
             ready.complete(false);
+            failPendingGuildMembersRequests();
             return;
         }
 
@@ -545,17 +621,74 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
             // Reconnect after a (short?) delay depending on the amount of reconnect attempts
             api.getThreadPool().getScheduler()
                     .schedule(this::connect, api.getReconnectDelay(reconnectAttempt.get()), TimeUnit.SECONDS);
+        } else {
+            failPendingGuildMembersRequests();
         }
     }
 
+    /**
+     * Fails the pending guild members requests, as the connection is not established again.
+     */
+    private void failPendingGuildMembersRequests() {
+        guildMembersRequester.failPendingRequests(
+                new IllegalStateException("The connection was closed before all members were received"));
+    }
+
     @Override
     public void onTextMessage(WebSocket websocket, String text) throws Exception {
-        ObjectMapper mapper = api.getObjectMapper();
-        JsonNode packet = mapper.readTree(text);
+        try (JsonParser parser = api.getObjectMapper().getFactory().createParser(text)) {
+            onPacket(websocket, GatewayPacket.read(parser, handlers::containsKey));
+        }
+    }
 
-        heart.handlePacket(packet);
+    @Override
+    public void onBinaryMessage(WebSocket websocket, byte[] binary) throws Exception {
+        ZlibStreamDecompressor decompressor = zlibStreamDecompressor.get();
+        byte[] message;
+        int offset;
+        int length;
+        try {
+            if (decompressor == null) {
+                message = BinaryMessageDecompressor.decompress(binary);
+                offset = 0;
+                length = message.length;
+            } else {
+                ByteBuffer buffer = decompressor.decompress(binary);
+                if (buffer == null) {
+                    // the message is split across multiple frames, wait for the rest
+                    return;
+                }
+                message = buffer.array();
+                offset = buffer.arrayOffset() + buffer.position();
+                length = buffer.remaining();
+            }
+        } catch (DataFormatException e) {
+            logger.warn("An error occurred while decompressing data", e);
+            if (decompressor != null) {
+                // the shared zlib context is corrupted, reconnect to get a fresh one
+                sendCloseFrame(websocket,
+                        WebSocketCloseReason.TRANSPORT_DECOMPRESSION_FAILED.getNumericCloseCode(),
+                        WebSocketCloseReason.TRANSPORT_DECOMPRESSION_FAILED.getCloseReason());
+            }
+            return;
+        }
+        logger.trace("onBinaryMessage: text='{}'", () -> new String(message, offset, length, StandardCharsets.UTF_8));
+        // parse straight from the decompressed bytes, the buffer of the decompressor is reused for the next message
+        try (JsonParser parser = api.getObjectMapper().getFactory().createParser(message, offset, length)) {
+            onPacket(websocket, GatewayPacket.read(parser, handlers::containsKey));
+        }
+    }
+
+    /**
+     * Handles a packet received from the gateway.
+     *
+     * @param websocket The websocket the packet was received from.
+     * @param packet The received packet.
+     */
+    private void onPacket(WebSocket websocket, GatewayPacket packet) {
+        int op = packet.getOp();
+        heart.handlePacket(op, packet.getSequence());
 
-        int op = packet.get("op").asInt();
         Optional<GatewayOpcode> opcode = GatewayOpcode.fromCode(op);
         if (!opcode.isPresent()) {
             logger.debug("Received unknown packet (op: {}, content: {})", op, packet);
@@ -564,18 +697,15 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
 
         switch (opcode.get()) {
             case DISPATCH:
-                lastSeq = packet.get("s").asInt();
-                String type = packet.get("t").asText();
+                lastSeq = packet.getSequence();
+                String type = packet.getType();
                 PacketHandler handler = handlers.get(type);
                 if (handler != null) {
-                    handler.handlePacket(packet.get("d"));
+                    handler.handlePacket(packet.getData());
                 } else {
                     logger.debug("Received unknown packet of type {} (packet: {})", type, packet);
                 }
 
-                if (type.equals("GUILD_MEMBERS_CHUNK")) {
-                    lastGuildMembersChunkReceived = System.currentTimeMillis();
-                }
                 if (type.equals("RESUMED")) {
                     reconnectingOrResumingLock.lock();
                     try {
@@ -589,6 +719,10 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
 
                     ResumeEvent resumeEvent = new ResumeEventImpl(api);
                     api.getEventDispatcher().dispatchResumeEvent(null, resumeEvent);
+
+                    // the cache of an imported session has been restored before resuming
+                    resumingImportedSession = false;
+                    ready.complete(true);
                 }
                 if (type.equals("READY")) {
                     reconnectingOrResumingLock.lock();
@@ -599,41 +733,19 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
                     } finally {
                         reconnectingOrResumingLock.unlock();
                     }
-                    sessionId = packet.get("d").get("session_id").asText();
-                    resumeUrl = packet.get("d").hasNonNull("resume_gateway_url")
-                            ? packet.get("d").get("resume_gateway_url").asText() : null;
+                    resumingImportedSession = false;
+                    sessionId = packet.getData().get("session_id").asText();
+                    resumeUrl = packet.getData().hasNonNull("resume_gateway_url")
+                            ? packet.getData().get("resume_gateway_url").asText() : null;
+                    // the responses to member requests of a previous session are lost
+                    guildMembersRequester.onNewSession();
                     // Discord sends us GUILD_CREATE packets after logging in. We will wait for them.
                     api.getThreadPool().getSingleThreadExecutorService("Startup Servers Wait Thread").submit(() -> {
-                        boolean allUsersLoaded = false;
-                        boolean allServersLoaded = false;
-                        int lastUnavailableServerAmount = 0;
-                        int sameUnavailableServerCounter = 0;
-                        while (api.isWaitingForServersOnStartup() && (!allServersLoaded || !allUsersLoaded)) {
-                            if (api.getUnavailableServers().size() == lastUnavailableServerAmount) {
-                                sameUnavailableServerCounter++;
-                            } else {
-                                lastUnavailableServerAmount = api.getUnavailableServers().size();
-                                sameUnavailableServerCounter = 0;
-                            }
-                            allServersLoaded = api.getUnavailableServers().isEmpty();
-                            if (allServersLoaded) {
-                                allUsersLoaded = !api.hasUserCacheEnabled()
-                                        || !api.isWaitingForUsersOnStartup()
-                                        || api.getAllServers().stream()
-                                        .map(ServerImpl.class::cast)
-                                        .allMatch(ServerImpl::isReady);
+                        if (api.isWaitingForServersOnStartup()) {
+                            waitForStartupServers();
+                            if (api.hasUserCacheEnabled() && api.isWaitingForUsersOnStartup()) {
+                                waitForStartupMembers();
                             }
-                            if (sameUnavailableServerCounter > 1000
-                                    && lastGuildMembersChunkReceived + 5000 < System.currentTimeMillis()) {
-                                // It has been more than 1 minute since no more servers became available and more
-                                // than five seconds since the last guild member chunk event was received. We
-                                // can assume that this will not change anytime soon, most likely because Discord
-                                // itself has some issues. Let's break the loop!
-                                break;
-                            }
-                            try {
-                                Thread.sleep(100);
-                            } catch (InterruptedException ignored) { }
                         }
                         ReconnectEvent reconnectEvent = new ReconnectEventImpl(api);
                         api.getEventDispatcher().dispatchReconnectEvent(null, reconnectEvent);
@@ -676,7 +788,7 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
             case HELLO:
                 logger.debug("Received HELLO packet");
 
-                JsonNode data = packet.get("d");
+                JsonNode data = packet.getData();
                 int heartbeatInterval = data.get("heartbeat_interval").asInt();
 
                 // calculate reserved places for heartbeats
@@ -698,17 +810,40 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
         }
     }
 
-    @Override
-    public void onBinaryMessage(WebSocket websocket, byte[] binary) throws Exception {
-        String message;
+    /**
+     * Waits until the servers of the READY packet became available.
+     * If no more servers became available for more than a minute, it is assumed that this will not change anytime
+     * soon, most likely because Discord itself has some issues.
+     */
+    private void waitForStartupServers() {
+        int lastUnavailableServerAmount = 0;
+        int sameUnavailableServerCounter = 0;
+        while (!api.getUnavailableServers().isEmpty() && sameUnavailableServerCounter <= 1000) {
+            if (api.getUnavailableServers().size() == lastUnavailableServerAmount) {
+                sameUnavailableServerCounter++;
+            } else {
+                lastUnavailableServerAmount = api.getUnavailableServers().size();
+                sameUnavailableServerCounter = 0;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) { }
+        }
+    }
+
+    /**
+     * Waits until the members which were requested for the servers of the READY packet were received.
+     * The requests are sent paced, so this only stops waiting early if the requests did not progress for a while.
+     */
+    private void waitForStartupMembers() {
         try {
-            message = BinaryMessageDecompressor.decompress(binary);
-        } catch (DataFormatException e) {
-            logger.warn("An error occurred while decompressing data", e);
-            return;
+            if (!guildMembersRequester.awaitPendingRequests(STARTUP_MEMBERS_STALL_TIMEOUT)) {
+                logger.warn("Did not receive the members of all servers within {} after the last progress,"
+                        + " continuing without them", STARTUP_MEMBERS_STALL_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        logger.trace("onTextMessage: text='{}'", message);
-        onTextMessage(websocket, message);
     }
 
     /**
@@ -739,7 +874,8 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
         ObjectNode data = identifyPacket.putObject("d");
         String token = api.getPrefixedToken();
         data.put("token", token)
-                .put("compress", true)
+                // payload compression must not be combined with transport compression
+                .put("compress", !api.isTransportCompressionEnabled())
                 .put("large_threshold", 250)
                 .putObject("properties")
                 .put("os", System.getProperty("os.name"))
@@ -1063,13 +1199,22 @@ public class DiscordWebSocketAdapter extends WebSocketAdapter {
     }
 
     /**
-     * Adds a server id to be queued for the "request guild members" packet.
+     * Queues a "request guild members" packet for all members of the given server.
      *
      * @param server The server.
+     * @return A future which is completed once all members were received.
+     */
+    public CompletableFuture<Void> queueRequestGuildMembers(Server server) {
+        return guildMembersRequester.requestAllMembers(server.getId(), false);
+    }
+
+    /**
+     * Gets the requester which sends the "request guild members" packets.
+     *
+     * @return The requester.
      */
-    public void queueRequestGuildMembers(Server server) {
-        logger.debug("Queued {} for request guild members packet", server);
-        requestGuildMembersQueue.add(server.getId());
+    public GuildMembersRequester getGuildMembersRequester() {
+        return guildMembersRequester;
     }
 
     @Override
@@ -0,0 +1,162 @@
+package org.javacord.core.util.gateway;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.function.Predicate;
+
+/**
+ * This class represents a packet received from the gateway.
+ *
+ * <p>The envelope ({@code op}, {@code s} and {@code t}) is read with a streaming parser. The payload ({@code d}) is
+ * only materialized as a tree if it is actually needed.
+ */
+public class GatewayPacket {
+
+    /**
+     * The opcode of the packet.
+     */
+    private final int op;
+
+    /**
+     * The sequence number of the packet or {@code -1} if it has none.
+     */
+    private final int sequence;
+
+    /**
+     * The event type of the packet or {@code null} if it has none.
+     */
+    private final String type;
+
+    /**
+     * The payload of the packet or {@code null} if it has none or it was skipped.
+     */
+    private final JsonNode data;
+
+    /**
+     * Whether the payload of the packet was skipped.
+     */
+    private final boolean dataSkipped;
+
+    /**
+     * Creates a new gateway packet.
+     *
+     * @param op The opcode of the packet.
+     * @param sequence The sequence number of the packet or {@code -1} if it has none.
+     * @param type The event type of the packet or {@code null} if it has none.
+     * @param data The payload of the packet or {@code null} if it has none or it was skipped.
+     * @param dataSkipped Whether the payload of the packet was skipped.
+     */
+    private GatewayPacket(int op, int sequence, String type, JsonNode data, boolean dataSkipped) {
+        this.op = op;
+        this.sequence = sequence;
+        this.type = type;
+        this.data = data;
+        this.dataSkipped = dataSkipped;
+    }
+
+    /**
+     * Reads a packet from the given parser.
+     *
+     * <p>The payload of dispatch packets is skipped without building a tree if the given predicate does not require
+     * it for the packet's event type. If the payload is received before the opcode and type, it is always read.
+     *
+     * @param parser The parser to read from. It must have an {@code ObjectCodec} set.
+     * @param dataRequired Whether the payload is required for a dispatch packet with the given event type.
+     * @return The read packet.
+     * @throws IOException If the packet could not be read.
+     */
+    public static GatewayPacket read(JsonParser parser, Predicate<String> dataRequired) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a gateway packet to be a JSON object");
+        }
+
+        int op = -1;
+        int sequence = -1;
+        String type = null;
+        JsonNode data = null;
+        boolean dataSkipped = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (fieldName) {
+                case "op":
+                    op = parser.getValueAsInt(-1);
+                    break;
+                case "s":
+                    sequence = (token == JsonToken.VALUE_NULL) ? -1 : parser.getValueAsInt(-1);
+                    break;
+                case "t":
+                    type = (token == JsonToken.VALUE_NULL) ? null : parser.getText();
+                    break;
+                case "d":
+                    if ((op == GatewayOpcode.DISPATCH.getCode()) && (type != null) && !dataRequired.test(type)) {
+                        parser.skipChildren();
+                        dataSkipped = true;
+                    } else {
+                        data = parser.readValueAsTree();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return new GatewayPacket(op, sequence, type, data, dataSkipped);
+    }
+
+    /**
+     * Gets the opcode of the packet.
+     *
+     * @return The opcode of the packet.
+     */
+    public int getOp() {
+        return op;
+    }
+
+    /**
+     * Gets the sequence number of the packet.
+     *
+     * @return The sequence number of the packet or {@code -1} if it has none.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the event type of the packet.
+     *
+     * @return The event type of the packet or {@code null} if it has none.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the payload of the packet.
+     *
+     * @return The payload of the packet or {@code null} if it has none or it was skipped.
+     */
+    public JsonNode getData() {
+        return data;
+    }
+
+    /**
+     * Checks whether the payload of the packet was skipped.
+     *
+     * @return Whether the payload of the packet was skipped.
+     */
+    public boolean isDataSkipped() {
+        return dataSkipped;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GatewayPacket (op: %d, s: %d, t: %s, d: %s)",
+                op, sequence, type, dataSkipped ? "<skipped>" : data);
+    }
+
+}
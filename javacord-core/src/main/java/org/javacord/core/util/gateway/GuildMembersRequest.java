@@ -0,0 +1,170 @@
+package org.javacord.core.util.gateway;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A "request guild members" gateway command which is tracked by its nonce until all of its chunks were received.
+ */
+public class GuildMembersRequest {
+
+    private final long serverId;
+
+    /**
+     * The ids of the requested users or {@code null} if all members are requested.
+     */
+    private final Collection<Long> userIds;
+
+    private final boolean presences;
+    private final String nonce;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    /**
+     * Whether the request has been sent in the current session.
+     */
+    private boolean sent = false;
+
+    /**
+     * The indexes of the received chunks.
+     */
+    private final BitSet receivedChunks = new BitSet();
+
+    /**
+     * Creates a new request.
+     *
+     * @param serverId The id of the server.
+     * @param userIds The ids of the requested users or {@code null} to request all members.
+     * @param presences Whether the presences of the members should be requested.
+     * @param nonce The nonce of the request.
+     */
+    GuildMembersRequest(long serverId, Collection<Long> userIds, boolean presences, String nonce) {
+        this.serverId = serverId;
+        this.userIds = userIds;
+        this.presences = presences;
+        this.nonce = nonce;
+    }
+
+    /**
+     * Gets the id of the server.
+     *
+     * @return The id of the server.
+     */
+    public long getServerId() {
+        return serverId;
+    }
+
+    /**
+     * Checks if all members of the server are requested.
+     *
+     * @return Whether all members of the server are requested.
+     */
+    public boolean isForAllMembers() {
+        return userIds == null;
+    }
+
+    /**
+     * Gets the ids of the requested users.
+     *
+     * @return The ids of the requested users or an empty collection if all members are requested.
+     */
+    public Collection<Long> getUserIds() {
+        return userIds == null ? Collections.emptyList() : Collections.unmodifiableCollection(userIds);
+    }
+
+    /**
+     * Checks if the presences of the members are requested.
+     *
+     * @return Whether the presences are requested.
+     */
+    public boolean isWithPresences() {
+        return presences;
+    }
+
+    /**
+     * Gets the nonce of the request.
+     *
+     * @return The nonce.
+     */
+    public String getNonce() {
+        return nonce;
+    }
+
+    /**
+     * Gets the future which is completed once all chunks of the request were received.
+     *
+     * @return The future.
+     */
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    /**
+     * Creates the gateway packet of the request.
+     *
+     * @return The packet.
+     */
+    ObjectNode toPacket() {
+        ObjectNode packet = JsonNodeFactory.instance.objectNode()
+                .put("op", GatewayOpcode.REQUEST_GUILD_MEMBERS.getCode());
+        ObjectNode data = packet.putObject("d")
+                .put("guild_id", Long.toUnsignedString(serverId));
+        if (userIds == null) {
+            data.put("query", "").put("limit", 0);
+        } else {
+            ArrayNode userIdsJson = data.putArray("user_ids");
+            userIds.forEach(userId -> userIdsJson.add(Long.toUnsignedString(userId)));
+        }
+        data.put("presences", presences);
+        data.put("nonce", nonce);
+        return packet;
+    }
+
+    /**
+     * Marks the request as sent.
+     */
+    synchronized void markSent() {
+        sent = true;
+    }
+
+    /**
+     * Checks if the request has been sent in the current session.
+     *
+     * @return Whether the request has been sent.
+     */
+    synchronized boolean isSent() {
+        return sent;
+    }
+
+    /**
+     * Resets the progress of the request, so it can be sent again in a new session.
+     */
+    synchronized void reset() {
+        sent = false;
+        receivedChunks.clear();
+    }
+
+    /**
+     * Records a received chunk of the response.
+     *
+     * @param chunkIndex The index of the chunk.
+     * @param chunkCount The amount of chunks.
+     * @return Whether all chunks have been received now.
+     */
+    public synchronized boolean receiveChunk(int chunkIndex, int chunkCount) {
+        receivedChunks.set(chunkIndex);
+        return receivedChunks.cardinality() >= chunkCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GuildMembersRequest (server: %d, nonce: %s, all members: %b, presences: %b)",
+                serverId, nonce, isForAllMembers(), presences);
+    }
+
+}
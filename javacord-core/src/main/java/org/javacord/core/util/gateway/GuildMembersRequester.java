@@ -0,0 +1,288 @@
+package org.javacord.core.util.gateway;
+
+import org.apache.logging.log4j.Logger;
+import org.javacord.api.entity.intent.Intent;
+import org.javacord.api.util.ratelimit.LocalRatelimiter;
+import org.javacord.api.util.ratelimit.Ratelimiter;
+import org.javacord.core.DiscordApiImpl;
+import org.javacord.core.util.logging.LoggerUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Sends the "request guild members" commands of a shard and tracks their responses.
+ *
+ * <p>Every request is tagged with a nonce, which Discord includes in every {@code GUILD_MEMBERS_CHUNK} of the
+ * response, so the requests can be pipelined and still be completed individually once their {@code chunk_count}
+ * chunks were received. The requests are paced to a share of the gateway send budget, so other commands like
+ * presence or voice state updates do not have to queue behind the member requests of a large shard.
+ */
+public class GuildMembersRequester {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(GuildMembersRequester.class);
+
+    /**
+     * The maximum amount of user ids of a single request.
+     */
+    public static final int MAX_USER_IDS_PER_REQUEST = 100;
+
+    /**
+     * The budget of the requests, about 100 of the 120 frames per minute.
+     * The remaining frames are left for heartbeats and other commands.
+     */
+    private static final int REQUESTS_PER_BUCKET = 5;
+    private static final Duration REQUEST_BUCKET_DURATION = Duration.ofSeconds(3);
+
+    private final DiscordApiImpl api;
+
+    /**
+     * Sends a text frame to the gateway.
+     */
+    private final Consumer<String> frameSender;
+
+    private final Ratelimiter budget = new LocalRatelimiter(REQUESTS_PER_BUCKET, REQUEST_BUCKET_DURATION);
+
+    private final AtomicLong nonceCounter = new AtomicLong();
+
+    /**
+     * The requests which wait to be sent.
+     */
+    private final BlockingQueue<GuildMembersRequest> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * The requests which are not completed yet by their nonce.
+     */
+    private final Map<String, GuildMembersRequest> pendingRequests = new ConcurrentHashMap<>();
+
+    /**
+     * The pending requests for all members by the id of their server, so they are not requested twice.
+     */
+    private final Map<Long, GuildMembersRequest> pendingRequestsForAllMembers = new ConcurrentHashMap<>();
+
+    /**
+     * Counts sent requests and received chunks, to detect if the requests do not progress anymore.
+     */
+    private long progress = 0;
+
+    /**
+     * Creates a new requester.
+     *
+     * @param api The shard.
+     * @param frameSender Sends a text frame to the gateway.
+     */
+    public GuildMembersRequester(DiscordApiImpl api, Consumer<String> frameSender) {
+        this.api = api;
+        this.frameSender = frameSender;
+    }
+
+    /**
+     * Starts the thread which sends the queued requests.
+     */
+    public void start() {
+        ExecutorService sender =
+                api.getThreadPool().getSingleDaemonThreadExecutorService("Request Server Members Queue Consumer");
+        sender.submit(() -> {
+            while (!sender.isShutdown()) {
+                try {
+                    // wait 1 minute for a request being queued
+                    GuildMembersRequest request = queue.poll(1, TimeUnit.MINUTES);
+                    // timed out => check whether the abort condition triggers
+                    if (request == null || request.getFuture().isDone() || request.isSent()) {
+                        continue;
+                    }
+                    budget.requestQuota();
+                    request.markSent();
+                    String packet = request.toPacket().toString();
+                    logger.debug("Sending request guild members packet {}", packet);
+                    frameSender.accept(packet);
+                    progress();
+                } catch (InterruptedException ignored) {
+                } catch (Throwable t) {
+                    logger.error("Failed to process request guild members queue!", t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Requests all members of the given server.
+     * If all members of the server are already requested, the pending request is used.
+     *
+     * @param serverId The id of the server.
+     * @param presences Whether the presences of the members should be requested. They are only requested if the
+     *                  shard has the {@link Intent#GUILD_PRESENCES} intent.
+     * @return A future which is completed once all members were received.
+     */
+    public CompletableFuture<Void> requestAllMembers(long serverId, boolean presences) {
+        boolean withPresences = allowPresences(presences);
+        GuildMembersRequest request = pendingRequestsForAllMembers.compute(serverId, (id, pendingRequest) ->
+                pendingRequest != null && pendingRequest.isWithPresences() == withPresences
+                        ? pendingRequest
+                        : createRequest(serverId, null, withPresences));
+        return request.getFuture();
+    }
+
+    /**
+     * Requests the given members of the given server.
+     * The users are split into multiple requests if there are more than {@value #MAX_USER_IDS_PER_REQUEST}.
+     *
+     * @param serverId The id of the server.
+     * @param userIds The ids of the users.
+     * @param presences Whether the presences of the members should be requested. They are only requested if the
+     *                  shard has the {@link Intent#GUILD_PRESENCES} intent.
+     * @return A future which is completed once all requested members were received.
+     */
+    public CompletableFuture<Void> requestMembers(long serverId, Collection<Long> userIds, boolean presences) {
+        boolean withPresences = allowPresences(presences);
+        List<Long> remainingUserIds = new ArrayList<>(userIds);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        while (!remainingUserIds.isEmpty()) {
+            List<Long> batch = remainingUserIds.subList(0, Math.min(MAX_USER_IDS_PER_REQUEST, remainingUserIds.size()));
+            futures.add(createRequest(serverId, new ArrayList<>(batch), withPresences).getFuture());
+            batch.clear();
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Gets the pending request with the given nonce.
+     *
+     * @param nonce The nonce of the request.
+     * @return The request or an empty optional if it is unknown or already completed.
+     */
+    public Optional<GuildMembersRequest> getPendingRequest(String nonce) {
+        return nonce == null ? Optional.empty() : Optional.ofNullable(pendingRequests.get(nonce));
+    }
+
+    /**
+     * Notes that a chunk of a request was received.
+     */
+    public void onChunkReceived() {
+        progress();
+    }
+
+    /**
+     * Sends the pending requests again, as the responses to requests of a previous session are lost.
+     */
+    public void onNewSession() {
+        for (GuildMembersRequest request : pendingRequests.values()) {
+            if (request.isSent()) {
+                request.reset();
+                queue.add(request);
+            }
+        }
+    }
+
+    /**
+     * Fails the pending requests of the given server, as their responses will not be received anymore.
+     *
+     * @param serverId The id of the server.
+     * @param cause The reason why the requests failed.
+     */
+    public void failPendingRequests(long serverId, Throwable cause) {
+        for (GuildMembersRequest request : pendingRequests.values()) {
+            if (request.getServerId() == serverId) {
+                request.getFuture().completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Fails all pending requests, as their responses will not be received anymore.
+     *
+     * @param cause The reason why the requests failed.
+     */
+    public void failPendingRequests(Throwable cause) {
+        for (GuildMembersRequest request : pendingRequests.values()) {
+            request.getFuture().completeExceptionally(cause);
+        }
+        queue.clear();
+    }
+
+    /**
+     * Waits until all pending requests are completed.
+     *
+     * @param stallTimeout The maximum time to wait without any request being sent or any chunk being received.
+     * @return Whether all pending requests are completed. {@code false} if they stopped progressing.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public synchronized boolean awaitPendingRequests(Duration stallTimeout) throws InterruptedException {
+        long lastProgress = progress;
+        long deadline = System.nanoTime() + stallTimeout.toNanos();
+        while (!pendingRequests.isEmpty()) {
+            if (progress != lastProgress) {
+                lastProgress = progress;
+                deadline = System.nanoTime() + stallTimeout.toNanos();
+            }
+            long waitTime = deadline - System.nanoTime();
+            if (waitTime <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, waitTime);
+        }
+        return true;
+    }
+
+    /**
+     * Creates and queues a new request.
+     *
+     * @param serverId The id of the server.
+     * @param userIds The ids of the requested users or {@code null} to request all members.
+     * @param presences Whether the presences of the members should be requested.
+     * @return The request.
+     */
+    private GuildMembersRequest createRequest(long serverId, Collection<Long> userIds, boolean presences) {
+        String nonce = Long.toString(nonceCounter.incrementAndGet(), Character.MAX_RADIX);
+        GuildMembersRequest request = new GuildMembersRequest(serverId, userIds, presences, nonce);
+        pendingRequests.put(nonce, request);
+        request.getFuture().whenComplete((nothing, throwable) -> {
+            pendingRequests.remove(nonce);
+            if (request.isForAllMembers()) {
+                pendingRequestsForAllMembers.remove(serverId, request);
+            }
+            progress();
+        });
+        logger.debug("Queued {}", request);
+        queue.add(request);
+        return request;
+    }
+
+    /**
+     * Checks if presences may be requested.
+     *
+     * @param presences Whether presences should be requested.
+     * @return Whether presences are requested.
+     */
+    private boolean allowPresences(boolean presences) {
+        if (presences && !api.getIntents().contains(Intent.GUILD_PRESENCES)) {
+            logger.debug("Not requesting presences of members without the GUILD_PRESENCES intent");
+            return false;
+        }
+        return presences;
+    }
+
+    /**
+     * Notes progress and wakes up threads which wait for the pending requests.
+     */
+    private synchronized void progress() {
+        progress++;
+        notifyAll();
+    }
+
+}
@@ -61,20 +61,32 @@ public class Heart {
      * @param packet The packet to handle.
      */
     public void handlePacket(JsonNode packet) {
+        handlePacket(packet.get("op").asInt(),
+                (packet.has("s") && !packet.get("s").isNull()) ? packet.get("s").asInt() : -1);
+    }
+
+    /**
+     * Handles a packet with the given opcode and sequence number.
+     * Usually used to update the last sequence number and listen for acks.
+     *
+     * @param op The opcode of the packet.
+     * @param sequence The sequence number of the packet or {@code -1} if it has none.
+     */
+    public void handlePacket(int op, int sequence) {
         if (!voice) {
             // For normal websockets, the last sequence number is sent in the heartbeat
-            if (packet.has("s") && !packet.get("s").isNull()) {
-                lastSeq = packet.get("s").asInt();
+            if (sequence != -1) {
+                lastSeq = sequence;
             }
         }
         int heartbeatAckOp = voice ? VoiceGatewayOpcode.HEARTBEAT_ACK.getCode() : GatewayOpcode.HEARTBEAT_ACK.getCode();
-        if (packet.get("op").asInt() == heartbeatAckOp) {
+        if (op == heartbeatAckOp) {
             long gatewayLatency = System.nanoTime() - lastHeartbeatSentTimeNanos;
             if (!voice) {
                 api.setLatestGatewayLatencyNanos(gatewayLatency);
             }
-            stethoscope.debug("Heartbeat ACK received (voice: {}, packet: {}). Took {} ms to receive ACK",
-                    voice, packet, TimeUnit.NANOSECONDS.toMillis(gatewayLatency));
+            stethoscope.debug("Heartbeat ACK received (voice: {}). Took {} ms to receive ACK",
+                    voice, TimeUnit.NANOSECONDS.toMillis(gatewayLatency));
             heartbeatAckReceived.set(true);
         }
     }
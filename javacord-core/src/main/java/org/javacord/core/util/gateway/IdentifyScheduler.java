@@ -0,0 +1,207 @@
+package org.javacord.core.util.gateway;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.logging.log4j.Logger;
+import org.javacord.api.util.ratelimit.LocalRatelimiter;
+import org.javacord.api.util.ratelimit.Ratelimiter;
+import org.javacord.core.DiscordApiImpl;
+import org.javacord.core.util.logging.LoggerUtil;
+import org.javacord.core.util.rest.RestEndpoint;
+import org.javacord.core.util.rest.RestMethod;
+import org.javacord.core.util.rest.RestRequest;
+import org.javacord.core.util.rest.RestRequestResult;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the gateway identify requests of all shards of a bot.
+ *
+ * <p>Discord groups the shards into {@code max_concurrency} buckets by {@code shard_id % max_concurrency}. Every
+ * bucket may identify once every 5 seconds, but the buckets may identify at the same time. Additionally, a bot may
+ * only start a limited amount of sessions per day. Both limits are requested from the {@code /gateway/bot} endpoint
+ * and requested again after the session start limit reset. Until they are known, one shard identifies at a time.
+ *
+ * @see <a href="https://discord.com/developers/docs/topics/gateway#rate-limiting">Discord Docs</a>
+ */
+public class IdentifyScheduler {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(IdentifyScheduler.class);
+
+    /**
+     * The time between two identify requests of a bucket, with some safety margin.
+     */
+    private static final Duration IDENTIFY_INTERVAL = Duration.ofMillis(5500);
+
+    private Ratelimiter[] buckets = createBuckets(1);
+
+    /**
+     * Whether the session start limit is known.
+     */
+    private boolean sessionStartLimitKnown = false;
+
+    private int remainingSessionStarts;
+    private long sessionStartLimitResetNanos;
+
+    /**
+     * The pending request of the session start limit, which is shared by the shards that identify at the same time.
+     */
+    private CompletableFuture<Boolean> sessionStartLimitRequest;
+
+    /**
+     * Gets a ratelimiter which identifies the given shard through this scheduler.
+     *
+     * @param api The shard.
+     * @return The ratelimiter for the shard.
+     */
+    public Ratelimiter getRatelimiter(DiscordApiImpl api) {
+        return () -> requestQuota(api);
+    }
+
+    /**
+     * Blocks the requesting thread until the given shard may identify.
+     *
+     * @param api The shard which wants to identify.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void requestQuota(DiscordApiImpl api) throws InterruptedException {
+        // the bucket is waited for outside the lock, so other buckets can identify at the same time
+        reserveSessionStart(api).requestQuota();
+    }
+
+    /**
+     * Updates the limits with the {@code session_start_limit} object of the {@code /gateway/bot} endpoint.
+     *
+     * @param sessionStartLimit The session start limit.
+     */
+    public synchronized void updateSessionStartLimit(JsonNode sessionStartLimit) {
+        int maxConcurrency = Math.max(1, sessionStartLimit.path("max_concurrency").asInt(1));
+        if (maxConcurrency != buckets.length) {
+            logger.debug("Identifying up to {} shards at the same time", maxConcurrency);
+            buckets = createBuckets(maxConcurrency);
+        }
+        remainingSessionStarts = sessionStartLimit.get("remaining").asInt();
+        sessionStartLimitResetNanos =
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sessionStartLimit.get("reset_after").asLong());
+        sessionStartLimitKnown = true;
+    }
+
+    /**
+     * Gets the amount of shards which may identify at the same time.
+     *
+     * @return The amount of shards which may identify at the same time.
+     */
+    public synchronized int getMaxConcurrency() {
+        return sessionStartLimitKnown ? buckets.length : 1;
+    }
+
+    /**
+     * Gets the amount of sessions which may still be started until the session start limit resets.
+     *
+     * @return The amount of remaining session starts or {@code -1} if the session start limit is not known.
+     */
+    public synchronized int getRemainingSessionStarts() {
+        return sessionStartLimitKnown ? remainingSessionStarts : -1;
+    }
+
+    /**
+     * Takes a session start from the daily budget, waiting for the reset if it is exhausted.
+     *
+     * <p>The lock is only held while the limits are read or updated. Requesting the limits and waiting for the reset
+     * happen outside of it, so the other methods do not block and waiting shards can be interrupted.
+     *
+     * @param api The shard which wants to identify.
+     * @return The bucket of the shard.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private Ratelimiter reserveSessionStart(DiscordApiImpl api) throws InterruptedException {
+        while (true) {
+            CompletableFuture<Boolean> limitRequest = null;
+            long waitTime = 0;
+            synchronized (this) {
+                if (!sessionStartLimitKnown || System.nanoTime() - sessionStartLimitResetNanos >= 0) {
+                    // shards which identify at the same time share the request
+                    if (sessionStartLimitRequest == null || sessionStartLimitRequest.isDone()) {
+                        sessionStartLimitRequest = requestSessionStartLimit(api);
+                    }
+                    limitRequest = sessionStartLimitRequest;
+                } else if (remainingSessionStarts > 0) {
+                    remainingSessionStarts--;
+                    return buckets[api.getCurrentShard() % buckets.length];
+                } else {
+                    waitTime = sessionStartLimitResetNanos - System.nanoTime();
+                }
+            }
+            if (limitRequest == null) {
+                logger.warn("The daily session start limit is exhausted, waiting {} until it resets",
+                        Duration.ofNanos(waitTime));
+                TimeUnit.NANOSECONDS.sleep(waitTime);
+            } else if (!awaitSessionStartLimit(limitRequest)) {
+                synchronized (this) {
+                    return buckets[0];
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for a request of the session start limit.
+     *
+     * @param limitRequest The request.
+     * @return Whether the session start limit is known now.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static boolean awaitSessionStartLimit(CompletableFuture<Boolean> limitRequest)
+            throws InterruptedException {
+        try {
+            return limitRequest.get();
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Requests the session start limit from Discord.
+     * If the request fails, the limit is treated as unknown and requested again for the next identify.
+     *
+     * @param api The api used to make the rest call.
+     * @return A future which is completed with whether the session start limit is known now.
+     */
+    private CompletableFuture<Boolean> requestSessionStartLimit(DiscordApiImpl api) {
+        return new RestRequest<JsonNode>(api, RestMethod.GET, RestEndpoint.GATEWAY_BOT)
+                .execute(RestRequestResult::getJsonBody)
+                .thenApply(gatewayBot -> {
+                    DiscordWebSocketAdapter.setGateway(gatewayBot.get("url").asText());
+                    updateSessionStartLimit(gatewayBot.get("session_start_limit"));
+                    return true;
+                })
+                .exceptionally(throwable -> {
+                    logger.warn("Failed to request the session start limit, identifying one shard at a time",
+                            throwable);
+                    synchronized (this) {
+                        sessionStartLimitKnown = false;
+                    }
+                    return false;
+                });
+    }
+
+    /**
+     * Creates the ratelimiters of the buckets.
+     *
+     * @param maxConcurrency The amount of buckets.
+     * @return The ratelimiters of the buckets.
+     */
+    private static Ratelimiter[] createBuckets(int maxConcurrency) {
+        Ratelimiter[] buckets = new Ratelimiter[maxConcurrency];
+        for (int i = 0; i < maxConcurrency; i++) {
+            buckets[i] = new LocalRatelimiter(1, IDENTIFY_INTERVAL);
+        }
+        return buckets;
+    }
+
+}
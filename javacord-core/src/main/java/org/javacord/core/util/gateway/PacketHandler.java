@@ -4,9 +4,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.logging.log4j.Logger;
 import org.javacord.api.DiscordApi;
 import org.javacord.core.DiscordApiImpl;
+import org.javacord.core.util.concurrent.PartitionedExecutor;
+import org.javacord.core.util.concurrent.ThreadPoolImpl;
 import org.javacord.core.util.logging.LoggerUtil;
 
-import java.util.concurrent.ExecutorService;
+import java.util.Optional;
 
 /**
  * This class is extended by all PacketHandlers.
@@ -21,7 +23,7 @@ public abstract class PacketHandler {
     protected final DiscordApiImpl api;
     private final String type;
     private final boolean async;
-    private ExecutorService executorService;
+    private PartitionedExecutor executor;
 
     /**
      * Creates a new instance of this class.
@@ -35,7 +37,9 @@ public abstract class PacketHandler {
         this.async = async;
         this.type = type;
         if (async) {
-            executorService = api.getThreadPool().getSingleThreadExecutorService("Handlers Processor");
+            ThreadPoolImpl threadPool = (ThreadPoolImpl) api.getThreadPool();
+            executor = threadPool.getPartitionedExecutor(
+                    "Handlers Processor - %d", threadPool.getPacketHandlerThreadCount());
         }
     }
 
@@ -46,7 +50,7 @@ public abstract class PacketHandler {
      */
     public void handlePacket(final JsonNode packet) {
         if (async) {
-            executorService.submit(() -> {
+            executor.execute(getLaneKey(packet), () -> {
                 try {
                     handle(packet);
                 } catch (Throwable t) {
@@ -64,6 +68,44 @@ public abstract class PacketHandler {
         }
     }
 
+    /**
+     * Gets the executor which handles the packets if they are handled asynchronously.
+     *
+     * @return The executor or an empty optional if the packets are handled in the websocket thread.
+     */
+    public Optional<PartitionedExecutor> getExecutor() {
+        return Optional.ofNullable(executor);
+    }
+
+    /**
+     * Gets the key of the lane in which the packet is handled.
+     * Packets in the same lane are handled sequentially in the order they were received, packets in different lanes
+     * are handled concurrently.
+     *
+     * <p>By default, packets are handled in the lane of their server and packets without a server in the global lane
+     * of the shard.
+     *
+     * @param packet The packet (the "d"-object).
+     * @return The key of the lane.
+     */
+    protected long getLaneKey(JsonNode packet) {
+        if ((packet == null) || !packet.hasNonNull("guild_id")) {
+            return getGlobalLaneKey();
+        }
+        return packet.get("guild_id").asLong();
+    }
+
+    /**
+     * Gets the key of the lane for packets which do not belong to a server.
+     * The shards of a shard manager share the executor, so every shard has its own global lane. The keys are
+     * negative, so they never collide with the id of a server.
+     *
+     * @return The key of the global lane.
+     */
+    protected long getGlobalLaneKey() {
+        return -1L - api.getCurrentShard();
+    }
+
     /**
      * This method is called by the super class to handle the packet.
      *
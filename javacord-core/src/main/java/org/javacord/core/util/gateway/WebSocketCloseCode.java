@@ -252,6 +252,12 @@ public enum WebSocketCloseCode {
      */
     UNKNOWN_ENCRYPTION_MODE(4016, Usage.VOICE),
 
+    /**
+     * We disconnect, but want to resume the session later, e.g. after a restart. Discord invalidates the session when
+     * the connection is closed with 1000 or 1001, thus 4997 is used which is unlikely to get assigned by Discord.
+     */
+    RESUMABLE_DISCONNECT(4997, Usage.NORMAL),
+
     /**
      * We reconnect after receiving an INVALID_SESSION packet, and there is no pre-defined matching close reason,
      * thus 4998 is used which is unlikely to get assigned by Discord.
@@ -6,9 +6,11 @@ package org.javacord.core.util.gateway;
 public enum WebSocketCloseReason {
 
     DISCONNECT(WebSocketCloseCode.NORMAL),
+    RESUMABLE_DISCONNECT(WebSocketCloseCode.RESUMABLE_DISCONNECT, "Disconnecting to resume the session later"),
     HEARTBEAT_NOT_PROPERLY_ANSWERED(WebSocketCloseCode.UNKNOWN_ERROR, "Heartbeat was not answered properly"),
     INVALID_SESSION_RECONNECT(WebSocketCloseCode.INVALID_SESSION_RECONNECT, "Session is invalid (Received opcode 9)"),
-    COMMANDED_RECONNECT(WebSocketCloseCode.COMMANDED_RECONNECT, "Discord commanded a reconnect (Received opcode 7)");
+    COMMANDED_RECONNECT(WebSocketCloseCode.COMMANDED_RECONNECT, "Discord commanded a reconnect (Received opcode 7)"),
+    TRANSPORT_DECOMPRESSION_FAILED(WebSocketCloseCode.UNKNOWN_ERROR, "Failed to decompress the zlib-stream");
 
     /**
      * The web socket close code.
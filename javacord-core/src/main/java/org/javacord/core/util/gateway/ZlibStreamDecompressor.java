@@ -0,0 +1,135 @@
+package org.javacord.core.util.gateway;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A decompressor for the zlib-stream transport compression of the gateway.
+ *
+ * <p>All messages of a single gateway connection share one zlib context, so one instance of this class has to be used
+ * for exactly one connection. A message is complete once the received data ends with the {@code Z_SYNC_FLUSH} suffix
+ * ({@code 00 00 FF FF}). The input and output buffers are reused for all messages of the connection, so the result
+ * of {@link #decompress(byte[])} is only valid until the next invocation.
+ */
+public class ZlibStreamDecompressor implements AutoCloseable {
+
+    /**
+     * The initial size of the input and output buffers.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The maximum size of buffers that are kept after a message was processed.
+     * Bigger buffers (e.g. from a huge {@code READY} packet) are released to not permanently waste memory.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private final Inflater inflater = new Inflater();
+
+    private byte[] inputBuffer = new byte[INITIAL_BUFFER_SIZE];
+    private int inputLength = 0;
+
+    private byte[] outputBuffer = new byte[INITIAL_BUFFER_SIZE];
+    private int outputLength = 0;
+
+    private boolean closed = false;
+
+    /**
+     * Checks if the given data ends with the {@code Z_SYNC_FLUSH} suffix.
+     *
+     * @param data The data to check.
+     * @param length The length of the data.
+     * @return Whether the data ends with the suffix.
+     */
+    static boolean endsWithSyncFlushSuffix(byte[] data, int length) {
+        return length >= 4
+                && data[length - 4] == 0x00
+                && data[length - 3] == 0x00
+                && data[length - 2] == (byte) 0xFF
+                && data[length - 1] == (byte) 0xFF;
+    }
+
+    /**
+     * Decompresses the given chunk of the zlib stream.
+     *
+     * @param data The received binary data.
+     * @return A buffer with the decompressed message or {@code null} if the message is not complete yet.
+     *         The buffer is backed by the reused output array and must be consumed before the next invocation.
+     * @throws DataFormatException If the compressed data format is invalid.
+     */
+    public synchronized ByteBuffer decompress(byte[] data) throws DataFormatException {
+        if (closed) {
+            throw new IllegalStateException("The decompressor was already closed");
+        }
+
+        byte[] input;
+        int length;
+        if (inputLength == 0 && endsWithSyncFlushSuffix(data, data.length)) {
+            // the common case: a complete message in a single frame, no need to copy it
+            input = data;
+            length = data.length;
+        } else {
+            appendInput(data);
+            if (!endsWithSyncFlushSuffix(inputBuffer, inputLength)) {
+                return null;
+            }
+            input = inputBuffer;
+            length = inputLength;
+        }
+
+        try {
+            inflater.setInput(input, 0, length);
+            outputLength = 0;
+            while (true) {
+                if (outputLength == outputBuffer.length) {
+                    outputBuffer = Arrays.copyOf(outputBuffer, outputBuffer.length * 2);
+                }
+                outputLength += inflater.inflate(outputBuffer, outputLength, outputBuffer.length - outputLength);
+                // if the output buffer was not filled, everything that was received is inflated
+                if (outputLength < outputBuffer.length) {
+                    break;
+                }
+            }
+            ByteBuffer result = ByteBuffer.wrap(outputBuffer, 0, outputLength);
+            if (outputBuffer.length > MAX_RETAINED_BUFFER_SIZE) {
+                // the returned buffer keeps the big array alive until it is consumed
+                outputBuffer = new byte[INITIAL_BUFFER_SIZE];
+            }
+            return result;
+        } finally {
+            inputLength = 0;
+            if (inputBuffer.length > MAX_RETAINED_BUFFER_SIZE) {
+                inputBuffer = new byte[INITIAL_BUFFER_SIZE];
+            }
+        }
+    }
+
+    /**
+     * Appends the given data to the input buffer, growing it if necessary.
+     *
+     * @param data The data to append.
+     */
+    private void appendInput(byte[] data) {
+        int requiredLength = inputLength + data.length;
+        if (requiredLength > inputBuffer.length) {
+            inputBuffer = Arrays.copyOf(inputBuffer, Math.max(requiredLength, inputBuffer.length * 2));
+        }
+        System.arraycopy(data, 0, inputBuffer, inputLength, data.length);
+        inputLength = requiredLength;
+    }
+
+    /**
+     * Releases the native resources of the zlib context.
+     * The decompressor cannot be used anymore afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            inflater.end();
+        }
+    }
+
+}
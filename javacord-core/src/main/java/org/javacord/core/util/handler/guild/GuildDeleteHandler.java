@@ -24,9 +24,18 @@ public class GuildDeleteHandler extends PacketHandler {
         super(api, true, "GUILD_DELETE");
     }
 
+    @Override
+    protected long getLaneKey(JsonNode packet) {
+        // the packet is the server itself
+        return packet.get("id").asLong();
+    }
+
     @Override
     public void handle(JsonNode packet) {
         long serverId = packet.get("id").asLong();
+        // the members of a removed server are not sent anymore
+        api.getWebSocketAdapter().getGuildMembersRequester().failPendingRequests(
+                serverId, new IllegalStateException("The server was removed before all members were received"));
         if (packet.has("unavailable") && packet.get("unavailable").asBoolean()) {
             api.addUnavailableServerToCache(serverId);
             api.getPossiblyUnreadyServerById(serverId).ifPresent(server -> {
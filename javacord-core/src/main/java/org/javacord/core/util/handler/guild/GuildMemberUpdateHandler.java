@@ -73,6 +73,8 @@ public class GuildMemberUpdateHandler extends PacketHandler {
                     Member oldMember = server.getRealMemberById(userId).orElse(null);
 
                     api.addMemberToCacheOrReplaceExisting(newMember);
+                    // the memoized permissions would not be used anymore, as they belong to the old member object
+                    server.getPermissionsCache().invalidate(userId);
 
                     if (oldMember == null) {
                         // Should only happen shortly after startup and is unproblematic
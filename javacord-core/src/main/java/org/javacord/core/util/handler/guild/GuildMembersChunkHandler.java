@@ -5,8 +5,11 @@ import org.javacord.api.DiscordApi;
 import org.javacord.core.entity.server.ServerImpl;
 import org.javacord.core.entity.user.Member;
 import org.javacord.core.event.server.member.ServerMembersChunkEventImpl;
+import org.javacord.core.util.gateway.GuildMembersRequest;
+import org.javacord.core.util.gateway.GuildMembersRequester;
 import org.javacord.core.util.gateway.PacketHandler;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -25,16 +28,31 @@ public class GuildMembersChunkHandler extends PacketHandler {
 
     @Override
     public void handle(JsonNode packet) {
+        GuildMembersRequester requester = api.getWebSocketAdapter().getGuildMembersRequester();
+        Optional<GuildMembersRequest> request =
+                requester.getPendingRequest(packet.hasNonNull("nonce") ? packet.get("nonce").asText() : null);
+        int chunkIndex = packet.get("chunk_index").asInt();
+        int chunkCount = packet.get("chunk_count").asInt();
+        // chunks without a known nonce were not requested by this shard and are assumed to contain all members
+        boolean lastChunk = request.map(r -> r.receiveChunk(chunkIndex, chunkCount))
+                .orElse(chunkIndex == chunkCount - 1);
+        boolean ready = lastChunk && request.map(GuildMembersRequest::isForAllMembers).orElse(true);
+
         api.getPossiblyUnreadyServerById(packet.get("guild_id").asLong())
                 .map(ServerImpl.class::cast)
                 .ifPresent(server -> {
-                    boolean ready = packet.get("chunk_index").asInt() == (packet.get("chunk_count").asInt() - 1);
-                    List<Member> members = server.addAndGetMembers(packet.get("members"), ready);
+                    List<Member> members = server.addAndGetMembers(
+                            packet.get("members"), packet.get("presences"), ready);
                     ServerMembersChunkEventImpl event = new ServerMembersChunkEventImpl(
                             server,
                             members.stream().map(Member::getUser).collect(Collectors.toSet())
                     );
                     api.getEventDispatcher().dispatchServerMembersChunkEvent(server, server, event);
                 });
+
+        requester.onChunkReceived();
+        if (lastChunk) {
+            request.ifPresent(r -> r.getFuture().complete(null));
+        }
     }
-}
\ No newline at end of file
+}
@@ -37,9 +37,14 @@ import org.javacord.core.interaction.ModalInteractionImpl;
 import org.javacord.core.interaction.SelectMenuInteractionImpl;
 import org.javacord.core.interaction.SlashCommandInteractionImpl;
 import org.javacord.core.interaction.UserContextMenuInteractionImpl;
+import org.javacord.core.util.concurrent.PartitionedExecutor;
+import org.javacord.core.util.concurrent.ThreadPoolImpl;
+import org.javacord.core.util.event.DispatchQueueSelector;
 import org.javacord.core.util.gateway.PacketHandler;
 import org.javacord.core.util.logging.LoggerUtil;
 
+import java.util.Optional;
+
 /**
  * Handles the guild create packet.
  */
@@ -47,17 +52,61 @@ public class InteractionCreateHandler extends PacketHandler {
 
     private static final Logger logger = LoggerUtil.getLogger(InteractionCreateHandler.class);
 
+    /**
+     * The executor which handles the interactions, separate from the one of all other packets.
+     */
+    private final PartitionedExecutor executor;
+
     /**
      * Creates a new instance of this class.
      *
      * @param api The api.
      */
     public InteractionCreateHandler(DiscordApi api) {
-        super(api, true, "INTERACTION_CREATE");
+        super(api, false, "INTERACTION_CREATE");
+        ThreadPoolImpl threadPool = (ThreadPoolImpl) api.getThreadPool();
+        executor = threadPool.getPartitionedExecutor(
+                "Interactions Processor - %d", threadPool.getPacketHandlerThreadCount());
+    }
+
+    /**
+     * Handles the packet in its own lane of the interactions processor.
+     *
+     * <p>Interactions must be acknowledged within 3 seconds, so they do not wait behind other packets of their server,
+     * like member chunks, and their events do not wait behind other events of their server.
+     *
+     * @param packet The packet (the "d"-object).
+     */
+    @Override
+    public void handlePacket(JsonNode packet) {
+        long receivedNanoTime = System.nanoTime();
+        executor.execute(packet.get("id").asLong(), () -> {
+            try {
+                handle(packet, receivedNanoTime);
+            } catch (Throwable t) {
+                logger.warn("Couldn't handle packet of type {}. Please contact the developer! (packet: {})",
+                        getType(), packet, t);
+            }
+        });
+    }
+
+    @Override
+    public Optional<PartitionedExecutor> getExecutor() {
+        return Optional.of(executor);
     }
 
     @Override
     public void handle(JsonNode packet) {
+        handle(packet, System.nanoTime());
+    }
+
+    /**
+     * Handles the packet.
+     *
+     * @param packet The packet (the "d"-object).
+     * @param receivedNanoTime The time the packet was received, using {@link System#nanoTime()}.
+     */
+    private void handle(JsonNode packet, long receivedNanoTime) {
         TextChannel channel = null;
         if (packet.hasNonNull("channel")) {
             long channelId = packet.get("channel").get("id").asLong();
@@ -125,9 +174,11 @@ public class InteractionCreateHandler extends PacketHandler {
         InteractionCreateEvent event = new InteractionCreateEventImpl(interaction);
 
         ServerImpl server = (ServerImpl) interaction.getServer().orElse(null);
+        DispatchQueueSelector queueSelector = api.getEventDispatcher()
+                .createInteractionQueueSelector(server == null ? api : server, receivedNanoTime);
 
         api.getEventDispatcher().dispatchInteractionCreateEvent(
-                server == null ? api : server,
+                queueSelector,
                 server,
                 interaction.getChannel().orElse(null),
                 interaction.getUser(),
@@ -143,7 +194,7 @@ public class InteractionCreateHandler extends PacketHandler {
                         SlashCommandCreateEvent slashCommandCreateEvent =
                                 new SlashCommandCreateEventImpl(interaction);
                         api.getEventDispatcher().dispatchSlashCommandCreateEvent(
-                                server == null ? api : server,
+                                queueSelector,
                                 server,
                                 interaction.getChannel().orElse(null),
                                 interaction.getUser(),
@@ -153,7 +204,7 @@ public class InteractionCreateHandler extends PacketHandler {
                         UserContextMenuCommandEvent userContextMenuCommandEvent =
                                 new UserContextMenuCommandEventImpl(interaction);
                         api.getEventDispatcher().dispatchUserContextMenuCommandEvent(
-                                server,
+                                queueSelector,
                                 server,
                                 interaction.getChannel().orElse(null),
                                 interaction.getUser(),
@@ -163,7 +214,7 @@ public class InteractionCreateHandler extends PacketHandler {
                         MessageContextMenuCommandEvent messageContextMenuCommandEvent =
                                 new MessageContextMenuCommandEventImpl(interaction);
                         api.getEventDispatcher().dispatchMessageContextMenuCommandEvent(
-                                server,
+                                queueSelector,
                                 interaction.asMessageContextMenuInteraction().orElseThrow(AssertionError::new)
                                         .getTarget().getId(),
                                 server,
@@ -183,7 +234,7 @@ public class InteractionCreateHandler extends PacketHandler {
                         new MessageComponentCreateEventImpl(interaction);
                 long messageId = messageComponentCreateEvent.getMessageComponentInteraction().getMessage().getId();
                 api.getEventDispatcher().dispatchMessageComponentCreateEvent(
-                        server == null ? api : server,
+                        queueSelector,
                         messageId,
                         server,
                         interaction.getChannel().orElse(null),
@@ -193,7 +244,7 @@ public class InteractionCreateHandler extends PacketHandler {
                 if (componentType == ComponentType.BUTTON) {
                     ButtonClickEvent buttonClickEvent = new ButtonClickEventImpl(interaction);
                     api.getEventDispatcher().dispatchButtonClickEvent(
-                            server == null ? api : server,
+                            queueSelector,
                             messageId,
                             server,
                             interaction.getChannel().orElse(null),
@@ -202,7 +253,7 @@ public class InteractionCreateHandler extends PacketHandler {
                 } else if (componentType.isSelectMenuType()) {
                     SelectMenuChooseEvent selectMenuChooseEvent = new SelectMenuChooseEventImpl(interaction);
                     api.getEventDispatcher().dispatchSelectMenuChooseEvent(
-                            server == null ? api : server,
+                            queueSelector,
                             messageId,
                             server,
                             interaction.getChannel().orElse(null),
@@ -213,7 +264,7 @@ public class InteractionCreateHandler extends PacketHandler {
             case APPLICATION_COMMAND_AUTOCOMPLETE:
                 AutocompleteCreateEvent autocompleteCreateEvent = new AutocompleteCreateEventImpl(interaction);
                 api.getEventDispatcher().dispatchAutocompleteCreateEvent(
-                        server == null ? api : server,
+                        queueSelector,
                         server,
                         interaction.getChannel().orElse(null),
                         interaction.getUser(),
@@ -222,7 +273,7 @@ public class InteractionCreateHandler extends PacketHandler {
             case MODAL_SUBMIT:
                 ModalSubmitEvent modalSubmitEvent = new ModalSubmitEventImpl(interaction);
                 api.getEventDispatcher().dispatchModalSubmitEvent(
-                        server == null ? api : server,
+                        queueSelector,
                         server,
                         interaction.getChannel().orElse(null),
                         interaction.getUser(),
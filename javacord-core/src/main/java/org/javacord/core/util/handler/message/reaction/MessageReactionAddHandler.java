@@ -8,6 +8,7 @@ import org.javacord.api.entity.emoji.Emoji;
 import org.javacord.api.entity.message.Message;
 import org.javacord.api.entity.server.Server;
 import org.javacord.api.event.message.reaction.ReactionAddEvent;
+import org.javacord.api.listener.message.reaction.ReactionAddListener;
 import org.javacord.core.entity.channel.PrivateChannelImpl;
 import org.javacord.core.entity.emoji.UnicodeEmojiImpl;
 import org.javacord.core.entity.message.MessageImpl;
@@ -61,10 +62,6 @@ public class MessageReactionAddHandler extends PacketHandler {
 
         Optional<Server> server = api.getServerById(serverId);
 
-        Member member = null;
-        if (packet.hasNonNull("member") && server.isPresent()) {
-            member = new MemberImpl(api, (ServerImpl) server.get(), packet.get("member"), null);
-        }
         Optional<Message> message = api.getCachedMessageById(messageId);
 
         Emoji emoji;
@@ -77,6 +74,15 @@ public class MessageReactionAddHandler extends PacketHandler {
 
         message.ifPresent(msg -> ((MessageImpl) msg).addReaction(emoji, userId == api.getYourself().getId()));
 
+        if (!api.getEventDispatcher().hasListeners(ReactionAddListener.class)) {
+            return;
+        }
+
+        Member member = null;
+        if (packet.hasNonNull("member") && server.isPresent()) {
+            member = new MemberImpl(api, (ServerImpl) server.get(), packet.get("member"), null);
+        }
+
         ReactionAddEvent event = new ReactionAddEventImpl(api, messageId, channel, emoji, userId, member);
 
         api.getEventDispatcher().dispatchReactionAddEvent(
@@ -9,6 +9,8 @@ import org.javacord.api.entity.activity.Activity;
 import org.javacord.api.entity.user.UserStatus;
 import org.javacord.api.event.user.UserChangeActivityEvent;
 import org.javacord.api.event.user.UserChangeStatusEvent;
+import org.javacord.api.listener.user.UserChangeActivityListener;
+import org.javacord.api.listener.user.UserChangeStatusListener;
 import org.javacord.core.entity.activity.ActivityImpl;
 import org.javacord.core.entity.user.UserImpl;
 import org.javacord.core.entity.user.UserPresence;
@@ -43,7 +45,7 @@ public class PresenceUpdateHandler extends PacketHandler {
         long userId = packet.get("user").get("id").asLong();
 
         AtomicReference<UserPresence> presence = new AtomicReference<>(
-                api.getEntityCache().get().getUserPresenceCache().getPresenceByUserId(userId)
+                api.getEntityCache().getUserPresenceCache().getPresenceByUserId(userId)
                         .orElseGet(() -> new UserPresence(userId, null, null, io.vavr.collection.HashMap.empty()))
         );
 
@@ -54,19 +56,20 @@ public class PresenceUpdateHandler extends PacketHandler {
                     newActivities.add(new ActivityImpl(api, activityJson));
                 }
             }
-            Set<Activity> oldActivities = api.getEntityCache().get()
+            Set<Activity> oldActivities = api.getEntityCache()
                     .getUserPresenceCache()
                     .getPresenceByUserId(userId)
                     .map(UserPresence::getActivities)
                     .orElse(Collections.emptySet());
             presence.set(presence.get().setActivities(newActivities));
 
-            if (!Objects.deepEquals(newActivities.toArray(), oldActivities.toArray())) {
+            if (api.getEventDispatcher().hasListeners(UserChangeActivityListener.class)
+                    && !Objects.deepEquals(newActivities.toArray(), oldActivities.toArray())) {
                 dispatchUserActivityChangeEvent(userId, newActivities, oldActivities);
             }
         }
 
-        UserStatus oldStatus = api.getEntityCache().get().getUserPresenceCache().getPresenceByUserId(userId)
+        UserStatus oldStatus = api.getEntityCache().getUserPresenceCache().getPresenceByUserId(userId)
                 .map(UserPresence::getStatus)
                 .orElse(UserStatus.OFFLINE);
         UserStatus newStatus;
@@ -76,7 +79,7 @@ public class PresenceUpdateHandler extends PacketHandler {
         } else {
             newStatus = oldStatus;
         }
-        Map<DiscordClient, UserStatus> oldClientStatus = api.getEntityCache().get().getUserPresenceCache()
+        Map<DiscordClient, UserStatus> oldClientStatus = api.getEntityCache().getUserPresenceCache()
                 .getPresenceByUserId(userId)
                 .map(UserPresence::getClientStatus)
                 .orElse(HashMap.empty());
@@ -92,13 +95,16 @@ public class PresenceUpdateHandler extends PacketHandler {
                 }
             }
         }
-        Map<DiscordClient, UserStatus> newClientStatus = api.getEntityCache().get().getUserPresenceCache()
+        Map<DiscordClient, UserStatus> newClientStatus = api.getEntityCache().getUserPresenceCache()
                 .getPresenceByUserId(userId)
                 .map(UserPresence::getClientStatus)
                 .orElse(HashMap.empty());
 
         api.updateUserPresence(userId, p -> presence.get());
 
+        if (!api.getEventDispatcher().hasListeners(UserChangeStatusListener.class)) {
+            return;
+        }
         dispatchUserStatusChangeEventIfChangeDetected(userId, newStatus, oldStatus, newClientStatus, oldClientStatus);
     }
 
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.javacord.api.DiscordApi;
 import org.javacord.api.entity.channel.TextChannel;
 import org.javacord.api.event.user.UserStartTypingEvent;
+import org.javacord.api.listener.user.UserStartTypingListener;
 import org.javacord.core.entity.server.ServerImpl;
 import org.javacord.core.entity.user.MemberImpl;
 import org.javacord.core.event.user.UserStartTypingEventImpl;
@@ -25,6 +26,10 @@ public class TypingStartHandler extends PacketHandler {
 
     @Override
     public void handle(JsonNode packet) {
+        // this packet does not update the cache
+        if (!api.getEventDispatcher().hasListeners(UserStartTypingListener.class)) {
+            return;
+        }
         long userId = packet.get("user_id").asLong();
         long channelId = packet.get("channel_id").asLong();
         TextChannel channel = api.getTextChannelById(channelId).orElse(null);
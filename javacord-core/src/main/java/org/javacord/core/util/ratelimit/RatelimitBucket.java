@@ -1,50 +1,62 @@
 package org.javacord.core.util.ratelimit;
 
 import org.javacord.api.DiscordApi;
-import org.javacord.core.DiscordApiImpl;
-import org.javacord.core.util.rest.RestEndpoint;
-import org.javacord.core.util.rest.RestRequest;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * A ratelimit bucket of Discord.
+ *
+ * <p>Discord reports the bucket of a route with the {@code X-RateLimit-Bucket} header. All routes with the same bucket
+ * hash and the same major url parameter share their ratelimit, so they share the same instance of this class.
+ *
+ * <p>All timestamps are local timestamps.
+ */
 public class RatelimitBucket {
 
     // The key is the token, as global ratelimits are shared across the same account.
     private static final Map<String, Long> globalRatelimitResetTimestamp = new ConcurrentHashMap<>();
 
-    private final DiscordApiImpl api;
+    /**
+     * The time in milliseconds to wait before trying again while a probe request is in flight.
+     */
+    private static final int PROBE_RETRY_DELAY = 50;
 
-    private final ConcurrentLinkedQueue<RestRequest<?>> requestQueue = new ConcurrentLinkedQueue<>();
+    private final DiscordApi api;
 
-    private final RestEndpoint endpoint;
-    private final String majorUrlParameter;
+    private final String key;
 
-    private volatile long ratelimitResetTimestamp = 0;
-    private volatile int ratelimitRemaining = 1;
+    /**
+     * The remaining requests till ratelimit.
+     * It is unknown for a new bucket, so its first request is sent as a probe.
+     * Guarded by {@code this}.
+     */
+    private int ratelimitRemaining = 0;
 
     /**
-     * Creates a RatelimitBucket for the given endpoint / parameter combination.
-     *
-     * @param api The api/shard to use.
-     * @param endpoint The REST endpoint the ratelimit is tracked for.
+     * The timestamp when the ratelimit resets.
+     * Guarded by {@code this}.
      */
-    public RatelimitBucket(DiscordApi api, RestEndpoint endpoint) {
-        this(api, endpoint, null);
-    }
+    private long ratelimitResetTimestamp = 0;
 
     /**
-     * Creates a RatelimitBucket for the given endpoint / parameter combination.
+     * Whether a request was sent after the ratelimit reset and its response, which tells the new remaining requests,
+     * was not received yet.
+     * Guarded by {@code this}.
+     */
+    private boolean probeInFlight = false;
+
+    /**
+     * Creates a new ratelimit bucket.
      *
      * @param api The api/shard to use.
-     * @param endpoint The REST endpoint the ratelimit is tracked for.
-     * @param majorUrlParameter The url parameter this bucket is specific for. May be null.
+     * @param key The key of the bucket, consisting of the bucket hash (or the route if the hash is not known yet)
+     *            and the major url parameter.
      */
-    public RatelimitBucket(DiscordApi api, RestEndpoint endpoint, String majorUrlParameter) {
-        this.api = (DiscordApiImpl) api;
-        this.endpoint = endpoint;
-        this.majorUrlParameter = majorUrlParameter;
+    public RatelimitBucket(DiscordApi api, String key) {
+        this.api = api;
+        this.key = key;
     }
 
     /**
@@ -58,106 +70,75 @@ public class RatelimitBucket {
     }
 
     /**
-     * Adds the given request to the bucket's queue.
+     * Gets the key of the bucket.
      *
-     * @param request The request to add.
+     * @return The key of the bucket.
      */
-    public void addRequestToQueue(RestRequest<?> request) {
-        requestQueue.add(request);
+    public String getKey() {
+        return key;
     }
 
     /**
-     * Polls a request from the bucket's queue.
-     *
-     * @return The polled request.
-     */
-    public RestRequest<?> pollRequestFromQueue() {
-        return requestQueue.poll();
-    }
-
-    /**
-     * Peeks a request from the bucket's queue.
-     *
-     * @return The peeked request.
-     */
-    public RestRequest<?> peekRequestFromQueue() {
-        return requestQueue.peek();
-    }
-
-    /**
-     * Sets the remaining requests till ratelimit.
+     * Updates the ratelimit information of the bucket.
      *
      * @param ratelimitRemaining The remaining requests till ratelimit.
-     */
-    public void setRatelimitRemaining(int ratelimitRemaining) {
-        this.ratelimitRemaining = ratelimitRemaining;
-    }
-
-    /**
-     * Sets the ratelimit reset timestamp.
-     *
      * @param ratelimitResetTimestamp The ratelimit reset timestamp.
      */
-    public void setRatelimitResetTimestamp(long ratelimitResetTimestamp) {
+    public synchronized void update(int ratelimitRemaining, long ratelimitResetTimestamp) {
+        this.ratelimitRemaining = ratelimitRemaining;
         this.ratelimitResetTimestamp = ratelimitResetTimestamp;
     }
 
     /**
-     * Gets the time in seconds how long you have to wait till there's space in the bucket again.
+     * Tries to reserve space in the bucket for a request.
      *
-     * @return The time in seconds how long you have to wait till there's space in the bucket again.
+     * <p>As a bucket can be shared by multiple routes that are executed concurrently, the space is taken in the same
+     * step it is checked.
+     *
+     * @return {@code 0} if space was reserved, otherwise the time in milliseconds to wait before trying again.
      */
-    public int getTimeTillSpaceGetsAvailable() {
+    public synchronized int reserve() {
         long globalRatelimitResetTimestamp =
                 RatelimitBucket.globalRatelimitResetTimestamp.getOrDefault(api.getToken(), 0L);
-        long timestamp = System.currentTimeMillis() + (api.getTimeOffset() == null ? 0 : api.getTimeOffset());
-        if (ratelimitRemaining > 0 && (globalRatelimitResetTimestamp - timestamp) <= 0) {
+        long timestamp = System.currentTimeMillis();
+        if (globalRatelimitResetTimestamp > timestamp) {
+            return (int) (globalRatelimitResetTimestamp - timestamp);
+        }
+        if (ratelimitRemaining > 0) {
+            ratelimitRemaining--;
             return 0;
         }
-        return (int) (Math.max(ratelimitResetTimestamp, globalRatelimitResetTimestamp) - timestamp);
+        if (ratelimitResetTimestamp > timestamp) {
+            return (int) (ratelimitResetTimestamp - timestamp);
+        }
+        // the ratelimit already reset, only a single request is sent until its response tells us the new remaining
+        // requests, so the routes which share the bucket do not send all of their requests at once
+        if (probeInFlight) {
+            return PROBE_RETRY_DELAY;
+        }
+        probeInFlight = true;
+        return 0;
     }
 
     /**
-     * Checks if a bucket created with the given parameters would equal this bucket.
-     *
-     * @param endpoint The endpoint.
-     * @param majorUrlParameter The major url parameter.
-     * @return Whether a bucket created with the given parameters would equal this bucket or not.
+     * Notes that a request for which space was reserved in this bucket finished.
+     * This must be called after the ratelimit information of its response was {@link #update(int, long) updated}.
      */
-    public boolean equals(RestEndpoint endpoint, String majorUrlParameter) {
-        boolean endpointSame = this.endpoint == endpoint;
-        boolean majorUrlParameterBothNull = this.majorUrlParameter == null && majorUrlParameter == null;
-        boolean majorUrlParameterEqual =
-                this.majorUrlParameter != null && this.majorUrlParameter.equals(majorUrlParameter);
-
-        return endpointSame && (majorUrlParameterBothNull || majorUrlParameterEqual);
-    }
-
-
-    @Override
-    public boolean equals(Object obj) {
-        if (!(obj instanceof RatelimitBucket)) {
-            return false;
-        }
-        RatelimitBucket otherBucket = (RatelimitBucket) obj;
-        return equals(otherBucket.endpoint, otherBucket.majorUrlParameter);
+    public synchronized void requestFinished() {
+        probeInFlight = false;
     }
 
-    @Override
-    public int hashCode() {
-        int hash = 42;
-        int urlParamHash = majorUrlParameter == null ? 0 : majorUrlParameter.hashCode();
-        int endpointHash = endpoint == null ? 0 : endpoint.hashCode();
-
-        hash = hash * 11 + urlParamHash;
-        hash = hash * 17 + endpointHash;
-        return hash;
+    /**
+     * Checks if the ratelimit of this bucket already reset, so its information is not needed anymore.
+     *
+     * @return Whether the ratelimit of this bucket already reset.
+     */
+    public synchronized boolean isExpired() {
+        return ratelimitResetTimestamp <= System.currentTimeMillis();
     }
 
     @Override
     public String toString() {
-        String str = "Endpoint: " + (endpoint == null ? "global" : endpoint.getEndpointUrl());
-        str += ", Major url parameter:" + (majorUrlParameter == null ? "none" : majorUrlParameter);
-        return str;
+        return "Bucket: " + key;
     }
 }
@@ -3,17 +3,31 @@ package org.javacord.core.util.ratelimit;
 import okhttp3.Response;
 import org.apache.logging.log4j.Logger;
 import org.javacord.api.exception.DiscordException;
+import org.javacord.api.util.ratelimit.Ratelimiter;
 import org.javacord.core.DiscordApiImpl;
+import org.javacord.core.util.concurrent.ThreadPoolImpl;
 import org.javacord.core.util.logging.LoggerUtil;
+import org.javacord.core.util.rest.RestEndpoint;
+import org.javacord.core.util.rest.RestMethod;
 import org.javacord.core.util.rest.RestRequest;
 import org.javacord.core.util.rest.RestRequestResponseInformationImpl;
 import org.javacord.core.util.rest.RestRequestResult;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
@@ -26,15 +40,49 @@ public class RatelimitManager {
      */
     private static final Logger logger = LoggerUtil.getLogger(RatelimitManager.class);
 
+    /**
+     * The value that is used as major url parameter for requests without one.
+     */
+    private static final String NO_MAJOR_URL_PARAMETER = "";
+
+    /**
+     * After how many drained request queues buckets whose ratelimit already reset are removed.
+     */
+    private static final int BUCKET_CLEANUP_INTERVAL = 1024;
+
     /**
      * The discord api instance for this ratelimit manager.
      */
     private final DiscordApiImpl api;
 
     /**
-     * All buckets.
+     * The thread pool which executes the requests or {@code null} to use the thread pool of the api.
+     */
+    private final ThreadPoolImpl threadPool;
+
+    /**
+     * The queued requests by endpoint and major url parameter.
+     * Requests with the same endpoint and major url parameter are executed one after another.
+     * A queue is removed as soon as it is empty.
+     */
+    private final Map<RestEndpoint, ConcurrentHashMap<String, Queue<RestRequest<?>>>> queues =
+            new EnumMap<>(RestEndpoint.class);
+
+    /**
+     * The bucket hashes Discord reported for the routes, by endpoint and method.
+     */
+    private final Map<RestEndpoint, ConcurrentHashMap<RestMethod, String>> bucketHashes =
+            new EnumMap<>(RestEndpoint.class);
+
+    /**
+     * All buckets by their key.
      */
-    private final Set<RatelimitBucket> buckets = new HashSet<>();
+    private final ConcurrentHashMap<String, RatelimitBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of drained request queues, used to trigger the cleanup of the buckets.
+     */
+    private final AtomicInteger drainedQueues = new AtomicInteger();
 
     /**
      * Creates a new ratelimit manager.
@@ -42,7 +90,23 @@ public class RatelimitManager {
      * @param api The discord api instance for this ratelimit manager.
      */
     public RatelimitManager(DiscordApiImpl api) {
+        this(api, null);
+    }
+
+    /**
+     * Creates a new ratelimit manager which is shared by multiple shards.
+     *
+     * @param api The discord api instance which provides the token, the global ratelimiter and the time offset.
+     * @param threadPool The thread pool which executes the requests or {@code null} to use the thread pool of the api.
+     */
+    public RatelimitManager(DiscordApiImpl api, ThreadPoolImpl threadPool) {
         this.api = api;
+        this.threadPool = threadPool;
+        // the maps are only modified here, so they can be read concurrently afterwards
+        for (RestEndpoint endpoint : RestEndpoint.values()) {
+            queues.put(endpoint, new ConcurrentHashMap<>());
+            bucketHashes.put(endpoint, new ConcurrentHashMap<>());
+        }
     }
 
     /**
@@ -50,8 +114,32 @@ public class RatelimitManager {
      *
      * @return All ratelimit buckets.
      */
-    public Set<RatelimitBucket> getBuckets() {
-        return buckets;
+    public Collection<RatelimitBucket> getBuckets() {
+        return Collections.unmodifiableCollection(buckets.values());
+    }
+
+    /**
+     * Gets the thread pool which executes the requests.
+     *
+     * @return The thread pool which executes the requests.
+     */
+    private ThreadPoolImpl getThreadPool() {
+        return threadPool == null ? (ThreadPoolImpl) api.getThreadPool() : threadPool;
+    }
+
+    /**
+     * Gets the bucket of the given request.
+     *
+     * <p>Until Discord reported the bucket hash of the request's route, the route is used as its own bucket.
+     *
+     * @param request The request.
+     * @return The bucket of the request.
+     */
+    public RatelimitBucket getBucket(RestRequest<?> request) {
+        String bucketHash = bucketHashes.get(request.getEndpoint()).get(request.getMethod());
+        String key = (bucketHash == null ? request.getMethod() + " " + request.getEndpoint().name() : bucketHash)
+                + ":" + request.getMajorUrlParameter().orElse(NO_MAJOR_URL_PARAMETER);
+        return buckets.computeIfAbsent(key, k -> new RatelimitBucket(api, k));
     }
 
     /**
@@ -61,101 +149,25 @@ public class RatelimitManager {
      * @param request The request to queue.
      */
     public void queueRequest(RestRequest<?> request) {
-        final RatelimitBucket bucket;
-        final boolean alreadyInQueue;
-        synchronized (buckets) {
-            // Search for a bucket that fits to this request
-            bucket = buckets.stream()
-                    .filter(b -> b.equals(request.getEndpoint(), request.getMajorUrlParameter().orElse(null)))
-                    .findAny()
-                    .orElseGet(() -> new RatelimitBucket(
-                            api, request.getEndpoint(), request.getMajorUrlParameter().orElse(null)));
-
-            // Must be executed BEFORE adding the request to the queue
-            alreadyInQueue = bucket.peekRequestFromQueue() != null;
-
-            // Add the bucket to the set of buckets (does nothing if it's already in the set)
-            buckets.add(bucket);
-
-            // Add the request to the bucket's queue
-            bucket.addRequestToQueue(request);
-        }
+        ConcurrentHashMap<String, Queue<RestRequest<?>>> endpointQueues = queues.get(request.getEndpoint());
+        String majorUrlParameter = request.getMajorUrlParameter().orElse(NO_MAJOR_URL_PARAMETER);
+        boolean[] alreadyInQueue = new boolean[1];
+        endpointQueues.compute(majorUrlParameter, (key, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+            }
+            alreadyInQueue[0] = !queue.isEmpty();
+            queue.add(request);
+            return queue;
+        });
 
-        // If the bucket is already in the queue, there's nothing more to do
-        if (alreadyInQueue) {
+        // If the queue is already being worked off, there's nothing more to do
+        if (alreadyInQueue[0]) {
             return;
         }
 
         // Start working of the queue
-        api.getThreadPool().getExecutorService().submit(() -> {
-            RestRequest<?> currentRequest = bucket.peekRequestFromQueue();
-            RestRequestResult result = null;
-            long responseTimestamp = System.currentTimeMillis();
-            while (currentRequest != null) {
-                try {
-                    int sleepTime = bucket.getTimeTillSpaceGetsAvailable();
-                    if (sleepTime > 0) {
-                        logger.debug("Delaying requests to {} for {}ms to prevent hitting ratelimits",
-                                bucket, sleepTime);
-                    }
-
-                    // Sleep until space is available
-                    while (sleepTime > 0) {
-                        try {
-                            Thread.sleep(sleepTime);
-                        } catch (InterruptedException e) {
-                            logger.warn("We got interrupted while waiting for a rate limit!", e);
-                        }
-                        // Update in case something changed (e.g. because we hit a global ratelimit)
-                        sleepTime = bucket.getTimeTillSpaceGetsAvailable();
-                    }
-
-                    // Execute the request
-                    result = currentRequest.executeBlocking();
-
-                    // Calculate the time offset, if it wasn't done before
-                    responseTimestamp = System.currentTimeMillis();
-                } catch (Throwable t) {
-                    responseTimestamp = System.currentTimeMillis();
-                    if (currentRequest.getResult().isDone()) {
-                        logger.warn("Received exception for a request that is already done. "
-                                + "This should not be able to happen!", t);
-                    }
-                    // Try to get the response from the exception if it exists
-                    if (t instanceof DiscordException) {
-                        result = ((DiscordException) t).getResponse()
-                                .map(RestRequestResponseInformationImpl.class::cast)
-                                .map(RestRequestResponseInformationImpl::getRestRequestResult)
-                                .orElse(null);
-                    }
-                    // Complete the request
-                    currentRequest.getResult().completeExceptionally(t);
-                } finally {
-                    try {
-                        // Calculate offset
-                        calculateOffset(responseTimestamp, result);
-                        // Handle the response
-                        handleResponse(currentRequest, result, bucket, responseTimestamp);
-                    } catch (Throwable t) {
-                        logger.warn("Encountered unexpected exception.", t);
-                    }
-
-                    // The request didn't finish, so let's try again
-                    if (!currentRequest.getResult().isDone()) {
-                        continue;
-                    }
-
-                    // Poll a new quest
-                    synchronized (buckets) {
-                        bucket.pollRequestFromQueue();
-                        currentRequest = bucket.peekRequestFromQueue();
-                        if (currentRequest == null) {
-                            buckets.remove(bucket);
-                        }
-                    }
-                }
-            }
-        });
+        new QueueWorker(endpointQueues, majorUrlParameter, request).runLater(0, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -163,18 +175,23 @@ public class RatelimitManager {
      *
      * @param request The request.
      * @param result The result of the request.
-     * @param bucket The bucket the request belongs to.
      * @param responseTimestamp The timestamp directly after the response finished.
      */
-    private void handleResponse(
-            RestRequest<?> request, RestRequestResult result, RatelimitBucket bucket, long responseTimestamp) {
+    private void handleResponse(RestRequest<?> request, RestRequestResult result, long responseTimestamp) {
         if (result == null || result.getResponse() == null) {
             return;
         }
         Response response = result.getResponse();
         boolean global = response.header("X-RateLimit-Global", "false").equalsIgnoreCase("true");
         int remaining = Integer.parseInt(response.header("X-RateLimit-Remaining", "1"));
-        long reset =  (long) (Double.parseDouble(response.header("X-RateLimit-Reset", "0")) * 1000);
+        long resetTimestamp = getResetTimestamp(response, responseTimestamp);
+
+        // Remember the bucket of the route, routes with the same bucket hash share their ratelimit
+        String bucketHash = response.header("X-RateLimit-Bucket");
+        if (bucketHash != null) {
+            bucketHashes.get(request.getEndpoint()).put(request.getMethod(), bucketHash);
+        }
+        RatelimitBucket bucket = getBucket(request);
 
         // Check if we received a 429 response
         if (result.getResponse().code() == 429) {
@@ -200,8 +217,7 @@ public class RatelimitManager {
                 api.setTimeOffset(null);
 
                 // Update the bucket information
-                bucket.setRatelimitRemaining(0);
-                bucket.setRatelimitResetTimestamp(responseTimestamp + retryAfter);
+                bucket.update(0, responseTimestamp + retryAfter);
             }
         } else {
             // Check if we didn't already complete it exceptionally.
@@ -211,11 +227,33 @@ public class RatelimitManager {
             }
 
             // Update bucket information
-            bucket.setRatelimitRemaining(remaining);
-            bucket.setRatelimitResetTimestamp(reset);
+            bucket.update(remaining, resetTimestamp);
         }
     }
 
+    /**
+     * Gets the local timestamp when the ratelimit of the response resets.
+     *
+     * <p>The relative {@code X-RateLimit-Reset-After} header is preferred, as it does not depend on the offset of
+     * the local time and Discord's time.
+     *
+     * @param response The response.
+     * @param responseTimestamp The timestamp directly after the response finished.
+     * @return The local reset timestamp or {@code 0} if the response has no ratelimit information.
+     */
+    private long getResetTimestamp(Response response, long responseTimestamp) {
+        String resetAfter = response.header("X-RateLimit-Reset-After");
+        if (resetAfter != null) {
+            return responseTimestamp + (long) (Double.parseDouble(resetAfter) * 1000);
+        }
+        long reset = (long) (Double.parseDouble(response.header("X-RateLimit-Reset", "0")) * 1000);
+        if (reset == 0) {
+            return 0;
+        }
+        Long timeOffset = api.getTimeOffset();
+        return reset - (timeOffset == null ? 0 : timeOffset);
+    }
+
     /**
      * Calculates the offset of the local time and discord's time.
      *
@@ -242,4 +280,197 @@ public class RatelimitManager {
         }
     }
 
+    /**
+     * Works off a queue of requests one after another.
+     *
+     * <p>The worker never blocks a thread. Waiting for a ratelimit is done with the scheduler and the requests are
+     * executed asynchronously by the http client. Every step runs on the REST executor service.
+     */
+    private class QueueWorker {
+
+        private final ConcurrentHashMap<String, Queue<RestRequest<?>>> endpointQueues;
+        private final String majorUrlParameter;
+
+        /**
+         * The request that is currently executed.
+         * Only accessed by the current step, the steps happen one after another.
+         */
+        private RestRequest<?> currentRequest;
+
+        /**
+         * The bucket in which space was reserved for the current request or {@code null} if it was not reserved yet.
+         * Only accessed by the current step, the steps happen one after another.
+         */
+        private RatelimitBucket reservedBucket;
+
+        /**
+         * Creates a new queue worker.
+         *
+         * @param endpointQueues The queues of the endpoint.
+         * @param majorUrlParameter The major url parameter of the queue.
+         * @param firstRequest The first request of the queue.
+         */
+        private QueueWorker(ConcurrentHashMap<String, Queue<RestRequest<?>>> endpointQueues,
+                            String majorUrlParameter, RestRequest<?> firstRequest) {
+            this.endpointQueues = endpointQueues;
+            this.majorUrlParameter = majorUrlParameter;
+            this.currentRequest = firstRequest;
+        }
+
+        /**
+         * Executes the current request after the given delay.
+         *
+         * @param delay The delay.
+         * @param unit The unit of the delay.
+         */
+        private void runLater(long delay, TimeUnit unit) {
+            runLater(this::reserveBucket, delay, unit);
+        }
+
+        /**
+         * Runs the given step after the given delay.
+         *
+         * @param step The step to run.
+         * @param delay The delay.
+         * @param unit The unit of the delay.
+         */
+        private void runLater(Runnable step, long delay, TimeUnit unit) {
+            try {
+                if (delay > 0) {
+                    getThreadPool().getScheduler().schedule(() -> runLater(step, 0, unit), delay, unit);
+                } else {
+                    getThreadPool().getRestExecutorService().execute(() -> runStep(step));
+                }
+            } catch (RejectedExecutionException e) {
+                // the api was disconnected, so the requests cannot be executed anymore
+                while (currentRequest != null) {
+                    currentRequest.getResult().completeExceptionally(e);
+                    currentRequest = pollNextRequest();
+                }
+            }
+        }
+
+        /**
+         * Runs the given step and fails the current request if the step throws an exception.
+         *
+         * @param step The step to run.
+         */
+        private void runStep(Runnable step) {
+            try {
+                step.run();
+            } catch (Throwable t) {
+                handleResult(null, t);
+            }
+        }
+
+        /**
+         * Waits until there is space in the bucket of the current request.
+         */
+        private void reserveBucket() {
+            RatelimitBucket bucket = getBucket(currentRequest);
+            int sleepTime = bucket.reserve();
+            if (sleepTime > 0) {
+                logger.debug("Delaying requests to {} for {}ms to prevent hitting ratelimits", bucket, sleepTime);
+                runLater(sleepTime, TimeUnit.MILLISECONDS);
+                return;
+            }
+            reservedBucket = bucket;
+            acquireGlobalQuota();
+        }
+
+        /**
+         * Waits until the global ratelimiter allows the current request.
+         */
+        private void acquireGlobalQuota() {
+            if (currentRequest.isConsumingGlobalRatelimit()) {
+                Optional<Ratelimiter> globalRatelimiter = api.getGlobalRatelimiter();
+                if (globalRatelimiter.isPresent()) {
+                    long sleepTime = 0;
+                    try {
+                        sleepTime = globalRatelimiter.get().tryRequestQuota();
+                    } catch (InterruptedException e) {
+                        logger.warn("Encountered unexpected ratelimiter interrupt", e);
+                    }
+                    if (sleepTime > 0) {
+                        runLater(this::acquireGlobalQuota, sleepTime, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                }
+            }
+            currentRequest.executeAsync().whenComplete(this::handleResult);
+        }
+
+        /**
+         * Handles the result of the current request and continues with the next one.
+         *
+         * @param result The result of the request.
+         * @param throwable The exception of the request.
+         */
+        private void handleResult(RestRequestResult result, Throwable throwable) {
+            long responseTimestamp = System.currentTimeMillis();
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause()
+                        : throwable;
+                if (currentRequest.getResult().isDone()) {
+                    logger.warn("Received exception for a request that is already done. "
+                            + "This should not be able to happen!", cause);
+                }
+                // Try to get the response from the exception if it exists
+                if (cause instanceof DiscordException) {
+                    result = ((DiscordException) cause).getResponse()
+                            .map(RestRequestResponseInformationImpl.class::cast)
+                            .map(RestRequestResponseInformationImpl::getRestRequestResult)
+                            .orElse(null);
+                }
+                // Complete the request
+                currentRequest.getResult().completeExceptionally(cause);
+            }
+
+            try {
+                // Calculate offset
+                calculateOffset(responseTimestamp, result);
+                // Handle the response
+                handleResponse(currentRequest, result, responseTimestamp);
+            } catch (Throwable t) {
+                logger.warn("Encountered unexpected exception.", t);
+            }
+            if (reservedBucket != null) {
+                // also if there was no response or it did not update the bucket, e.g. because of a global ratelimit
+                reservedBucket.requestFinished();
+                reservedBucket = null;
+            }
+
+            // The request didn't finish, so let's try again
+            if (!currentRequest.getResult().isDone()) {
+                runLater(0, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            currentRequest = pollNextRequest();
+            if (currentRequest != null) {
+                runLater(0, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Removes the current request from the queue and gets the next one.
+         * The queue is removed if it is empty.
+         *
+         * @return The next request or {@code null} if the queue is empty.
+         */
+        private RestRequest<?> pollNextRequest() {
+            RestRequest<?>[] nextRequest = new RestRequest<?>[1];
+            endpointQueues.compute(majorUrlParameter, (key, queue) -> {
+                queue.poll();
+                nextRequest[0] = queue.peek();
+                return nextRequest[0] == null ? null : queue;
+            });
+            if (nextRequest[0] == null && drainedQueues.incrementAndGet() % BUCKET_CLEANUP_INTERVAL == 0) {
+                buckets.values().removeIf(RatelimitBucket::isExpired);
+            }
+            return nextRequest[0];
+        }
+    }
+
 }
@@ -0,0 +1,266 @@
+package org.javacord.core.entity.permission
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.javacord.api.entity.channel.RegularServerChannel
+import org.javacord.api.entity.permission.PermissionType
+import org.javacord.api.entity.user.User
+import org.javacord.core.DiscordApiImpl
+import org.javacord.core.entity.server.ServerImpl
+import org.javacord.core.entity.user.UserImpl
+import org.javacord.core.util.handler.channel.ChannelUpdateHandler
+import org.javacord.core.util.handler.guild.GuildMemberUpdateHandler
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.lang.Unroll
+
+import static org.javacord.api.entity.permission.PermissionType.ADD_REACTIONS
+import static org.javacord.api.entity.permission.PermissionType.KICK_MEMBERS
+import static org.javacord.api.entity.permission.PermissionType.MANAGE_MESSAGES
+import static org.javacord.api.entity.permission.PermissionType.SEND_MESSAGES
+import static org.javacord.api.entity.permission.PermissionType.VIEW_CHANNEL
+
+@Subject(MemberPermissionsCache)
+class MemberPermissionsCacheTest extends Specification {
+
+    static final Set<PermissionType> ALL_PERMISSIONS = PermissionType.values() as Set
+
+    def mapper = new ObjectMapper()
+
+    @AutoCleanup('disconnect')
+    def api = new DiscordApiImpl(null, 0, 1, [] as Set, false, false, false, null, null, null, null, null, false,
+            null, null, [:], [], true, true, false, false, null, null, null, null, null)
+
+    ServerImpl server
+
+    def setup() {
+        api.yourself = new UserImpl(api, 1, 'bot', '0001', null, 0, true)
+        // everyone may view channels and send messages, the mods may manage messages and the admins may do anything
+        server = new ServerImpl(api, mapper.readTree('''{
+                "id": "100", "name": "server", "region": "europe", "large": false, "member_count": 6,
+                "owner_id": "2", "verification_level": 0, "explicit_content_filter": 0,
+                "default_message_notifications": 0, "mfa_level": 0, "premium_tier": 0, "nsfw_level": 0,
+                "preferred_locale": "en-US", "features": [],
+                "roles": [
+                    {"id": "100", "name": "@everyone", "position": 0, "color": 0, "hoist": false,
+                     "mentionable": false, "permissions": "3072", "managed": false},
+                    {"id": "101", "name": "mods", "position": 1, "color": 0, "hoist": false,
+                     "mentionable": false, "permissions": "8192", "managed": false},
+                    {"id": "102", "name": "muted", "position": 2, "color": 0, "hoist": false,
+                     "mentionable": false, "permissions": "0", "managed": false},
+                    {"id": "103", "name": "admins", "position": 3, "color": 0, "hoist": false,
+                     "mentionable": false, "permissions": "8", "managed": false}
+                ],
+                "channels": [
+                    ''' + channel201('{"id": "100", "type": 0, "allow": "0", "deny": "2048"}') + ''',
+                    {"id": "202", "type": 0, "name": "hidden", "position": 1, "nsfw": false,
+                     "rate_limit_per_user": 0, "permission_overwrites": [
+                        {"id": "100", "type": 0, "allow": "0", "deny": "1024"},
+                        {"id": "103", "type": 0, "allow": "0", "deny": "3072"}
+                    ]}
+                ],
+                "members": [
+                    ''' + member(2, []) + ''',
+                    ''' + member(3, ['101']) + ''',
+                    ''' + member(4, ['102']) + ''',
+                    ''' + member(5, ['101', '102']) + ''',
+                    ''' + member(6, ['103']) + ''',
+                    ''' + member(7, []) + '''
+                ]
+            }'''))
+    }
+
+    @Unroll
+    def 'permissions of member #userId in channel #channelId are the same as with permission sets'() {
+        given:
+            def user = user(userId)
+            def channel = channel(channelId)
+
+        expect:
+            server.getAllowedPermissions(user) == permissionSets(user)
+            channel.getEffectiveAllowedPermissions(user) == permissionSets(user, channel)
+
+        and: 'the memoized permissions are the same'
+            server.getAllowedPermissions(user) == permissionSets(user)
+            channel.getEffectiveAllowedPermissions(user) == permissionSets(user, channel)
+
+        where:
+            [userId, channelId] << [[3L, 4L, 5L, 7L], [201L, 202L]].combinations()
+    }
+
+    def 'overwrites are applied in the order everyone, roles, member'() {
+        given:
+            def channel = channel(201)
+
+        expect: 'the everyone overwrite denies sending messages'
+            !channel.hasPermission(user(7), SEND_MESSAGES)
+
+        and: 'a role overwrite allows it again'
+            channel.hasPermission(user(3), SEND_MESSAGES)
+
+        and: 'allowing role overwrites win over denying role overwrites'
+            channel.hasPermission(user(5), SEND_MESSAGES)
+
+        and: 'a member overwrite allows it although a role overwrite denies it'
+            channel.hasPermission(user(4), SEND_MESSAGES)
+            channel.hasPermission(user(4), ADD_REACTIONS)
+    }
+
+    def 'the owner and administrators have all permissions'() {
+        expect:
+            server.getAllowedPermissions(user(2)) == ALL_PERMISSIONS
+            channel(202).getEffectiveAllowedPermissions(user(2)) == ALL_PERMISSIONS
+
+        and: 'denying overwrites do not apply to administrators'
+            server.getAllowedPermissions(user(6)) == ALL_PERMISSIONS
+            channel(202).getEffectiveAllowedPermissions(user(6)) == ALL_PERMISSIONS
+    }
+
+    def 'changing the permissions of a role invalidates the memoized permissions'() {
+        expect:
+            server.hasPermission(user(3), MANAGE_MESSAGES)
+            channel(201).hasPermission(user(3), MANAGE_MESSAGES)
+
+        when:
+            ((RoleImpl) server.getRoleById(101).get()).setPermissions(new PermissionsImpl(KICK_MEMBERS.value, 0))
+
+        then:
+            !server.hasPermission(user(3), MANAGE_MESSAGES)
+            server.hasPermission(user(3), KICK_MEMBERS)
+            !channel(201).hasPermission(user(3), MANAGE_MESSAGES)
+    }
+
+    def 'deleting a role invalidates the memoized permissions'() {
+        expect:
+            server.hasPermission(user(3), MANAGE_MESSAGES)
+
+        when:
+            server.removeRole(101)
+
+        then:
+            !server.hasPermission(user(3), MANAGE_MESSAGES)
+    }
+
+    def 'adding and removing roles of a member invalidates the memoized permissions'() {
+        given:
+            def handler = new GuildMemberUpdateHandler(api)
+
+        expect:
+            !server.hasPermission(user(7), MANAGE_MESSAGES)
+            !channel(201).hasPermission(user(7), SEND_MESSAGES)
+
+        when:
+            handler.handle(mapper.readTree(member(7, ['101'])).put('guild_id', '100'))
+
+        then:
+            server.hasPermission(user(7), MANAGE_MESSAGES)
+            channel(201).hasPermission(user(7), SEND_MESSAGES)
+
+        when:
+            handler.handle(mapper.readTree(member(7, [])).put('guild_id', '100'))
+
+        then:
+            !server.hasPermission(user(7), MANAGE_MESSAGES)
+            !channel(201).hasPermission(user(7), SEND_MESSAGES)
+    }
+
+    def 'updating the overwrites of a channel invalidates the memoized permissions'() {
+        expect:
+            !channel(201).hasPermission(user(7), SEND_MESSAGES)
+
+        when:
+            new ChannelUpdateHandler(api).handle(mapper.readTree(
+                    channel201('{"id": "100", "type": 0, "allow": "64", "deny": "0"}')).put('guild_id', '100'))
+
+        then:
+            channel(201).hasPermission(user(7), SEND_MESSAGES)
+            channel(201).hasPermission(user(7), ADD_REACTIONS)
+    }
+
+    def 'transferring the ownership invalidates the memoized permissions'() {
+        expect:
+            server.getAllowedPermissions(user(3)) != ALL_PERMISSIONS
+            channel(202).getEffectiveAllowedPermissions(user(3)) != ALL_PERMISSIONS
+
+        when:
+            server.setOwnerId(3)
+
+        then:
+            server.getAllowedPermissions(user(3)) == ALL_PERMISSIONS
+            channel(202).getEffectiveAllowedPermissions(user(3)) == ALL_PERMISSIONS
+            server.getAllowedPermissions(user(2)) == [VIEW_CHANNEL, SEND_MESSAGES] as Set
+    }
+
+    def 'the memoized permissions of a deleted channel are removed'() {
+        given:
+            def memoizedPermissions = server.permissionsCache.@memoizedPermissions
+            server.hasPermission(user(3), SEND_MESSAGES)
+            channel(201).hasPermission(user(3), SEND_MESSAGES)
+            channel(202).hasPermission(user(3), SEND_MESSAGES)
+
+        when:
+            api.removeChannelFromCache(201)
+
+        then:
+            memoizedPermissions.get(3, 201) == null
+            memoizedPermissions.get(3, 202) != null
+            memoizedPermissions.get(3, 0) != null
+    }
+
+    User user(long id) {
+        server.getMemberById(id).get()
+    }
+
+    RegularServerChannel channel(long id) {
+        server.getRegularChannelById(id).get()
+    }
+
+    /**
+     * Computes the allowed permissions of a user like before they were computed as bitmasks.
+     */
+    Set<PermissionType> permissionSets(User user) {
+        if (server.isOwner(user)) {
+            return ALL_PERMISSIONS
+        }
+        server.getRoles(user).collectMany { it.allowedPermissions } as Set
+    }
+
+    /**
+     * Computes the allowed permissions of a user in a channel like before they were computed as bitmasks.
+     */
+    Set<PermissionType> permissionSets(User user, RegularServerChannel channel) {
+        def allowed = permissionSets(user)
+        if (server.isOwner(user)) {
+            return allowed
+        }
+        def everyoneOverwrite = channel.getOverwrittenPermissions(server.everyoneRole)
+        allowed.removeAll(everyoneOverwrite.deniedPermissions)
+        allowed.addAll(everyoneOverwrite.allowedPermission)
+        def roleOverwrites = (server.getRoles(user) - server.everyoneRole).collect {
+            channel.getOverwrittenPermissions(it)
+        }
+        roleOverwrites.each { allowed.removeAll(it.deniedPermissions) }
+        roleOverwrites.each { allowed.addAll(it.allowedPermission) }
+        def userOverwrite = channel.getOverwrittenPermissions(user)
+        allowed.removeAll(userOverwrite.deniedPermissions)
+        allowed.addAll(userOverwrite.allowedPermission)
+        allowed
+    }
+
+    static String channel201(String everyoneOverwrite) {
+        """{"id": "201", "type": 0, "name": "general", "position": 0, "nsfw": false, "rate_limit_per_user": 0,
+            "permission_overwrites": [
+                $everyoneOverwrite,
+                {"id": "101", "type": 0, "allow": "2048", "deny": "0"},
+                {"id": "102", "type": 0, "allow": "64", "deny": "2048"},
+                {"id": "4", "type": 1, "allow": "2048", "deny": "0"}
+            ]}"""
+    }
+
+    static String member(long id, List<String> roleIds) {
+        """{"user": {"id": "$id", "username": "user$id", "discriminator": "000$id"},
+            "roles": [${roleIds.collect { "\"$it\"" }.join(', ')}],
+            "joined_at": "2020-01-01T00:00:00.000000+00:00"}"""
+    }
+
+}
@@ -1,5 +1,12 @@
 package org.javacord.core.util
 
+import okhttp3.MediaType
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Response
+import okhttp3.ResponseBody
+import okhttp3.logging.HttpLoggingInterceptor
+import okio.Buffer
 import org.javacord.core.DiscordApiImpl
 import org.javacord.core.util.concurrent.ThreadPoolImpl
 import spock.lang.AutoCleanup
@@ -28,6 +35,102 @@ class FileContainerTest extends Specification {
             fileContainer.asByteArray(api).join()
     }
 
+    def 'request body of FileContainer with BufferedImage contains the encoded image'() {
+        given:
+            def image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB)
+            def fileContainer = new FileContainer(image, 'file.png')
+            DiscordApiImpl api = Mock {
+                getThreadPool() >> threadPool
+            }
+            def buffer = new Buffer()
+
+        when:
+            fileContainer.asRequestBody(api, MediaType.parse('image/png')).writeTo(buffer)
+
+        then:
+            buffer.readByteArray() == fileContainer.asByteArray(api).join()
+    }
+
+    def 'request body of FileContainer with InputStream can be written multiple times'() {
+        given:
+            def content = new byte[size]
+            new Random(42).nextBytes(content)
+            def inputStream = Spy(ByteArrayInputStream, constructorArgs: [content])
+            def fileContainer = new FileContainer(inputStream, 'file.bin')
+            def requestBody = fileContainer.asRequestBody(Stub(DiscordApiImpl), null)
+
+        when: 'the request is written again, e.g. because it was retried after a ratelimit'
+            def written = (0..<2).collect {
+                def buffer = new Buffer()
+                requestBody.writeTo(buffer)
+                buffer.readByteArray()
+            }
+
+        then:
+            !requestBody.oneShot
+            written.every { it == content }
+
+        and: 'the input stream was only read once'
+            1 * inputStream.close()
+
+        where:
+            size << [3, 9 * 1024 * 1024]
+    }
+
+    def 'downloading FileContainer with URL and unsuccessful response throws exception with the status code'() {
+        given:
+            def httpClient = new OkHttpClient.Builder()
+                    .addInterceptor { chain ->
+                        new Response.Builder()
+                                .request(chain.request())
+                                .protocol(Protocol.HTTP_1_1)
+                                .code(404)
+                                .message('Not Found')
+                                .body(ResponseBody.create('', MediaType.parse('text/plain')))
+                                .build()
+                    }
+                    .build()
+            DiscordApiImpl api = Stub {
+                getMediaHttpClient() >> httpClient
+            }
+            def fileContainer = new FileContainer(new URL('https://cdn.discordapp.com/icons/1/a.png'))
+
+        when:
+            fileContainer.asInputStream(api)
+
+        then:
+            IOException ioe = thrown()
+            ioe.message == 'Received status code 404 when downloading https://cdn.discordapp.com/icons/1/a.png'
+    }
+
+    def 'downloading FileContainer with URL after disconnecting throws exception'() {
+        given:
+            def api = new DiscordApiImpl(null, null, null, null, null, null, false)
+            def fileContainer = new FileContainer(new URL('https://cdn.discordapp.com/icons/1/a.png'))
+            api.disconnect()
+
+        when:
+            fileContainer.asInputStream(api)
+
+        then:
+            IllegalStateException ise = thrown()
+            ise.message == 'disconnect was called already'
+    }
+
+    def 'files are downloaded without logging their bodies'() {
+        given:
+            def api = new DiscordApiImpl(null, null, null, null, null, null, false)
+
+        expect:
+            api.httpClient.interceptors().any { it instanceof HttpLoggingInterceptor }
+            api.mediaHttpClient.interceptors().every { !(it instanceof HttpLoggingInterceptor) }
+            api.mediaHttpClient.interceptors().size() == api.httpClient.interceptors().size() - 1
+            api.mediaHttpClient.connectionPool().is(api.httpClient.connectionPool())
+
+        cleanup:
+            api.disconnect()
+    }
+
     def 'creating FileContainer with BufferedImage and unsupported file format throws exception'() {
         when:
             new FileContainer(Stub(BufferedImage), 'file.txt')
@@ -0,0 +1,88 @@
+package org.javacord.core.util.cache
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.time.Instant
+
+@Subject(CacheSnapshotReader)
+class CacheSnapshotReaderTest extends Specification {
+
+    def out = new ByteArrayOutputStream()
+
+    def writer = new CacheSnapshotWriter(Channels.newChannel(out))
+
+    def 'varints take as many bytes as they need'() {
+        when:
+            writer.writeVarLong(value)
+            writer.flush()
+
+        then:
+            out.size() == size
+            new CacheSnapshotReader(ByteBuffer.wrap(out.toByteArray())).readVarLong() == value
+
+        where:
+            value               || size
+            0                   || 1
+            127                 || 1
+            128                 || 2
+            151676710212009984L || 9
+            -1                  || 10
+    }
+
+    def 'signed varints and timestamps are read as they were written'() {
+        given:
+            def timestamp = Instant.parse('2021-06-01T12:34:56.123456Z')
+
+        when:
+            writer.writeSignedVarLong(-3)
+            writer.writeTimestamp(timestamp)
+            writer.flush()
+            def reader = new CacheSnapshotReader(ByteBuffer.wrap(out.toByteArray()))
+
+        then:
+            reader.readSignedVarLong() == -3
+            reader.readTimestamp() == timestamp
+    }
+
+    def 'interned strings are only written once'() {
+        when:
+            writer.writeInternedString('online')
+            writer.writeInternedString(null)
+            writer.writeInternedString('idle')
+            writer.writeInternedString('online')
+            writer.flush()
+            def reader = new CacheSnapshotReader(ByteBuffer.wrap(out.toByteArray()))
+
+        then:
+            out.size() == 1 + 7 + 1 + 1 + 5 + 1
+            reader.readInternedString() == 'online'
+            reader.readInternedString() == null
+            reader.readInternedString() == 'idle'
+            reader.readInternedString() == 'online'
+    }
+
+    def 'strings larger than the buffer are streamed from a channel'() {
+        given:
+            def value = 'x' * 100_000
+
+        when:
+            writer.writeString(value)
+            writer.close()
+            def reader = new CacheSnapshotReader(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())))
+
+        then:
+            reader.readString() == value
+    }
+
+    def 'reading beyond the end of the snapshot fails'() {
+        when:
+            new CacheSnapshotReader(ByteBuffer.allocate(0)).readByte()
+
+        then:
+            thrown(EOFException)
+    }
+
+}
@@ -0,0 +1,144 @@
+package org.javacord.core.util.cache
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.javacord.core.DiscordApiImpl
+import org.javacord.core.entity.server.ServerImpl
+import org.javacord.core.entity.user.MemberImpl
+import org.javacord.core.entity.user.UserImpl
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.channels.Channels
+import java.nio.file.Files
+
+@Subject(CacheSnapshot)
+class CacheSnapshotTest extends Specification {
+
+    def mapper = new ObjectMapper()
+
+    @AutoCleanup('disconnect')
+    def api = createApi()
+
+    @AutoCleanup('disconnect')
+    def restoredApi = createApi()
+
+    def file = Files.createTempFile('cache-snapshot', '.bin')
+
+    def cleanup() {
+        Files.deleteIfExists(file)
+    }
+
+    def 'a snapshot restores the servers with their channels, roles and members'() {
+        given:
+            api.yourself = new UserImpl(api, mapper.readTree('''{
+                    "id": "1", "username": "bot", "discriminator": "0001", "bot": true
+                }'''), (MemberImpl) null, null)
+            new ServerImpl(api, mapper.readTree('''{
+                    "id": "100", "name": "server", "region": "europe", "large": false, "member_count": 2,
+                    "owner_id": "2", "verification_level": 1, "explicit_content_filter": 0,
+                    "default_message_notifications": 0, "mfa_level": 0, "premium_tier": 0, "nsfw_level": 0,
+                    "preferred_locale": "en-US", "icon": "abc", "features": ["COMMUNITY"],
+                    "roles": [
+                        {"id": "100", "name": "@everyone", "position": 0, "color": 0, "hoist": false,
+                         "mentionable": false, "permissions": "1024", "managed": false},
+                        {"id": "101", "name": "mods", "position": 1, "color": 255, "hoist": true,
+                         "mentionable": true, "permissions": "8", "managed": false}
+                    ],
+                    "channels": [
+                        {"id": "200", "type": 4, "name": "category", "position": 0},
+                        {"id": "201", "type": 0, "name": "general", "position": 1, "parent_id": "200",
+                         "topic": "hello", "nsfw": false, "rate_limit_per_user": 5,
+                         "permission_overwrites": [{"id": "101", "type": 0, "allow": "2048", "deny": "0"}]},
+                        {"id": "202", "type": 2, "name": "voice", "position": 2, "bitrate": 64000, "user_limit": 5}
+                    ],
+                    "members": [
+                        {"user": {"id": "2", "username": "owner", "discriminator": "0002"}, "roles": ["101"],
+                         "nick": "boss", "joined_at": "2020-01-01T00:00:00.000000+00:00"},
+                        {"user": {"id": "3", "username": "member", "discriminator": "0003"}, "roles": [],
+                         "joined_at": "2021-01-01T00:00:00.000000+00:00"}
+                    ],
+                    "voice_states": [{"channel_id": "202", "user_id": "3"}]
+                }'''))
+
+        when:
+            CacheSnapshot.write(api, file)
+            CacheSnapshot.read(restoredApi, file)
+
+        then:
+            restoredApi.yourself.id == 1
+            def server = restoredApi.getServerById(100).get()
+            server.name == 'server'
+            server.iconHash == 'abc'
+            server.memberCount == 2
+            server.ownerId == 2
+            server.roles*.id == [100L, 101L]
+            server.getRoleById(101).get().permissions.allowedBitmask == 8
+            server.getRoleById(101).get().displayedSeparately
+
+        and:
+            def textChannel = server.getChannelById(201).flatMap { it.asServerTextChannel() }.get()
+            textChannel.topic == 'hello'
+            textChannel.slowmodeDelayInSeconds == 5
+            textChannel.category.get().id == 200
+            textChannel.overwrittenRolePermissions[101L].allowedBitmask == 2048
+            def voiceChannel = server.getChannelById(202).flatMap { it.asServerVoiceChannel() }.get()
+            voiceChannel.bitrate == 64000
+            voiceChannel.connectedUserIds == [3L] as Set
+
+        and:
+            server.members*.id as Set == [2L, 3L] as Set
+            server.getNickname(server.getMemberById(2).get()).get() == 'boss'
+            server.getRoles(server.getMemberById(2).get())*.id as Set == [100L, 101L] as Set
+    }
+
+    def 'a snapshot can be streamed through channels'() {
+        given:
+            api.yourself = new UserImpl(api, 1, 'bot', '0001', null, 0, true)
+            def out = new ByteArrayOutputStream()
+
+        when:
+            CacheSnapshot.write(api, Channels.newChannel(out))
+            CacheSnapshot.read(restoredApi, Channels.newChannel(new ByteArrayInputStream(out.toByteArray())))
+
+        then:
+            restoredApi.yourself.name == 'bot'
+            restoredApi.yourself.bot
+    }
+
+    def 'a snapshot of another shard is not restored'() {
+        given:
+            def otherShard = createApi(1)
+            otherShard.yourself = new UserImpl(otherShard, 1, 'bot', '0001', null, 0, true)
+            CacheSnapshot.write(otherShard, file)
+
+        when:
+            CacheSnapshot.read(restoredApi, file)
+
+        then:
+            IOException e = thrown()
+            e.message == 'The snapshot was written by shard 1'
+
+        cleanup:
+            otherShard.disconnect()
+    }
+
+    def 'a file which is not a snapshot is not restored'() {
+        given:
+            file.text = '{"version": 1, "shard": 0, "guilds": []}'
+
+        when:
+            CacheSnapshot.read(restoredApi, file)
+
+        then:
+            IOException e = thrown()
+            e.message == 'The file is not a cache snapshot'
+    }
+
+    def createApi(int shard = 0) {
+        // the user cache is disabled by the short constructors
+        new DiscordApiImpl(null, shard, 2, [] as Set, false, false, false, null, null, null, null, null, false, null,
+                null, [:], [], true, true, false, false, null, null, null, null, null)
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.javacord.core.util.cache
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicBoolean
+
+@Subject(ConcurrentLongObjectMap)
+class ConcurrentLongObjectMapTest extends Specification {
+
+    def 'random puts and removes behave like a hash map'() {
+        given:
+            def map = new ConcurrentLongObjectMap<String>(segmentCount, 2)
+            def reference = new HashMap<Long, String>()
+            def random = new Random(42)
+
+        when:
+            20_000.times {
+                long key = random.nextInt(2_000) << 22
+                if (random.nextBoolean()) {
+                    assert map.put(key, "$it") == reference.put(key, "$it")
+                } else {
+                    assert map.remove(key) == reference.remove(key)
+                }
+            }
+
+        then:
+            map.size() == reference.size()
+            reference.every { key, value -> map.get(key) == value }
+            map.values() as Set == reference.values() as Set
+
+        where:
+            segmentCount << [1, 16]
+    }
+
+    def 'compute adds, updates and removes values'() {
+        given:
+            def map = new ConcurrentLongObjectMap<String>()
+
+        expect:
+            map.compute(1) { it ?: 'a' } == 'a'
+            map.compute(1) { it + 'b' } == 'ab'
+            map.compute(1) { null } == null
+            !map.containsKey(1)
+            map.empty
+    }
+
+    def 'conditional remove only removes the expected value'() {
+        given:
+            def map = new ConcurrentLongObjectMap<String>()
+            def value = 'value'
+            map.put(1, value)
+
+        expect:
+            !map.remove(1, new String('value'))
+            map.remove(1, value)
+            map.get(1) == null
+    }
+
+    def 'readers always see stable entries while other entries are written concurrently'() {
+        given:
+            def map = new ConcurrentLongObjectMap<Long>(1, 2)
+            (0L..<100L).each { map.put(it, it) }
+            def stop = new AtomicBoolean()
+            def failed = new AtomicBoolean()
+            def done = new CountDownLatch(1)
+            Thread.start {
+                try {
+                    while (!stop.get()) {
+                        (0L..<100L).each {
+                            if (map.get(it) != it) {
+                                failed.set(true)
+                            }
+                        }
+                    }
+                } finally {
+                    done.countDown()
+                }
+            }
+
+        when:
+            (100L..<50_000L).each { map.put(it, it) }
+            (100L..<50_000L).each { map.remove(it) }
+            stop.set(true)
+            done.await()
+
+        then:
+            !failed.get()
+            map.size() == 100
+    }
+
+}
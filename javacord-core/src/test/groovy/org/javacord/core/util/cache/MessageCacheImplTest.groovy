@@ -0,0 +1,81 @@
+package org.javacord.core.util.cache
+
+import org.javacord.api.entity.message.Message
+import org.javacord.api.util.concurrent.ThreadPool
+import org.javacord.core.DiscordApiImpl
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Instant
+import java.time.temporal.ChronoUnit
+import java.util.concurrent.ScheduledExecutorService
+
+@Subject(MessageCacheImpl)
+class MessageCacheImplTest extends Specification {
+
+    def api = Stub(DiscordApiImpl) {
+        getThreadPool() >> Stub(ThreadPool) {
+            getScheduler() >> Stub(ScheduledExecutorService)
+        }
+    }
+
+    def 'a message with the same id is only cached once'() {
+        given:
+            def cache = new MessageCacheImpl(api, 10, 60, false)
+            def id = snowflake(Instant.now())
+
+        when:
+            cache.addMessage(message(id))
+            cache.addMessage(message(id))
+
+        then:
+            cache.size == 1
+    }
+
+    def 'cleaning removes expired messages but keeps messages which are cached forever'() {
+        given:
+            def cache = new MessageCacheImpl(api, 10, 60, false)
+            def old = Instant.now().minus(10, ChronoUnit.MINUTES)
+            def foreverMessage = message(snowflake(old) + 1, true)
+            cache.addMessage(message(snowflake(old)))
+            cache.addMessage(foreverMessage)
+            cache.addCacheForeverMessage(foreverMessage)
+            cache.addMessage(message(snowflake(Instant.now())))
+
+        when:
+            cache.clean()
+
+        then:
+            cache.size == 2
+    }
+
+    def 'cleaning removes the oldest messages that exceed the capacity'() {
+        given:
+            def cache = new MessageCacheImpl(api, 2, 60, false)
+            def now = snowflake(Instant.now())
+            def newest = message(now + 2)
+            // added out of order
+            cache.addMessage(newest)
+            cache.addMessage(message(now))
+            cache.addMessage(message(now + 1))
+
+        when:
+            cache.clean()
+            cache.removeMessage(newest)
+
+        then:
+            cache.size == 1
+    }
+
+    private static long snowflake(Instant instant) {
+        (instant.toEpochMilli() - 1420070400000L) << 22
+    }
+
+    private Message message(long id, boolean cachedForever = false) {
+        Stub(Message) {
+            getId() >> id
+            isCachedForever() >> cachedForever
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package org.javacord.core.util.cache
+
+import io.vavr.collection.HashMap
+import org.javacord.api.entity.channel.ChannelType
+import org.javacord.api.entity.channel.ServerTextChannel
+import org.javacord.api.entity.server.Server
+import org.javacord.api.entity.user.User
+import org.javacord.api.entity.user.UserStatus
+import org.javacord.core.entity.user.Member
+import org.javacord.core.entity.user.UserPresence
+import spock.lang.Specification
+import spock.lang.Subject
+
+@Subject(MutableEntityCache)
+class MutableEntityCacheTest extends Specification {
+
+    def cache = new MutableEntityCache()
+
+    def 'members are indexed by server and by user'() {
+        given:
+            def firstServer = server(1)
+            def secondServer = server(2)
+
+        when:
+            cache.addMember(member(10, firstServer))
+            cache.addMember(member(10, secondServer))
+            cache.addMember(member(11, firstServer))
+
+        then:
+            cache.memberCache.getMembersByServer(1).size() == 2
+            cache.memberCache.getMembersById(10).size() == 2
+            cache.memberCache.getServers(10) == [firstServer, secondServer] as Set
+            cache.memberCache.getMemberByIdAndServer(11, 1).present
+            !cache.memberCache.getMemberByIdAndServer(11, 2).present
+            cache.memberCache.userCache.users*.id as Set == [10L, 11L] as Set
+    }
+
+    def 'the user is only removed with its last member'() {
+        given:
+            cache.addMember(member(10, server(1)))
+            cache.addMember(member(10, server(2)))
+
+        when:
+            cache.removeMember(10, 1)
+
+        then:
+            cache.memberCache.userCache.getUserById(10).present
+
+        when:
+            cache.removeMember(10, 2)
+
+        then:
+            !cache.memberCache.userCache.getUserById(10).present
+            cache.memberCache.members.empty
+    }
+
+    def 'updating members by id replaces every member of the user'() {
+        given:
+            def replacement = member(10, server(1))
+            cache.addMember(member(10, server(1)))
+
+        when:
+            cache.updateMembersById(10) { replacement }
+
+        then:
+            cache.memberCache.getMemberByIdAndServer(10, 1).get().is(replacement)
+    }
+
+    def 'channels are indexed by server and type'() {
+        given:
+            def channel = Stub(ServerTextChannel) {
+                getId() >> 100
+                getType() >> ChannelType.SERVER_TEXT_CHANNEL
+                getServer() >> server(1)
+            }
+            channel.asServerChannel() >> Optional.of(channel)
+            channel.asPrivateChannel() >> Optional.empty()
+
+        when:
+            def oldChannel = cache.addChannel(channel)
+
+        then:
+            oldChannel == null
+            cache.channelCache.getChannelById(100).get().is(channel)
+            cache.channelCache.getChannelsOfServer(1) == [channel] as Set
+            cache.channelCache.getChannelsOfServerAndType(1, ChannelType.SERVER_TEXT_CHANNEL) == [channel] as Set
+            cache.channelCache.getChannelsOfServerAndType(1, ChannelType.SERVER_VOICE_CHANNEL).empty
+            cache.channelCache.getChannelsWithTypes(ChannelType.SERVER_TEXT_CHANNEL) == [channel] as Set
+
+        when:
+            def removedChannel = cache.removeChannel(100)
+
+        then:
+            removedChannel.is(channel)
+            cache.channelCache.channels.empty
+            cache.channelCache.getChannelsOfServer(1).empty
+            cache.channelCache.getChannelsWithTypes(ChannelType.SERVER_TEXT_CHANNEL).empty
+    }
+
+    def 'presences are created and updated in place'() {
+        given:
+            def presence = new UserPresence(10, null, null, HashMap.empty())
+
+        when:
+            cache.updateUserPresence(10) { it ?: presence }
+
+        then:
+            cache.userPresenceCache.getPresenceByUserId(10).get().is(presence)
+
+        when:
+            cache.updateUserPresence(10) { it.setStatus(UserStatus.ONLINE) }
+
+        then:
+            cache.userPresenceCache.getPresenceByUserId(10).get().status == UserStatus.ONLINE
+    }
+
+    private Server server(long id) {
+        Stub(Server) {
+            getId() >> id
+        }
+    }
+
+    private Member member(long id, Server server) {
+        def user = Stub(User) {
+            getId() >> id
+        }
+        Stub(Member) {
+            getId() >> id
+            getServer() >> server
+            getUser() >> user
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.javacord.core.util.concurrent
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@Subject(FrameScheduler)
+class FrameSchedulerTest extends Specification {
+
+    def scheduler = new FrameScheduler('Frame Scheduler Test - %d', 2, 5, TimeUnit.MILLISECONDS)
+
+    def cleanup() {
+        scheduler.shutdown()
+    }
+
+    def 'more tasks than timer threads are all run once per frame until they are cancelled'() {
+        given:
+            def latches = (0..<3).collect { new CountDownLatch(10) }
+            def runs = (0..<3).collect { new AtomicInteger() }
+
+        when:
+            def tasks = (0..<3).collect { i ->
+                scheduler.schedule {
+                    runs[i].incrementAndGet()
+                    latches[i].countDown()
+                }
+            }
+
+        then:
+            latches.every { it.await(5, TimeUnit.SECONDS) }
+            tasks.every { it.frameCount >= 10 && it.maxLatenessNanos >= it.averageLatenessNanos }
+
+        when:
+            tasks*.cancel()
+            // let runs which started before the tasks were cancelled finish
+            Thread.sleep(20)
+            def runsAfterCancel = runs*.get()
+            Thread.sleep(50)
+
+        then:
+            tasks.every { it.cancelled }
+            runs*.get() == runsAfterCancel
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.javacord.core.util.concurrent
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@Subject(PartitionedExecutor)
+class PartitionedExecutorTest extends Specification {
+
+    def executor = new PartitionedExecutor('Test Lane - %d', 4)
+
+    def cleanup() {
+        executor.shutdown()
+    }
+
+    def 'tasks with the same key are executed in submission order'() {
+        given:
+            def results = new ConcurrentHashMap<Long, List<Integer>>()
+            def latch = new CountDownLatch(3 * 1000)
+
+        when:
+            1000.times { i ->
+                [1L, 2L, 3L].each { key ->
+                    executor.execute(key) {
+                        results.computeIfAbsent(key) { new CopyOnWriteArrayList<>() } << i
+                        latch.countDown()
+                    }
+                }
+            }
+
+        then:
+            latch.await(10, TimeUnit.SECONDS)
+            results.values().every { it == (0..<1000).toList() }
+    }
+
+    def 'tasks with different keys are executed concurrently'() {
+        given:
+            def bothStarted = new CountDownLatch(2)
+            def finished = new CountDownLatch(2)
+
+        when:
+            [1L, 2L].each { key ->
+                executor.execute(key) {
+                    bothStarted.countDown()
+                    if (bothStarted.await(10, TimeUnit.SECONDS)) {
+                        finished.countDown()
+                    }
+                }
+            }
+
+        then:
+            finished.await(10, TimeUnit.SECONDS)
+    }
+
+    def 'flushing waits for all previously submitted tasks but not for later ones'() {
+        given:
+            def release = new CountDownLatch(1)
+            def releaseLater = new CountDownLatch(1)
+            def executed = new CopyOnWriteArrayList<Long>()
+            [1L, 2L].each { key ->
+                executor.execute(key) {
+                    release.await()
+                    executed << key
+                }
+            }
+
+        when:
+            def flushed = executor.flush()
+            executor.execute(1L) { releaseLater.await() }
+            sleep(100)
+
+        then:
+            !flushed.done
+
+        when:
+            release.countDown()
+            flushed.get(10, TimeUnit.SECONDS)
+
+        then:
+            executed.sort() == [1L, 2L]
+
+        cleanup:
+            releaseLater.countDown()
+    }
+
+    def 'flushing completes once the tasks are executed after the executor was shut down'() {
+        given:
+            def release = new CountDownLatch(1)
+            def executed = new CountDownLatch(1)
+            executor.execute(1L) {
+                release.await()
+                executed.countDown()
+            }
+
+        when:
+            executor.shutdown()
+            def flushed = executor.flush()
+            release.countDown()
+            flushed.get(10, TimeUnit.SECONDS)
+
+        then:
+            executed.count == 0
+    }
+
+    def 'flushing an idle executor completes immediately'() {
+        expect:
+            executor.flush().done
+    }
+
+    def 'lanes are removed once they are drained'() {
+        given:
+            def latch = new CountDownLatch(1)
+
+        when:
+            executor.execute(1L) { latch.countDown() }
+            latch.await(10, TimeUnit.SECONDS)
+            executor.shutdown()
+            executor.executorService.awaitTermination(10, TimeUnit.SECONDS)
+
+        then:
+            executor.activeLaneCount == 0
+    }
+
+}
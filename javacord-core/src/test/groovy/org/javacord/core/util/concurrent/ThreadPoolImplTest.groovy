@@ -0,0 +1,212 @@
+package org.javacord.core.util.concurrent
+
+import spock.lang.IgnoreIf
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+@Subject(ThreadPoolImpl)
+class ThreadPoolImplTest extends Specification {
+
+    def 'tasks are queued when all threads of a bounded executor service are busy'() {
+        given:
+            def threadPool = new ThreadPoolImpl(null, 2, false)
+            def release = new CountDownLatch(1)
+            def started = new CountDownLatch(2)
+
+        when:
+            5.times {
+                threadPool.executorService.submit {
+                    started.countDown()
+                    release.await()
+                }
+            }
+            started.await()
+
+        then:
+            threadPool.activeThreadCount == 2
+            threadPool.queuedTaskCount == 3
+
+        cleanup:
+            release.countDown()
+            threadPool.shutdown()
+    }
+
+    def 'a custom executor service is used and not shut down'() {
+        given:
+            ExecutorService executorService = Executors.newSingleThreadExecutor()
+            def threadPool = new ThreadPoolImpl(executorService, 2, true)
+
+        when:
+            threadPool.shutdown()
+
+        then:
+            threadPool.executorService.is(executorService)
+            !executorService.shutdown
+
+        cleanup:
+            executorService.shutdown()
+    }
+
+    def 'event loop threads are only created if requested and are shut down with the thread pool'() {
+        given:
+            def withoutEventLoop = new ThreadPoolImpl(null, 0, false)
+            def withEventLoop = new ThreadPoolImpl(null, 0, false, 2)
+            def eventLoopExecutorService = withEventLoop.eventLoopExecutorService
+
+        when:
+            withEventLoop.shutdown()
+
+        then:
+            withoutEventLoop.eventLoopExecutorService == null
+            eventLoopExecutorService.shutdown
+
+        cleanup:
+            withoutEventLoop.shutdown()
+    }
+
+    def 'the interaction executor service is separate from the central one and is shut down with the thread pool'() {
+        given:
+            def threadPool = new ThreadPoolImpl(null, 1, false)
+            def interactionExecutorService = threadPool.interactionExecutorService
+            def release = new CountDownLatch(1)
+            threadPool.executorService.submit { release.await() }
+
+        when: 'all threads of the central executor service are busy'
+            def interaction = interactionExecutorService.submit({ Thread.currentThread().name } as Callable)
+
+        then:
+            interaction.get(5, TimeUnit.SECONDS).startsWith('Javacord - Interactions - ')
+
+        when:
+            threadPool.shutdown()
+
+        then:
+            interactionExecutorService.shutdown
+
+        cleanup:
+            release.countDown()
+    }
+
+    def 'the packet handler thread count defaults to the available processors and is shared with the shards'() {
+        given:
+            def defaultThreadPool = new ThreadPoolImpl()
+            def customThreadPool = new ThreadPoolImpl(null, 0, false, 0, 3)
+            def shardThreadPool = new ThreadPoolImpl(customThreadPool)
+
+        expect:
+            defaultThreadPool.packetHandlerThreadCount == Math.max(2, Runtime.runtime.availableProcessors())
+            customThreadPool.packetHandlerThreadCount == 3
+            shardThreadPool.packetHandlerThreadCount == 3
+
+        cleanup:
+            defaultThreadPool.shutdown()
+            customThreadPool.shutdown()
+    }
+
+    def 'a negative packet handler thread count is rejected'() {
+        when:
+            new ThreadPoolImpl(null, 0, false, 0, -1)
+
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def 'a shard thread pool shares the threads but only shuts down its own tasks'() {
+        given:
+            def sharedThreadPool = new ThreadPoolImpl()
+            def shardThreadPool = new ThreadPoolImpl(sharedThreadPool)
+            def periodicTask = shardThreadPool.scheduler.scheduleAtFixedRate({ }, 1, 1, TimeUnit.MINUTES)
+            def singleThreadExecutorService = shardThreadPool.getSingleThreadExecutorService('Shard Thread')
+
+        when:
+            shardThreadPool.shutdown()
+
+        then:
+            shardThreadPool.executorService.is(sharedThreadPool.executorService)
+            shardThreadPool.restExecutorService.is(sharedThreadPool.restExecutorService)
+            shardThreadPool.restCallbackExecutorService.is(sharedThreadPool.restCallbackExecutorService)
+            shardThreadPool.interactionExecutorService.is(sharedThreadPool.interactionExecutorService)
+            periodicTask.cancelled
+            singleThreadExecutorService.shutdown
+            !sharedThreadPool.scheduler.shutdown
+            !sharedThreadPool.executorService.shutdown
+
+        when:
+            shardThreadPool.scheduler.schedule({ }, 1, TimeUnit.SECONDS)
+
+        then:
+            thrown(RejectedExecutionException)
+
+        cleanup:
+            sharedThreadPool.shutdown()
+    }
+
+    def 'the REST callback executor service queues results while all of its threads are busy'() {
+        given:
+            def threadPool = new ThreadPoolImpl()
+            def restCallbackExecutorService = threadPool.restCallbackExecutorService as ThreadPoolExecutor
+            def release = new CountDownLatch(1)
+            def started = new CountDownLatch(64)
+
+        when:
+            70.times {
+                restCallbackExecutorService.submit {
+                    started.countDown()
+                    release.await()
+                }
+            }
+            started.await()
+
+        then:
+            restCallbackExecutorService.poolSize == 64
+            restCallbackExecutorService.queue.size() == 6
+
+        cleanup:
+            release.countDown()
+            threadPool.shutdown()
+    }
+
+    def 'virtual threads are supported from Java 21 on'() {
+        given:
+            def version = System.getProperty('java.specification.version')
+            def majorVersion = (version.startsWith('1.') ? version.substring(2) : version) as int
+
+        expect:
+            VirtualThreads.supported == (majorVersion >= 21)
+            VirtualThreads.newVirtualThreadPerTaskExecutor().present == VirtualThreads.supported
+    }
+
+    @Requires({ VirtualThreads.supported })
+    def 'enabling virtual threads executes every task in a new virtual thread'() {
+        given:
+            def threadPool = new ThreadPoolImpl(null, 2, true)
+
+        when:
+            def virtual = threadPool.executorService.submit({ Thread.currentThread().virtual } as Callable)
+
+        then:
+            virtual.get(5, TimeUnit.SECONDS)
+
+        cleanup:
+            threadPool.shutdown()
+    }
+
+    @IgnoreIf({ VirtualThreads.supported })
+    def 'enabling virtual threads fails without the Java 21 implementation'() {
+        when:
+            new ThreadPoolImpl(null, 0, true)
+
+        then:
+            thrown(IllegalStateException)
+    }
+
+}
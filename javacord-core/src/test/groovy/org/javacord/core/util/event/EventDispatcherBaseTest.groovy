@@ -0,0 +1,245 @@
+package org.javacord.core.util.event
+
+import org.javacord.api.entity.server.Server
+import org.javacord.core.DiscordApiImpl
+import org.javacord.core.entity.server.ServerImpl
+import org.javacord.core.util.concurrent.ThreadPoolImpl
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.lang.Timeout
+import spock.lang.Unroll
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.function.Consumer
+
+@Subject(EventDispatcherBase)
+@Timeout(30)
+class EventDispatcherBaseTest extends Specification {
+
+    @AutoCleanup('shutdown')
+    def threadPool = new ThreadPoolImpl()
+
+    def api = Stub(DiscordApiImpl) {
+        getThreadPool() >> { threadPool }
+        canDispatchEvents() >> true
+    }
+
+    def dispatcher = new EventDispatcherBase(api) { }
+
+    @Unroll
+    def 'events of a server are dispatched in order with #eventLoopThreadCount event loop threads'() {
+        given:
+            threadPool.shutdown()
+            threadPool = new ThreadPoolImpl(null, 0, false, eventLoopThreadCount)
+            dispatcher = new EventDispatcherBase(api) { }
+            def servers = [server(true), server(true)]
+            def calls = [(servers[0]): new CopyOnWriteArrayList(), (servers[1]): new CopyOnWriteArrayList()]
+
+        when:
+            (0..<100).each { event ->
+                servers.each { server ->
+                    dispatch(server, { calls[server] << "$event-a" }, { calls[server] << "$event-b" })
+                }
+            }
+            servers.collect { server -> dispatchAndWait(server) }*.get(5, TimeUnit.SECONDS)
+
+        then:
+            servers.every { server ->
+                calls[server] == (0..<100).collectMany { event -> ["$event-a", "$event-b"] }*.toString()
+            }
+
+        where:
+            eventLoopThreadCount << [0, 2]
+    }
+
+    def 'lifecycle events wait for running events and events received later wait for them'() {
+        given:
+            def server = server(true)
+            def calls = new CopyOnWriteArrayList()
+            def serverTaskStarted = new CountDownLatch(1)
+            def releaseServer = new CountDownLatch(1)
+
+        when:
+            dispatch(server) {
+                serverTaskStarted.countDown()
+                releaseServer.await()
+                calls << 'server event'
+            }
+            serverTaskStarted.await()
+            dispatch(null) { calls << 'lifecycle event' }
+            dispatch(server) { calls << 'later server event' }
+            sleep(200)
+
+        then:
+            calls.empty
+
+        when:
+            releaseServer.countDown()
+            dispatchAndWait(server).get(5, TimeUnit.SECONDS)
+
+        then:
+            calls == ['server event', 'lifecycle event', 'later server event']
+    }
+
+    def 'events held back during a lifecycle event are dispatched in the order they were received'() {
+        given:
+            def servers = [server(true), server(true)]
+            def calls = new CopyOnWriteArrayList()
+            def lifecycleTaskStarted = new CountDownLatch(1)
+            def releaseLifecycle = new CountDownLatch(1)
+
+        when:
+            dispatch(null) {
+                lifecycleTaskStarted.countDown()
+                releaseLifecycle.await()
+                calls << 'lifecycle event'
+            }
+            lifecycleTaskStarted.await()
+            (0..<20).each { event ->
+                def selector = event % 3 == 0 ? api : servers[event % 2]
+                dispatch(selector) { calls << event }
+            }
+            sleep(200)
+
+        then:
+            calls.empty
+
+        when:
+            releaseLifecycle.countDown()
+            ([api] + servers).collect { dispatchAndWait(it) }*.get(5, TimeUnit.SECONDS)
+
+        then:
+            calls.first() == 'lifecycle event'
+            calls.tail().sort() == (0..<20).toList()
+
+        and: 'the events of every queue selector were dispatched in the order they were received'
+            [{ it % 3 == 0 }, { it % 3 != 0 && it % 2 == 0 }, { it % 3 != 0 && it % 2 == 1 }].every { selector ->
+                def events = calls.tail().findAll(selector)
+                events == events.toSorted()
+            }
+    }
+
+    def 'events of a server which is not ready are dispatched once it is ready'() {
+        given:
+            def ready = false
+            Consumer<Server> readyConsumer = null
+            ServerImpl server = Stub {
+                isReady() >> { ready }
+                addServerReadyConsumer(_) >> { Consumer<Server> consumer -> readyConsumer = consumer }
+            }
+            def dispatched = new CompletableFuture<Boolean>()
+
+        when:
+            dispatch(server) { dispatched.complete(true) }
+            sleep(200)
+
+        then:
+            !dispatched.done
+            readyConsumer != null
+
+        when:
+            ready = true
+            readyConsumer.accept(server)
+
+        then:
+            dispatched.get(5, TimeUnit.SECONDS)
+    }
+
+    def 'the events of an interaction are dispatched while the mailbox of its server is busy'() {
+        given:
+            def server = server(true)
+            def serverTaskStarted = new CountDownLatch(1)
+            def releaseServer = new CountDownLatch(1)
+            def interactionThread = new CompletableFuture<String>()
+
+        when:
+            dispatch(server) {
+                serverTaskStarted.countDown()
+                releaseServer.await()
+            }
+            serverTaskStarted.await()
+            dispatch(dispatcher.createInteractionQueueSelector(server, System.nanoTime())) {
+                interactionThread.complete(Thread.currentThread().name)
+            }
+
+        then:
+            interactionThread.get(5, TimeUnit.SECONDS).startsWith('Javacord - Interactions - ')
+
+        cleanup:
+            releaseServer.countDown()
+    }
+
+    def 'blocking listeners of interactions do not delay the listeners of other interactions'() {
+        given:
+            def server = server(true)
+            def blockedListeners = 16
+            def listenersStarted = new CountDownLatch(blockedListeners)
+            def releaseListeners = new CountDownLatch(1)
+            def interactionDispatched = new CompletableFuture<Boolean>()
+
+        when:
+            blockedListeners.times {
+                dispatch(dispatcher.createInteractionQueueSelector(server, System.nanoTime())) {
+                    listenersStarted.countDown()
+                    releaseListeners.await()
+                }
+            }
+            listenersStarted.await()
+            dispatch(dispatcher.createInteractionQueueSelector(server, System.nanoTime())) {
+                interactionDispatched.complete(true)
+            }
+
+        then:
+            interactionDispatched.get(1, TimeUnit.SECONDS)
+
+        cleanup:
+            releaseListeners.countDown()
+    }
+
+    def 'the events of an interaction are dispatched while a lifecycle event is running'() {
+        given:
+            def lifecycleTaskStarted = new CountDownLatch(1)
+            def releaseLifecycle = new CountDownLatch(1)
+            def interactionDispatched = new CompletableFuture<Boolean>()
+
+        when:
+            dispatch(null) {
+                lifecycleTaskStarted.countDown()
+                releaseLifecycle.await()
+            }
+            lifecycleTaskStarted.await()
+            dispatch(dispatcher.createInteractionQueueSelector(api, System.nanoTime())) {
+                interactionDispatched.complete(true)
+            }
+
+        then:
+            interactionDispatched.get(5, TimeUnit.SECONDS)
+
+        cleanup:
+            releaseLifecycle.countDown()
+    }
+
+    def dispatch(DispatchQueueSelector queueSelector, Closure... listeners) {
+        dispatcher.dispatchEvent(queueSelector, listeners as List, { Closure listener -> listener() } as Consumer)
+    }
+
+    /**
+     * Dispatches an event and returns a future which is completed once it was dispatched.
+     */
+    def dispatchAndWait(DispatchQueueSelector queueSelector) {
+        def dispatched = new CompletableFuture<Boolean>()
+        dispatch(queueSelector) { dispatched.complete(true) }
+        dispatched
+    }
+
+    def server(boolean ready) {
+        Stub(ServerImpl) {
+            isReady() >> ready
+        }
+    }
+
+}
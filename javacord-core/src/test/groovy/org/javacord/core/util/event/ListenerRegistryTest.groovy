@@ -0,0 +1,80 @@
+package org.javacord.core.util.event
+
+import org.javacord.api.entity.message.Message
+import org.javacord.api.listener.message.MessageCreateListener
+import org.javacord.api.listener.message.reaction.ReactionAddListener
+import spock.lang.Specification
+import spock.lang.Subject
+
+@Subject(ListenerRegistry)
+class ListenerRegistryTest extends Specification {
+
+    def registry = new ListenerRegistry()
+
+    def 'object listeners are found by their object id after other objects were added and removed'() {
+        given:
+            def listeners = (0..<5).collect { Stub(ReactionAddListener) }
+            [30L, 10L, 50L, 20L, 40L].eachWithIndex { id, i ->
+                registry.addObjectListener(Message, id, ReactionAddListener, listeners[i], { Stub(ListenerManagerImpl) })
+            }
+
+        when:
+            registry.removeObjectListener(Message, 50L, ReactionAddListener, listeners[2])
+            registry.removeObjectListeners(Message, 10L)
+
+        then:
+            registry.getObjectListeners(Message, 30L, ReactionAddListener) == [listeners[0]]
+            registry.getObjectListeners(Message, 20L, ReactionAddListener) == [listeners[3]]
+            registry.getObjectListeners(Message, 40L, ReactionAddListener) == [listeners[4]]
+            registry.getObjectListeners(Message, 10L, ReactionAddListener).empty
+            registry.getObjectListeners(Message, 50L, ReactionAddListener).empty
+            registry.getObjectListeners(Message, 30L, MessageCreateListener).empty
+    }
+
+    def 'listener lookups return the same snapshot until the listeners change'() {
+        given:
+            def first = Stub(MessageCreateListener)
+            def second = Stub(MessageCreateListener)
+            registry.addListener(MessageCreateListener, first, { Stub(ListenerManagerImpl) })
+
+        when:
+            def snapshot = registry.getListeners(MessageCreateListener)
+
+        then:
+            registry.getListeners(MessageCreateListener).is(snapshot)
+
+        when:
+            registry.addListener(MessageCreateListener, second, { Stub(ListenerManagerImpl) })
+
+        then:
+            snapshot == [first]
+            registry.getListeners(MessageCreateListener) == [first, second]
+    }
+
+    def 'a listener class has listeners while any object or the api has one'() {
+        given:
+            def objectListener = Stub(ReactionAddListener)
+            def globalListener = Stub(ReactionAddListener)
+
+        when:
+            registry.addObjectListener(Message, 1L, ReactionAddListener, objectListener, { Stub(ListenerManagerImpl) })
+            registry.addListener(ReactionAddListener, globalListener, { Stub(ListenerManagerImpl) })
+
+        then:
+            registry.hasListeners(ReactionAddListener)
+            !registry.hasListeners(MessageCreateListener)
+
+        when:
+            registry.removeListener(ReactionAddListener, globalListener)
+
+        then:
+            registry.hasListeners(ReactionAddListener)
+
+        when:
+            registry.removeObjectListeners(Message, 1L)
+
+        then:
+            !registry.hasListeners(ReactionAddListener)
+    }
+
+}
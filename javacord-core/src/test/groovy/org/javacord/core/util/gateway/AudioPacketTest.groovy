@@ -0,0 +1,32 @@
+package org.javacord.core.util.gateway
+
+import com.codahale.xsalsa20poly1305.SecretBox
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.ByteBuffer
+
+@Subject(AudioPacket)
+class AudioPacketTest extends Specification {
+
+    def 'reused packets are encrypted like the secret box does it'() {
+        given:
+            byte[] key = (0..<32).collect { it as byte } as byte[]
+            def packet = new AudioPacket(42)
+            packet.secretKey = key
+
+        expect:
+            [[1, 2, 3] as byte[], new byte[2000], [4, 5] as byte[]].eachWithIndex { byte[] frame, int i ->
+                def buffer = packet.prepare(frame, i as char, i * 960)
+                byte[] sent = new byte[buffer.remaining()]
+                buffer.get(sent)
+                byte[] header = ByteBuffer.allocate(12)
+                        .put(0, 0x80 as byte).put(1, 0x78 as byte)
+                        .putChar(2, i as char).putInt(4, i * 960).putInt(8, 42)
+                        .array()
+                byte[] nonce = Arrays.copyOf(header, 24)
+                assert sent == ((header as List) + (new SecretBox(key).seal(nonce, frame) as List)) as byte[]
+            }
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.javacord.core.util.gateway
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Subject
+
+@Subject(GatewayPacket)
+class GatewayPacketTest extends Specification {
+
+    @Shared
+    def objectMapper = new ObjectMapper()
+
+    def 'the envelope of a dispatch packet is read'() {
+        when:
+            def packet = read('{"t":"MESSAGE_CREATE","s":42,"op":0,"d":{"id":"1"}}') { true }
+
+        then:
+            packet.op == 0
+            packet.sequence == 42
+            packet.type == 'MESSAGE_CREATE'
+            packet.data.get('id').asText() == '1'
+            !packet.dataSkipped
+    }
+
+    def 'the payload of a dispatch packet that is not required is skipped'() {
+        when:
+            def packet = read('{"t":"TYPING_START","s":43,"op":0,"d":{"user_id":"1","nested":[{"a":1}]}}') { false }
+
+        then:
+            packet.sequence == 43
+            packet.type == 'TYPING_START'
+            packet.data == null
+            packet.dataSkipped
+    }
+
+    def 'the payload is read if it is received before the envelope'() {
+        when:
+            def packet = read('{"d":{"id":"1"},"op":0,"s":44,"t":"TYPING_START"}') { false }
+
+        then:
+            packet.data.get('id').asText() == '1'
+            !packet.dataSkipped
+    }
+
+    def 'the payload of non-dispatch packets is always read'() {
+        when:
+            def packet = read('{"t":null,"s":null,"op":10,"d":{"heartbeat_interval":41250}}') { false }
+
+        then:
+            packet.op == 10
+            packet.sequence == -1
+            packet.type == null
+            packet.data.get('heartbeat_interval').asInt() == 41250
+    }
+
+    private GatewayPacket read(String json, Closure<Boolean> dataRequired) {
+        def parser = objectMapper.factory.createParser(json)
+        try {
+            GatewayPacket.read(parser, dataRequired)
+        } finally {
+            parser.close()
+        }
+    }
+
+}
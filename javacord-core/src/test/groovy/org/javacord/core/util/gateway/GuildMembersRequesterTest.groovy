@@ -0,0 +1,179 @@
+package org.javacord.core.util.gateway
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.javacord.api.entity.DiscordClient
+import org.javacord.api.entity.intent.Intent
+import org.javacord.api.entity.user.UserStatus
+import org.javacord.core.DiscordApiImpl
+import org.javacord.core.entity.server.ServerImpl
+import org.javacord.core.entity.user.UserImpl
+import org.javacord.core.util.handler.guild.GuildMembersChunkHandler
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+
+@Subject(GuildMembersRequester)
+class GuildMembersRequesterTest extends Specification {
+
+    @AutoCleanup('disconnect')
+    def api = createApi([Intent.GUILD_MEMBERS] as Set)
+
+    def requester = new GuildMembersRequester(api, {})
+
+    def 'all members of a server are only requested once'() {
+        when:
+            def first = requester.requestAllMembers(100, false)
+            def second = requester.requestAllMembers(100, false)
+
+        then:
+            first.is(second)
+            requester.getPendingRequest('1').get().forAllMembers
+            !requester.getPendingRequest('2').isPresent()
+    }
+
+    def 'a request is completed once all of its chunks were received'() {
+        given:
+            def future = requester.requestAllMembers(100, false)
+            def request = requester.getPendingRequest('1').get()
+
+        expect:
+            !request.receiveChunk(1, 3)
+            !request.receiveChunk(1, 3)
+            !request.receiveChunk(0, 3)
+            request.receiveChunk(2, 3)
+
+        when:
+            request.future.complete(null)
+
+        then:
+            future.done
+            !requester.getPendingRequest('1').isPresent()
+            requester.awaitPendingRequests(Duration.ofMillis(10))
+    }
+
+    def 'user ids are split into requests of at most 100 users'() {
+        when:
+            requester.requestMembers(100, (1L..250L).toList(), false)
+
+        then:
+            (1..3).collect { requester.getPendingRequest(it as String).get().userIds.size() } == [100, 100, 50]
+            !requester.getPendingRequest('4').isPresent()
+    }
+
+    def 'the packet of a request contains its nonce and the presence setting'() {
+        given:
+            def presencesApi = createApi([Intent.GUILD_MEMBERS, Intent.GUILD_PRESENCES] as Set)
+            def presencesRequester = new GuildMembersRequester(presencesApi, {})
+
+        when:
+            requester.requestMembers(100, [2L, 3L], true)
+            presencesRequester.requestAllMembers(100, true)
+            def packet = requester.getPendingRequest('1').get().toPacket()
+            def presencesPacket = presencesRequester.getPendingRequest('1').get().toPacket()
+
+        then:
+            packet.get('op').asInt() == GatewayOpcode.REQUEST_GUILD_MEMBERS.code
+            packet.get('d').get('guild_id').asText() == '100'
+            packet.get('d').get('user_ids')*.asText() == ['2', '3']
+            packet.get('d').get('nonce').asText() == '1'
+            // presences are not requested without the intent
+            !packet.get('d').get('presences').asBoolean()
+            !packet.get('d').has('query')
+
+        and:
+            presencesPacket.get('d').get('presences').asBoolean()
+            presencesPacket.get('d').get('query').asText() == ''
+            presencesPacket.get('d').get('limit').asInt() == 0
+
+        cleanup:
+            presencesApi.disconnect()
+    }
+
+    def 'waiting for pending requests stops if they do not progress'() {
+        given:
+            requester.requestAllMembers(100, false)
+
+        expect:
+            !requester.awaitPendingRequests(Duration.ofMillis(50))
+    }
+
+    def 'pending requests of a removed server fail'() {
+        given:
+            def removedServer = requester.requestAllMembers(100, false)
+            def otherServer = requester.requestMembers(200, [2L], false)
+            def cause = new IllegalStateException()
+
+        when:
+            requester.failPendingRequests(100, cause)
+
+        then:
+            removedServer.completedExceptionally
+            !otherServer.done
+            !requester.getPendingRequest('1').isPresent()
+            requester.getPendingRequest('2').isPresent()
+
+        and: 'all members of the server can be requested again'
+            !requester.requestAllMembers(100, false).is(removedServer)
+    }
+
+    def 'all pending requests fail if the connection is closed'() {
+        given:
+            def allMembers = requester.requestAllMembers(100, false)
+            def someMembers = requester.requestMembers(200, (1L..150L).toList(), false)
+
+        when:
+            requester.failPendingRequests(new IllegalStateException())
+
+        then:
+            allMembers.completedExceptionally
+            someMembers.completedExceptionally
+            (1..3).every { !requester.getPendingRequest(it as String).isPresent() }
+            requester.awaitPendingRequests(Duration.ofMillis(10))
+    }
+
+    def 'the presences of a requested chunk are applied to the cache'() {
+        given:
+            def mapper = new ObjectMapper()
+            api.yourself = new UserImpl(api, 1, 'bot', '0001', null, 0, true)
+            new ServerImpl(api, mapper.readTree('''{
+                    "id": "100", "name": "server", "region": "europe", "large": true, "member_count": 2,
+                    "owner_id": "1", "verification_level": 0, "explicit_content_filter": 0,
+                    "default_message_notifications": 0, "mfa_level": 0, "premium_tier": 0, "nsfw_level": 0,
+                    "preferred_locale": "en-US", "features": [], "channels": [], "members": [],
+                    "roles": [{"id": "100", "name": "@everyone", "position": 0, "color": 0, "hoist": false,
+                               "mentionable": false, "permissions": "0", "managed": false}]
+                }'''))
+            api.@websocketAdapter = Stub(DiscordWebSocketAdapter) {
+                getGuildMembersRequester() >> requester
+            }
+            def future = requester.requestMembers(100, [2L], true)
+
+        when:
+            new GuildMembersChunkHandler(api).handle(mapper.readTree('''{
+                    "guild_id": "100", "nonce": "1", "chunk_index": 0, "chunk_count": 1,
+                    "members": [{"user": {"id": "2", "username": "user2", "discriminator": "0002"},
+                                 "roles": [], "joined_at": "2020-01-01T00:00:00.000000+00:00"}],
+                    "presences": [{"user": {"id": "2"}, "status": "dnd", "activities": [],
+                                   "client_status": {"mobile": "dnd"}}]
+                }'''))
+            def user = api.getCachedUserById(2).get()
+
+        then:
+            future.done
+            user.status == UserStatus.DO_NOT_DISTURB
+            user.getStatusOnClient(DiscordClient.MOBILE) == UserStatus.DO_NOT_DISTURB
+            user.getStatusOnClient(DiscordClient.DESKTOP) == UserStatus.OFFLINE
+
+        cleanup:
+            // the api is disconnected without a connection
+            api.@websocketAdapter = null
+    }
+
+    def createApi(Set<Intent> intents) {
+        new DiscordApiImpl(null, 0, 1, intents, false, false, false, null, null, null, null, null, false, null,
+                null, [:], [], true, true, false, false, null, null, null, null, null)
+    }
+
+}
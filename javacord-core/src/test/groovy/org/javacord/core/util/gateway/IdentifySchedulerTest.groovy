@@ -0,0 +1,190 @@
+package org.javacord.core.util.gateway
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.javacord.core.DiscordApiImpl
+import org.javacord.core.util.concurrent.ThreadPoolImpl
+import org.javacord.core.util.ratelimit.RatelimitManager
+import org.javacord.core.util.rest.RestRequest
+import org.javacord.core.util.rest.RestRequestResult
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.lang.Timeout
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@Subject(IdentifyScheduler)
+@Timeout(30)
+class IdentifySchedulerTest extends Specification {
+
+    def scheduler = new IdentifyScheduler()
+
+    @AutoCleanup('shutdown')
+    def threadPool = new ThreadPoolImpl()
+
+    def 'shards of different buckets identify at the same time and use the session budget'() {
+        given:
+            scheduler.updateSessionStartLimit(sessionStartLimit(10, 60000, 4))
+
+        when:
+            (0..<4).each { shard ->
+                scheduler.requestQuota(createApi(shard, null))
+            }
+
+        then:
+            scheduler.maxConcurrency == 4
+            scheduler.remainingSessionStarts == 6
+    }
+
+    def 'a shard waiting for its bucket does not block the shards of other buckets'() {
+        given:
+            scheduler.updateSessionStartLimit(sessionStartLimit(10, 60000, 3))
+            scheduler.requestQuota(createApi(0, null))
+
+        when:
+            def sameBucket = identifyAsync(3)
+            sleep(200)
+            scheduler.requestQuota(createApi(1, null))
+            scheduler.requestQuota(createApi(2, null))
+
+        then:
+            !sameBucket.done
+            scheduler.remainingSessionStarts == 6
+
+        cleanup:
+            sameBucket?.cancel(true)
+    }
+
+    def 'shards of the same bucket identify 5.5 seconds apart'() {
+        given:
+            scheduler.updateSessionStartLimit(sessionStartLimit(10, 60000, 2))
+
+        when:
+            def start = System.nanoTime()
+            scheduler.requestQuota(createApi(0, null))
+            scheduler.requestQuota(createApi(1, null))
+            def firstBucketDone = System.nanoTime()
+            scheduler.requestQuota(createApi(2, null))
+            def end = System.nanoTime()
+
+        then:
+            TimeUnit.NANOSECONDS.toMillis(firstBucketDone - start) < 1000
+            TimeUnit.NANOSECONDS.toMillis(end - start) >= 5500
+    }
+
+    def 'shards wait for the reset if the session budget is exhausted'() {
+        given:
+            scheduler.updateSessionStartLimit(sessionStartLimit(0, 500, 1))
+            def requests = new AtomicInteger()
+
+        when:
+            def start = System.nanoTime()
+            def identify = identifyAsync(0) {
+                requests.incrementAndGet()
+                it.result.complete(Stub(RestRequestResult) {
+                    getJsonBody() >> gatewayBot(5, 60000, 1)
+                })
+            }
+            sleep(100)
+
+        then: 'the other methods do not block while a shard waits'
+            scheduler.remainingSessionStarts == 0
+            !identify.done
+
+        when:
+            identify.get()
+
+        then:
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 500
+            requests.get() == 1
+            scheduler.remainingSessionStarts == 4
+    }
+
+    def 'waiting for the reset of the session budget can be interrupted'() {
+        given:
+            scheduler.updateSessionStartLimit(sessionStartLimit(0, 60000, 1))
+            def identify = identifyAsync(0)
+            sleep(100)
+
+        when:
+            identify.cancel(true)
+            threadPool.executorService.shutdown()
+
+        then:
+            threadPool.executorService.awaitTermination(1, TimeUnit.SECONDS)
+    }
+
+    def 'shards identify one at a time if the session start limit cannot be requested'() {
+        given:
+            def requests = new AtomicInteger()
+            def api = createApi(1) {
+                requests.incrementAndGet()
+                it.result.completeExceptionally(new IllegalStateException())
+            }
+
+        when:
+            scheduler.requestQuota(api)
+
+        then:
+            requests.get() == 1
+            scheduler.maxConcurrency == 1
+            scheduler.remainingSessionStarts == -1
+    }
+
+    def 'shards which identify at the same time share the request of the session start limit'() {
+        given:
+            def requests = new AtomicInteger()
+            def response = new CompletableFuture<RestRequestResult>()
+            def onRequest = { RestRequest request ->
+                requests.incrementAndGet()
+                response.thenAccept { request.result.complete(it) }
+            }
+
+        when:
+            def identifies = (0..<2).collect { identifyAsync(it, onRequest) }
+            sleep(200)
+            response.complete(Stub(RestRequestResult) {
+                getJsonBody() >> gatewayBot(10, 60000, 2)
+            })
+            identifies*.get()
+
+        then:
+            requests.get() == 1
+            scheduler.remainingSessionStarts == 8
+    }
+
+    def identifyAsync(int shard, Closure onRequest = null) {
+        def api = createApi(shard, onRequest)
+        threadPool.executorService.submit {
+            try {
+                scheduler.requestQuota(api)
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    def createApi(int shard, Closure onRequest) {
+        RatelimitManager ratelimitManager = Stub {
+            queueRequest(_) >> { RestRequest request -> onRequest(request) }
+        }
+        Stub(DiscordApiImpl) {
+            getCurrentShard() >> shard
+            getThreadPool() >> threadPool
+            getRatelimitManager() >> ratelimitManager
+        }
+    }
+
+    static sessionStartLimit(int remaining, long resetAfter, int maxConcurrency) {
+        new ObjectMapper().readTree(/{"total": 1000, "remaining": $remaining, "reset_after": $resetAfter, / +
+                /"max_concurrency": $maxConcurrency}/)
+    }
+
+    static gatewayBot(int remaining, long resetAfter, int maxConcurrency) {
+        def gatewayBot = new ObjectMapper().createObjectNode().put('url', 'wss://gateway.discord.gg')
+        gatewayBot.set('session_start_limit', sessionStartLimit(remaining, resetAfter, maxConcurrency))
+        gatewayBot
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.javacord.core.util.gateway
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.javacord.core.DiscordApiImpl
+import org.javacord.core.util.concurrent.ThreadPoolImpl
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.lang.Timeout
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@Subject(PacketHandler)
+@Timeout(30)
+class PacketHandlerTest extends Specification {
+
+    @AutoCleanup('shutdown')
+    def threadPool = new ThreadPoolImpl(null, 0, false, 0, 2)
+
+    def objectMapper = new ObjectMapper()
+
+    def 'packets without a server of different shards are handled in different lanes'() {
+        given:
+            def handlerStarted = new CountDownLatch(1)
+            def releaseHandler = new CountDownLatch(1)
+            def handled = new CompletableFuture<Boolean>()
+            def blockingHandler = packetHandler(0) {
+                handlerStarted.countDown()
+                releaseHandler.await()
+            }
+            def otherShardHandler = packetHandler(1) { handled.complete(true) }
+
+        when:
+            blockingHandler.handlePacket(objectMapper.createObjectNode())
+            handlerStarted.await()
+            otherShardHandler.handlePacket(objectMapper.createObjectNode())
+
+        then:
+            handled.get(5, TimeUnit.SECONDS)
+
+        and: 'the global lanes of the shards do not collide with each other or with servers'
+            blockingHandler.getLaneKey(objectMapper.createObjectNode()) == -1
+            otherShardHandler.getLaneKey(objectMapper.createObjectNode()) == -2
+            otherShardHandler.getLaneKey(objectMapper.createObjectNode().put('guild_id', '1')) == 1
+
+        cleanup:
+            releaseHandler.countDown()
+    }
+
+    def 'packets without a server of the same shard are handled in order'() {
+        given:
+            def calls = Collections.synchronizedList([])
+            def handler = packetHandler(0) { JsonNode packet -> calls << packet.get('n').asInt() }
+            def handled = new CompletableFuture<Boolean>()
+            def lastHandler = packetHandler(0) { handled.complete(true) }
+
+        when:
+            (0..<100).each { handler.handlePacket(objectMapper.createObjectNode().put('n', it)) }
+            lastHandler.handlePacket(objectMapper.createObjectNode())
+            handled.get(5, TimeUnit.SECONDS)
+
+        then:
+            calls == (0..<100).toList()
+    }
+
+    def packetHandler(int shard, Closure handle) {
+        DiscordApiImpl api = Stub {
+            getThreadPool() >> threadPool
+            getCurrentShard() >> shard
+        }
+        new PacketHandler(api, true, 'TEST') {
+            @Override
+            protected void handle(JsonNode packet) {
+                handle.call(packet)
+            }
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.javacord.core.util.gateway
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.util.zip.Deflater
+
+@Subject(ZlibStreamDecompressor)
+class ZlibStreamDecompressorTest extends Specification {
+
+    def deflater = new Deflater()
+
+    def cleanup() {
+        deflater.end()
+    }
+
+    def 'messages sharing one zlib context are decompressed one after another'() {
+        given:
+            def decompressor = new ZlibStreamDecompressor()
+
+        expect:
+            asString(decompressor.decompress(compress('{"op":10}'))) == '{"op":10}'
+            asString(decompressor.decompress(compress('{"op":11}'))) == '{"op":11}'
+            asString(decompressor.decompress(compress('{"op":0,"t":"READY"}'))) == '{"op":0,"t":"READY"}'
+
+        cleanup:
+            decompressor.close()
+    }
+
+    def 'a message split across multiple frames is only returned once the sync flush suffix was received'() {
+        given:
+            def decompressor = new ZlibStreamDecompressor()
+            def compressed = compress('{"op":0,"d":"' + ('x' * 100_000) + '"}')
+            def firstFrame = Arrays.copyOfRange(compressed, 0, compressed.length.intdiv(2))
+            def secondFrame = Arrays.copyOfRange(compressed, compressed.length.intdiv(2), compressed.length)
+
+        expect:
+            decompressor.decompress(firstFrame) == null
+            asString(decompressor.decompress(secondFrame)) == '{"op":0,"d":"' + ('x' * 100_000) + '"}'
+
+        cleanup:
+            decompressor.close()
+    }
+
+    def 'using a closed decompressor throws an exception'() {
+        given:
+            def decompressor = new ZlibStreamDecompressor()
+            decompressor.close()
+
+        when:
+            decompressor.decompress(compress('{"op":10}'))
+
+        then:
+            thrown(IllegalStateException)
+    }
+
+    private static String asString(ByteBuffer buffer) {
+        StandardCharsets.UTF_8.decode(buffer).toString()
+    }
+
+    private byte[] compress(String message) {
+        deflater.input = message.getBytes(StandardCharsets.UTF_8)
+        def output = new ByteArrayOutputStream()
+        def buffer = new byte[1024]
+        int count = buffer.length
+        while (count == buffer.length) {
+            count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH)
+            output.write(buffer, 0, count)
+        }
+        output.toByteArray()
+    }
+
+}
@@ -1,24 +1,35 @@
 package org.javacord.core.util.ratelimit
 
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
 import org.apache.logging.log4j.test.appender.ListAppender
 import org.javacord.api.exception.DiscordException
 import org.javacord.core.DiscordApiImpl
 import org.javacord.core.util.concurrent.ThreadPoolImpl
+import org.javacord.core.util.rest.RestEndpoint
+import org.javacord.core.util.rest.RestMethod
 import org.javacord.core.util.rest.RestRequest
+import org.javacord.core.util.rest.RestRequestResult
 import spock.lang.Specification
 import spock.lang.Subject
+import spock.lang.Timeout
 
+import java.util.concurrent.Callable
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.CompletionException
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.TimeUnit
 
 @Subject(RatelimitManager)
 class RatelimitManagerTest extends Specification {
 
-    def 'executeBlocking() throwing a DiscordException without result does not cause an Exception'() {
+    def 'executeAsync() failing with a DiscordException without result does not cause an Exception'() {
         given:
+            def failedResult = new CompletableFuture<RestRequestResult>()
+            failedResult.completeExceptionally(new DiscordException(null, null, null, null))
             RestRequest request = Stub {
-                executeBlocking() >> { throw new DiscordException(null, null, null, null) }
+                executeAsync() >> failedResult
                 getResult() >> new CompletableFuture<>()
             }
             def threadPool = new ThreadPoolImpl()
@@ -47,4 +58,161 @@ class RatelimitManagerTest extends Specification {
             threadPool?.shutdown()
     }
 
+    def 'routes with the same bucket hash share their ratelimit'() {
+        given:
+            def threadPool = new ThreadPoolImpl()
+            DiscordApiImpl api = Stub {
+                getThreadPool() >> threadPool
+                getTimeOffset() >> null
+                getToken() >> 'fakeBotToken'
+            }
+            def ratelimitManager = new RatelimitManager(api)
+            def response = new Response.Builder()
+                    .request(new Request.Builder().url('https://discord.com/api').build())
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message('OK')
+                    .header('X-RateLimit-Bucket', 'abcd1234')
+                    .header('X-RateLimit-Remaining', '0')
+                    .header('X-RateLimit-Reset-After', '60.000')
+                    .build()
+            RestRequestResult result = Stub {
+                getResponse() >> response
+            }
+            RestRequest messageRequest = Stub {
+                getEndpoint() >> RestEndpoint.MESSAGE
+                getMethod() >> RestMethod.POST
+                getMajorUrlParameter() >> Optional.of('123')
+                executeAsync() >> CompletableFuture.completedFuture(result)
+                getResult() >> new CompletableFuture<>()
+            }
+            RestRequest messageDeleteRequest = Stub {
+                getEndpoint() >> RestEndpoint.MESSAGE_DELETE
+                getMethod() >> RestMethod.DELETE
+                getMajorUrlParameter() >> Optional.of('123')
+                executeAsync() >> CompletableFuture.completedFuture(result)
+                getResult() >> new CompletableFuture<>()
+            }
+
+        when:
+            ratelimitManager.queueRequest messageRequest
+            ratelimitManager.queueRequest messageDeleteRequest
+            messageRequest.result.join()
+            messageDeleteRequest.result.join()
+
+        then:
+            ratelimitManager.getBucket(messageRequest).is(ratelimitManager.getBucket(messageDeleteRequest))
+            ratelimitManager.getBucket(messageRequest).key == 'abcd1234:123'
+            ratelimitManager.getBucket(messageRequest).reserve() > 50_000
+
+        cleanup:
+            threadPool?.shutdown()
+    }
+
+    @Timeout(30)
+    def 'only one request is sent for a shared bucket until the response after its reset was received'() {
+        given:
+            def threadPool = new ThreadPoolImpl()
+            DiscordApiImpl api = Stub {
+                getThreadPool() >> threadPool
+                getTimeOffset() >> null
+                getToken() >> 'fakeBotToken'
+            }
+            def ratelimitManager = new RatelimitManager(api)
+            def routes = [[RestEndpoint.MESSAGE, RestMethod.POST], [RestEndpoint.MESSAGE_DELETE, RestMethod.DELETE]]
+
+        and: 'both routes learned their bucket hash'
+            routes.collect { endpoint, method ->
+                request(endpoint, method) {
+                    CompletableFuture.completedFuture(result('abcd1234', '0', '0.200'))
+                }
+            }.each {
+                ratelimitManager.queueRequest it
+                it.result.join()
+            }
+            sleep(300)
+
+        and: 'two requests of different routes with the same bucket hash after the reset'
+            def executed = new CopyOnWriteArrayList<RestEndpoint>()
+            def responses = [(RestEndpoint.MESSAGE): new CompletableFuture<RestRequestResult>(),
+                             (RestEndpoint.MESSAGE_DELETE): new CompletableFuture<RestRequestResult>()]
+            def requests = routes.collect { endpoint, method ->
+                request(endpoint, method) {
+                    executed << endpoint
+                    responses[endpoint]
+                }
+            }
+
+        when:
+            requests.each { ratelimitManager.queueRequest it }
+            sleep(300)
+
+        then: 'only one of them probes the bucket'
+            executed.size() == 1
+
+        when:
+            responses[executed[0]].complete(result('abcd1234', '1', '60.000'))
+            def deadline = System.currentTimeMillis() + 5000
+            while (executed.size() < 2 && System.currentTimeMillis() < deadline) {
+                sleep(10)
+            }
+            responses[executed[1]].complete(result('abcd1234', '0', '60.000'))
+            requests*.result*.get(5, TimeUnit.SECONDS)
+
+        then: 'the other one is sent once the response tells the remaining requests'
+            executed.toSet() == responses.keySet()
+
+        cleanup:
+            threadPool?.shutdown()
+    }
+
+    def 'results are processed while all threads of a bounded central executor service wait for them'() {
+        given:
+            def threadPool = new ThreadPoolImpl(null, 1, false)
+            RatelimitManager ratelimitManager = Stub()
+            DiscordApiImpl api = Stub {
+                getThreadPool() >> threadPool
+                getRatelimitManager() >> ratelimitManager
+            }
+            def request = new RestRequest<String>(api, RestMethod.GET, RestEndpoint.CURRENT_USER)
+            RestRequestResult result = Stub()
+
+        when:
+            // a listener which blocks the only thread of the central executor service until the request is done
+            def listener = threadPool.executorService.submit({ request.execute { 'done' }.join() } as Callable)
+            request.result.complete(result)
+
+        then:
+            listener.get(10, TimeUnit.SECONDS) == 'done'
+
+        cleanup:
+            threadPool?.shutdown()
+    }
+
+    RestRequest request(RestEndpoint endpoint, RestMethod method, Closure<CompletableFuture> execution) {
+        def result = new CompletableFuture<RestRequestResult>()
+        Stub(RestRequest) {
+            getEndpoint() >> endpoint
+            getMethod() >> method
+            getMajorUrlParameter() >> Optional.of('123')
+            executeAsync() >> { execution() }
+            getResult() >> result
+        }
+    }
+
+    RestRequestResult result(String bucketHash, String remaining, String resetAfter) {
+        def response = new Response.Builder()
+                .request(new Request.Builder().url('https://discord.com/api').build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message('OK')
+                .header('X-RateLimit-Bucket', bucketHash)
+                .header('X-RateLimit-Remaining', remaining)
+                .header('X-RateLimit-Reset-After', resetAfter)
+                .build()
+        Stub(RestRequestResult) {
+            getResponse() >> response
+        }
+    }
+
 }